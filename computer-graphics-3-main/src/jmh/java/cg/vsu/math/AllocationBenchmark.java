@@ -0,0 +1,62 @@
+package cg.vsu.math;
+
+import cg.vsu.model.SyntheticMeshes;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A frame-like inner loop over {@code COUNT} vectors: the cross product with the next vector, then the product
+ * with a {@link Matrix3f} through {@link Matrix3f#multiplicationByVector(Vector3f, float)}, handed on to code the
+ * JIT does not inline (a {@link Blackhole}). Once a vector escapes like this, escape analysis cannot remove it, so
+ * {@code allocating} creates a vector per step, while {@code into} writes both results into a vector of the caller
+ * through the non-allocating overloads.
+ * <p>
+ * Run with {@code -prof gc}: {@code gc.alloc.rate.norm} should drop from about 24 B per step to 0 B/op.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AllocationBenchmark {
+    private static final int COUNT = 1024;
+
+    private Vector3f[] vectors;
+    private Matrix3f matrix;
+    private final Vector3f out = new Vector3f();
+
+    @Setup
+    public void generate() {
+        vectors = SyntheticMeshes.randomVectors(COUNT + 1);
+        matrix = new Matrix3f(new float[][]{{1, 0.5f, 0}, {-0.5f, 1, 0.25f}, {0, 0.25f, 1}});
+    }
+
+    @Benchmark
+    public void allocating(Blackhole blackhole) {
+        for (int i = 0; i < COUNT; i++) {
+            final Vector3f product = GeometryUtils.vectorProduct(vectors[i], vectors[i + 1]);
+            blackhole.consume(matrix.multiplicationByVector(product, 2));
+        }
+    }
+
+    @Benchmark
+    public void into(Blackhole blackhole) {
+        final Vector3f out = this.out;
+        for (int i = 0; i < COUNT; i++) {
+            GeometryUtils.vectorProduct(vectors[i], vectors[i + 1], out);
+            blackhole.consume(matrix.multiplicationByVector(out, 2, out));
+        }
+    }
+}
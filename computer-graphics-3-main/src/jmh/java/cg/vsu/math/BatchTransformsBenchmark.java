@@ -0,0 +1,99 @@
+package cg.vsu.math;
+
+import cg.vsu.math.simd.SimdTransforms;
+import cg.vsu.model.SyntheticMeshes;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Transforming {@code count} points by one matrix: per point through {@link Matrix4f#multiplicationByVector}, as
+ * callers had to before, against the scalar {@link BatchTransforms} and the vectorized {@link SimdTransforms}, over
+ * interleaved and over separate coordinate arrays.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"--add-modules", "jdk.incubator.vector"})
+public class BatchTransformsBenchmark {
+
+    @Param({"1000", "1000000"})
+    public int count;
+
+    private Matrix4f matrix;
+    private FlatMatrix4f flatMatrix;
+    private Vector3f[] vectors;
+    private float[] positions;
+    private float[] transformed;
+    private float[] x;
+    private float[] y;
+    private float[] z;
+    private float[] outX;
+    private float[] outY;
+    private float[] outZ;
+
+    @Setup
+    public void generate() {
+        flatMatrix = new FlatMatrix4f().translationRotationScale(1, 2, 3, 0.5f, 0.5f, 0.5f, 0.5f, 2, 2, 2);
+        matrix = flatMatrix.toMatrix4f();
+        vectors = SyntheticMeshes.randomVectors(count);
+        positions = new float[3 * count];
+        transformed = new float[3 * count];
+        x = new float[count];
+        y = new float[count];
+        z = new float[count];
+        outX = new float[count];
+        outY = new float[count];
+        outZ = new float[count];
+        for (int i = 0; i < count; i++) {
+            positions[3 * i] = x[i] = vectors[i].x;
+            positions[3 * i + 1] = y[i] = vectors[i].y;
+            positions[3 * i + 2] = z[i] = vectors[i].z;
+        }
+    }
+
+    @Benchmark
+    public void perVertexMatrix4f(Blackhole blackhole) {
+        for (Vector3f vector : vectors) {
+            final Matrix4f column = new Matrix4f(new float[][]{{vector.x}, {vector.y}, {vector.z}, {1}});
+            blackhole.consume(matrix.multiplicationByVector(matrix, column));
+        }
+    }
+
+    @Benchmark
+    public float[] scalarInterleaved() {
+        BatchTransforms.transformPositions(flatMatrix, positions, 0, transformed, 0, count);
+        return transformed;
+    }
+
+    @Benchmark
+    public float[] scalarSeparate() {
+        BatchTransforms.transformPositions(flatMatrix, x, y, z, outX, outY, outZ, count);
+        return outZ;
+    }
+
+    @Benchmark
+    public float[] simdInterleaved() {
+        SimdTransforms.transformPositions(flatMatrix, positions, 0, transformed, 0, count);
+        return transformed;
+    }
+
+    @Benchmark
+    public float[] simdSeparate() {
+        SimdTransforms.transformPositions(flatMatrix, x, y, z, outX, outY, outZ, count);
+        return outZ;
+    }
+}
@@ -0,0 +1,76 @@
+package cg.vsu.math;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of the per-object model-view matrices of a frame: the float product of {@link FlatMatrix4f}, which jitters
+ * far from the origin, against the double product rounded to floats by {@link Matrix4d#mulInto} and the
+ * {@link CameraRelative#model} and {@link CameraRelative#view} pair. All three write into existing matrices.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CameraRelativeBenchmark {
+    private static final int OBJECTS = 1000;
+
+    private final Vector3d eye = new Vector3d(300_000, 1_000, -200_000);
+    private final Matrix4d view = new Matrix4d();
+    private final FlatMatrix4f flatView = new FlatMatrix4f();
+    private final Matrix4d[] models = new Matrix4d[OBJECTS];
+    private final FlatMatrix4f[] flatModels = new FlatMatrix4f[OBJECTS];
+    private final FlatMatrix4f[] modelViews = new FlatMatrix4f[OBJECTS];
+
+    @Setup
+    public void generate() {
+        view.lookAt(eye, new Vector3d(eye).add(10, -1, -10), new Vector3d(0, 1, 0)).toFloat(flatView);
+        final Random random = new Random(1);
+        final Quaternion rotation = new Quaternion();
+        final Vector3f scale = new Vector3f(1, 1, 1);
+        for (int i = 0; i < OBJECTS; i++) {
+            rotation.setFromAxisAngle(0, 1, 0, random.nextFloat());
+            final Vector3d position = new Vector3d(eye).add(1000 * random.nextDouble(), 0, -1000 * random.nextDouble());
+            models[i] = new Matrix4d().translationRotationScale(position, rotation, scale);
+            flatModels[i] = models[i].toFloat(new FlatMatrix4f());
+            modelViews[i] = new FlatMatrix4f();
+        }
+    }
+
+    @Benchmark
+    public FlatMatrix4f[] floatModelView() {
+        for (int i = 0; i < OBJECTS; i++) {
+            FlatMatrix4f.mulInto(flatView, flatModels[i], modelViews[i]);
+        }
+        return modelViews;
+    }
+
+    @Benchmark
+    public FlatMatrix4f[] doubleModelView() {
+        for (int i = 0; i < OBJECTS; i++) {
+            Matrix4d.mulInto(view, models[i], modelViews[i]);
+        }
+        return modelViews;
+    }
+
+    @Benchmark
+    public FlatMatrix4f[] cameraRelativeModel() {
+        for (int i = 0; i < OBJECTS; i++) {
+            CameraRelative.model(models[i], eye, modelViews[i]);
+        }
+        return modelViews;
+    }
+}
@@ -0,0 +1,116 @@
+package cg.vsu.math;
+
+import cg.vsu.model.SyntheticMeshes;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of one {@link Matrix4f#mul} and of composing a chain of transforms, e.g. model, view and projection,
+ * against the same operations on {@link FlatMatrix4f}, which write into existing matrices. Run with
+ * {@code -prof gc}: the {@code flat} benchmarks should report 0 B/op.
+ * <p>
+ * The {@code inverse}, {@code affineInverse} and {@code normalMatrix} benchmarks compare the allocating
+ * {@link Matrix4f#inverse()} with the overloads that write into an existing matrix, which should also report
+ * 0 B/op.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class Matrix4fBenchmark {
+    private static final int CHAIN_LENGTH = 16;
+
+    private Matrix4f[] matrices;
+    private FlatMatrix4f[] flatMatrices;
+    private final FlatMatrix4f result = new FlatMatrix4f();
+    private Matrix4f affine;
+    private final Matrix4f inverse = new Matrix4f();
+    private final Matrix3f normalMatrix = new Matrix3f();
+
+    @Setup
+    public void generate() {
+        matrices = SyntheticMeshes.randomMatrices(CHAIN_LENGTH);
+        flatMatrices = new FlatMatrix4f[CHAIN_LENGTH];
+        for (int i = 0; i < CHAIN_LENGTH; i++) {
+            flatMatrices[i] = new FlatMatrix4f(matrices[i]);
+        }
+        affine = new FlatMatrix4f().translationRotationScale(1, 2, 3, 0.5f, 0.5f, 0.5f, 0.5f, 1, 2, 3).toMatrix4f();
+    }
+
+    @Benchmark
+    public Matrix4f mul() {
+        return matrices[0].mul(matrices[1]);
+    }
+
+    @Benchmark
+    public Matrix4f mulChain() {
+        Matrix4f result = matrices[0];
+        for (int i = 1; i < CHAIN_LENGTH; i++) {
+            result = result.mul(matrices[i]);
+        }
+        return result;
+    }
+
+    @Benchmark
+    public FlatMatrix4f flatMul() {
+        return FlatMatrix4f.mulInto(flatMatrices[0], flatMatrices[1], result);
+    }
+
+    @Benchmark
+    public FlatMatrix4f flatMulChain() {
+        final FlatMatrix4f result = this.result.set(flatMatrices[0]);
+        for (int i = 1; i < CHAIN_LENGTH; i++) {
+            result.mulLocal(flatMatrices[i]);
+        }
+        return result;
+    }
+
+    @Benchmark
+    public FlatMatrix4f flatInvert() {
+        final FlatMatrix4f result = this.result.set(flatMatrices[0]);
+        result.invert();
+        return result;
+    }
+
+    @Benchmark
+    public FlatMatrix4f flatInvertAffine() {
+        final FlatMatrix4f result = this.result.translationRotationScale(1, 2, 3, 0.5f, 0.5f, 0.5f, 0.5f, 1, 2, 3);
+        result.invertAffine();
+        return result;
+    }
+
+    @Benchmark
+    public Matrix4f inverse() {
+        return matrices[0].inverse();
+    }
+
+    @Benchmark
+    public Matrix4f inverseInto() {
+        matrices[0].inverse(inverse);
+        return inverse;
+    }
+
+    @Benchmark
+    public Matrix4f affineInverse() {
+        affine.affineInverse(inverse);
+        return inverse;
+    }
+
+    @Benchmark
+    public Matrix3f normalMatrix() {
+        affine.normalMatrix(normalMatrix);
+        return normalMatrix;
+    }
+}
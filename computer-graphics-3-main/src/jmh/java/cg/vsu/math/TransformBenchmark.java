@@ -0,0 +1,104 @@
+package cg.vsu.math;
+
+import cg.vsu.model.SyntheticMeshes;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Propagating world transforms through a random scene graph of {@code nodes} nodes, parents before children:
+ * {@code world[i] = world[parent[i]] * local[i]} with {@link Matrix4f}, {@link FlatMatrix4f} and
+ * {@link Transform}. {@code transformsToMatrices} also builds the matrix of every node, as a renderer would for
+ * the nodes it draws.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TransformBenchmark {
+
+    @Param({"1000", "100000"})
+    public int nodes;
+
+    private int[] parents;
+    private Transform[] localTransforms;
+    private Transform[] worldTransforms;
+    private FlatMatrix4f[] localFlat;
+    private FlatMatrix4f[] worldFlat;
+    private Matrix4f[] localMatrices;
+    private Matrix4f[] worldMatrices;
+
+    @Setup
+    public void generate() {
+        final Random random = new Random(SyntheticMeshes.SEED);
+        parents = new int[nodes];
+        localTransforms = new Transform[nodes];
+        worldTransforms = new Transform[nodes];
+        localFlat = new FlatMatrix4f[nodes];
+        worldFlat = new FlatMatrix4f[nodes];
+        localMatrices = new Matrix4f[nodes];
+        worldMatrices = new Matrix4f[nodes];
+        for (int i = 0; i < nodes; i++) {
+            parents[i] = i == 0 ? -1 : random.nextInt(i);
+            final float scale = 0.9f + 0.2f * random.nextFloat();
+            localTransforms[i] = new Transform(
+                    new Vector3f(random.nextFloat(), random.nextFloat(), random.nextFloat()),
+                    new Quaternion().setFromAxisAngle(random.nextFloat(), random.nextFloat(), random.nextFloat(),
+                            random.nextFloat()),
+                    new Vector3f(scale, scale, scale));
+            worldTransforms[i] = new Transform();
+            localFlat[i] = localTransforms[i].toMatrix(new FlatMatrix4f());
+            worldFlat[i] = new FlatMatrix4f();
+            localMatrices[i] = localFlat[i].toMatrix4f();
+        }
+    }
+
+    @Benchmark
+    public Matrix4f[] matrices() {
+        worldMatrices[0] = localMatrices[0];
+        for (int i = 1; i < nodes; i++) {
+            worldMatrices[i] = worldMatrices[parents[i]].mul(localMatrices[i]);
+        }
+        return worldMatrices;
+    }
+
+    @Benchmark
+    public FlatMatrix4f[] flatMatrices() {
+        worldFlat[0].set(localFlat[0]);
+        for (int i = 1; i < nodes; i++) {
+            FlatMatrix4f.mulInto(worldFlat[parents[i]], localFlat[i], worldFlat[i]);
+        }
+        return worldFlat;
+    }
+
+    @Benchmark
+    public Transform[] transforms() {
+        worldTransforms[0].set(localTransforms[0]);
+        for (int i = 1; i < nodes; i++) {
+            Transform.mul(worldTransforms[parents[i]], localTransforms[i], worldTransforms[i]);
+        }
+        return worldTransforms;
+    }
+
+    @Benchmark
+    public FlatMatrix4f[] transformsToMatrices() {
+        transforms();
+        for (int i = 0; i < nodes; i++) {
+            worldTransforms[i].toMatrix(worldFlat[i]);
+        }
+        return worldFlat;
+    }
+}
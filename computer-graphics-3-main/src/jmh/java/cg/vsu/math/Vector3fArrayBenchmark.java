@@ -0,0 +1,113 @@
+package cg.vsu.math;
+
+import cg.vsu.model.SyntheticMeshes;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The same per-vector operations over a {@code List<Vector3f>}, as {@link cg.vsu.model.Model} stores vertices,
+ * and over a {@link Vector3fArray}. The lists are built in random order so that, as in a long-lived model, the
+ * vectors are not laid out in memory in the order of the list.
+ * <p>
+ * {@code particleStep} moves every point by its velocity; the other benchmarks work on a scratch copy to keep
+ * the inputs unchanged.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class Vector3fArrayBenchmark {
+
+    @Param({"1024", "1048576"})
+    public int count;
+
+    private List<Vector3f> first;
+    private List<Vector3f> second;
+    private Vector3fArray firstArray;
+    private Vector3fArray secondArray;
+    private Vector3fArray scratchArray;
+    private float[] results;
+    private final Vector3f scratch = new Vector3f();
+
+    @Setup
+    public void generate() {
+        final Vector3f[] vectors = SyntheticMeshes.randomVectors(2 * count);
+        Collections.shuffle(Arrays.asList(vectors), new Random(SyntheticMeshes.SEED));
+        first = new ArrayList<>(Arrays.asList(vectors).subList(0, count));
+        second = new ArrayList<>(Arrays.asList(vectors).subList(count, 2 * count));
+        firstArray = new Vector3fArray(first);
+        secondArray = new Vector3fArray(second);
+        scratchArray = new Vector3fArray(count);
+        results = new float[count];
+    }
+
+    @Benchmark
+    public List<Vector3f> particleStepList() {
+        for (int i = 0; i < count; i++) {
+            first.get(i).addMul(second.get(i), 1e-6f);
+        }
+        return first;
+    }
+
+    @Benchmark
+    public Vector3fArray particleStepArray() {
+        return firstArray.addMul(secondArray, 1e-6f);
+    }
+
+    @Benchmark
+    public float[] dotList() {
+        for (int i = 0; i < count; i++) {
+            results[i] = first.get(i).dot(second.get(i));
+        }
+        return results;
+    }
+
+    @Benchmark
+    public float[] dotArray() {
+        return firstArray.dot(secondArray, results);
+    }
+
+    @Benchmark
+    public float[] crsList() {
+        for (int i = 0; i < count; i++) {
+            results[i] = scratch.set(first.get(i)).crs(second.get(i)).x;
+        }
+        return results;
+    }
+
+    @Benchmark
+    public Vector3fArray crsArray() {
+        return scratchArray.set(firstArray).crs(secondArray);
+    }
+
+    @Benchmark
+    public float[] norList() {
+        for (int i = 0; i < count; i++) {
+            results[i] = scratch.set(first.get(i)).nor().x;
+        }
+        return results;
+    }
+
+    @Benchmark
+    public Vector3fArray norArray() {
+        return scratchArray.set(firstArray).nor();
+    }
+}
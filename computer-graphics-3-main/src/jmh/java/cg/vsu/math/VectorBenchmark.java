@@ -0,0 +1,85 @@
+package cg.vsu.math;
+
+import cg.vsu.model.SyntheticMeshes;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of the {@link Vector3f} operations used by the normal computation, over arrays of random vectors.
+ * <p>
+ * Each benchmark handles {@code count} pairs of vectors, so divide the score by {@code count} for the cost
+ * of one operation. The in-place operations work on a scratch vector to keep the inputs unchanged.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class VectorBenchmark {
+
+    @Param({"1024", "1048576"})
+    public int count;
+
+    private Vector3f[] first;
+    private Vector3f[] second;
+    private final Vector3f scratch = new Vector3f();
+
+    @Setup
+    public void generate() {
+        first = SyntheticMeshes.randomVectors(2 * count);
+        second = new Vector3f[count];
+        System.arraycopy(first, count, second, 0, count);
+    }
+
+    @Benchmark
+    public Vector3f add() {
+        final Vector3f sum = scratch.setZero();
+        for (int i = 0; i < count; i++) {
+            sum.add(first[i]);
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public float dot() {
+        float sum = 0;
+        for (int i = 0; i < count; i++) {
+            sum += first[i].dot(second[i]);
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public void crs(Blackhole blackhole) {
+        for (int i = 0; i < count; i++) {
+            blackhole.consume(scratch.set(first[i]).crs(second[i]).x);
+        }
+    }
+
+    @Benchmark
+    public void vectorProduct(Blackhole blackhole) {
+        for (int i = 0; i < count; i++) {
+            blackhole.consume(GeometryUtils.vectorProduct(first[i], second[i]));
+        }
+    }
+
+    @Benchmark
+    public void nor(Blackhole blackhole) {
+        for (int i = 0; i < count; i++) {
+            blackhole.consume(scratch.set(first[i]).nor().x);
+        }
+    }
+}
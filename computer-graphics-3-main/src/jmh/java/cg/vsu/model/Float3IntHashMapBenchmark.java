@@ -0,0 +1,84 @@
+package cg.vsu.model;
+
+import cg.vsu.math.Vector3f;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Deduplication of the corner positions of a {@link SyntheticMeshes#grid grid}, where every vertex appears about
+ * six times, as when welding an unindexed triangle soup: {@link Float3IntHashMap} against
+ * {@code HashMap<Vector3f, Integer>}. Run with {@code -prof gc} to compare the allocation rates as well.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class Float3IntHashMapBenchmark {
+
+    @Param({"100000", "1000000"})
+    public int faces;
+
+    private float[] corners;
+
+    @Setup
+    public void generate() {
+        final Model model = SyntheticMeshes.grid(faces);
+        final FloatArrayBuilder corners = new FloatArrayBuilder(9 * faces);
+        for (Polygon polygon : model.polygons) {
+            for (Integer index : polygon.getVertexIndices()) {
+                final Vector3f vertex = model.vertices.get(index);
+                corners.add(vertex.x, vertex.y, vertex.z);
+            }
+        }
+        this.corners = corners.toArray();
+    }
+
+    @Benchmark
+    public int[] primitiveMap() {
+        final float[] corners = this.corners;
+        final int[] indices = new int[corners.length / 3];
+        final Float3IntHashMap map = new Float3IntHashMap();
+        for (int i = 0; i < indices.length; i++) {
+            indices[i] = map.putIfAbsent(corners[3 * i], corners[3 * i + 1], corners[3 * i + 2], map.size());
+        }
+        return indices;
+    }
+
+    @Benchmark
+    public int[] boxedMap() {
+        final float[] corners = this.corners;
+        final int[] indices = new int[corners.length / 3];
+        final Map<Vector3f, Integer> map = new HashMap<>();
+        for (int i = 0; i < indices.length; i++) {
+            final Vector3f key = new Vector3f(corners[3 * i], corners[3 * i + 1], corners[3 * i + 2]);
+            indices[i] = map.computeIfAbsent(key, vertex -> map.size());
+        }
+        return indices;
+    }
+
+    @Benchmark
+    public int[] quantizedMap() {
+        final float[] corners = this.corners;
+        final int[] indices = new int[corners.length / 3];
+        final Float3IntHashMap map = new Float3IntHashMap(16, 1e-5f);
+        for (int i = 0; i < indices.length; i++) {
+            indices[i] = map.putIfAbsent(corners[3 * i], corners[3 * i + 1], corners[3 * i + 2], map.size());
+        }
+        return indices;
+    }
+}
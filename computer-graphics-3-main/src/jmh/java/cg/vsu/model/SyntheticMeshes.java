@@ -0,0 +1,137 @@
+package cg.vsu.model;
+
+import cg.vsu.math.Matrix4f;
+import cg.vsu.math.Vector3f;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Random;
+
+/**
+ * Generated inputs for the benchmarks, so results do not depend on model files and stay comparable across commits.
+ * <p>
+ * Meshes are wavy square grids of triangles; the same grid is available in memory and as an OBJ file.
+ * Random data always comes from {@link #SEED}.
+ */
+public class SyntheticMeshes {
+    public static final long SEED = 42;
+
+    private SyntheticMeshes() {
+    }
+
+    /**
+     * @return a grid of triangles with exactly the given number of faces, indexed as in {@link #writeGrid}
+     */
+    public static Model grid(int faces) {
+        final int side = side(faces);
+        final Model model = new Model();
+        for (int i = 0; i <= side; i++) {
+            for (int j = 0; j <= side; j++) {
+                model.vertices.add(new Vector3f(x(i, side), y(i, j), z(j, side)));
+            }
+        }
+        int written = 0;
+        for (int i = 0; i < side && written < faces; i++) {
+            for (int j = 0; j < side && written < faces; j++) {
+                final int v00 = i * (side + 1) + j;
+                final int v01 = v00 + 1;
+                final int v10 = v00 + side + 1;
+                final int v11 = v10 + 1;
+                model.polygons.add(triangle(v00, v10, v01));
+                if (++written < faces) {
+                    model.polygons.add(triangle(v01, v10, v11));
+                    ++written;
+                }
+            }
+        }
+        return model;
+    }
+
+    /**
+     * Writes {@link #grid} as an OBJ file without keeping the model in memory.
+     */
+    public static void writeGrid(Path file, int faces) throws IOException {
+        final int side = side(faces);
+        try (BufferedWriter writer = Files.newBufferedWriter(file)) {
+            for (int i = 0; i <= side; i++) {
+                for (int j = 0; j <= side; j++) {
+                    writer.write("v " + x(i, side) + " " + y(i, j) + " " + z(j, side) + "\n");
+                }
+            }
+            int written = 0;
+            for (int i = 0; i < side && written < faces; i++) {
+                for (int j = 0; j < side && written < faces; j++) {
+                    final int v00 = i * (side + 1) + j + 1;
+                    final int v01 = v00 + 1;
+                    final int v10 = v00 + side + 1;
+                    final int v11 = v10 + 1;
+                    writer.write("f " + v00 + " " + v10 + " " + v01 + "\n");
+                    if (++written < faces) {
+                        writer.write("f " + v01 + " " + v10 + " " + v11 + "\n");
+                        ++written;
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * @return vectors with components in {@code [-1, 1)}
+     */
+    public static Vector3f[] randomVectors(int count) {
+        final Random random = new Random(SEED);
+        final Vector3f[] vectors = new Vector3f[count];
+        for (int i = 0; i < count; i++) {
+            vectors[i] = new Vector3f(2 * random.nextFloat() - 1, 2 * random.nextFloat() - 1,
+                    2 * random.nextFloat() - 1);
+        }
+        return vectors;
+    }
+
+    /**
+     * @return matrices with elements in {@code [-1, 1)}
+     */
+    public static Matrix4f[] randomMatrices(int count) {
+        final Random random = new Random(SEED);
+        final Matrix4f[] matrices = new Matrix4f[count];
+        for (int m = 0; m < count; m++) {
+            final float[][] values = new float[4][4];
+            for (int i = 0; i < 4; i++) {
+                for (int j = 0; j < 4; j++) {
+                    values[i][j] = 2 * random.nextFloat() - 1;
+                }
+            }
+            matrices[m] = new Matrix4f(values);
+        }
+        return matrices;
+    }
+
+    private static int side(int faces) {
+        return (int) Math.ceil(Math.sqrt(faces / 2.0));
+    }
+
+    private static float x(int i, int side) {
+        return (float) i / side;
+    }
+
+    private static float y(int i, int j) {
+        return (float) (Math.sin(i * 0.1) * Math.cos(j * 0.1));
+    }
+
+    private static float z(int j, int side) {
+        return (float) j / side;
+    }
+
+    private static Polygon triangle(int v0, int v1, int v2) {
+        final ArrayList<Integer> indices = new ArrayList<>(3);
+        indices.add(v0);
+        indices.add(v1);
+        indices.add(v2);
+        final Polygon polygon = new Polygon();
+        polygon.setVertexIndices(indices);
+        return polygon;
+    }
+}
@@ -0,0 +1,85 @@
+package cg.vsu.normals;
+
+import cg.vsu.model.CompactModel;
+import cg.vsu.model.SyntheticMeshes;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One frame of a morph that moves a region of {@code movedVertices} consecutive vertices of a
+ * {@link SyntheticMeshes#grid grid}: {@link IncrementalNormals#update} against recomputing the normals of the
+ * whole mesh. Scattering the moved vertices over the mesh makes the update several times slower, as every vertex
+ * then misses the cache.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class IncrementalNormalsBenchmark {
+
+    @Param({"100000", "1000000"})
+    public int faces;
+
+    @Param({"100", "10000"})
+    public int movedVertices;
+
+    private IncrementalNormals normals;
+    private int[] moved;
+    private float offset = 0.01f;
+
+    @Setup
+    public void generate() {
+        normals = new IncrementalNormals(CompactModel.fromModel(SyntheticMeshes.grid(faces)));
+        final Random random = new Random(SyntheticMeshes.SEED);
+        final int first = random.nextInt(normals.getModel().getVertexCount() - movedVertices);
+        moved = new int[movedVertices];
+        for (int i = 0; i < moved.length; i++) {
+            moved[i] = first + i;
+        }
+    }
+
+    @Benchmark
+    public float[] incremental() {
+        move();
+        normals.update(moved);
+        return normals.getNormals();
+    }
+
+    @Benchmark
+    public float[] recalculate() {
+        move();
+        normals.recalculate();
+        return normals.getNormals();
+    }
+
+    @Benchmark
+    public float[] vertexNormals() {
+        move();
+        return NormalUtils.vertexNormals(normals.getModel());
+    }
+
+    /**
+     * Moves the vertices up and back down on alternate calls, so the mesh does not drift.
+     */
+    private void move() {
+        final float[] positions = normals.getPositions();
+        for (int vertex : moved) {
+            positions[3 * vertex + 1] += offset;
+        }
+        offset = -offset;
+    }
+}
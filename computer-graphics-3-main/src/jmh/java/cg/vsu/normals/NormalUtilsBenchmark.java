@@ -0,0 +1,113 @@
+package cg.vsu.normals;
+
+import cg.vsu.math.Vector3f;
+import cg.vsu.model.CompactModel;
+import cg.vsu.model.Model;
+import cg.vsu.model.Polygon;
+import cg.vsu.model.SyntheticMeshes;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Normals of every polygon and of every vertex of a {@link SyntheticMeshes#grid generated grid}.
+ * <p>
+ * {@link NormalUtils#normalToVertex} scans all polygons for each vertex, so the per-vertex benchmark is
+ * quadratic in the mesh size; at 10000 faces it already takes about a second per operation.
+ * {@link NormalUtils#vertexNormals(java.util.List, java.util.List)} computes the same normals in one pass.
+ * <p>
+ * Run with {@code -prof gc}: the {@code polygonNormalsIntoVector}, {@code compactPolygonNormals} and
+ * {@code adjacencyVertexNormalsIntoVector} overloads write into caller-owned storage and should report about
+ * 0 B/op, unlike {@code polygonNormals} and {@code adjacencyVertexNormals}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class NormalUtilsBenchmark {
+
+    @Param({"1000", "10000"})
+    public int faces;
+
+    private Model model;
+    private CompactModel compactModel;
+    private final Vector3f normal = new Vector3f();
+    private float[] polygonNormals;
+
+    @Setup
+    public void generate() {
+        model = SyntheticMeshes.grid(faces);
+        compactModel = CompactModel.fromModel(model);
+        polygonNormals = new float[3 * faces];
+    }
+
+    @Benchmark
+    public void polygonNormals(Blackhole blackhole) {
+        for (Polygon polygon : model.polygons) {
+            blackhole.consume(NormalUtils.normalToPolygon(polygon, model.vertices));
+        }
+    }
+
+    @Benchmark
+    public void polygonNormalsIntoVector(Blackhole blackhole) {
+        final Vector3f normal = this.normal;
+        for (Polygon polygon : model.polygons) {
+            blackhole.consume(NormalUtils.normalToPolygon(polygon, model.vertices, normal).x);
+        }
+    }
+
+    @Benchmark
+    public float[] compactPolygonNormals() {
+        final float[] normals = polygonNormals;
+        for (int i = 0; i < compactModel.getPolygonCount(); i++) {
+            NormalUtils.normalToPolygon(compactModel, i, normals, 3 * i);
+        }
+        return normals;
+    }
+
+    @Benchmark
+    public void vertexNormals(Blackhole blackhole) {
+        for (Vector3f vertex : model.vertices) {
+            blackhole.consume(NormalUtils.normalToVertex(vertex, model.vertices, model.polygons));
+        }
+    }
+
+    @Benchmark
+    public void adjacencyVertexNormals(Blackhole blackhole) {
+        for (int i = 0; i < model.vertices.size(); i++) {
+            blackhole.consume(NormalUtils.normalToVertex(i, model.vertices, model.polygons, model.getAdjacency()));
+        }
+    }
+
+    @Benchmark
+    public void adjacencyVertexNormalsIntoVector(Blackhole blackhole) {
+        final Vector3f normal = this.normal;
+        for (int i = 0; i < model.vertices.size(); i++) {
+            blackhole.consume(NormalUtils.normalToVertex(i, model.vertices, model.polygons, model.getAdjacency(),
+                    normal).x);
+        }
+    }
+
+    @Benchmark
+    public float[] bulkVertexNormals() {
+        return NormalUtils.vertexNormals(model.vertices, model.polygons);
+    }
+
+    @Benchmark
+    public CompactModel angleWeightedCreasedNormals() {
+        return NormalUtils.recalculateNormals(compactModel, NormalWeighting.ANGLE, 30);
+    }
+}
@@ -0,0 +1,66 @@
+package cg.vsu.normals;
+
+import cg.vsu.model.CompactModel;
+import cg.vsu.model.SyntheticMeshes;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Scaling of {@link NormalUtils#vertexNormalsParallel(CompactModel, ForkJoinPool)} with the pool size,
+ * against the sequential {@link NormalUtils#vertexNormals(CompactModel)}.
+ * <p>
+ * Pools larger than the number of cores show the cost of the extra splitting; compare them with
+ * {@code threads = 1} rather than with {@code sequential} to see the overhead of the parallel algorithm itself.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx16g")
+public class ParallelNormalsBenchmark {
+
+    @Param({"1000000", "10000000"})
+    public int faces;
+
+    @Param({"1", "2", "4", "8", "16", "32"})
+    public int threads;
+
+    private CompactModel model;
+    private ForkJoinPool pool;
+
+    @Setup(Level.Trial)
+    public void generate() {
+        model = CompactModel.fromModel(SyntheticMeshes.grid(faces));
+        pool = new ForkJoinPool(threads);
+    }
+
+    @TearDown(Level.Trial)
+    public void shutdown() {
+        pool.shutdown();
+    }
+
+    @Benchmark
+    public float[] sequential() {
+        return NormalUtils.vertexNormals(model);
+    }
+
+    @Benchmark
+    public float[] parallel() {
+        return NormalUtils.vertexNormalsParallel(model, pool);
+    }
+}
@@ -0,0 +1,69 @@
+package cg.vsu.objreader;
+
+import cg.vsu.model.Model;
+import cg.vsu.model.SyntheticMeshes;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the Scanner based {@link ObjReader#read} with the memory-mapped {@link ObjReader#readMapped}
+ * and the chunked {@link ObjReader#readParallel} on {@link SyntheticMeshes#writeGrid generated grid meshes}.
+ * <p>
+ * The 50M faces file is about 1.7 GB, so run with a large heap, e.g. {@code -jvmArgs -Xmx24g},
+ * and add {@code -prof gc} to see the allocation rate of the readers.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Fork(value = 1, jvmArgsAppend = "-Xmx24g")
+public class ObjReaderBenchmark {
+
+    @Param({"10000", "100000", "1000000", "10000000", "50000000"})
+    public int faces;
+
+    private Path file;
+
+    @Setup(Level.Trial)
+    public void generate() throws IOException {
+        file = Files.createTempFile("grid-" + faces, ".obj");
+        SyntheticMeshes.writeGrid(file, faces);
+    }
+
+    @TearDown(Level.Trial)
+    public void delete() throws IOException {
+        Files.deleteIfExists(file);
+    }
+
+    @Benchmark
+    public Model scanner() throws IOException {
+        return ObjReader.read(file.toString());
+    }
+
+    @Benchmark
+    public Model mapped() throws IOException {
+        return ObjReader.readMapped(file.toString());
+    }
+
+    @Benchmark
+    public Model parallel() throws IOException {
+        return ObjReader.readParallel(file.toString());
+    }
+}
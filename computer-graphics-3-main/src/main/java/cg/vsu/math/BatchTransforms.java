@@ -0,0 +1,103 @@
+package cg.vsu.math;
+
+import java.util.List;
+
+/**
+ * Applies one 4x4 matrix to many points at once, without the 4x1 {@link Matrix4f} per point that
+ * {@link Matrix4f#multiplicationByVector} needs.
+ * <p>
+ * Points are treated as {@code (x, y, z, 1)} and the fourth coordinate of the result is dropped, which is exact for
+ * affine matrices; divide by w separately for projections. Positions come either interleaved
+ * ({@code x0, y0, z0, x1, ...}, as in {@link cg.vsu.model.CompactModel}) or as three separate coordinate arrays.
+ * The loops are plain scalar code that the JIT compiles well; the {@code simd} module has a
+ * {@code jdk.incubator.vector} version of the same methods.
+ */
+public class BatchTransforms {
+
+    private BatchTransforms() {
+    }
+
+    /**
+     * Transforms {@code count} interleaved points of {@code in} starting at point {@code inOffset} into {@code out}
+     * starting at point {@code outOffset}. {@code out} may be {@code in} with the same offset.
+     */
+    public static void transformPositions(FlatMatrix4f matrix, float[] in, int inOffset,
+                                          float[] out, int outOffset, int count) {
+        checkRange(in.length / 3, inOffset, count);
+        checkRange(out.length / 3, outOffset, count);
+        final float[] m = matrix.getValues();
+        final float m00 = m[0], m01 = m[1], m02 = m[2], m03 = m[3];
+        final float m10 = m[4], m11 = m[5], m12 = m[6], m13 = m[7];
+        final float m20 = m[8], m21 = m[9], m22 = m[10], m23 = m[11];
+        for (int i = 0; i < count; i++) {
+            final int from = 3 * (inOffset + i);
+            final int to = 3 * (outOffset + i);
+            final float x = in[from];
+            final float y = in[from + 1];
+            final float z = in[from + 2];
+            out[to] = m00 * x + m01 * y + m02 * z + m03;
+            out[to + 1] = m10 * x + m11 * y + m12 * z + m13;
+            out[to + 2] = m20 * x + m21 * y + m22 * z + m23;
+        }
+    }
+
+    /**
+     * Transforms all interleaved points of the array in place.
+     */
+    public static void transformPositions(FlatMatrix4f matrix, float[] positions) {
+        transformPositions(matrix, positions, 0, positions, 0, positions.length / 3);
+    }
+
+    /**
+     * Transforms the first {@code count} points given as separate coordinate arrays. The output arrays may be the
+     * input ones.
+     */
+    public static void transformPositions(FlatMatrix4f matrix, float[] x, float[] y, float[] z,
+                                          float[] outX, float[] outY, float[] outZ, int count) {
+        transformPositions(matrix, x, y, z, outX, outY, outZ, 0, count);
+    }
+
+    /**
+     * Transforms the points {@code [from, to)} given as separate coordinate arrays; the tail loop of the vectorized
+     * version in the {@code simd} module.
+     */
+    public static void transformPositions(FlatMatrix4f matrix, float[] x, float[] y, float[] z,
+                                          float[] outX, float[] outY, float[] outZ, int from, int to) {
+        checkRange(Math.min(x.length, Math.min(y.length, z.length)), from, to - from);
+        checkRange(Math.min(outX.length, Math.min(outY.length, outZ.length)), from, to - from);
+        final float[] m = matrix.getValues();
+        final float m00 = m[0], m01 = m[1], m02 = m[2], m03 = m[3];
+        final float m10 = m[4], m11 = m[5], m12 = m[6], m13 = m[7];
+        final float m20 = m[8], m21 = m[9], m22 = m[10], m23 = m[11];
+        for (int i = from; i < to; i++) {
+            final float px = x[i];
+            final float py = y[i];
+            final float pz = z[i];
+            outX[i] = m00 * px + m01 * py + m02 * pz + m03;
+            outY[i] = m10 * px + m11 * py + m12 * pz + m13;
+            outZ[i] = m20 * px + m21 * py + m22 * pz + m23;
+        }
+    }
+
+    /**
+     * Transforms the vertices of a model, e.g. {@code model.vertices}, in place.
+     */
+    public static void transformPositions(FlatMatrix4f matrix, List<Vector3f> vertices) {
+        final float[] m = matrix.getValues();
+        for (Vector3f vertex : vertices) {
+            final float x = vertex.x;
+            final float y = vertex.y;
+            final float z = vertex.z;
+            vertex.x = m[0] * x + m[1] * y + m[2] * z + m[3];
+            vertex.y = m[4] * x + m[5] * y + m[6] * z + m[7];
+            vertex.z = m[8] * x + m[9] * y + m[10] * z + m[11];
+        }
+    }
+
+    private static void checkRange(int length, int offset, int count) {
+        if (offset < 0 || count < 0 || offset > length - count) {
+            throw new IndexOutOfBoundsException("Range [" + offset + ", " + offset + " + " + count
+                    + ") out of bounds for length " + length);
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package cg.vsu.math;
+
+/**
+ * Camera-relative rendering of a world larger than floats can place precisely.
+ * <p>
+ * Mesh vertices stay floats relative to their object, and only the object and camera positions are double
+ * ({@link Vector3d}, {@link Matrix4d}). Before drawing, everything is moved so that the camera is at the origin,
+ * in double, and only then rounded to floats: what is near the camera, where precision is visible, ends up with
+ * small coordinates and keeps it. Two equivalent ways to get the float matrices for a frame:
+ * <ul>
+ *     <li>{@link Matrix4d#mulInto(Matrix4d, Matrix4d, FlatMatrix4f)} of the view and model matrices, one
+ *     model-view matrix per object;</li>
+ *     <li>{@link #model} per object and {@link #view} once per frame, for renderers that keep the two apart,
+ *     e.g. to light in world orientation.</li>
+ * </ul>
+ * The projection matrix does not depend on the position and stays a {@link FlatMatrix4f}.
+ */
+public class CameraRelative {
+
+    private CameraRelative() {
+    }
+
+    /**
+     * Writes the position of {@code world} relative to {@code eye}, rounded to floats, to {@code out}.
+     *
+     * @return {@code out} for chaining
+     */
+    public static Vector3f position(Vector3d world, Vector3d eye, Vector3f out) {
+        return world.sub(eye, out);
+    }
+
+    /**
+     * Writes {@code count} interleaved double points of {@code world} relative to {@code eye}, rounded to floats,
+     * to {@code out} starting at point 0, e.g. for points, lines or labels placed in world coordinates.
+     */
+    public static void positions(double[] world, Vector3d eye, float[] out, int count) {
+        if (count < 0 || 3 * count > world.length || 3 * count > out.length) {
+            throw new IndexOutOfBoundsException("Point count " + count + " out of bounds for lengths "
+                    + world.length + " and " + out.length);
+        }
+        final double ex = eye.x, ey = eye.y, ez = eye.z;
+        for (int i = 0; i < 3 * count; i += 3) {
+            out[i] = (float) (world[i] - ex);
+            out[i + 1] = (float) (world[i + 1] - ey);
+            out[i + 2] = (float) (world[i + 2] - ez);
+        }
+    }
+
+    /**
+     * Writes the model matrix moved by {@code -eye}, rounded to floats, to {@code out}: the model matrix of the
+     * object in a world whose origin is the camera.
+     *
+     * @return {@code out} for chaining
+     */
+    public static FlatMatrix4f model(Matrix4d model, Vector3d eye, FlatMatrix4f out) {
+        final double[] m = model.getValues();
+        final float[] o = out.getValues();
+        // translation(-eye) * model; for an affine model only the translation column changes
+        for (int j = 0; j < 4; j++) {
+            final double w = m[12 + j];
+            o[j] = (float) (m[j] - eye.x * w);
+            o[4 + j] = (float) (m[4 + j] - eye.y * w);
+            o[8 + j] = (float) (m[8 + j] - eye.z * w);
+            o[12 + j] = (float) w;
+        }
+        return out;
+    }
+
+    /**
+     * Writes the view matrix with its translation dropped, rounded to floats, to {@code out}: the view of the same
+     * camera placed at the origin, to be used with the matrices of {@link #model}. Holds for views that only move
+     * and rotate the world, like {@link Matrix4d#lookAt}.
+     *
+     * @return {@code out} for chaining
+     */
+    public static FlatMatrix4f view(Matrix4d view, FlatMatrix4f out) {
+        final float[] o = view.toFloat(out).getValues();
+        o[3] = 0;
+        o[7] = 0;
+        o[11] = 0;
+        return out;
+    }
+}
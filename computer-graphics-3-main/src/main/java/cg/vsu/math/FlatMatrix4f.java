@@ -0,0 +1,388 @@
+package cg.vsu.math;
+
+import java.util.Arrays;
+
+/**
+ * A mutable 4x4 float matrix in one flat array, for transforms that are updated every frame.
+ * <p>
+ * The layout and conventions are those of {@link Matrix4f}: elements are stored row by row, so element
+ * {@code (row, column)} is {@code values[4 * row + column]}, and matrices multiply column vectors, so
+ * {@code a.mulLocal(b)} applies {@code b} first. Unlike {@link Matrix4f}, every operation writes into an existing
+ * matrix and returns it for chaining; nothing allocates after construction. A new matrix is the identity.
+ * <p>
+ * The camera builders follow the OpenGL conventions: a right-handed view space looking along {@code -z} and clip
+ * space depth in {@code [-1, 1]}.
+ */
+public class FlatMatrix4f {
+    private final float[] values = new float[16];
+
+    /**
+     * Constructs an identity matrix.
+     */
+    public FlatMatrix4f() {
+        identity();
+    }
+
+    /**
+     * Constructs a matrix from 16 values given row by row.
+     */
+    public FlatMatrix4f(float... values) {
+        set(values);
+    }
+
+    public FlatMatrix4f(FlatMatrix4f other) {
+        set(other);
+    }
+
+    public FlatMatrix4f(Matrix4f other) {
+        set(other);
+    }
+
+    /**
+     * The backing array, row by row; changes to it change the matrix.
+     */
+    public float[] getValues() {
+        return values;
+    }
+
+    public float get(int row, int column) {
+        return values[4 * row + column];
+    }
+
+    public FlatMatrix4f set(int row, int column, float value) {
+        values[4 * row + column] = value;
+        return this;
+    }
+
+    /**
+     * Copies 16 values given row by row.
+     */
+    public FlatMatrix4f set(float... values) {
+        if (values.length != 16) {
+            throw new IllegalArgumentException("Matrix must have 16 values");
+        }
+        System.arraycopy(values, 0, this.values, 0, 16);
+        return this;
+    }
+
+    public FlatMatrix4f set(FlatMatrix4f other) {
+        System.arraycopy(other.values, 0, values, 0, 16);
+        return this;
+    }
+
+    public FlatMatrix4f set(Matrix4f other) {
+        final float[][] data = other.getData();
+        for (int i = 0; i < 4; i++) {
+            System.arraycopy(data[i], 0, values, 4 * i, 4);
+        }
+        return this;
+    }
+
+    /**
+     * @return a new {@link Matrix4f} with the same elements
+     */
+    public Matrix4f toMatrix4f() {
+        final float[][] data = new float[4][4];
+        for (int i = 0; i < 4; i++) {
+            System.arraycopy(values, 4 * i, data[i], 0, 4);
+        }
+        return new Matrix4f(data);
+    }
+
+    public FlatMatrix4f identity() {
+        Arrays.fill(values, 0);
+        values[0] = values[5] = values[10] = values[15] = 1;
+        return this;
+    }
+
+    public FlatMatrix4f zero() {
+        Arrays.fill(values, 0);
+        return this;
+    }
+
+    /**
+     * Writes the product {@code a * b} to {@code out}, which may be {@code a} or {@code b}.
+     *
+     * @return {@code out} for chaining
+     */
+    public static FlatMatrix4f mulInto(FlatMatrix4f a, FlatMatrix4f b, FlatMatrix4f out) {
+        final float[] l = a.values;
+        final float[] r = b.values;
+        final float[] o = out.values;
+        // b is read up front and a row by row before the row is written, so out may be either of them
+        final float r00 = r[0], r01 = r[1], r02 = r[2], r03 = r[3];
+        final float r10 = r[4], r11 = r[5], r12 = r[6], r13 = r[7];
+        final float r20 = r[8], r21 = r[9], r22 = r[10], r23 = r[11];
+        final float r30 = r[12], r31 = r[13], r32 = r[14], r33 = r[15];
+        for (int i = 0; i < 16; i += 4) {
+            final float l0 = l[i];
+            final float l1 = l[i + 1];
+            final float l2 = l[i + 2];
+            final float l3 = l[i + 3];
+            o[i] = l0 * r00 + l1 * r10 + l2 * r20 + l3 * r30;
+            o[i + 1] = l0 * r01 + l1 * r11 + l2 * r21 + l3 * r31;
+            o[i + 2] = l0 * r02 + l1 * r12 + l2 * r22 + l3 * r32;
+            o[i + 3] = l0 * r03 + l1 * r13 + l2 * r23 + l3 * r33;
+        }
+        return out;
+    }
+
+    /**
+     * Sets this matrix to {@code this * other}, so that {@code other} is applied first.
+     */
+    public FlatMatrix4f mulLocal(FlatMatrix4f other) {
+        return mulInto(this, other, this);
+    }
+
+    /**
+     * Sets this matrix to {@code other * this}, so that {@code other} is applied last.
+     */
+    public FlatMatrix4f preMulLocal(FlatMatrix4f other) {
+        return mulInto(other, this, this);
+    }
+
+    public FlatMatrix4f transposeLocal() {
+        for (int i = 0; i < 4; i++) {
+            for (int j = i + 1; j < 4; j++) {
+                final float swap = values[4 * i + j];
+                values[4 * i + j] = values[4 * j + i];
+                values[4 * j + i] = swap;
+            }
+        }
+        return this;
+    }
+
+    public float determinant() {
+        final float[] m = values;
+        // 2x2 minors of the upper and of the lower two rows
+        final float a0 = m[0] * m[5] - m[1] * m[4];
+        final float a1 = m[0] * m[6] - m[2] * m[4];
+        final float a2 = m[0] * m[7] - m[3] * m[4];
+        final float a3 = m[1] * m[6] - m[2] * m[5];
+        final float a4 = m[1] * m[7] - m[3] * m[5];
+        final float a5 = m[2] * m[7] - m[3] * m[6];
+        final float b0 = m[8] * m[13] - m[9] * m[12];
+        final float b1 = m[8] * m[14] - m[10] * m[12];
+        final float b2 = m[8] * m[15] - m[11] * m[12];
+        final float b3 = m[9] * m[14] - m[10] * m[13];
+        final float b4 = m[9] * m[15] - m[11] * m[13];
+        final float b5 = m[10] * m[15] - m[11] * m[14];
+        return a0 * b5 - a1 * b4 + a2 * b3 + a3 * b2 - a4 * b1 + a5 * b0;
+    }
+
+    /**
+     * Inverts the matrix in place by the adjugate formula.
+     *
+     * @return false, leaving the matrix unchanged, if it is singular
+     */
+    public boolean invert() {
+        return Inverses.invert(values, values, values, values, values, values, values, values, 4);
+    }
+
+    /**
+     * Inverts an affine matrix, whose last row is {@code 0 0 0 1}, in place: the 3x3 part is inverted and the
+     * translation is moved back through it. About half the work of {@link #invert()}.
+     *
+     * @return false, leaving the matrix unchanged, if it is singular
+     */
+    public boolean invertAffine() {
+        return Inverses.invertAffine(values, values, values, values, values, values, values, 4);
+    }
+
+    public FlatMatrix4f translation(float x, float y, float z) {
+        identity();
+        values[3] = x;
+        values[7] = y;
+        values[11] = z;
+        return this;
+    }
+
+    public FlatMatrix4f scaling(float x, float y, float z) {
+        zero();
+        values[0] = x;
+        values[5] = y;
+        values[10] = z;
+        values[15] = 1;
+        return this;
+    }
+
+    /**
+     * Sets the matrix to a rotation by the angle around the axis, counterclockwise when the axis points at the
+     * viewer. The axis does not need to be normalized.
+     */
+    public FlatMatrix4f rotation(float angleRadians, float axisX, float axisY, float axisZ) {
+        final float length = Vector3f.len(axisX, axisY, axisZ);
+        final float half = angleRadians / 2;
+        final float sin = (float) Math.sin(half) / length;
+        return translationRotationScale(0, 0, 0, axisX * sin, axisY * sin, axisZ * sin, (float) Math.cos(half),
+                1, 1, 1);
+    }
+
+    /**
+     * Sets the matrix to {@code T * R * S}: a scale, then a rotation given by the unit quaternion
+     * {@code (qx, qy, qz, qw)}, then a translation. Cheaper than multiplying the three matrices.
+     */
+    public FlatMatrix4f translationRotationScale(float tx, float ty, float tz,
+                                                 float qx, float qy, float qz, float qw,
+                                                 float sx, float sy, float sz) {
+        final float xx = qx * qx;
+        final float yy = qy * qy;
+        final float zz = qz * qz;
+        final float xy = qx * qy;
+        final float xz = qx * qz;
+        final float yz = qy * qz;
+        final float wx = qw * qx;
+        final float wy = qw * qy;
+        final float wz = qw * qz;
+        final float[] m = values;
+        m[0] = (1 - 2 * (yy + zz)) * sx;
+        m[1] = 2 * (xy - wz) * sy;
+        m[2] = 2 * (xz + wy) * sz;
+        m[3] = tx;
+        m[4] = 2 * (xy + wz) * sx;
+        m[5] = (1 - 2 * (xx + zz)) * sy;
+        m[6] = 2 * (yz - wx) * sz;
+        m[7] = ty;
+        m[8] = 2 * (xz - wy) * sx;
+        m[9] = 2 * (yz + wx) * sy;
+        m[10] = (1 - 2 * (xx + yy)) * sz;
+        m[11] = tz;
+        m[12] = 0;
+        m[13] = 0;
+        m[14] = 0;
+        m[15] = 1;
+        return this;
+    }
+
+    /**
+     * Sets the matrix to the view transform of a camera at {@code eye} looking at {@code target}.
+     */
+    public FlatMatrix4f lookAt(Vector3f eye, Vector3f target, Vector3f up) {
+        // the z axis of the camera points from the target to the eye
+        float zx = eye.x - target.x;
+        float zy = eye.y - target.y;
+        float zz = eye.z - target.z;
+        final float zLength = Vector3f.len(zx, zy, zz);
+        if (zLength == 0) {
+            throw new IllegalArgumentException("Eye and target must differ");
+        }
+        zx /= zLength;
+        zy /= zLength;
+        zz /= zLength;
+        float xx = up.y * zz - up.z * zy;
+        float xy = up.z * zx - up.x * zz;
+        float xz = up.x * zy - up.y * zx;
+        final float xLength = Vector3f.len(xx, xy, xz);
+        if (xLength == 0) {
+            throw new IllegalArgumentException("Up must not be parallel to the view direction");
+        }
+        xx /= xLength;
+        xy /= xLength;
+        xz /= xLength;
+        final float yx = zy * xz - zz * xy;
+        final float yy = zz * xx - zx * xz;
+        final float yz = zx * xy - zy * xx;
+        return set(
+                xx, xy, xz, -(xx * eye.x + xy * eye.y + xz * eye.z),
+                yx, yy, yz, -(yx * eye.x + yy * eye.y + yz * eye.z),
+                zx, zy, zz, -(zx * eye.x + zy * eye.y + zz * eye.z),
+                0, 0, 0, 1);
+    }
+
+    /**
+     * Sets the matrix to a perspective projection.
+     *
+     * @param fovYRadians vertical field of view
+     * @param aspect      width divided by height
+     * @param near        distance to the near plane, which maps to depth -1
+     * @param far         distance to the far plane, which maps to depth 1
+     */
+    public FlatMatrix4f perspective(float fovYRadians, float aspect, float near, float far) {
+        if (!(near > 0) || !(far > near)) {
+            throw new IllegalArgumentException("Planes must satisfy 0 < near < far");
+        }
+        final float f = 1 / (float) Math.tan(fovYRadians / 2);
+        return set(
+                f / aspect, 0, 0, 0,
+                0, f, 0, 0,
+                0, 0, (far + near) / (near - far), 2 * far * near / (near - far),
+                0, 0, -1, 0);
+    }
+
+    /**
+     * Transforms the point {@code (x, y, z, 1)} without dividing by w, which is exact for affine matrices.
+     *
+     * @return {@code out} for chaining
+     */
+    public Vector3f transformPosition(float x, float y, float z, Vector3f out) {
+        final float[] m = values;
+        return out.set(
+                m[0] * x + m[1] * y + m[2] * z + m[3],
+                m[4] * x + m[5] * y + m[6] * z + m[7],
+                m[8] * x + m[9] * y + m[10] * z + m[11]);
+    }
+
+    /**
+     * Transforms the point {@code (x, y, z, 1)} and divides by w, as a projection needs.
+     *
+     * @return {@code out} for chaining
+     */
+    public Vector3f transformProject(float x, float y, float z, Vector3f out) {
+        final float[] m = values;
+        final float w = m[12] * x + m[13] * y + m[14] * z + m[15];
+        return out.set(
+                (m[0] * x + m[1] * y + m[2] * z + m[3]) / w,
+                (m[4] * x + m[5] * y + m[6] * z + m[7]) / w,
+                (m[8] * x + m[9] * y + m[10] * z + m[11]) / w);
+    }
+
+    /**
+     * Transforms the direction {@code (x, y, z, 0)}, ignoring the translation.
+     *
+     * @return {@code out} for chaining
+     */
+    public Vector3f transformDirection(float x, float y, float z, Vector3f out) {
+        final float[] m = values;
+        return out.set(
+                m[0] * x + m[1] * y + m[2] * z,
+                m[4] * x + m[5] * y + m[6] * z,
+                m[8] * x + m[9] * y + m[10] * z);
+    }
+
+    public boolean epsEquals(FlatMatrix4f other, float epsilon) {
+        for (int i = 0; i < 16; i++) {
+            if (Math.abs(values[i] - other.values[i]) > epsilon) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (obj == this) {
+            return true;
+        }
+        if (!(obj instanceof FlatMatrix4f other)) {
+            return false;
+        }
+        return Arrays.equals(values, other.values);
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(values);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < 4; i++) {
+            for (int j = 0; j < 4; j++) {
+                sb.append(values[4 * i + j]).append(" ");
+            }
+            sb.append("\n");
+        }
+        return sb.toString();
+    }
+}
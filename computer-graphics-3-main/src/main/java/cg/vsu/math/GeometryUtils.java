@@ -34,4 +34,18 @@ public class GeometryUtils {
                 v1.z * v2.x - v1.x * v2.z,
                 v1.x * v2.y - v1.y * v2.x);
     }
+
+    /**
+     * Same as {@link #vectorProduct(Vector3f, Vector3f)} without allocating; {@code out} may be one of the vectors
+     *
+     * @param v1  the first three-dimensional vector
+     * @param v2  the second three-dimensional vector
+     * @param out vector receiving the result
+     * @return {@code out}
+     */
+    public static Vector3f vectorProduct(Vector3f v1, Vector3f v2, Vector3f out) {
+        return out.set(v1.y * v2.z - v1.z * v2.y,
+                v1.z * v2.x - v1.x * v2.z,
+                v1.x * v2.y - v1.y * v2.x);
+    }
 }
@@ -0,0 +1,28 @@
+package cg.vsu.math;
+
+/**
+ * Hash codes of float and double components for the {@code hashCode} methods of the vectors and quaternions
+ * of this package.
+ */
+final class HashUtils {
+
+    private HashUtils() {
+    }
+
+    /**
+     * The hash of one component, without the boxing of {@link java.util.Objects#hash}. The {@code equals}
+     * methods compare components with {@code ==}, which treats {@code -0.0f} and {@code 0.0f} as equal but gives
+     * them different bits; adding {@code 0.0f} turns {@code -0.0f} into {@code 0.0f}, so equal objects get equal
+     * hashes.
+     */
+    static int hash(float value) {
+        return Float.floatToIntBits(value + 0.0f);
+    }
+
+    /**
+     * Same as {@link #hash(float)} for a double component.
+     */
+    static int hash(double value) {
+        return Double.hashCode(value + 0.0);
+    }
+}
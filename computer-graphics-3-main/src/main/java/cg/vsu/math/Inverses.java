@@ -0,0 +1,110 @@
+package cg.vsu.math;
+
+/**
+ * The closed-form inverses shared by {@link Matrix4f}, which keeps a matrix as four row arrays, and
+ * {@link FlatMatrix4f}, which keeps it in one array. Element {@code (row, column)} is read from
+ * {@code m<row>[step * row + column]} and written to {@code o<row>[step * row + column]}: a {@link Matrix4f} passes
+ * its rows and a step of 0, a {@link FlatMatrix4f} passes its array four times and a step of 4. All elements are
+ * read before the first one is written, so the output may be the input.
+ */
+final class Inverses {
+
+    private Inverses() {
+    }
+
+    /**
+     * Inverts a 4x4 matrix by the adjugate formula.
+     *
+     * @return false, leaving the output unchanged, if the matrix is singular
+     */
+    static boolean invert(float[] m0, float[] m1, float[] m2, float[] m3,
+                          float[] o0, float[] o1, float[] o2, float[] o3, int step) {
+        final int s1 = step, s2 = 2 * step, s3 = 3 * step;
+        final float m00 = m0[0], m01 = m0[1], m02 = m0[2], m03 = m0[3];
+        final float m10 = m1[s1], m11 = m1[s1 + 1], m12 = m1[s1 + 2], m13 = m1[s1 + 3];
+        final float m20 = m2[s2], m21 = m2[s2 + 1], m22 = m2[s2 + 2], m23 = m2[s2 + 3];
+        final float m30 = m3[s3], m31 = m3[s3 + 1], m32 = m3[s3 + 2], m33 = m3[s3 + 3];
+        final float a0 = m00 * m11 - m01 * m10;
+        final float a1 = m00 * m12 - m02 * m10;
+        final float a2 = m00 * m13 - m03 * m10;
+        final float a3 = m01 * m12 - m02 * m11;
+        final float a4 = m01 * m13 - m03 * m11;
+        final float a5 = m02 * m13 - m03 * m12;
+        final float b0 = m20 * m31 - m21 * m30;
+        final float b1 = m20 * m32 - m22 * m30;
+        final float b2 = m20 * m33 - m23 * m30;
+        final float b3 = m21 * m32 - m22 * m31;
+        final float b4 = m21 * m33 - m23 * m31;
+        final float b5 = m22 * m33 - m23 * m32;
+        final float determinant = a0 * b5 - a1 * b4 + a2 * b3 + a3 * b2 - a4 * b1 + a5 * b0;
+        if (determinant == 0 || !Float.isFinite(determinant)) {
+            return false;
+        }
+        final float d = 1 / determinant;
+        o0[0] = (m11 * b5 - m12 * b4 + m13 * b3) * d;
+        o0[1] = (-m01 * b5 + m02 * b4 - m03 * b3) * d;
+        o0[2] = (m31 * a5 - m32 * a4 + m33 * a3) * d;
+        o0[3] = (-m21 * a5 + m22 * a4 - m23 * a3) * d;
+        o1[s1] = (-m10 * b5 + m12 * b2 - m13 * b1) * d;
+        o1[s1 + 1] = (m00 * b5 - m02 * b2 + m03 * b1) * d;
+        o1[s1 + 2] = (-m30 * a5 + m32 * a2 - m33 * a1) * d;
+        o1[s1 + 3] = (m20 * a5 - m22 * a2 + m23 * a1) * d;
+        o2[s2] = (m10 * b4 - m11 * b2 + m13 * b0) * d;
+        o2[s2 + 1] = (-m00 * b4 + m01 * b2 - m03 * b0) * d;
+        o2[s2 + 2] = (m30 * a4 - m31 * a2 + m33 * a0) * d;
+        o2[s2 + 3] = (-m20 * a4 + m21 * a2 - m23 * a0) * d;
+        o3[s3] = (-m10 * b3 + m11 * b1 - m12 * b0) * d;
+        o3[s3 + 1] = (m00 * b3 - m01 * b1 + m02 * b0) * d;
+        o3[s3 + 2] = (-m30 * a3 + m31 * a1 - m32 * a0) * d;
+        o3[s3 + 3] = (m20 * a3 - m21 * a1 + m22 * a0) * d;
+        return true;
+    }
+
+    /**
+     * Inverts an affine matrix, whose last row is {@code 0 0 0 1} and is not read: the 3x3 part is inverted and the
+     * translation is moved back through it, about half the work of {@link #invert}.
+     *
+     * @return false, leaving the output unchanged, if the matrix is singular
+     */
+    static boolean invertAffine(float[] m0, float[] m1, float[] m2,
+                                float[] o0, float[] o1, float[] o2, float[] o3, int step) {
+        final int s1 = step, s2 = 2 * step, s3 = 3 * step;
+        final float m00 = m0[0], m01 = m0[1], m02 = m0[2], tx = m0[3];
+        final float m10 = m1[s1], m11 = m1[s1 + 1], m12 = m1[s1 + 2], ty = m1[s1 + 3];
+        final float m20 = m2[s2], m21 = m2[s2 + 1], m22 = m2[s2 + 2], tz = m2[s2 + 3];
+        final float c00 = m11 * m22 - m12 * m21;
+        final float c01 = m12 * m20 - m10 * m22;
+        final float c02 = m10 * m21 - m11 * m20;
+        final float determinant = m00 * c00 + m01 * c01 + m02 * c02;
+        if (determinant == 0 || !Float.isFinite(determinant)) {
+            return false;
+        }
+        final float d = 1 / determinant;
+        final float i00 = c00 * d;
+        final float i01 = (m02 * m21 - m01 * m22) * d;
+        final float i02 = (m01 * m12 - m02 * m11) * d;
+        final float i10 = c01 * d;
+        final float i11 = (m00 * m22 - m02 * m20) * d;
+        final float i12 = (m02 * m10 - m00 * m12) * d;
+        final float i20 = c02 * d;
+        final float i21 = (m01 * m20 - m00 * m21) * d;
+        final float i22 = (m00 * m11 - m01 * m10) * d;
+        o0[0] = i00;
+        o0[1] = i01;
+        o0[2] = i02;
+        o0[3] = -(i00 * tx + i01 * ty + i02 * tz);
+        o1[s1] = i10;
+        o1[s1 + 1] = i11;
+        o1[s1 + 2] = i12;
+        o1[s1 + 3] = -(i10 * tx + i11 * ty + i12 * tz);
+        o2[s2] = i20;
+        o2[s2 + 1] = i21;
+        o2[s2 + 2] = i22;
+        o2[s2 + 3] = -(i20 * tx + i21 * ty + i22 * tz);
+        o3[s3] = 0;
+        o3[s3 + 1] = 0;
+        o3[s3 + 2] = 0;
+        o3[s3 + 3] = 1;
+        return true;
+    }
+}
@@ -55,22 +55,21 @@ public class Matrix3f {
         return new Matrix3f(result);
     }
     public Vector3f multiplicationByVector(Vector3f v,float s) {
-        float[][] matrix = new float[3][3];
-        matrix[0][0] = s;
-        matrix[0][1] = this.matrix[0][1];
-        matrix[0][2] = this.matrix[0][2];
-        matrix[1][0] = this.matrix[1][0];
-        matrix[1][1] = s;
-        matrix[1][2] = this.matrix[1][2];
-        matrix[2][0] = this.matrix[2][0];
-        matrix[2][1] = this.matrix[2][1];
-        matrix[2][2] = s;
+        return multiplicationByVector(v, s, new Vector3f());
+    }
 
-        float xResult = matrix[0][0] * v.x + matrix[0][1] * v.y + matrix[0][2] * v.z;
-        float yResult = matrix[1][0] * v.x + matrix[1][1] * v.y + matrix[1][2] * v.z;
-        float zResult = matrix[2][0] * v.x + matrix[2][1] * v.y + matrix[2][2] * v.z;
+    /**
+     * Same as {@link #multiplicationByVector(Vector3f, float)} without allocating: multiplies {@code v} by this
+     * matrix with {@code s} in place of the diagonal and writes the result to {@code out}, which may be {@code v}.
+     *
+     * @return {@code out}
+     */
+    public Vector3f multiplicationByVector(Vector3f v, float s, Vector3f out) {
+        float xResult = s * v.x + this.matrix[0][1] * v.y + this.matrix[0][2] * v.z;
+        float yResult = this.matrix[1][0] * v.x + s * v.y + this.matrix[1][2] * v.z;
+        float zResult = this.matrix[2][0] * v.x + this.matrix[2][1] * v.y + s * v.z;
 
-        return new Vector3f(xResult, yResult, zResult);
+        return out.set(xResult, yResult, zResult);
     }
 
     public Matrix3f matrixMultiply(Matrix3f first, Matrix3f second) {
@@ -120,6 +119,139 @@ public class Matrix3f {
         return new Matrix3f(result);
     }
 
+    /**
+     * @return The determinant, expanded along the first row.
+     */
+    public float determinant() {
+        checkSquare(this);
+        final float[] r0 = matrix[0], r1 = matrix[1], r2 = matrix[2];
+        return r0[0] * (r1[1] * r2[2] - r1[2] * r2[1])
+                + r0[1] * (r1[2] * r2[0] - r1[0] * r2[2])
+                + r0[2] * (r1[0] * r2[1] - r1[1] * r2[0]);
+    }
+
+    /**
+     * @return The inverse of this matrix as a new matrix.
+     * @throws IllegalArgumentException if the matrix is singular
+     */
+    public Matrix3f inverse() {
+        Matrix3f result = new Matrix3f();
+        if (!inverse(result)) {
+            throw new IllegalArgumentException("Matrix is singular");
+        }
+        return result;
+    }
+
+    /**
+     * Writes the inverse of this matrix to {@code out} by the adjugate formula, without allocating. {@code out}
+     * may be this matrix.
+     *
+     * @return false, leaving {@code out} unchanged, if the matrix is singular
+     */
+    public boolean inverse(Matrix3f out) {
+        checkSquare(this);
+        final float[] r0 = matrix[0], r1 = matrix[1], r2 = matrix[2];
+        return out.setInverse(r0[0], r0[1], r0[2], r1[0], r1[1], r1[2], r2[0], r2[1], r2[2], false);
+    }
+
+    /**
+     * Same as {@link #inverse(Matrix3f)} for an affine transform of the plane, whose last row is {@code 0 0 1}:
+     * the 2x2 part is inverted and the translation is moved back through it.
+     *
+     * @return false, leaving {@code out} unchanged, if the matrix is singular
+     */
+    public boolean affineInverse(Matrix3f out) {
+        checkSquare(this);
+        checkSquare(out);
+        final float[] r0 = matrix[0], r1 = matrix[1];
+        final float m00 = r0[0], m01 = r0[1], tx = r0[2];
+        final float m10 = r1[0], m11 = r1[1], ty = r1[2];
+        final float determinant = m00 * m11 - m01 * m10;
+        if (determinant == 0 || !Float.isFinite(determinant)) {
+            return false;
+        }
+        final float d = 1 / determinant;
+        final float i00 = m11 * d;
+        final float i01 = -m01 * d;
+        final float i10 = -m10 * d;
+        final float i11 = m00 * d;
+        final float[][] o = out.matrix;
+        o[0][0] = i00;
+        o[0][1] = i01;
+        o[0][2] = -(i00 * tx + i01 * ty);
+        o[1][0] = i10;
+        o[1][1] = i11;
+        o[1][2] = -(i10 * tx + i11 * ty);
+        o[2][0] = 0;
+        o[2][1] = 0;
+        o[2][2] = 1;
+        return true;
+    }
+
+    /**
+     * Writes the normal matrix, the inverse transpose of this matrix, to {@code out} without allocating. Normals
+     * multiplied by it stay perpendicular to the transformed surface under non-uniform scale. {@code out} may be
+     * this matrix.
+     *
+     * @return false, leaving {@code out} unchanged, if the matrix is singular
+     */
+    public boolean normalMatrix(Matrix3f out) {
+        checkSquare(this);
+        final float[] r0 = matrix[0], r1 = matrix[1], r2 = matrix[2];
+        return out.setInverse(r0[0], r0[1], r0[2], r1[0], r1[1], r1[2], r2[0], r2[1], r2[2], true);
+    }
+
+    /**
+     * Sets this matrix to the inverse of the given one, or to its inverse transpose, which is the matrix of
+     * cofactors divided by the determinant.
+     *
+     * @return false, leaving this matrix unchanged, if the given matrix is singular
+     */
+    boolean setInverse(float m00, float m01, float m02, float m10, float m11, float m12,
+                       float m20, float m21, float m22, boolean transpose) {
+        checkSquare(this);
+        final float c00 = m11 * m22 - m12 * m21;
+        final float c01 = m12 * m20 - m10 * m22;
+        final float c02 = m10 * m21 - m11 * m20;
+        final float determinant = m00 * c00 + m01 * c01 + m02 * c02;
+        if (determinant == 0 || !Float.isFinite(determinant)) {
+            return false;
+        }
+        final float d = 1 / determinant;
+        final float c10 = m02 * m21 - m01 * m22;
+        final float c11 = m00 * m22 - m02 * m20;
+        final float c12 = m01 * m20 - m00 * m21;
+        final float c20 = m01 * m12 - m02 * m11;
+        final float c21 = m02 * m10 - m00 * m12;
+        final float c22 = m00 * m11 - m01 * m10;
+        final float[][] o = matrix;
+        o[0][0] = c00 * d;
+        o[1][1] = c11 * d;
+        o[2][2] = c22 * d;
+        if (transpose) {
+            o[0][1] = c01 * d;
+            o[0][2] = c02 * d;
+            o[1][0] = c10 * d;
+            o[1][2] = c12 * d;
+            o[2][0] = c20 * d;
+            o[2][1] = c21 * d;
+        } else {
+            o[0][1] = c10 * d;
+            o[0][2] = c20 * d;
+            o[1][0] = c01 * d;
+            o[1][2] = c21 * d;
+            o[2][0] = c02 * d;
+            o[2][1] = c12 * d;
+        }
+        return true;
+    }
+
+    private static void checkSquare(Matrix3f m) {
+        if (m.matrix.length != 3 || m.matrix[0].length != 3) {
+            throw new IllegalArgumentException("Matrix must be 3x3");
+        }
+    }
+
     @Override
     public String toString() {
         StringBuilder sb = new StringBuilder();
@@ -0,0 +1,332 @@
+package cg.vsu.math;
+
+import java.util.Arrays;
+
+/**
+ * A mutable 4x4 double matrix in one flat array, for model and view transforms of a large world.
+ * <p>
+ * The layout and conventions are those of {@link FlatMatrix4f}: elements are stored row by row, matrices multiply
+ * column vectors, and every operation writes into an existing matrix. A new matrix is the identity. The
+ * projection needs no double precision and stays a {@link FlatMatrix4f}; {@link CameraRelative} explains how the
+ * two meet.
+ */
+public class Matrix4d {
+    private final double[] values = new double[16];
+
+    /**
+     * Constructs an identity matrix.
+     */
+    public Matrix4d() {
+        identity();
+    }
+
+    /**
+     * Constructs a matrix from 16 values given row by row.
+     */
+    public Matrix4d(double... values) {
+        set(values);
+    }
+
+    public Matrix4d(Matrix4d other) {
+        set(other);
+    }
+
+    public Matrix4d(FlatMatrix4f other) {
+        set(other);
+    }
+
+    /**
+     * The backing array, row by row; changes to it change the matrix.
+     */
+    public double[] getValues() {
+        return values;
+    }
+
+    public double get(int row, int column) {
+        return values[4 * row + column];
+    }
+
+    public Matrix4d set(int row, int column, double value) {
+        values[4 * row + column] = value;
+        return this;
+    }
+
+    /**
+     * Copies 16 values given row by row.
+     */
+    public Matrix4d set(double... values) {
+        if (values.length != 16) {
+            throw new IllegalArgumentException("Matrix must have 16 values");
+        }
+        System.arraycopy(values, 0, this.values, 0, 16);
+        return this;
+    }
+
+    public Matrix4d set(Matrix4d other) {
+        System.arraycopy(other.values, 0, values, 0, 16);
+        return this;
+    }
+
+    public Matrix4d set(FlatMatrix4f other) {
+        final float[] m = other.getValues();
+        for (int i = 0; i < 16; i++) {
+            values[i] = m[i];
+        }
+        return this;
+    }
+
+    /**
+     * Writes this matrix rounded to floats to {@code out}. A large translation loses its precision here; see
+     * {@link CameraRelative} for the ways around it.
+     *
+     * @return {@code out} for chaining
+     */
+    public FlatMatrix4f toFloat(FlatMatrix4f out) {
+        final float[] o = out.getValues();
+        for (int i = 0; i < 16; i++) {
+            o[i] = (float) values[i];
+        }
+        return out;
+    }
+
+    public Matrix4d identity() {
+        Arrays.fill(values, 0);
+        values[0] = values[5] = values[10] = values[15] = 1;
+        return this;
+    }
+
+    public Matrix4d zero() {
+        Arrays.fill(values, 0);
+        return this;
+    }
+
+    /**
+     * Writes the product {@code a * b} to {@code out}, which may be {@code a} or {@code b}.
+     *
+     * @return {@code out} for chaining
+     */
+    public static Matrix4d mulInto(Matrix4d a, Matrix4d b, Matrix4d out) {
+        final double[] l = a.values;
+        final double[] r = b.values;
+        final double[] o = out.values;
+        // b is read up front and a row by row before the row is written, so out may be either of them
+        final double r00 = r[0], r01 = r[1], r02 = r[2], r03 = r[3];
+        final double r10 = r[4], r11 = r[5], r12 = r[6], r13 = r[7];
+        final double r20 = r[8], r21 = r[9], r22 = r[10], r23 = r[11];
+        final double r30 = r[12], r31 = r[13], r32 = r[14], r33 = r[15];
+        for (int i = 0; i < 16; i += 4) {
+            final double l0 = l[i];
+            final double l1 = l[i + 1];
+            final double l2 = l[i + 2];
+            final double l3 = l[i + 3];
+            o[i] = l0 * r00 + l1 * r10 + l2 * r20 + l3 * r30;
+            o[i + 1] = l0 * r01 + l1 * r11 + l2 * r21 + l3 * r31;
+            o[i + 2] = l0 * r02 + l1 * r12 + l2 * r22 + l3 * r32;
+            o[i + 3] = l0 * r03 + l1 * r13 + l2 * r23 + l3 * r33;
+        }
+        return out;
+    }
+
+    /**
+     * Writes the product {@code a * b}, computed in double, rounded to floats to {@code out}. Large translations
+     * that cancel in the product, e.g. of a view and a model matrix near the camera, cancel before rounding.
+     *
+     * @return {@code out} for chaining
+     */
+    public static FlatMatrix4f mulInto(Matrix4d a, Matrix4d b, FlatMatrix4f out) {
+        final double[] l = a.values;
+        final double[] r = b.values;
+        final float[] o = out.getValues();
+        for (int i = 0; i < 16; i += 4) {
+            final double l0 = l[i];
+            final double l1 = l[i + 1];
+            final double l2 = l[i + 2];
+            final double l3 = l[i + 3];
+            o[i] = (float) (l0 * r[0] + l1 * r[4] + l2 * r[8] + l3 * r[12]);
+            o[i + 1] = (float) (l0 * r[1] + l1 * r[5] + l2 * r[9] + l3 * r[13]);
+            o[i + 2] = (float) (l0 * r[2] + l1 * r[6] + l2 * r[10] + l3 * r[14]);
+            o[i + 3] = (float) (l0 * r[3] + l1 * r[7] + l2 * r[11] + l3 * r[15]);
+        }
+        return out;
+    }
+
+    /**
+     * Sets this matrix to {@code this * other}, so that {@code other} is applied first.
+     */
+    public Matrix4d mulLocal(Matrix4d other) {
+        return mulInto(this, other, this);
+    }
+
+    /**
+     * Sets this matrix to {@code other * this}, so that {@code other} is applied last.
+     */
+    public Matrix4d preMulLocal(Matrix4d other) {
+        return mulInto(other, this, this);
+    }
+
+    /**
+     * Inverts an affine matrix, whose last row is {@code 0 0 0 1}, in place, like
+     * {@link FlatMatrix4f#invertAffine()}.
+     *
+     * @return false, leaving the matrix unchanged, if it is singular
+     */
+    public boolean invertAffine() {
+        final double[] m = values;
+        final double c00 = m[5] * m[10] - m[6] * m[9];
+        final double c01 = m[6] * m[8] - m[4] * m[10];
+        final double c02 = m[4] * m[9] - m[5] * m[8];
+        final double determinant = m[0] * c00 + m[1] * c01 + m[2] * c02;
+        if (determinant == 0 || !Double.isFinite(determinant)) {
+            return false;
+        }
+        final double d = 1 / determinant;
+        final double i00 = c00 * d;
+        final double i01 = (m[2] * m[9] - m[1] * m[10]) * d;
+        final double i02 = (m[1] * m[6] - m[2] * m[5]) * d;
+        final double i10 = c01 * d;
+        final double i11 = (m[0] * m[10] - m[2] * m[8]) * d;
+        final double i12 = (m[2] * m[4] - m[0] * m[6]) * d;
+        final double i20 = c02 * d;
+        final double i21 = (m[1] * m[8] - m[0] * m[9]) * d;
+        final double i22 = (m[0] * m[5] - m[1] * m[4]) * d;
+        final double tx = m[3];
+        final double ty = m[7];
+        final double tz = m[11];
+        set(
+                i00, i01, i02, -(i00 * tx + i01 * ty + i02 * tz),
+                i10, i11, i12, -(i10 * tx + i11 * ty + i12 * tz),
+                i20, i21, i22, -(i20 * tx + i21 * ty + i22 * tz),
+                0, 0, 0, 1);
+        return true;
+    }
+
+    public Matrix4d translation(double x, double y, double z) {
+        identity();
+        values[3] = x;
+        values[7] = y;
+        values[11] = z;
+        return this;
+    }
+
+    /**
+     * Sets the matrix to {@code T * R * S}, like {@link FlatMatrix4f#translationRotationScale}, with the
+     * translation in double.
+     */
+    public Matrix4d translationRotationScale(Vector3d translation, Quaternion rotation, Vector3f scale) {
+        final double qx = rotation.x, qy = rotation.y, qz = rotation.z, qw = rotation.w;
+        final double sx = scale.x, sy = scale.y, sz = scale.z;
+        final double xx = qx * qx;
+        final double yy = qy * qy;
+        final double zz = qz * qz;
+        final double xy = qx * qy;
+        final double xz = qx * qz;
+        final double yz = qy * qz;
+        final double wx = qw * qx;
+        final double wy = qw * qy;
+        final double wz = qw * qz;
+        return set(
+                (1 - 2 * (yy + zz)) * sx, 2 * (xy - wz) * sy, 2 * (xz + wy) * sz, translation.x,
+                2 * (xy + wz) * sx, (1 - 2 * (xx + zz)) * sy, 2 * (yz - wx) * sz, translation.y,
+                2 * (xz - wy) * sx, 2 * (yz + wx) * sy, (1 - 2 * (xx + yy)) * sz, translation.z,
+                0, 0, 0, 1);
+    }
+
+    /**
+     * Sets the matrix to the view transform of a camera at {@code eye} looking at {@code target}, like
+     * {@link FlatMatrix4f#lookAt}.
+     */
+    public Matrix4d lookAt(Vector3d eye, Vector3d target, Vector3d up) {
+        // the z axis of the camera points from the target to the eye
+        double zx = eye.x - target.x;
+        double zy = eye.y - target.y;
+        double zz = eye.z - target.z;
+        final double zLength = Math.sqrt(zx * zx + zy * zy + zz * zz);
+        if (zLength == 0) {
+            throw new IllegalArgumentException("Eye and target must differ");
+        }
+        zx /= zLength;
+        zy /= zLength;
+        zz /= zLength;
+        double xx = up.y * zz - up.z * zy;
+        double xy = up.z * zx - up.x * zz;
+        double xz = up.x * zy - up.y * zx;
+        final double xLength = Math.sqrt(xx * xx + xy * xy + xz * xz);
+        if (xLength == 0) {
+            throw new IllegalArgumentException("Up must not be parallel to the view direction");
+        }
+        xx /= xLength;
+        xy /= xLength;
+        xz /= xLength;
+        final double yx = zy * xz - zz * xy;
+        final double yy = zz * xx - zx * xz;
+        final double yz = zx * xy - zy * xx;
+        return set(
+                xx, xy, xz, -(xx * eye.x + xy * eye.y + xz * eye.z),
+                yx, yy, yz, -(yx * eye.x + yy * eye.y + yz * eye.z),
+                zx, zy, zz, -(zx * eye.x + zy * eye.y + zz * eye.z),
+                0, 0, 0, 1);
+    }
+
+    /**
+     * Transforms the point {@code (x, y, z, 1)} without dividing by w, which is exact for affine matrices.
+     *
+     * @return {@code out} for chaining
+     */
+    public Vector3d transformPosition(double x, double y, double z, Vector3d out) {
+        final double[] m = values;
+        return out.set(
+                m[0] * x + m[1] * y + m[2] * z + m[3],
+                m[4] * x + m[5] * y + m[6] * z + m[7],
+                m[8] * x + m[9] * y + m[10] * z + m[11]);
+    }
+
+    /**
+     * Transforms the direction {@code (x, y, z, 0)}, ignoring the translation.
+     *
+     * @return {@code out} for chaining
+     */
+    public Vector3d transformDirection(double x, double y, double z, Vector3d out) {
+        final double[] m = values;
+        return out.set(
+                m[0] * x + m[1] * y + m[2] * z,
+                m[4] * x + m[5] * y + m[6] * z,
+                m[8] * x + m[9] * y + m[10] * z);
+    }
+
+    public boolean epsEquals(Matrix4d other, double epsilon) {
+        for (int i = 0; i < 16; i++) {
+            if (Math.abs(values[i] - other.values[i]) > epsilon) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (obj == this) {
+            return true;
+        }
+        if (!(obj instanceof Matrix4d other)) {
+            return false;
+        }
+        return Arrays.equals(values, other.values);
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(values);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < 4; i++) {
+            for (int j = 0; j < 4; j++) {
+                sb.append(values[4 * i + j]).append(" ");
+            }
+            sb.append("\n");
+        }
+        return sb.toString();
+    }
+}
@@ -112,6 +112,84 @@
             return new Matrix4f(result);
         }
 
+        /**
+         * @return The determinant, from the 2x2 minors of the upper and of the lower two rows.
+         */
+        public float determinant() {
+            checkSquare(this);
+            final float[] r0 = matrix[0], r1 = matrix[1], r2 = matrix[2], r3 = matrix[3];
+            final float a0 = r0[0] * r1[1] - r0[1] * r1[0];
+            final float a1 = r0[0] * r1[2] - r0[2] * r1[0];
+            final float a2 = r0[0] * r1[3] - r0[3] * r1[0];
+            final float a3 = r0[1] * r1[2] - r0[2] * r1[1];
+            final float a4 = r0[1] * r1[3] - r0[3] * r1[1];
+            final float a5 = r0[2] * r1[3] - r0[3] * r1[2];
+            final float b0 = r2[0] * r3[1] - r2[1] * r3[0];
+            final float b1 = r2[0] * r3[2] - r2[2] * r3[0];
+            final float b2 = r2[0] * r3[3] - r2[3] * r3[0];
+            final float b3 = r2[1] * r3[2] - r2[2] * r3[1];
+            final float b4 = r2[1] * r3[3] - r2[3] * r3[1];
+            final float b5 = r2[2] * r3[3] - r2[3] * r3[2];
+            return a0 * b5 - a1 * b4 + a2 * b3 + a3 * b2 - a4 * b1 + a5 * b0;
+        }
+
+        /**
+         * @return The inverse of this matrix as a new matrix.
+         * @throws IllegalArgumentException if the matrix is singular
+         */
+        public Matrix4f inverse() {
+            Matrix4f result = new Matrix4f();
+            if (!inverse(result)) {
+                throw new IllegalArgumentException("Matrix is singular");
+            }
+            return result;
+        }
+
+        /**
+         * Writes the inverse of this matrix to {@code out} by the adjugate formula, without allocating. {@code out}
+         * may be this matrix.
+         *
+         * @return false, leaving {@code out} unchanged, if the matrix is singular
+         */
+        public boolean inverse(Matrix4f out) {
+            checkSquare(this);
+            checkSquare(out);
+            final float[][] o = out.matrix;
+            return Inverses.invert(matrix[0], matrix[1], matrix[2], matrix[3], o[0], o[1], o[2], o[3], 0);
+        }
+
+        /**
+         * Same as {@link #inverse(Matrix4f)} for an affine matrix, whose last row is {@code 0 0 0 1}: the 3x3 part is
+         * inverted and the translation is moved back through it, about half the work of the general inverse.
+         *
+         * @return false, leaving {@code out} unchanged, if the matrix is singular
+         */
+        public boolean affineInverse(Matrix4f out) {
+            checkSquare(this);
+            checkSquare(out);
+            final float[][] o = out.matrix;
+            return Inverses.invertAffine(matrix[0], matrix[1], matrix[2], o[0], o[1], o[2], o[3], 0);
+        }
+
+        /**
+         * Writes the normal matrix, the inverse transpose of the upper-left 3x3 part, to {@code out} without
+         * allocating. Normals multiplied by it stay perpendicular to the transformed surface under non-uniform scale,
+         * unlike normals multiplied by the matrix itself.
+         *
+         * @return false, leaving {@code out} unchanged, if the 3x3 part is singular
+         */
+        public boolean normalMatrix(Matrix3f out) {
+            checkSquare(this);
+            final float[] r0 = matrix[0], r1 = matrix[1], r2 = matrix[2];
+            return out.setInverse(r0[0], r0[1], r0[2], r1[0], r1[1], r1[2], r2[0], r2[1], r2[2], true);
+        }
+
+        private static void checkSquare(Matrix4f m) {
+            if (m.matrix.length != 4 || m.matrix[0].length != 4) {
+                throw new IllegalArgumentException("Matrix must be 4x4");
+            }
+        }
+
         @Override
         public String toString() {
             StringBuilder sb = new StringBuilder();
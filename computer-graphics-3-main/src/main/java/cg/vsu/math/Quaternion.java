@@ -0,0 +1,308 @@
+package cg.vsu.math;
+
+/**
+ * A mutable quaternion {@code w + xi + yj + zk}; unit quaternions represent rotations.
+ * <p>
+ * Like the vectors, every operation changes this quaternion and returns it for chaining, so rotations can be
+ * combined without allocating. {@code a.mul(b)} rotates by {@code b} first, then by {@code a}, matching
+ * {@link FlatMatrix4f#mulLocal}. Rotations are counterclockwise when the axis points at the viewer, as in
+ * {@link FlatMatrix4f#rotation}.
+ */
+public class Quaternion {
+    /**
+     * The x component of the vector part.
+     */
+    public float x;
+
+    /**
+     * The y component of the vector part.
+     */
+    public float y;
+
+    /**
+     * The z component of the vector part.
+     */
+    public float z;
+
+    /**
+     * The scalar part.
+     */
+    public float w;
+
+    /**
+     * Constructs the identity rotation.
+     */
+    public Quaternion() {
+        this.w = 1.0f;
+    }
+
+    /**
+     * Constructs a quaternion with the given components.
+     */
+    public Quaternion(float x, float y, float z, float w) {
+        this.x = x;
+        this.y = y;
+        this.z = z;
+        this.w = w;
+    }
+
+    /**
+     * Constructs a copy of the given quaternion.
+     */
+    public Quaternion(Quaternion q) {
+        this(q.x, q.y, q.z, q.w);
+    }
+
+    /**
+     * Sets the components of this quaternion.
+     *
+     * @return This quaternion for chaining.
+     */
+    public Quaternion set(float x, float y, float z, float w) {
+        this.x = x;
+        this.y = y;
+        this.z = z;
+        this.w = w;
+        return this;
+    }
+
+    /**
+     * Sets this quaternion to the given one.
+     *
+     * @return This quaternion for chaining.
+     */
+    public Quaternion set(Quaternion q) {
+        return set(q.x, q.y, q.z, q.w);
+    }
+
+    /**
+     * Sets this quaternion to the identity rotation.
+     *
+     * @return This quaternion for chaining.
+     */
+    public Quaternion idt() {
+        return set(0, 0, 0, 1);
+    }
+
+    /**
+     * Sets this quaternion to the rotation by the angle around the axis. The axis does not need to be normalized.
+     *
+     * @return This quaternion for chaining.
+     */
+    public Quaternion setFromAxisAngle(float axisX, float axisY, float axisZ, float angleRadians) {
+        final float length = Vector3f.len(axisX, axisY, axisZ);
+        if (length == 0.0f) return idt();
+
+        final float half = angleRadians / 2;
+        final float sin = (float) Math.sin(half) / length;
+        return set(axisX * sin, axisY * sin, axisZ * sin, (float) Math.cos(half));
+    }
+
+    /**
+     * Same as {@link #setFromAxisAngle(float, float, float, float)}.
+     *
+     * @return This quaternion for chaining.
+     */
+    public Quaternion setFromAxisAngle(Vector3f axis, float angleRadians) {
+        return setFromAxisAngle(axis.x, axis.y, axis.z, angleRadians);
+    }
+
+    /**
+     * @return A copy of this quaternion.
+     */
+    public Quaternion cpy() {
+        return new Quaternion(this);
+    }
+
+    /**
+     * @return The length of this quaternion, 1 for rotations.
+     */
+    public float len() {
+        return (float) Math.sqrt(len2());
+    }
+
+    /**
+     * @return The square of the length of this quaternion.
+     */
+    public float len2() {
+        return x * x + y * y + z * z + w * w;
+    }
+
+    /**
+     * @return The dot product of the two quaternions, the cosine of half the angle between unit quaternions.
+     */
+    public float dot(Quaternion q) {
+        return x * q.x + y * q.y + z * q.z + w * q.w;
+    }
+
+    /**
+     * Normalizes this quaternion, which undoes the drift of long chains of products. Does nothing if the length
+     * is zero.
+     *
+     * @return This quaternion for chaining.
+     */
+    public Quaternion nor() {
+        final float len2 = len2();
+        if (len2 == 0.0f || len2 == 1.0f) return this;
+
+        final float len = (float) Math.sqrt(len2);
+        this.x /= len;
+        this.y /= len;
+        this.z /= len;
+        this.w /= len;
+        return this;
+    }
+
+    /**
+     * Negates the vector part; for a unit quaternion this is the inverse rotation.
+     *
+     * @return This quaternion for chaining.
+     */
+    public Quaternion conjugate() {
+        this.x = -x;
+        this.y = -y;
+        this.z = -z;
+        return this;
+    }
+
+    /**
+     * Sets this quaternion to its inverse. Does nothing if the length is zero.
+     *
+     * @return This quaternion for chaining.
+     */
+    public Quaternion inv() {
+        final float len2 = len2();
+        if (len2 == 0.0f) return this;
+
+        this.x = -x / len2;
+        this.y = -y / len2;
+        this.z = -z / len2;
+        this.w = w / len2;
+        return this;
+    }
+
+    /**
+     * Sets this quaternion to {@code this * q}: the rotation by {@code q}, then by this quaternion.
+     *
+     * @return This quaternion for chaining.
+     */
+    public Quaternion mul(Quaternion q) {
+        return mul(this, q, this);
+    }
+
+    /**
+     * Sets this quaternion to {@code q * this}: the rotation by this quaternion, then by {@code q}.
+     *
+     * @return This quaternion for chaining.
+     */
+    public Quaternion preMul(Quaternion q) {
+        return mul(q, this, this);
+    }
+
+    /**
+     * Writes {@code a * b} to {@code out}, which may be {@code a} or {@code b}.
+     *
+     * @return {@code out} for chaining.
+     */
+    public static Quaternion mul(Quaternion a, Quaternion b, Quaternion out) {
+        final float ax = a.x, ay = a.y, az = a.z, aw = a.w;
+        final float bx = b.x, by = b.y, bz = b.z, bw = b.w;
+        return out.set(aw * bx + ax * bw + ay * bz - az * by,
+                aw * by - ax * bz + ay * bw + az * bx,
+                aw * bz + ax * by - ay * bx + az * bw,
+                aw * bw - ax * bx - ay * by - az * bz);
+    }
+
+    /**
+     * Spherically interpolates between this rotation and {@code end} along the shorter arc, at constant angular
+     * speed. Both quaternions must be unit.
+     *
+     * @param alpha 0 keeps this rotation, 1 gives {@code end}
+     * @return This quaternion for chaining.
+     */
+    public Quaternion slerp(Quaternion end, float alpha) {
+        float cos = dot(end);
+        // q and -q are the same rotation; going to the closer one takes the shorter arc
+        final float sign = cos < 0 ? -1.0f : 1.0f;
+        cos *= sign;
+
+        float startWeight;
+        float endWeight;
+        if (cos > 0.9995f) {
+            // the sine below is close to zero, and linear interpolation is as accurate
+            startWeight = 1 - alpha;
+            endWeight = alpha;
+        } else {
+            final float angle = (float) Math.acos(cos);
+            final float sin = (float) Math.sin(angle);
+            startWeight = (float) Math.sin((1 - alpha) * angle) / sin;
+            endWeight = (float) Math.sin(alpha * angle) / sin;
+        }
+        endWeight *= sign;
+        set(startWeight * x + endWeight * end.x,
+                startWeight * y + endWeight * end.y,
+                startWeight * z + endWeight * end.z,
+                startWeight * w + endWeight * end.w);
+        return cos > 0.9995f ? nor() : this;
+    }
+
+    /**
+     * Rotates the vector by this unit quaternion in place.
+     *
+     * @return {@code v} for chaining.
+     */
+    public Vector3f transform(Vector3f v) {
+        // v + 2w (q x v) + 2 q x (q x v), without building the rotation matrix
+        final float tx = 2 * (y * v.z - z * v.y);
+        final float ty = 2 * (z * v.x - x * v.z);
+        final float tz = 2 * (x * v.y - y * v.x);
+        return v.set(v.x + w * tx + y * tz - z * ty,
+                v.y + w * ty + z * tx - x * tz,
+                v.z + w * tz + x * ty - y * tx);
+    }
+
+    /**
+     * Sets {@code out} to the rotation matrix of this unit quaternion.
+     *
+     * @return {@code out} for chaining.
+     */
+    public FlatMatrix4f toMatrix(FlatMatrix4f out) {
+        return out.translationRotationScale(0, 0, 0, x, y, z, w, 1, 1, 1);
+    }
+
+    /**
+     * @return Whether the components of the two quaternions differ by at most {@code epsilon}. {@code q} and
+     * {@code -q} are the same rotation but are not equal here.
+     */
+    public boolean epsEquals(Quaternion q, float epsilon) {
+        if (this == q) return true;
+        if (q == null) return false;
+        if (Math.abs(this.x - q.x) > epsilon) return false;
+        if (Math.abs(this.y - q.y) > epsilon) return false;
+        if (Math.abs(this.z - q.z) > epsilon) return false;
+        return !(Math.abs(this.w - q.w) > epsilon);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        Quaternion q = (Quaternion) o;
+        return this.x == q.x && this.y == q.y && this.z == q.z && this.w == q.w;
+    }
+
+    @Override
+    public int hashCode() {
+        int result = 1;
+        result = 31 * result + HashUtils.hash(x);
+        result = 31 * result + HashUtils.hash(y);
+        result = 31 * result + HashUtils.hash(z);
+        result = 31 * result + HashUtils.hash(w);
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return "q(x=" + x + ", y=" + y + ", z=" + z + ", w=" + w + ")";
+    }
+}
@@ -0,0 +1,206 @@
+package cg.vsu.math;
+
+/**
+ * A mutable transform of a scene node: a scale, then a rotation, then a translation.
+ * <p>
+ * Composing two transforms takes a quaternion product and a rotated vector, about a third of the work of a 4x4
+ * matrix product, so a scene graph can propagate world transforms as {@code Transform}s and turn only the ones it
+ * draws into matrices with {@link #toMatrix}. Every operation writes into an existing transform; nothing
+ * allocates after construction.
+ * <p>
+ * A composition of transforms is only a transform again when the scale of the outer one is uniform or the inner
+ * rotation keeps its axes; otherwise the exact product has a shear, which the component-wise product of scales
+ * used here drops. The same holds for {@link #inv()}.
+ */
+public class Transform {
+    /**
+     * The translation, applied last.
+     */
+    public final Vector3f translation = new Vector3f();
+
+    /**
+     * The rotation, a unit quaternion.
+     */
+    public final Quaternion rotation = new Quaternion();
+
+    /**
+     * The scale along the local axes, applied first.
+     */
+    public final Vector3f scale = new Vector3f(1.0f, 1.0f, 1.0f);
+
+    /**
+     * Constructs the identity transform.
+     */
+    public Transform() { }
+
+    /**
+     * Constructs a copy of the given transform.
+     */
+    public Transform(Transform t) {
+        set(t);
+    }
+
+    /**
+     * Constructs a transform from its parts, which are copied.
+     */
+    public Transform(Vector3f translation, Quaternion rotation, Vector3f scale) {
+        set(translation, rotation, scale);
+    }
+
+    /**
+     * Sets this transform to the given one.
+     *
+     * @return This transform for chaining.
+     */
+    public Transform set(Transform t) {
+        return set(t.translation, t.rotation, t.scale);
+    }
+
+    /**
+     * Sets the parts of this transform, copying them.
+     *
+     * @return This transform for chaining.
+     */
+    public Transform set(Vector3f translation, Quaternion rotation, Vector3f scale) {
+        this.translation.set(translation);
+        this.rotation.set(rotation);
+        this.scale.set(scale);
+        return this;
+    }
+
+    /**
+     * Sets this transform to the identity.
+     *
+     * @return This transform for chaining.
+     */
+    public Transform idt() {
+        translation.setZero();
+        rotation.idt();
+        scale.set(1.0f);
+        return this;
+    }
+
+    /**
+     * Sets this transform to {@code this * local}: {@code local}, then this transform, e.g. the world transform of
+     * a child from the world transform of its parent.
+     *
+     * @return This transform for chaining.
+     */
+    public Transform mul(Transform local) {
+        return mul(this, local, this);
+    }
+
+    /**
+     * Sets this transform to {@code parent * this}.
+     *
+     * @return This transform for chaining.
+     */
+    public Transform preMul(Transform parent) {
+        return mul(parent, this, this);
+    }
+
+    /**
+     * Writes {@code parent * local} to {@code out}, which may be {@code parent} or {@code local}.
+     *
+     * @return {@code out} for chaining.
+     */
+    public static Transform mul(Transform parent, Transform local, Transform out) {
+        final Quaternion r = parent.rotation;
+        final Vector3f s = parent.scale;
+        // the translation of the child moves with the scale and rotation of the parent
+        final float lx = local.translation.x * s.x;
+        final float ly = local.translation.y * s.y;
+        final float lz = local.translation.z * s.z;
+        final float tx = 2 * (r.y * lz - r.z * ly);
+        final float ty = 2 * (r.z * lx - r.x * lz);
+        final float tz = 2 * (r.x * ly - r.y * lx);
+        final float x = parent.translation.x + lx + r.w * tx + r.y * tz - r.z * ty;
+        final float y = parent.translation.y + ly + r.w * ty + r.z * tx - r.x * tz;
+        final float z = parent.translation.z + lz + r.w * tz + r.x * ty - r.y * tx;
+        out.scale.set(s.x * local.scale.x, s.y * local.scale.y, s.z * local.scale.z);
+        Quaternion.mul(r, local.rotation, out.rotation);
+        out.translation.set(x, y, z);
+        return out;
+    }
+
+    /**
+     * Sets this transform to its inverse. The scale must have no zero components.
+     *
+     * @return This transform for chaining.
+     */
+    public Transform inv() {
+        scale.set(1 / scale.x, 1 / scale.y, 1 / scale.z);
+        rotation.conjugate();
+        // the inverse translation is -(S^-1 R^-1 t)
+        rotation.transform(translation.scl(-1.0f)).scl(scale);
+        return this;
+    }
+
+    /**
+     * Interpolates between this transform and {@code end}: linearly for the translation and scale and
+     * spherically for the rotation.
+     *
+     * @param alpha 0 keeps this transform, 1 gives {@code end}
+     * @return This transform for chaining.
+     */
+    public Transform interpolate(Transform end, float alpha) {
+        translation.lerp(end.translation, alpha);
+        rotation.slerp(end.rotation, alpha);
+        scale.lerp(end.scale, alpha);
+        return this;
+    }
+
+    /**
+     * Applies this transform to the point in place.
+     *
+     * @return {@code v} for chaining.
+     */
+    public Vector3f transformPosition(Vector3f v) {
+        return rotation.transform(v.scl(scale)).add(translation);
+    }
+
+    /**
+     * Applies the scale and rotation of this transform to the direction in place.
+     *
+     * @return {@code v} for chaining.
+     */
+    public Vector3f transformDirection(Vector3f v) {
+        return rotation.transform(v.scl(scale));
+    }
+
+    /**
+     * Sets {@code out} to the matrix of this transform, see {@link FlatMatrix4f#translationRotationScale}.
+     *
+     * @return {@code out} for chaining.
+     */
+    public FlatMatrix4f toMatrix(FlatMatrix4f out) {
+        return out.translationRotationScale(translation.x, translation.y, translation.z,
+                rotation.x, rotation.y, rotation.z, rotation.w, scale.x, scale.y, scale.z);
+    }
+
+    /**
+     * @return Whether all parts of the two transforms differ by at most {@code epsilon}.
+     */
+    public boolean epsEquals(Transform t, float epsilon) {
+        return translation.epsEquals(t.translation, epsilon) && rotation.epsEquals(t.rotation, epsilon)
+                && scale.epsEquals(t.scale, epsilon);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        Transform t = (Transform) o;
+        return translation.equals(t.translation) && rotation.equals(t.rotation) && scale.equals(t.scale);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * (31 * translation.hashCode() + rotation.hashCode()) + scale.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return "transform(t=" + translation + ", r=" + rotation + ", s=" + scale + ")";
+    }
+}
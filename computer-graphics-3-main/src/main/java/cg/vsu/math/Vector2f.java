@@ -1,7 +1,5 @@
 package cg.vsu.math;
 
-import java.util.Objects;
-
 /**
  * A mutable two-dimensional float vector.
  *
@@ -113,7 +111,10 @@ public class Vector2f implements Vector<Vector2f> {
 
     @Override
     public int hashCode() {
-        return Objects.hash(x, y);
+        int result = 1;
+        result = 31 * result + HashUtils.hash(x);
+        result = 31 * result + HashUtils.hash(y);
+        return result;
     }
 
     @Override
@@ -0,0 +1,369 @@
+package cg.vsu.math;
+
+/**
+ * A mutable three-dimensional double vector, for world positions far from the origin.
+ * <p>
+ * A float has 24 significant bits, so 100 km from the origin neighbouring floats are about 8 mm apart and a
+ * slowly moving camera or object visibly jitters. Positions of cameras and objects in a large world are kept as
+ * {@code Vector3d}; mesh vertices stay {@link Vector3f} relative to their object, and {@link CameraRelative} turns
+ * the difference to the camera into floats only at the last step.
+ * <p>
+ * The methods have the names and the meaning of those of {@link Vector}, with double scalars. The class does not
+ * implement that interface, because its float lengths, products and arrays would throw the precision away.
+ */
+public class Vector3d {
+    /**
+     * The x component of this vector.
+     */
+    public double x;
+
+    /**
+     * The y component of this vector.
+     */
+    public double y;
+
+    /**
+     * The z component of this vector.
+     */
+    public double z;
+
+    /**
+     * Constructs a zero vector.
+     */
+    public Vector3d() { }
+
+    /**
+     * Constructs a vector with the given components.
+     */
+    public Vector3d(double x, double y, double z) {
+        this.x = x;
+        this.y = y;
+        this.z = z;
+    }
+
+    /**
+     * Constructs a vector from the given vector.
+     */
+    public Vector3d(Vector3d v) {
+        this(v.x, v.y, v.z);
+    }
+
+    /**
+     * Constructs a vector from the given float vector.
+     */
+    public Vector3d(Vector3f v) {
+        this(v.x, v.y, v.z);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        Vector3d v = (Vector3d) o;
+        return this.x == v.x && this.y == v.y && this.z == v.z;
+    }
+
+    public boolean epsEquals(Vector3d v, double epsilon) {
+        if (this == v) return true;
+        if (v == null) return false;
+        return epsIdt(v, epsilon);
+    }
+
+    @Override
+    public int hashCode() {
+        int result = 1;
+        result = 31 * result + HashUtils.hash(x);
+        result = 31 * result + HashUtils.hash(y);
+        result = 31 * result + HashUtils.hash(z);
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return "v3d(x=" + x + ", y=" + y + ", z=" + z + ")";
+    }
+
+    public boolean idt(Vector3d v) {
+        return this.x == v.x && this.y == v.y && this.z == v.z;
+    }
+
+    public boolean epsIdt(Vector3d v, double epsilon) {
+        if (Math.abs(this.x - v.x) > epsilon) return false;
+        if (Math.abs(this.y - v.y) > epsilon) return false;
+        return !(Math.abs(this.z - v.z) > epsilon);
+    }
+
+    public Vector3d cpy() {
+        return new Vector3d(this);
+    }
+
+    public double[] toArray() {
+        return new double[]{x, y, z};
+    }
+
+    /**
+     * Writes this vector rounded to floats to {@code out}. Far from the origin this loses the precision this class
+     * keeps; subtract a nearby origin first, see {@link #sub(Vector3d, Vector3f)}.
+     *
+     * @return {@code out} for chaining.
+     */
+    public Vector3f toVector3f(Vector3f out) {
+        return out.set((float) x, (float) y, (float) z);
+    }
+
+    /**
+     * Writes {@code this - origin}, computed in double and then rounded, to {@code out}.
+     *
+     * @return {@code out} for chaining.
+     */
+    public Vector3f sub(Vector3d origin, Vector3f out) {
+        return out.set((float) (x - origin.x), (float) (y - origin.y), (float) (z - origin.z));
+    }
+
+    /**
+     * Sets the components of this vector to the specified values.
+     *
+     * @return This vector for chaining.
+     */
+    public Vector3d set(double x, double y, double z) {
+        this.x = x;
+        this.y = y;
+        this.z = z;
+        return this;
+    }
+
+    public Vector3d set(Vector3d v) {
+        return set(v.x, v.y, v.z);
+    }
+
+    /**
+     * Sets this vector from the given float vector.
+     *
+     * @return This vector for chaining.
+     */
+    public Vector3d set(Vector3f v) {
+        return set(v.x, v.y, v.z);
+    }
+
+    public Vector3d set(double v) {
+        return set(v, v, v);
+    }
+
+    public Vector3d setZero() {
+        return set(0, 0, 0);
+    }
+
+    public Vector3d nor() {
+        if (x == 0.0 && y == 0.0 && z == 0.0) return this;
+
+        return div(len());
+    }
+
+    public double len() {
+        return Math.sqrt(x * x + y * y + z * z);
+    }
+
+    public double len2() {
+        return x * x + y * y + z * z;
+    }
+
+    public Vector3d limit(double limit) {
+        return limit2(limit * limit);
+    }
+
+    public Vector3d limit2(double limit2) {
+        double len2 = len2();
+        if (len2 > limit2) {
+            scl(Math.sqrt(limit2 / len2));
+        }
+        return this;
+    }
+
+    public Vector3d setLength(double length) {
+        return scl(length / len());
+    }
+
+    public Vector3d setLength2(double length2) {
+        return scl(Math.sqrt(length2 / len2()));
+    }
+
+    public Vector3d clamp(double minLength, double maxLength) {
+        double len2 = len2();
+        if (len2 == 0.0) return this;
+
+        double max2 = maxLength * maxLength;
+        if (len2 > max2) return scl(Math.sqrt(max2 / len2));
+
+        double min2 = minLength * minLength;
+        if (len2 < min2) return scl(Math.sqrt(min2 / len2));
+
+        return this;
+    }
+
+    public Vector3d add(Vector3d v) {
+        return add(v.x, v.y, v.z);
+    }
+
+    public Vector3d add(double v) {
+        return add(v, v, v);
+    }
+
+    /**
+     * Adds the given vector to this vector.
+     *
+     * @return This vector for chaining.
+     */
+    public Vector3d add(double x, double y, double z) {
+        this.x += x;
+        this.y += y;
+        this.z += z;
+        return this;
+    }
+
+    public Vector3d sub(Vector3d v) {
+        return sub(v.x, v.y, v.z);
+    }
+
+    public Vector3d sub(double v) {
+        return sub(v, v, v);
+    }
+
+    /**
+     * Subtracts the given vector from this vector.
+     *
+     * @return This vector for chaining.
+     */
+    public Vector3d sub(double x, double y, double z) {
+        this.x -= x;
+        this.y -= y;
+        this.z -= z;
+        return this;
+    }
+
+    public Vector3d scl(double scalar) {
+        this.x *= scalar;
+        this.y *= scalar;
+        this.z *= scalar;
+        return this;
+    }
+
+    public Vector3d scl(Vector3d v) {
+        this.x *= v.x;
+        this.y *= v.y;
+        this.z *= v.z;
+        return this;
+    }
+
+    public Vector3d div(double divisor) {
+        this.x /= divisor;
+        this.y /= divisor;
+        this.z /= divisor;
+        return this;
+    }
+
+    public Vector3d div(Vector3d v) {
+        this.x /= v.x;
+        this.y /= v.y;
+        this.z /= v.z;
+        return this;
+    }
+
+    public double dst(Vector3d v) {
+        return Math.sqrt(dst2(v));
+    }
+
+    public double dst2(Vector3d v) {
+        double a = v.x - this.x;
+        double b = v.y - this.y;
+        double c = v.z - this.z;
+        return a * a + b * b + c * c;
+    }
+
+    public Vector3d lerp(Vector3d v, double alpha) {
+        this.x += alpha * (v.x - this.x);
+        this.y += alpha * (v.y - this.y);
+        this.z += alpha * (v.z - this.z);
+        return this;
+    }
+
+    public Vector3d addMul(Vector3d v, double scalar) {
+        return add(v.x * scalar, v.y * scalar, v.z * scalar);
+    }
+
+    public Vector3d addMul(Vector3d v, Vector3d v2) {
+        return add(v.x * v2.x, v.y * v2.y, v.z * v2.z);
+    }
+
+    public double dot(Vector3d v) {
+        return this.x * v.x + this.y * v.y + this.z * v.z;
+    }
+
+    /**
+     * Sets this vector to the cross product of the two vectors.
+     *
+     * @return This vector for chaining.
+     */
+    public Vector3d crs(Vector3d v) {
+        return set(y * v.z - z * v.y, z * v.x - x * v.z, x * v.y - y * v.x);
+    }
+
+    public Vector3d to(Vector3d v) {
+        return set(v.x - x, v.y - y, v.z - z);
+    }
+
+    public boolean isOnLine(Vector3d v) {
+        double a = v.x / this.x;
+        double b = v.y / this.y;
+        double c = v.z / this.z;
+        return a == b && b == c;
+    }
+
+    public boolean isOnLine(Vector3d v, double epsilon) {
+        double a = v.x / this.x;
+        double b = v.y / this.y;
+        double c = v.z / this.z;
+        return Math.abs(a - b) <= epsilon
+                && Math.abs(b - c) <= epsilon
+                && Math.abs(c - a) <= epsilon;
+    }
+
+    public boolean isCollinear(Vector3d v) {
+        return isOnLine(v) && dot(v) > 0;
+    }
+
+    public boolean isCollinear(Vector3d v, double epsilon) {
+        return isOnLine(v, epsilon) && dot(v) > 0;
+    }
+
+    public boolean isCollinearOpposite(Vector3d v) {
+        return isOnLine(v) && dot(v) < 0;
+    }
+
+    public boolean isCollinearOpposite(Vector3d v, double epsilon) {
+        return isOnLine(v, epsilon) && dot(v) < 0;
+    }
+
+    public boolean isOrthogonal(Vector3d v) {
+        return dot(v) == 0;
+    }
+
+    public boolean isOrthogonal(Vector3d v, double epsilon) {
+        return Math.abs(dot(v)) < epsilon;
+    }
+
+    public boolean hasSameDirection(Vector3d v) {
+        return dot(v) > 0;
+    }
+
+    public boolean hasOppositeDirection(Vector3d v) {
+        return dot(v) < 0;
+    }
+
+    public boolean isUnit() {
+        return len2() == 1.0;
+    }
+
+    public boolean isZero() {
+        return x == 0.0 && y == 0.0 && z == 0.0;
+    }
+}
@@ -1,7 +1,5 @@
 package cg.vsu.math;
 
-import java.util.Objects;
-
 /**
  * A mutable three-dimensional float vector.
  *
@@ -144,7 +142,11 @@ public class Vector3f implements Vector<Vector3f> {
 
     @Override
     public int hashCode() {
-        return Objects.hash(x, y, z);
+        int result = 1;
+        result = 31 * result + HashUtils.hash(x);
+        result = 31 * result + HashUtils.hash(y);
+        result = 31 * result + HashUtils.hash(z);
+        return result;
     }
 
     @Override
@@ -0,0 +1,395 @@
+package cg.vsu.math;
+
+import java.util.List;
+
+/**
+ * A fixed number of three-dimensional vectors packed into one float array as {@code x0, y0, z0, x1, ...}, the
+ * layout of {@link cg.vsu.model.CompactModel#getPositions()}.
+ * <p>
+ * The operations are the ones of {@link Vector3f}, applied to every vector in one loop, and give bit for bit the
+ * same results as calling the {@link Vector3f} method on each vector. Operations with another array pair the
+ * vectors by index. Like {@link Vector3f}, they change this array and return it for chaining; operations that
+ * produce a number per vector write it into a given {@code float[]}.
+ */
+public class Vector3fArray {
+    private final float[] values;
+
+    /**
+     * Constructs an array of {@code size} zero vectors.
+     */
+    public Vector3fArray(int size) {
+        this.values = new float[3 * size];
+    }
+
+    /**
+     * Constructs an array backed by the given packed values, without copying them.
+     *
+     * @param values The packed components; the length must be a multiple of three.
+     */
+    public Vector3fArray(float[] values) {
+        if (values.length % 3 != 0) {
+            throw new IllegalArgumentException("Length " + values.length + " is not a multiple of 3");
+        }
+        this.values = values;
+    }
+
+    /**
+     * Constructs an array from the components of the given vectors.
+     */
+    public Vector3fArray(List<Vector3f> vectors) {
+        this(vectors.size());
+        for (int i = 0; i < vectors.size(); i++) {
+            set(i, vectors.get(i));
+        }
+    }
+
+    /**
+     * @return The packed components backing this array.
+     */
+    public float[] getValues() {
+        return values;
+    }
+
+    /**
+     * @return The number of vectors.
+     */
+    public int size() {
+        return values.length / 3;
+    }
+
+    /**
+     * Copies the vector at the given index into {@code out}.
+     *
+     * @return {@code out} for chaining.
+     */
+    public Vector3f get(int index, Vector3f out) {
+        return out.set(values[3 * index], values[3 * index + 1], values[3 * index + 2]);
+    }
+
+    /**
+     * Sets the vector at the given index.
+     *
+     * @return This array for chaining.
+     */
+    public Vector3fArray set(int index, float x, float y, float z) {
+        values[3 * index] = x;
+        values[3 * index + 1] = y;
+        values[3 * index + 2] = z;
+        return this;
+    }
+
+    /**
+     * Sets the vector at the given index.
+     *
+     * @return This array for chaining.
+     */
+    public Vector3fArray set(int index, Vector3f v) {
+        return set(index, v.x, v.y, v.z);
+    }
+
+    /**
+     * Sets every vector to the vector with the same index in the given array.
+     *
+     * @return This array for chaining.
+     */
+    public Vector3fArray set(Vector3fArray v) {
+        checkSize(v);
+        System.arraycopy(v.values, 0, values, 0, values.length);
+        return this;
+    }
+
+    /**
+     * @return A copy of this array with its own values.
+     */
+    public Vector3fArray cpy() {
+        return new Vector3fArray(values.clone());
+    }
+
+    /**
+     * @see Vector3f#add(Vector3f)
+     */
+    public Vector3fArray add(Vector3fArray v) {
+        checkSize(v);
+        final float[] other = v.values;
+        for (int i = 0; i < values.length; i++) {
+            values[i] += other[i];
+        }
+        return this;
+    }
+
+    /**
+     * Adds the given vector to every vector.
+     *
+     * @see Vector3f#add(Vector3f)
+     */
+    public Vector3fArray add(Vector3f v) {
+        return add(v.x, v.y, v.z);
+    }
+
+    /**
+     * Adds the given vector to every vector.
+     *
+     * @see Vector3f#add(float, float, float)
+     */
+    public Vector3fArray add(float x, float y, float z) {
+        for (int i = 0; i < values.length; i += 3) {
+            values[i] += x;
+            values[i + 1] += y;
+            values[i + 2] += z;
+        }
+        return this;
+    }
+
+    /**
+     * @see Vector3f#sub(Vector3f)
+     */
+    public Vector3fArray sub(Vector3fArray v) {
+        checkSize(v);
+        final float[] other = v.values;
+        for (int i = 0; i < values.length; i++) {
+            values[i] -= other[i];
+        }
+        return this;
+    }
+
+    /**
+     * Subtracts the given vector from every vector.
+     *
+     * @see Vector3f#sub(Vector3f)
+     */
+    public Vector3fArray sub(Vector3f v) {
+        return add(-v.x, -v.y, -v.z);
+    }
+
+    /**
+     * @see Vector3f#scl(float)
+     */
+    public Vector3fArray scl(float scalar) {
+        for (int i = 0; i < values.length; i++) {
+            values[i] *= scalar;
+        }
+        return this;
+    }
+
+    /**
+     * @see Vector3f#scl(Vector3f)
+     */
+    public Vector3fArray scl(Vector3fArray v) {
+        checkSize(v);
+        final float[] other = v.values;
+        for (int i = 0; i < values.length; i++) {
+            values[i] *= other[i];
+        }
+        return this;
+    }
+
+    /**
+     * @see Vector3f#addMul(Vector3f, float)
+     */
+    public Vector3fArray addMul(Vector3fArray v, float scalar) {
+        checkSize(v);
+        final float[] other = v.values;
+        for (int i = 0; i < values.length; i++) {
+            values[i] += other[i] * scalar;
+        }
+        return this;
+    }
+
+    /**
+     * @see Vector3f#lerp(Vector3f, float)
+     */
+    public Vector3fArray lerp(Vector3fArray v, float alpha) {
+        checkSize(v);
+        final float[] other = v.values;
+        for (int i = 0; i < values.length; i++) {
+            values[i] += alpha * (other[i] - values[i]);
+        }
+        return this;
+    }
+
+    /**
+     * Normalizes every vector, leaving zero vectors as they are.
+     *
+     * @see Vector3f#nor()
+     */
+    public Vector3fArray nor() {
+        for (int i = 0; i < values.length; i += 3) {
+            final float x = values[i];
+            final float y = values[i + 1];
+            final float z = values[i + 2];
+            if (x == 0.0f && y == 0.0f && z == 0.0f) continue;
+
+            final float len = (float) Math.sqrt(x * x + y * y + z * z);
+            values[i] = x / len;
+            values[i + 1] = y / len;
+            values[i + 2] = z / len;
+        }
+        return this;
+    }
+
+    /**
+     * @see Vector3f#crs(Vector3f)
+     */
+    public Vector3fArray crs(Vector3fArray v) {
+        checkSize(v);
+        final float[] other = v.values;
+        for (int i = 0; i < values.length; i += 3) {
+            final float ax = values[i];
+            final float ay = values[i + 1];
+            final float az = values[i + 2];
+            values[i] = ay * other[i + 2] - az * other[i + 1];
+            values[i + 1] = az * other[i] - ax * other[i + 2];
+            values[i + 2] = ax * other[i + 1] - ay * other[i];
+        }
+        return this;
+    }
+
+    /**
+     * Sets every vector to its cross product with the given vector.
+     *
+     * @see Vector3f#crs(Vector3f)
+     */
+    public Vector3fArray crs(Vector3f v) {
+        final float bx = v.x;
+        final float by = v.y;
+        final float bz = v.z;
+        for (int i = 0; i < values.length; i += 3) {
+            final float ax = values[i];
+            final float ay = values[i + 1];
+            final float az = values[i + 2];
+            values[i] = ay * bz - az * by;
+            values[i + 1] = az * bx - ax * bz;
+            values[i + 2] = ax * by - ay * bx;
+        }
+        return this;
+    }
+
+    /**
+     * Writes the dot product of every pair of vectors into {@code out}.
+     *
+     * @return {@code out} for chaining.
+     * @see Vector3f#dot(Vector3f)
+     */
+    public float[] dot(Vector3fArray v, float[] out) {
+        checkSize(v);
+        checkOut(out);
+        final float[] other = v.values;
+        for (int i = 0, j = 0; i < values.length; i += 3, j++) {
+            out[j] = values[i] * other[i] + values[i + 1] * other[i + 1] + values[i + 2] * other[i + 2];
+        }
+        return out;
+    }
+
+    /**
+     * Writes the dot product of every vector with the given vector into {@code out}.
+     *
+     * @return {@code out} for chaining.
+     * @see Vector3f#dot(Vector3f)
+     */
+    public float[] dot(Vector3f v, float[] out) {
+        checkOut(out);
+        final float x = v.x;
+        final float y = v.y;
+        final float z = v.z;
+        for (int i = 0, j = 0; i < values.length; i += 3, j++) {
+            out[j] = values[i] * x + values[i + 1] * y + values[i + 2] * z;
+        }
+        return out;
+    }
+
+    /**
+     * Writes the length of every vector into {@code out}.
+     *
+     * @return {@code out} for chaining.
+     * @see Vector3f#len()
+     */
+    public float[] len(float[] out) {
+        len2(out);
+        for (int j = 0; j < size(); j++) {
+            out[j] = (float) Math.sqrt(out[j]);
+        }
+        return out;
+    }
+
+    /**
+     * Writes the square of the length of every vector into {@code out}.
+     *
+     * @return {@code out} for chaining.
+     * @see Vector3f#len2()
+     */
+    public float[] len2(float[] out) {
+        checkOut(out);
+        for (int i = 0, j = 0; i < values.length; i += 3, j++) {
+            final float x = values[i];
+            final float y = values[i + 1];
+            final float z = values[i + 2];
+            out[j] = x * x + y * y + z * z;
+        }
+        return out;
+    }
+
+    /**
+     * Writes the distance between every pair of vectors into {@code out}.
+     *
+     * @return {@code out} for chaining.
+     * @see Vector3f#dst(Vector3f)
+     */
+    public float[] dst(Vector3fArray v, float[] out) {
+        dst2(v, out);
+        for (int j = 0; j < size(); j++) {
+            out[j] = (float) Math.sqrt(out[j]);
+        }
+        return out;
+    }
+
+    /**
+     * Writes the square of the distance between every pair of vectors into {@code out}.
+     *
+     * @return {@code out} for chaining.
+     * @see Vector3f#dst2(Vector3f)
+     */
+    public float[] dst2(Vector3fArray v, float[] out) {
+        checkSize(v);
+        checkOut(out);
+        final float[] other = v.values;
+        for (int i = 0, j = 0; i < values.length; i += 3, j++) {
+            final float a = other[i] - values[i];
+            final float b = other[i + 1] - values[i + 1];
+            final float c = other[i + 2] - values[i + 2];
+            out[j] = a * a + b * b + c * c;
+        }
+        return out;
+    }
+
+    /**
+     * Writes the distance from every vector to the given point into {@code out}.
+     *
+     * @return {@code out} for chaining.
+     * @see Vector3f#dst(Vector3f)
+     */
+    public float[] dst(Vector3f v, float[] out) {
+        checkOut(out);
+        final float x = v.x;
+        final float y = v.y;
+        final float z = v.z;
+        for (int i = 0, j = 0; i < values.length; i += 3, j++) {
+            final float a = x - values[i];
+            final float b = y - values[i + 1];
+            final float c = z - values[i + 2];
+            out[j] = (float) Math.sqrt(a * a + b * b + c * c);
+        }
+        return out;
+    }
+
+    private void checkSize(Vector3fArray v) {
+        if (v.values.length != values.length) {
+            throw new IllegalArgumentException("Arrays must have the same size");
+        }
+    }
+
+    private void checkOut(float[] out) {
+        if (out.length < size()) {
+            throw new IllegalArgumentException("Output length " + out.length + " is less than size " + size());
+        }
+    }
+}
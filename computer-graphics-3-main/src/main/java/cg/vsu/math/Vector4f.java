@@ -1,7 +1,5 @@
 package cg.vsu.math;
 
-import java.util.Objects;
-
 /**
  * A mutable three-dimensional float vector.
  *
@@ -178,7 +176,12 @@ public class Vector4f implements Vector<Vector4f> {
 
     @Override
     public int hashCode() {
-        return Objects.hash(x, y, z, w);
+        int result = 1;
+        result = 31 * result + HashUtils.hash(x);
+        result = 31 * result + HashUtils.hash(y);
+        result = 31 * result + HashUtils.hash(z);
+        result = 31 * result + HashUtils.hash(w);
+        return result;
     }
 
     @Override
@@ -0,0 +1,273 @@
+package cg.vsu.model;
+
+import cg.vsu.math.Vector2f;
+import cg.vsu.math.Vector3f;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * A structure-of-arrays counterpart of {@link Model} for big meshes.
+ * <p>
+ * Positions, texture vertices and normals are packed into flat float arrays ({@code x0, y0, z0, x1, ...}).
+ * Polygons are stored CSR-style: the corners of polygon {@code i} are
+ * {@code [polygonOffsets[i], polygonOffsets[i + 1])} of {@code vertexIndices}. Texture vertex and normal
+ * indices use the same layout and are empty arrays when the model has none, so a vertex-only mesh
+ * pays nothing for them.
+ * <p>
+ * The getters return the backing arrays without copying; they must not be modified.
+ */
+public class CompactModel {
+    /**
+     * Marks a corner without a texture vertex or normal index.
+     */
+    public static final int NO_INDEX = -1;
+
+    private final float[] positions;
+    private final float[] textureVertices;
+    private final float[] normals;
+    private final int[] polygonOffsets;
+    private final int[] vertexIndices;
+    private final int[] textureVertexIndices;
+    private final int[] normalIndices;
+    private MeshAdjacency adjacency;
+    private Triangulation triangulation;
+
+    public CompactModel(float[] positions, float[] textureVertices, float[] normals,
+                        int[] polygonOffsets, int[] vertexIndices, int[] textureVertexIndices, int[] normalIndices) {
+        if (positions.length % 3 != 0 || normals.length % 3 != 0 || textureVertices.length % 2 != 0) {
+            throw new IllegalArgumentException("Coordinate arrays must contain whole vectors");
+        }
+        if (polygonOffsets.length == 0 || polygonOffsets[0] != 0
+                || polygonOffsets[polygonOffsets.length - 1] != vertexIndices.length) {
+            throw new IllegalArgumentException("Polygon offsets must start with 0 and end with the index count");
+        }
+        if (textureVertexIndices.length != 0 && textureVertexIndices.length != vertexIndices.length
+                || normalIndices.length != 0 && normalIndices.length != vertexIndices.length) {
+            throw new IllegalArgumentException("Attribute indices must be empty or match the vertex indices");
+        }
+        this.positions = positions;
+        this.textureVertices = textureVertices;
+        this.normals = normals;
+        this.polygonOffsets = polygonOffsets;
+        this.vertexIndices = vertexIndices;
+        this.textureVertexIndices = textureVertexIndices;
+        this.normalIndices = normalIndices;
+    }
+
+    /**
+     * Packs the given model.
+     */
+    public static CompactModel fromModel(Model model) {
+        CompactModelBuilder builder = new CompactModelBuilder(model.vertices.size(), model.polygons.size());
+        for (Vector3f vertex : model.vertices) {
+            builder.addVertex(vertex.x, vertex.y, vertex.z);
+        }
+        for (Vector2f textureVertex : model.textureVertices) {
+            builder.addTextureVertex(textureVertex.x, textureVertex.y);
+        }
+        for (Vector3f normal : model.normals) {
+            builder.addNormal(normal.x, normal.y, normal.z);
+        }
+        for (Polygon polygon : model.polygons) {
+            builder.addPolygon(polygon);
+        }
+        return builder.build();
+    }
+
+    /**
+     * @return a new independent {@link Model} with the same content
+     */
+    public Model toModel() {
+        Model model = new Model();
+        model.vertices.addAll(vertexList());
+        model.textureVertices.ensureCapacity(getTextureVertexCount());
+        for (int i = 0; i < getTextureVertexCount(); i++) {
+            model.textureVertices.add(new Vector2f(textureVertices[2 * i], textureVertices[2 * i + 1]));
+        }
+        model.normals.addAll(normalList());
+        model.polygons.addAll(polygonList());
+        return model;
+    }
+
+    public int getVertexCount() {
+        return positions.length / 3;
+    }
+
+    public int getTextureVertexCount() {
+        return textureVertices.length / 2;
+    }
+
+    public int getNormalCount() {
+        return normals.length / 3;
+    }
+
+    public int getPolygonCount() {
+        return polygonOffsets.length - 1;
+    }
+
+    public int getPolygonSize(int polygon) {
+        return polygonOffsets[polygon + 1] - polygonOffsets[polygon];
+    }
+
+    public boolean hasTextureVertexIndices() {
+        return textureVertexIndices.length != 0;
+    }
+
+    public boolean hasNormalIndices() {
+        return normalIndices.length != 0;
+    }
+
+    /**
+     * Copies the position of the vertex into {@code out}.
+     *
+     * @return {@code out} for chaining
+     */
+    public Vector3f getVertex(int vertex, Vector3f out) {
+        return out.set(positions[3 * vertex], positions[3 * vertex + 1], positions[3 * vertex + 2]);
+    }
+
+    public float[] getPositions() {
+        return positions;
+    }
+
+    public float[] getTextureVertices() {
+        return textureVertices;
+    }
+
+    public float[] getNormals() {
+        return normals;
+    }
+
+    public int[] getPolygonOffsets() {
+        return polygonOffsets;
+    }
+
+    public int[] getVertexIndices() {
+        return vertexIndices;
+    }
+
+    public int[] getTextureVertexIndices() {
+        return textureVertexIndices;
+    }
+
+    public int[] getNormalIndices() {
+        return normalIndices;
+    }
+
+    /**
+     * @return the adjacency of the polygons, built on first use
+     */
+    public MeshAdjacency getAdjacency() {
+        MeshAdjacency adjacency = this.adjacency;
+        if (adjacency == null) {
+            adjacency = MeshAdjacency.of(this);
+            this.adjacency = adjacency;
+        }
+        return adjacency;
+    }
+
+    /**
+     * @return the triangles of the polygons, built on first use
+     */
+    public Triangulation getTriangulation() {
+        Triangulation triangulation = this.triangulation;
+        if (triangulation == null) {
+            triangulation = Triangulation.of(this);
+            this.triangulation = triangulation;
+        }
+        return triangulation;
+    }
+
+    /**
+     * A read-only view for code written against {@code List<Vector3f>}, such as
+     * {@link cg.vsu.normals.NormalUtils}. Every {@code get} creates a new vector.
+     */
+    public List<Vector3f> vertexList() {
+        return new PackedVector3fList(positions);
+    }
+
+    /**
+     * A read-only view of the normals, see {@link #vertexList()}.
+     */
+    public List<Vector3f> normalList() {
+        return new PackedVector3fList(normals);
+    }
+
+    /**
+     * A read-only view for code written against {@code List<Polygon>}. Every {@code get} creates a new
+     * {@link Polygon}, so prefer the index arrays in hot loops. The texture vertex and normal index lists of a
+     * polygon are empty if none of its corners has one, otherwise they hold an index or {@link #NO_INDEX} per corner.
+     */
+    public List<Polygon> polygonList() {
+        return new PolygonList();
+    }
+
+    private static class PackedVector3fList extends AbstractList<Vector3f> implements RandomAccess {
+        private final float[] data;
+
+        PackedVector3fList(float[] data) {
+            this.data = data;
+        }
+
+        @Override
+        public Vector3f get(int index) {
+            if (index < 0 || index >= size()) {
+                throw new IndexOutOfBoundsException("Index " + index + " out of bounds for size " + size());
+            }
+            return new Vector3f(data[3 * index], data[3 * index + 1], data[3 * index + 2]);
+        }
+
+        @Override
+        public int size() {
+            return data.length / 3;
+        }
+    }
+
+    private class PolygonList extends AbstractList<Polygon> implements RandomAccess {
+        @Override
+        public Polygon get(int index) {
+            if (index < 0 || index >= size()) {
+                throw new IndexOutOfBoundsException("Index " + index + " out of bounds for size " + size());
+            }
+            final int from = polygonOffsets[index];
+            final int to = polygonOffsets[index + 1];
+
+            Polygon polygon = new Polygon();
+            polygon.setVertexIndices(toList(vertexIndices, from, to));
+            // у полигона без текстур или нормалей списки остаются пустыми, как после ObjReader.read;
+            // иначе в списке по индексу на угол, и отсутствующие остаются NO_INDEX
+            if (hasTextureVertexIndices() && !allAbsent(textureVertexIndices, from, to)) {
+                polygon.setTextureVertexIndices(toList(textureVertexIndices, from, to));
+            }
+            if (hasNormalIndices() && !allAbsent(normalIndices, from, to)) {
+                polygon.setNormalIndices(toList(normalIndices, from, to));
+            }
+            return polygon;
+        }
+
+        @Override
+        public int size() {
+            return getPolygonCount();
+        }
+
+        private ArrayList<Integer> toList(int[] indices, int from, int to) {
+            ArrayList<Integer> result = new ArrayList<>(to - from);
+            for (int i = from; i < to; i++) {
+                result.add(indices[i]);
+            }
+            return result;
+        }
+
+        private boolean allAbsent(int[] indices, int from, int to) {
+            for (int i = from; i < to; i++) {
+                if (indices[i] != NO_INDEX) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
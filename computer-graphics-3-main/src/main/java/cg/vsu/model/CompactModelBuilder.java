@@ -0,0 +1,131 @@
+package cg.vsu.model;
+
+import java.util.List;
+
+/**
+ * Collects mesh data into a {@link CompactModel} without boxing.
+ * <p>
+ * Texture vertex and normal index buffers are started only when the first polygon having them is added,
+ * earlier corners are back-filled with {@link CompactModel#NO_INDEX}.
+ */
+public class CompactModelBuilder {
+    private final FloatArrayBuilder positions;
+    private final FloatArrayBuilder textureVertices = new FloatArrayBuilder();
+    private final FloatArrayBuilder normals = new FloatArrayBuilder();
+    private final IntArrayBuilder polygonOffsets;
+    private final IntArrayBuilder vertexIndices;
+    private IntArrayBuilder textureVertexIndices;
+    private IntArrayBuilder normalIndices;
+
+    public CompactModelBuilder() {
+        this(16, 16);
+    }
+
+    /**
+     * @param vertexCapacity  expected vertex count
+     * @param polygonCapacity expected polygon count
+     */
+    public CompactModelBuilder(int vertexCapacity, int polygonCapacity) {
+        positions = new FloatArrayBuilder(3 * vertexCapacity);
+        polygonOffsets = new IntArrayBuilder(polygonCapacity + 1);
+        vertexIndices = new IntArrayBuilder(3 * polygonCapacity);
+        polygonOffsets.add(0);
+    }
+
+    public CompactModelBuilder addVertex(float x, float y, float z) {
+        positions.add(x, y, z);
+        return this;
+    }
+
+    public CompactModelBuilder addTextureVertex(float u, float v) {
+        textureVertices.add(u, v);
+        return this;
+    }
+
+    public CompactModelBuilder addNormal(float x, float y, float z) {
+        normals.add(x, y, z);
+        return this;
+    }
+
+    /**
+     * Adds a polygon from the first {@code size} items of the arrays.
+     *
+     * @param textureVertexIndices texture vertex indices or {@link CompactModel#NO_INDEX} items, may be null
+     * @param normalIndices        normal indices or {@link CompactModel#NO_INDEX} items, may be null
+     */
+    public CompactModelBuilder addPolygon(int[] vertexIndices, int[] textureVertexIndices, int[] normalIndices,
+                                          int size) {
+        final int cornersBefore = this.vertexIndices.size();
+        this.vertexIndices.add(vertexIndices, 0, size);
+        this.textureVertexIndices = addAttribute(this.textureVertexIndices, textureVertexIndices, cornersBefore, size);
+        this.normalIndices = addAttribute(this.normalIndices, normalIndices, cornersBefore, size);
+        polygonOffsets.add(this.vertexIndices.size());
+        return this;
+    }
+
+    /**
+     * Adds a polygon of a {@link Model}. Attribute lists that do not cover every corner are ignored.
+     */
+    public CompactModelBuilder addPolygon(Polygon polygon) {
+        final List<Integer> polygonVertexIndices = polygon.getVertexIndices();
+        final int size = polygonVertexIndices.size();
+        final int[] corners = toArray(polygonVertexIndices, size);
+        final int[] textures = polygon.getTextureVertexIndices().size() == size
+                ? toArray(polygon.getTextureVertexIndices(), size) : null;
+        final int[] normals = polygon.getNormalIndices().size() == size
+                ? toArray(polygon.getNormalIndices(), size) : null;
+        return addPolygon(corners, textures, normals, size);
+    }
+
+    public int getVertexCount() {
+        return positions.size() / 3;
+    }
+
+    public int getPolygonCount() {
+        return polygonOffsets.size() - 1;
+    }
+
+    public CompactModel build() {
+        final int corners = vertexIndices.size();
+        return new CompactModel(
+                positions.toArray(),
+                textureVertices.toArray(),
+                normals.toArray(),
+                polygonOffsets.toArray(),
+                vertexIndices.toArray(),
+                textureVertexIndices == null ? new int[0] : padded(textureVertexIndices, corners).toArray(),
+                normalIndices == null ? new int[0] : padded(normalIndices, corners).toArray());
+    }
+
+    private static IntArrayBuilder addAttribute(IntArrayBuilder target, int[] values, int cornersBefore, int size) {
+        if (values == null || !containsIndex(values, size)) {
+            return target;
+        }
+        if (target == null) {
+            target = new IntArrayBuilder(cornersBefore + size);
+        }
+        padded(target, cornersBefore).add(values, 0, size);
+        return target;
+    }
+
+    private static IntArrayBuilder padded(IntArrayBuilder builder, int size) {
+        return builder.fill(CompactModel.NO_INDEX, size - builder.size());
+    }
+
+    private static boolean containsIndex(int[] values, int size) {
+        for (int i = 0; i < size; i++) {
+            if (values[i] != CompactModel.NO_INDEX) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static int[] toArray(List<Integer> list, int size) {
+        final int[] result = new int[size];
+        for (int i = 0; i < size; i++) {
+            result[i] = list.get(i);
+        }
+        return result;
+    }
+}
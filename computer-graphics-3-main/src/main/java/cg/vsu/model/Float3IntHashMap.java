@@ -0,0 +1,224 @@
+package cg.vsu.model;
+
+import cg.vsu.math.Vector3f;
+
+import java.util.Arrays;
+
+/**
+ * A hash map from float triples, such as vertex positions, to ints, without boxing keys or values.
+ * <p>
+ * Keys are compared as {@link Vector3f#equals} compares vectors (except that NaN matches NaN), or, with a positive
+ * {@code quantum}, by the cell of the {@code quantum}-sized grid they round to, so that nearly equal positions share
+ * one entry; NaN and infinite coordinates have no cell and are still compared exactly. Unlike {@link VertexWelder}, quantized keys close to the border of a cell may miss an equally close key
+ * in the next cell; use the welder when every pair within epsilon must be merged.
+ * <p>
+ * Entries are numbered in insertion order and stored in flat arrays: the first key put into the map is kept as
+ * the key of its entry, and {@link #getKey} and {@link #getValue} iterate over the entries without a view object.
+ * Lookups use open addressing with linear probing over a table of entry numbers and cached hashes, which stays
+ * at most half full. Entries cannot be removed one by one, only all together with {@link #clear()}.
+ */
+public class Float3IntHashMap {
+    private static final int NONE = -1;
+
+    private final float inverseQuantum;
+    private float[] keys;
+    private int[] values;
+    private int size;
+    private int[] table;
+    private int[] hashes;
+    private int mask;
+
+    public Float3IntHashMap() {
+        this(16);
+    }
+
+    public Float3IntHashMap(int expectedSize) {
+        this(expectedSize, 0);
+    }
+
+    /**
+     * @param quantum the size of the grid cells keys are rounded to, or 0 to compare keys exactly
+     */
+    public Float3IntHashMap(int expectedSize, float quantum) {
+        if (!(quantum >= 0) || Float.isInfinite(quantum)) {
+            throw new IllegalArgumentException("Quantum must be non-negative and finite: " + quantum);
+        }
+        inverseQuantum = quantum == 0 ? 0 : 1 / quantum;
+        final int capacity = Math.max(expectedSize, 1);
+        keys = new float[3 * capacity];
+        values = new int[capacity];
+        allocateTable(tableSize(capacity));
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * @return the value of the key, or {@code defaultValue} if the map has no such key
+     */
+    public int get(float x, float y, float z, int defaultValue) {
+        final int entry = table[find(x, y, z, hash(x, y, z))];
+        return entry == NONE ? defaultValue : values[entry];
+    }
+
+    public boolean containsKey(float x, float y, float z) {
+        return table[find(x, y, z, hash(x, y, z))] != NONE;
+    }
+
+    /**
+     * @return the number of the entry of the key in insertion order, or -1 if the map has no such key
+     */
+    public int indexOf(float x, float y, float z) {
+        return table[find(x, y, z, hash(x, y, z))];
+    }
+
+    /**
+     * Associates the value with the key, replacing the previous value if there was one.
+     */
+    public void put(float x, float y, float z, int value) {
+        final int hash = hash(x, y, z);
+        final int slot = find(x, y, z, hash);
+        if (table[slot] == NONE) {
+            insert(slot, x, y, z, hash, value);
+        } else {
+            values[table[slot]] = value;
+        }
+    }
+
+    /**
+     * Adds the key with the value unless the map already has it. {@code putIfAbsent(x, y, z, size())} numbers
+     * distinct positions in the order they first appear, which is all vertex deduplication needs.
+     *
+     * @return the current value of the key: the existing one, or {@code value} if the key was added
+     */
+    public int putIfAbsent(float x, float y, float z, int value) {
+        final int hash = hash(x, y, z);
+        final int slot = find(x, y, z, hash);
+        if (table[slot] != NONE) {
+            return values[table[slot]];
+        }
+        insert(slot, x, y, z, hash, value);
+        return value;
+    }
+
+    /**
+     * Copies the key of the entry, as it was first put into the map, into {@code out}.
+     *
+     * @return {@code out} for chaining
+     */
+    public Vector3f getKey(int entry, Vector3f out) {
+        checkEntry(entry);
+        return out.set(keys[3 * entry], keys[3 * entry + 1], keys[3 * entry + 2]);
+    }
+
+    public int getValue(int entry) {
+        checkEntry(entry);
+        return values[entry];
+    }
+
+    public void clear() {
+        size = 0;
+        Arrays.fill(table, NONE);
+    }
+
+    private void checkEntry(int entry) {
+        if (entry < 0 || entry >= size) {
+            throw new IndexOutOfBoundsException("Entry " + entry + " out of bounds for size " + size);
+        }
+    }
+
+    private void insert(int slot, float x, float y, float z, int hash, int value) {
+        if (size == values.length) {
+            final int capacity = IntArrayBuilder.grownCapacity(values.length, size + 1);
+            keys = Arrays.copyOf(keys, 3 * capacity);
+            values = Arrays.copyOf(values, capacity);
+        }
+        keys[3 * size] = x;
+        keys[3 * size + 1] = y;
+        keys[3 * size + 2] = z;
+        values[size] = value;
+        table[slot] = size;
+        hashes[slot] = hash;
+        ++size;
+        if (2 * size > table.length) {
+            rehash();
+        }
+    }
+
+    private void rehash() {
+        final int[] oldTable = table;
+        final int[] oldHashes = hashes;
+        allocateTable(2 * oldTable.length);
+        for (int slot = 0; slot < oldTable.length; slot++) {
+            if (oldTable[slot] == NONE) {
+                continue;
+            }
+            int newSlot = oldHashes[slot] & mask;
+            while (table[newSlot] != NONE) {
+                newSlot = (newSlot + 1) & mask;
+            }
+            table[newSlot] = oldTable[slot];
+            hashes[newSlot] = oldHashes[slot];
+        }
+    }
+
+    private void allocateTable(int tableSize) {
+        table = new int[tableSize];
+        hashes = new int[tableSize];
+        mask = tableSize - 1;
+        Arrays.fill(table, NONE);
+    }
+
+    private static int tableSize(int capacity) {
+        return Integer.highestOneBit(Math.max(2, 2 * capacity - 1)) << 1;
+    }
+
+    /**
+     * @return the slot of the key, or the empty slot where it would be inserted
+     */
+    private int find(float x, float y, float z, int hash) {
+        int slot = hash & mask;
+        while (table[slot] != NONE) {
+            if (hashes[slot] == hash) {
+                final int entry = table[slot];
+                if (sameCoordinate(keys[3 * entry], x)
+                        && sameCoordinate(keys[3 * entry + 1], y)
+                        && sameCoordinate(keys[3 * entry + 2], z)) {
+                    return slot;
+                }
+            }
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private int hash(float x, float y, float z) {
+        final long hash = cell(x) * 0x9E3779B97F4A7C15L + cell(y) * 0xC2B2AE3D27D4EB4FL
+                + cell(z) * 0x165667B19E3779F9L;
+        return (int) (hash ^ hash >>> 32);
+    }
+
+    private boolean sameCoordinate(float a, float b) {
+        if (inverseQuantum == 0 || !Float.isFinite(a) || !Float.isFinite(b)) {
+            return Float.floatToIntBits(a + 0.0f) == Float.floatToIntBits(b + 0.0f);
+        }
+        return cell(a) == cell(b);
+    }
+
+    /**
+     * @return the grid cell of the coordinate, or its bits if keys are compared exactly or it is NaN or infinite
+     */
+    private long cell(float coordinate) {
+        // у NaN и бесконечностей нет клетки: floor(NaN) дал бы клетку 0, а бесконечность - крайнюю клетку
+        if (inverseQuantum == 0 || !Float.isFinite(coordinate)) {
+            // -0.0f == 0.0f, поэтому их биты приводятся к одному виду
+            return Float.floatToIntBits(coordinate + 0.0f);
+        }
+        return (long) Math.floor(coordinate * inverseQuantum + 0.5f);
+    }
+}
@@ -0,0 +1,85 @@
+package cg.vsu.model;
+
+import java.util.Arrays;
+
+/**
+ * A growable float array without boxing, used to collect mesh data of unknown size.
+ */
+public class FloatArrayBuilder {
+    private float[] data;
+    private int size;
+
+    public FloatArrayBuilder() {
+        this(16);
+    }
+
+    public FloatArrayBuilder(int capacity) {
+        data = new float[Math.max(capacity, 1)];
+    }
+
+    public FloatArrayBuilder add(float value) {
+        ensureCapacity(size + 1);
+        data[size++] = value;
+        return this;
+    }
+
+    public FloatArrayBuilder add(float a, float b) {
+        ensureCapacity(size + 2);
+        data[size++] = a;
+        data[size++] = b;
+        return this;
+    }
+
+    public FloatArrayBuilder add(float a, float b, float c) {
+        ensureCapacity(size + 3);
+        data[size++] = a;
+        data[size++] = b;
+        data[size++] = c;
+        return this;
+    }
+
+    public float get(int index) {
+        if (index >= size) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for size " + size);
+        }
+        return data[index];
+    }
+
+    public void set(int index, float value) {
+        if (index >= size) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for size " + size);
+        }
+        data[index] = value;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public void clear() {
+        size = 0;
+    }
+
+    /**
+     * @param size the new size, not greater than the current one
+     */
+    public void truncate(int size) {
+        if (size < 0 || size > this.size) {
+            throw new IllegalArgumentException("Size must be between 0 and " + this.size);
+        }
+        this.size = size;
+    }
+
+    /**
+     * @return a trimmed copy of the collected values
+     */
+    public float[] toArray() {
+        return Arrays.copyOf(data, size);
+    }
+
+    public void ensureCapacity(int capacity) {
+        if (capacity > data.length) {
+            data = Arrays.copyOf(data, IntArrayBuilder.grownCapacity(data.length, capacity));
+        }
+    }
+}
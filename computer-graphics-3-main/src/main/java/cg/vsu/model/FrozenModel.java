@@ -0,0 +1,281 @@
+package cg.vsu.model;
+
+import cg.vsu.math.Vector2f;
+import cg.vsu.math.Vector3f;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.ListIterator;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.function.IntFunction;
+import java.util.function.Predicate;
+import java.util.function.UnaryOperator;
+
+/**
+ * An immutable snapshot of a {@link Model} that can be shared between threads and handed out as {@link #view()}s.
+ * <p>
+ * {@link Model} exposes mutable lists of mutable vectors, so a view cannot simply share them. The lists of a view
+ * throw {@link UnsupportedOperationException} on every modification, its polygons reject their setters, and
+ * vectors and groups are copied whenever they are read out of a list, so changing a vector changes only the
+ * caller's copy. Indices are {@link Integer}s and are shared as they are.
+ */
+public final class FrozenModel {
+    private static final ReadOnlyList<Integer> NO_INDICES =
+            new ReadOnlyList<>(new ArrayList<>(), UnaryOperator.identity());
+
+    private final ReadOnlyList<Vector3f> vertices;
+    private final ReadOnlyList<Vector2f> textureVertices;
+    private final ReadOnlyList<Vector3f> normals;
+    private final ReadOnlyList<Polygon> polygons;
+    private final ReadOnlyList<PolygonGroup> groups;
+
+    /**
+     * Takes over the content of the model, which must not be changed afterwards.
+     */
+    public FrozenModel(Model model) {
+        vertices = new ReadOnlyList<>(model.vertices, Vector3f::cpy);
+        textureVertices = new ReadOnlyList<>(model.textureVertices, Vector2f::cpy);
+        normals = new ReadOnlyList<>(model.normals, Vector3f::cpy);
+
+        ArrayList<Polygon> frozenPolygons = new ArrayList<>(model.polygons.size());
+        for (Polygon polygon : model.polygons) {
+            frozenPolygons.add(new FrozenPolygon(polygon));
+        }
+        polygons = new ReadOnlyList<>(frozenPolygons, UnaryOperator.identity());
+        groups = new ReadOnlyList<>(model.groups, group -> new PolygonGroup(
+                group.getType(), group.getName(), group.getFirstPolygon(), group.getEndPolygon()));
+    }
+
+    /**
+     * @return a new read-only {@link Model} over the snapshot; its fields may be reassigned without affecting
+     * other views
+     */
+    public Model view() {
+        Model view = new Model();
+        view.vertices = vertices;
+        view.textureVertices = textureVertices;
+        view.normals = normals;
+        view.polygons = polygons;
+        view.groups = groups;
+        return view;
+    }
+
+    private static ReadOnlyList<Integer> indices(ArrayList<Integer> indices) {
+        return indices.isEmpty() ? NO_INDICES : new ReadOnlyList<>(indices, UnaryOperator.identity());
+    }
+
+    private static final class FrozenPolygon extends Polygon {
+        FrozenPolygon(Polygon polygon) {
+            super(indices(polygon.getVertexIndices()),
+                    indices(polygon.getTextureVertexIndices()),
+                    indices(polygon.getNormalIndices()));
+        }
+
+        @Override
+        public void setVertexIndices(ArrayList<Integer> vertexIndices) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void setTextureVertexIndices(ArrayList<Integer> textureVertexIndices) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void setNormalIndices(ArrayList<Integer> normalIndices) {
+            throw new UnsupportedOperationException();
+        }
+    }
+
+    /**
+     * An {@link ArrayList}, since that is the type of the {@link Model} fields, that rejects modifications and
+     * passes every item it gives out through {@code copy}.
+     */
+    private static final class ReadOnlyList<T> extends ArrayList<T> {
+        private static final long serialVersionUID = 1L;
+
+        private final UnaryOperator<T> copy;
+
+        ReadOnlyList(Collection<? extends T> items, UnaryOperator<T> copy) {
+            super(items);
+            this.copy = copy;
+        }
+
+        @Override
+        public T get(int index) {
+            return copy.apply(super.get(index));
+        }
+
+        @Override
+        public Iterator<T> iterator() {
+            return listIterator(0);
+        }
+
+        @Override
+        public ListIterator<T> listIterator() {
+            return listIterator(0);
+        }
+
+        @Override
+        public ListIterator<T> listIterator(int index) {
+            final ListIterator<T> iterator = super.listIterator(index);
+            return new ListIterator<T>() {
+                @Override
+                public boolean hasNext() {
+                    return iterator.hasNext();
+                }
+
+                @Override
+                public T next() {
+                    return copy.apply(iterator.next());
+                }
+
+                @Override
+                public boolean hasPrevious() {
+                    return iterator.hasPrevious();
+                }
+
+                @Override
+                public T previous() {
+                    return copy.apply(iterator.previous());
+                }
+
+                @Override
+                public int nextIndex() {
+                    return iterator.nextIndex();
+                }
+
+                @Override
+                public int previousIndex() {
+                    return iterator.previousIndex();
+                }
+
+                @Override
+                public void remove() {
+                    throw new UnsupportedOperationException();
+                }
+
+                @Override
+                public void set(T t) {
+                    throw new UnsupportedOperationException();
+                }
+
+                @Override
+                public void add(T t) {
+                    throw new UnsupportedOperationException();
+                }
+            };
+        }
+
+        @Override
+        public Spliterator<T> spliterator() {
+            return Spliterators.spliterator(iterator(), size(), Spliterator.ORDERED);
+        }
+
+        @Override
+        public void forEach(Consumer<? super T> action) {
+            for (int i = 0; i < size(); i++) {
+                action.accept(get(i));
+            }
+        }
+
+        @Override
+        public Object[] toArray() {
+            final Object[] result = super.toArray();
+            for (int i = 0; i < result.length; i++) {
+                result[i] = get(i);
+            }
+            return result;
+        }
+
+        @Override
+        public <E> E[] toArray(E[] a) {
+            final E[] result = super.toArray(a);
+            for (int i = 0; i < size(); i++) {
+                @SuppressWarnings("unchecked")
+                final E item = (E) get(i);
+                result[i] = item;
+            }
+            return result;
+        }
+
+        @Override
+        public <E> E[] toArray(IntFunction<E[]> generator) {
+            return toArray(generator.apply(0));
+        }
+
+        @Override
+        public ArrayList<T> subList(int fromIndex, int toIndex) {
+            return new ReadOnlyList<>(super.subList(fromIndex, toIndex), copy);
+        }
+
+        @Override
+        public T set(int index, T element) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public boolean add(T t) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void add(int index, T element) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public boolean addAll(Collection<? extends T> c) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public boolean addAll(int index, Collection<? extends T> c) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public T remove(int index) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public boolean remove(Object o) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public boolean removeAll(Collection<?> c) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public boolean retainAll(Collection<?> c) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public boolean removeIf(Predicate<? super T> filter) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void replaceAll(UnaryOperator<T> operator) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void sort(Comparator<? super T> c) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void clear() {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package cg.vsu.model;
+
+import java.util.Arrays;
+
+/**
+ * A growable int array without boxing, used to collect mesh indices of unknown size.
+ */
+public class IntArrayBuilder {
+    private static final int MAX_ARRAY_SIZE = Integer.MAX_VALUE - 8;
+
+    private int[] data;
+    private int size;
+
+    public IntArrayBuilder() {
+        this(16);
+    }
+
+    public IntArrayBuilder(int capacity) {
+        data = new int[Math.max(capacity, 1)];
+    }
+
+    public IntArrayBuilder add(int value) {
+        ensureCapacity(size + 1);
+        data[size++] = value;
+        return this;
+    }
+
+    /**
+     * Appends {@code count} values of the array starting from {@code from}.
+     */
+    public IntArrayBuilder add(int[] values, int from, int count) {
+        ensureCapacity(size + count);
+        System.arraycopy(values, from, data, size, count);
+        size += count;
+        return this;
+    }
+
+    /**
+     * Appends the value {@code count} times.
+     */
+    public IntArrayBuilder fill(int value, int count) {
+        ensureCapacity(size + count);
+        Arrays.fill(data, size, size + count, value);
+        size += count;
+        return this;
+    }
+
+    public int get(int index) {
+        if (index >= size) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for size " + size);
+        }
+        return data[index];
+    }
+
+    public void set(int index, int value) {
+        if (index >= size) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for size " + size);
+        }
+        data[index] = value;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public void clear() {
+        size = 0;
+    }
+
+    /**
+     * @param size the new size, not greater than the current one
+     */
+    public void truncate(int size) {
+        if (size < 0 || size > this.size) {
+            throw new IllegalArgumentException("Size must be between 0 and " + this.size);
+        }
+        this.size = size;
+    }
+
+    /**
+     * @return a trimmed copy of the collected values
+     */
+    public int[] toArray() {
+        return Arrays.copyOf(data, size);
+    }
+
+    public void ensureCapacity(int capacity) {
+        if (capacity > data.length) {
+            data = Arrays.copyOf(data, grownCapacity(data.length, capacity));
+        }
+    }
+
+    static int grownCapacity(int current, int required) {
+        if (required < 0 || required > MAX_ARRAY_SIZE) {
+            throw new OutOfMemoryError("Required array size is too large: " + Integer.toUnsignedString(required));
+        }
+        final long grown = current + (current >> 1) + 1L;
+        return (int) Math.min(MAX_ARRAY_SIZE, Math.max(grown, required));
+    }
+}
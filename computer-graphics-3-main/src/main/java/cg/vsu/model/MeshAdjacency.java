@@ -0,0 +1,317 @@
+package cg.vsu.model;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Which polygons touch a vertex or an edge, and which edges meet at a vertex.
+ * <p>
+ * All tables are CSR-style int arrays: the polygons of vertex {@code v} are
+ * {@code vertexPolygons[vertexPolygonOffsets[v] .. vertexPolygonOffsets[v + 1])}, in increasing order, and the
+ * same layout is used for the edges of a vertex and the polygons of an edge. Edges are undirected, numbered
+ * by their smaller vertex and then by the other one. A polygon is listed once per vertex and per edge even if
+ * it repeats them. Vertices are matched by index, not by coordinates.
+ * <p>
+ * Building takes one pass over the polygon corners plus sorting the few edges around every vertex, so it is
+ * linear for ordinary meshes; every query after that is O(degree). Instances are immutable; use
+ * {@link Model#getAdjacency()} or {@link CompactModel#getAdjacency()} to build them once and reuse them.
+ */
+public final class MeshAdjacency {
+    /**
+     * Returned by {@link #findEdge} for vertices without a common edge.
+     */
+    public static final int NO_EDGE = -1;
+
+    private final int polygonCount;
+    private final int[] vertexPolygonOffsets;
+    private final int[] vertexPolygons;
+    private final int[] edgeVertices;
+    private final int[] edgePolygonOffsets;
+    private final int[] edgePolygons;
+    private final int[] vertexEdgeOffsets;
+    private final int[] vertexEdges;
+
+    private MeshAdjacency(int vertexCount, int[] polygonOffsets, int[] vertexIndices) {
+        this.polygonCount = polygonOffsets.length - 1;
+
+        // Вершина -> полигоны: полигоны обходятся по возрастанию, поэтому списки получаются упорядоченными
+        vertexPolygonOffsets = new int[vertexCount + 1];
+        forEachFirstCorner(polygonOffsets, vertexIndices, (polygon, vertex) -> ++vertexPolygonOffsets[vertex + 1]);
+        prefixSum(vertexPolygonOffsets);
+        vertexPolygons = new int[vertexPolygonOffsets[vertexCount]];
+        final int[] cursors = Arrays.copyOf(vertexPolygonOffsets, vertexCount);
+        forEachFirstCorner(polygonOffsets, vertexIndices,
+                (polygon, vertex) -> vertexPolygons[cursors[vertex]++] = polygon);
+
+        // Стороны полигонов собираются у меньшей вершины в виде (другая вершина, полигон) и сортируются
+        final int[] sideOffsets = new int[vertexCount + 1];
+        forEachSide(polygonOffsets, vertexIndices, (polygon, low, high) -> ++sideOffsets[low + 1]);
+        prefixSum(sideOffsets);
+        final long[] sides = new long[sideOffsets[vertexCount]];
+        System.arraycopy(sideOffsets, 0, cursors, 0, vertexCount);
+        forEachSide(polygonOffsets, vertexIndices,
+                (polygon, low, high) -> sides[cursors[low]++] = (long) high << 32 | polygon);
+
+        int edgeCount = 0;
+        int edgePolygonCount = 0;
+        for (int vertex = 0; vertex < vertexCount; vertex++) {
+            Arrays.sort(sides, sideOffsets[vertex], sideOffsets[vertex + 1]);
+            for (int i = sideOffsets[vertex]; i < sideOffsets[vertex + 1]; i++) {
+                if (i == sideOffsets[vertex] || high(sides[i]) != high(sides[i - 1])) {
+                    ++edgeCount;
+                    ++edgePolygonCount;
+                } else if (sides[i] != sides[i - 1]) {
+                    ++edgePolygonCount;
+                }
+            }
+        }
+
+        edgeVertices = new int[2 * edgeCount];
+        edgePolygonOffsets = new int[edgeCount + 1];
+        edgePolygons = new int[edgePolygonCount];
+        final int[] vertexEdgeCounts = new int[vertexCount + 1];
+        int edge = -1;
+        int edgePolygon = 0;
+        for (int vertex = 0; vertex < vertexCount; vertex++) {
+            for (int i = sideOffsets[vertex]; i < sideOffsets[vertex + 1]; i++) {
+                if (i == sideOffsets[vertex] || high(sides[i]) != high(sides[i - 1])) {
+                    ++edge;
+                    edgeVertices[2 * edge] = vertex;
+                    edgeVertices[2 * edge + 1] = high(sides[i]);
+                    edgePolygonOffsets[edge] = edgePolygon;
+                    ++vertexEdgeCounts[vertex + 1];
+                    ++vertexEdgeCounts[high(sides[i]) + 1];
+                } else if (sides[i] == sides[i - 1]) {
+                    continue;
+                }
+                edgePolygons[edgePolygon++] = (int) sides[i];
+            }
+        }
+        edgePolygonOffsets[edgeCount] = edgePolygon;
+
+        // Вершина -> стороны в порядке номеров сторон
+        prefixSum(vertexEdgeCounts);
+        vertexEdgeOffsets = vertexEdgeCounts;
+        vertexEdges = new int[2 * edgeCount];
+        System.arraycopy(vertexEdgeOffsets, 0, cursors, 0, vertexCount);
+        for (int e = 0; e < edgeCount; e++) {
+            vertexEdges[cursors[edgeVertices[2 * e]]++] = e;
+            vertexEdges[cursors[edgeVertices[2 * e + 1]]++] = e;
+        }
+    }
+
+    /**
+     * Builds the adjacency of the current polygons of the model.
+     */
+    public static MeshAdjacency of(Model model) {
+        final List<Polygon> polygons = model.polygons;
+        final int[] polygonOffsets = new int[polygons.size() + 1];
+        for (int i = 0; i < polygons.size(); i++) {
+            polygonOffsets[i + 1] = polygonOffsets[i] + polygons.get(i).getVertexIndices().size();
+        }
+        final int[] vertexIndices = new int[polygonOffsets[polygons.size()]];
+        for (int i = 0; i < polygons.size(); i++) {
+            int corner = polygonOffsets[i];
+            for (Integer index : polygons.get(i).getVertexIndices()) {
+                vertexIndices[corner++] = index;
+            }
+        }
+        return new MeshAdjacency(model.vertices.size(), polygonOffsets, vertexIndices);
+    }
+
+    public static MeshAdjacency of(CompactModel model) {
+        return new MeshAdjacency(model.getVertexCount(), model.getPolygonOffsets(), model.getVertexIndices());
+    }
+
+    /**
+     * Builds the adjacency of polygons given in the layout of {@link CompactModel}; the arrays are not kept.
+     */
+    public static MeshAdjacency of(int vertexCount, int[] polygonOffsets, int[] vertexIndices) {
+        return new MeshAdjacency(vertexCount, polygonOffsets, vertexIndices);
+    }
+
+    public int getVertexCount() {
+        return vertexPolygonOffsets.length - 1;
+    }
+
+    public int getPolygonCount() {
+        return polygonCount;
+    }
+
+    public int getEdgeCount() {
+        return edgePolygonOffsets.length - 1;
+    }
+
+    public int getVertexPolygonCount(int vertex) {
+        return vertexPolygonOffsets[vertex + 1] - vertexPolygonOffsets[vertex];
+    }
+
+    /**
+     * @return the {@code i}-th polygon around the vertex, in increasing polygon order
+     */
+    public int getVertexPolygon(int vertex, int i) {
+        return vertexPolygons[vertexPolygonOffsets[vertex] + i];
+    }
+
+    public int getVertexEdgeCount(int vertex) {
+        return vertexEdgeOffsets[vertex + 1] - vertexEdgeOffsets[vertex];
+    }
+
+    /**
+     * @return the {@code i}-th edge at the vertex, in increasing edge order
+     */
+    public int getVertexEdge(int vertex, int i) {
+        return vertexEdges[vertexEdgeOffsets[vertex] + i];
+    }
+
+    /**
+     * @return the {@code i}-th vertex connected to the vertex by an edge
+     */
+    public int getNeighbour(int vertex, int i) {
+        return getOtherVertex(getVertexEdge(vertex, i), vertex);
+    }
+
+    /**
+     * @return the smaller vertex of the edge
+     */
+    public int getEdgeStart(int edge) {
+        return edgeVertices[2 * edge];
+    }
+
+    /**
+     * @return the larger vertex of the edge
+     */
+    public int getEdgeEnd(int edge) {
+        return edgeVertices[2 * edge + 1];
+    }
+
+    /**
+     * @return the vertex of the edge that is not {@code vertex}
+     */
+    public int getOtherVertex(int edge, int vertex) {
+        return edgeVertices[2 * edge] == vertex ? edgeVertices[2 * edge + 1] : edgeVertices[2 * edge];
+    }
+
+    public int getEdgePolygonCount(int edge) {
+        return edgePolygonOffsets[edge + 1] - edgePolygonOffsets[edge];
+    }
+
+    /**
+     * @return the {@code i}-th polygon at the edge, in increasing polygon order
+     */
+    public int getEdgePolygon(int edge, int i) {
+        return edgePolygons[edgePolygonOffsets[edge] + i];
+    }
+
+    /**
+     * @return the edge between the vertices, or {@link #NO_EDGE}
+     */
+    public int findEdge(int vertex1, int vertex2) {
+        for (int i = vertexEdgeOffsets[vertex1]; i < vertexEdgeOffsets[vertex1 + 1]; i++) {
+            if (getOtherVertex(vertexEdges[i], vertex1) == vertex2) {
+                return vertexEdges[i];
+            }
+        }
+        return NO_EDGE;
+    }
+
+    /**
+     * @return whether only one polygon uses the edge, i.e. it lies on a hole or on the outline of an open mesh
+     */
+    public boolean isBoundaryEdge(int edge) {
+        return getEdgePolygonCount(edge) == 1;
+    }
+
+    /**
+     * @return whether more than two polygons share the edge
+     */
+    public boolean isNonManifoldEdge(int edge) {
+        return getEdgePolygonCount(edge) > 2;
+    }
+
+    public boolean isBoundaryVertex(int vertex) {
+        for (int i = vertexEdgeOffsets[vertex]; i < vertexEdgeOffsets[vertex + 1]; i++) {
+            if (isBoundaryEdge(vertexEdges[i])) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * The raw vertex to polygon table, see the class description. The arrays must not be modified.
+     */
+    public int[] getVertexPolygonOffsets() {
+        return vertexPolygonOffsets;
+    }
+
+    public int[] getVertexPolygons() {
+        return vertexPolygons;
+    }
+
+    /**
+     * The raw edge to polygon table, see the class description. The arrays must not be modified.
+     */
+    public int[] getEdgePolygonOffsets() {
+        return edgePolygonOffsets;
+    }
+
+    public int[] getEdgePolygons() {
+        return edgePolygons;
+    }
+
+    private static int high(long side) {
+        return (int) (side >>> 32);
+    }
+
+    private static void prefixSum(int[] counts) {
+        for (int i = 1; i < counts.length; i++) {
+            counts[i] += counts[i - 1];
+        }
+    }
+
+    private interface CornerConsumer {
+        void accept(int polygon, int vertex);
+    }
+
+    private interface SideConsumer {
+        void accept(int polygon, int low, int high);
+    }
+
+    /**
+     * Visits every vertex of every polygon once, skipping repeated vertices of a polygon.
+     */
+    private static void forEachFirstCorner(int[] polygonOffsets, int[] vertexIndices, CornerConsumer consumer) {
+        for (int polygon = 0; polygon + 1 < polygonOffsets.length; polygon++) {
+            final int start = polygonOffsets[polygon];
+            final int end = polygonOffsets[polygon + 1];
+            corners:
+            for (int corner = start; corner < end; corner++) {
+                final int vertex = vertexIndices[corner];
+                for (int i = start; i < corner; i++) {
+                    if (vertexIndices[i] == vertex) {
+                        continue corners;
+                    }
+                }
+                consumer.accept(polygon, vertex);
+            }
+        }
+    }
+
+    /**
+     * Visits every side of every polygon, including the closing one, skipping sides with equal ends.
+     */
+    private static void forEachSide(int[] polygonOffsets, int[] vertexIndices, SideConsumer consumer) {
+        for (int polygon = 0; polygon + 1 < polygonOffsets.length; polygon++) {
+            final int start = polygonOffsets[polygon];
+            final int end = polygonOffsets[polygon + 1];
+            for (int corner = start; corner < end; corner++) {
+                final int a = vertexIndices[corner];
+                final int b = vertexIndices[corner + 1 < end ? corner + 1 : start];
+                if (a != b) {
+                    consumer.accept(polygon, Math.min(a, b), Math.max(a, b));
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package cg.vsu.model;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Estimates the heap footprint of {@link Model} and {@link CompactModel}.
+ * <p>
+ * The numbers assume a 64-bit JVM with compressed references: 12 byte object headers, 4 byte references,
+ * 16 byte array headers and 8 byte alignment. {@link ArrayList} capacities are taken equal to sizes,
+ * so the estimate for {@link Model} is a lower bound. Boxed indices shared between polygons are counted once.
+ */
+public class MeshFootprint {
+    private static final int OBJECT_HEADER = 12;
+    private static final int ARRAY_HEADER = 16;
+    private static final int REFERENCE = 4;
+
+    private static final long VECTOR3F = align(OBJECT_HEADER + 3 * Float.BYTES);
+    private static final long VECTOR2F = align(OBJECT_HEADER + 2 * Float.BYTES);
+    private static final long INTEGER = align(OBJECT_HEADER + Integer.BYTES);
+    private static final long POLYGON = align(OBJECT_HEADER + 3 * REFERENCE);
+    private static final long ARRAY_LIST = align(OBJECT_HEADER + 2 * Integer.BYTES + REFERENCE);
+    private static final long POLYGON_GROUP = align(OBJECT_HEADER + 2 * REFERENCE + 2 * Integer.BYTES);
+    private static final long MODEL = align(OBJECT_HEADER + 5 * REFERENCE);
+    private static final long COMPACT_MODEL = align(OBJECT_HEADER + 7 * REFERENCE);
+
+    /**
+     * @return estimated bytes retained by the model
+     */
+    public static long estimate(Model model) {
+        long bytes = MODEL;
+        bytes += arrayList(model.vertices.size()) + model.vertices.size() * VECTOR3F;
+        bytes += arrayList(model.textureVertices.size()) + model.textureVertices.size() * VECTOR2F;
+        bytes += arrayList(model.normals.size()) + model.normals.size() * VECTOR3F;
+        bytes += arrayList(model.polygons.size());
+        Set<Integer> boxes = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (Polygon polygon : model.polygons) {
+            bytes += POLYGON
+                    + integerList(polygon.getVertexIndices(), boxes)
+                    + integerList(polygon.getTextureVertexIndices(), boxes)
+                    + integerList(polygon.getNormalIndices(), boxes);
+        }
+        bytes += arrayList(model.groups.size()) + model.groups.size() * POLYGON_GROUP;
+        return bytes;
+    }
+
+    /**
+     * @return estimated bytes retained by the model
+     */
+    public static long estimate(CompactModel model) {
+        return COMPACT_MODEL
+                + array(model.getPositions().length, Float.BYTES)
+                + array(model.getTextureVertices().length, Float.BYTES)
+                + array(model.getNormals().length, Float.BYTES)
+                + array(model.getPolygonOffsets().length, Integer.BYTES)
+                + array(model.getVertexIndices().length, Integer.BYTES)
+                + array(model.getTextureVertexIndices().length, Integer.BYTES)
+                + array(model.getNormalIndices().length, Integer.BYTES);
+    }
+
+    /**
+     * @return a human-readable comparison of the two representations of the same mesh
+     */
+    public static String report(Model model, CompactModel compactModel) {
+        final long modelBytes = estimate(model);
+        final long compactBytes = estimate(compactModel);
+        final int vertices = Math.max(1, compactModel.getVertexCount());
+        final int polygons = Math.max(1, compactModel.getPolygonCount());
+
+        StringBuilder sb = new StringBuilder();
+        sb.append("vertices: ").append(compactModel.getVertexCount())
+                .append(", polygons: ").append(compactModel.getPolygonCount())
+                .append(", corners: ").append(compactModel.getVertexIndices().length).append("\n");
+        appendLine(sb, "Model", modelBytes, vertices, polygons);
+        appendLine(sb, "CompactModel", compactBytes, vertices, polygons);
+        sb.append(String.format("ratio: %.2fx%n", (double) modelBytes / compactBytes));
+        return sb.toString();
+    }
+
+    private static void appendLine(StringBuilder sb, String name, long bytes, int vertices, int polygons) {
+        sb.append(String.format("%-13s %,15d bytes (%.1f bytes/vertex, %.1f bytes/polygon)%n",
+                name + ":", bytes, (double) bytes / vertices, (double) bytes / polygons));
+    }
+
+    private static long integerList(List<Integer> list, Set<Integer> boxes) {
+        long bytes = arrayList(list.size());
+        for (Integer value : list) {
+            // Integer.valueOf caches -128..127, larger indices are boxed separately unless the reader shares them
+            if ((value < -128 || value > 127) && boxes.add(value)) {
+                bytes += INTEGER;
+            }
+        }
+        return bytes;
+    }
+
+    private static long arrayList(int size) {
+        return ARRAY_LIST + (size == 0 ? 0 : array(size, REFERENCE));
+    }
+
+    private static long array(int length, int elementBytes) {
+        return align(ARRAY_HEADER + (long) length * elementBytes);
+    }
+
+    private static long align(long bytes) {
+        return (bytes + 7) & ~7L;
+    }
+}
@@ -16,4 +16,63 @@ public class Model {
     public ArrayList<Vector2f> textureVertices = new ArrayList<Vector2f>();
     public ArrayList<Vector3f> normals = new ArrayList<Vector3f>();
     public ArrayList<Polygon> polygons = new ArrayList<Polygon>();
+    public ArrayList<PolygonGroup> groups = new ArrayList<PolygonGroup>();
+
+    private MeshAdjacency adjacency;
+    private Triangulation triangulation;
+
+    /**
+     * The model does not see changes of its public lists or of its polygons, so the adjacency is built on first use
+     * and then reused until {@link #invalidateAdjacency()} is called. Call it after every change of the vertex
+     * indices of a polygon, of the polygon list or of the number of vertices.
+     *
+     * @return the adjacency of the polygons
+     * @throws IllegalStateException if the number of vertices or polygons changed since the adjacency was built,
+     *                               i.e. {@link #invalidateAdjacency()} was not called after an edit
+     */
+    public MeshAdjacency getAdjacency() {
+        MeshAdjacency adjacency = this.adjacency;
+        if (adjacency == null) {
+            adjacency = MeshAdjacency.of(this);
+            this.adjacency = adjacency;
+        } else if (adjacency.getVertexCount() != vertices.size() || adjacency.getPolygonCount() != polygons.size()) {
+            throw new IllegalStateException("Model was edited after its adjacency was built, "
+                    + "call invalidateAdjacency() after editing");
+        }
+        return adjacency;
+    }
+
+    /**
+     * Drops the cached adjacency, see {@link #getAdjacency()}.
+     */
+    public void invalidateAdjacency() {
+        adjacency = null;
+    }
+
+    /**
+     * Built on first use and reused until {@link #invalidateTriangulation()} is called, like
+     * {@link #getAdjacency()}.
+     *
+     * @return the triangles of the polygons
+     * @throws IllegalStateException if the number of polygons changed since the triangulation was built
+     */
+    public Triangulation getTriangulation() {
+        Triangulation triangulation = this.triangulation;
+        if (triangulation == null) {
+            triangulation = Triangulation.of(this);
+            this.triangulation = triangulation;
+        } else if (triangulation.getPolygonCount() != polygons.size()) {
+            throw new IllegalStateException("Model was edited after its triangulation was built, "
+                    + "call invalidateTriangulation() after editing");
+        }
+        return triangulation;
+    }
+
+    /**
+     * Drops the cached triangulation. Call it after every change of the vertex indices of a polygon or of the
+     * polygon list, and after moving vertices so far that concave polygons change their shape.
+     */
+    public void invalidateTriangulation() {
+        triangulation = null;
+    }
 }
\ No newline at end of file
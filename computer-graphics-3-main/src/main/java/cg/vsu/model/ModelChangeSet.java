@@ -0,0 +1,128 @@
+package cg.vsu.model;
+
+/**
+ * What an incremental reload changed in a {@link Model}, so a renderer can upload only the dirty parts of its
+ * buffers instead of the whole mesh.
+ * <p>
+ * Every list of the model has one dirty range {@code [from, to)} in the indices of the reloaded model. Items
+ * outside of it are the same objects as before the reload. If the size of a list changed, its range runs to the
+ * new end of the list and the buffers behind it have to be resized.
+ */
+public class ModelChangeSet {
+    private final Range vertices;
+    private final Range textureVertices;
+    private final Range normals;
+    private final Range polygons;
+    private final boolean groupsChanged;
+
+    public ModelChangeSet(Range vertices, Range textureVertices, Range normals, Range polygons,
+                          boolean groupsChanged) {
+        this.vertices = vertices;
+        this.textureVertices = textureVertices;
+        this.normals = normals;
+        this.polygons = polygons;
+        this.groupsChanged = groupsChanged;
+    }
+
+    /**
+     * @return a change set of a reload that found nothing new
+     */
+    public static ModelChangeSet unchanged(Model model) {
+        return new ModelChangeSet(
+                Range.empty(model.vertices.size()),
+                Range.empty(model.textureVertices.size()),
+                Range.empty(model.normals.size()),
+                Range.empty(model.polygons.size()),
+                false);
+    }
+
+    public Range getVertices() {
+        return vertices;
+    }
+
+    public Range getTextureVertices() {
+        return textureVertices;
+    }
+
+    public Range getNormals() {
+        return normals;
+    }
+
+    public Range getPolygons() {
+        return polygons;
+    }
+
+    public boolean isGroupsChanged() {
+        return groupsChanged;
+    }
+
+    public boolean isEmpty() {
+        return vertices.isEmpty() && textureVertices.isEmpty() && normals.isEmpty() && polygons.isEmpty()
+                && !groupsChanged;
+    }
+
+    @Override
+    public String toString() {
+        return "vertices " + vertices + ", texture vertices " + textureVertices + ", normals " + normals
+                + ", polygons " + polygons + (groupsChanged ? ", groups changed" : "");
+    }
+
+    /**
+     * A dirty range of one list of the model.
+     */
+    public static class Range {
+        private final int from;
+        private final int to;
+        private final int oldSize;
+        private final int newSize;
+
+        /**
+         * @param from    the first changed item
+         * @param to      the item after the last changed one
+         * @param oldSize the size of the list before the reload
+         * @param newSize the size of the list after the reload
+         */
+        public Range(int from, int to, int oldSize, int newSize) {
+            if (from < 0 || from > to || to > newSize) {
+                throw new IllegalArgumentException("Invalid range [" + from + ", " + to + ") of " + newSize);
+            }
+            this.from = from;
+            this.to = to;
+            this.oldSize = oldSize;
+            this.newSize = newSize;
+        }
+
+        public static Range empty(int size) {
+            return new Range(size, size, size, size);
+        }
+
+        public int getFrom() {
+            return from;
+        }
+
+        public int getTo() {
+            return to;
+        }
+
+        public int getOldSize() {
+            return oldSize;
+        }
+
+        public int getNewSize() {
+            return newSize;
+        }
+
+        public boolean isEmpty() {
+            return from == to && oldSize == newSize;
+        }
+
+        public boolean isResized() {
+            return oldSize != newSize;
+        }
+
+        @Override
+        public String toString() {
+            return "[" + from + ", " + to + ")" + (isResized() ? " of " + oldSize + " -> " + newSize : "");
+        }
+    }
+}
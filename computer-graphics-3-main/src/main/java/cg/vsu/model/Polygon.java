@@ -15,6 +15,16 @@ public class Polygon {
         normalIndices = new ArrayList<Integer>();
     }
 
+    /**
+     * For subclasses that bring their own lists, e.g. {@link FrozenModel}.
+     */
+    protected Polygon(ArrayList<Integer> vertexIndices, ArrayList<Integer> textureVertexIndices,
+                      ArrayList<Integer> normalIndices) {
+        this.vertexIndices = vertexIndices;
+        this.textureVertexIndices = textureVertexIndices;
+        this.normalIndices = normalIndices;
+    }
+
     public void setVertexIndices(ArrayList<Integer> vertexIndices) {
         assert vertexIndices.size() >= 3;
         this.vertexIndices = vertexIndices;
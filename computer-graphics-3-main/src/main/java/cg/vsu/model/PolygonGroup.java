@@ -0,0 +1,114 @@
+package cg.vsu.model;
+
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A run of consecutive polygons of a {@link Model} sharing an object name, a group name, a material or
+ * a smoothing group, as set by the {@code o}, {@code g}, {@code usemtl} and {@code s} statements of an OBJ file.
+ * <p>
+ * A statement applies to the following polygons up to the next statement of the same type, so every statement
+ * is stored once as a polygon range {@code [firstPolygon, endPolygon)} instead of a name per polygon. Runs of
+ * different types overlap freely.
+ */
+public class PolygonGroup {
+
+    public enum Type {
+        OBJECT,
+        GROUP,
+        MATERIAL,
+        SMOOTHING
+    }
+
+    private final Type type;
+    private final String name;
+    private final int firstPolygon;
+    private int endPolygon;
+
+    /**
+     * Creates an empty run, {@link #closeRuns} sets its end.
+     */
+    public PolygonGroup(Type type, String name, int firstPolygon) {
+        this(type, name, firstPolygon, firstPolygon);
+    }
+
+    public PolygonGroup(Type type, String name, int firstPolygon, int endPolygon) {
+        this.type = type;
+        this.name = name;
+        this.firstPolygon = firstPolygon;
+        this.endPolygon = endPolygon;
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    /**
+     * @return the arguments of the statement joined by single spaces, e.g. {@code "left arm"} for
+     * {@code g left arm} or {@code "off"} for {@code s off}; empty if there were none
+     */
+    public String getName() {
+        return name;
+    }
+
+    public int getFirstPolygon() {
+        return firstPolygon;
+    }
+
+    public int getEndPolygon() {
+        return endPolygon;
+    }
+
+    public int getPolygonCount() {
+        return endPolygon - firstPolygon;
+    }
+
+    public boolean contains(int polygon) {
+        return polygon >= firstPolygon && polygon < endPolygon;
+    }
+
+    /**
+     * @return an empty copy of this run starting {@code offset} polygons later
+     */
+    public PolygonGroup shifted(int offset) {
+        return new PolygonGroup(type, name, firstPolygon + offset);
+    }
+
+    /**
+     * Ends every run at the start of the next run of the same type and the last run of each type
+     * at {@code polygonCount}.
+     *
+     * @param groups runs in statement order
+     */
+    public static void closeRuns(List<PolygonGroup> groups, int polygonCount) {
+        Map<Type, PolygonGroup> open = new EnumMap<>(Type.class);
+        for (PolygonGroup group : groups) {
+            PolygonGroup previous = open.put(group.type, group);
+            if (previous != null) {
+                previous.endPolygon = group.firstPolygon;
+            }
+        }
+        for (PolygonGroup group : open.values()) {
+            group.endPolygon = polygonCount;
+        }
+    }
+
+    /**
+     * @return the run of the given type containing the polygon, or null if the polygon precedes
+     * every statement of that type
+     */
+    public static PolygonGroup find(List<PolygonGroup> groups, Type type, int polygon) {
+        for (PolygonGroup group : groups) {
+            if (group.type == type && group.contains(polygon)) {
+                return group;
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public String toString() {
+        return type + " \"" + name + "\" [" + firstPolygon + ", " + endPolygon + ")";
+    }
+}
@@ -0,0 +1,261 @@
+package cg.vsu.model;
+
+import cg.vsu.math.Vector3f;
+
+import java.util.List;
+
+/**
+ * The polygons of a model split into triangles, as flat index buffers for loops over triangles.
+ * <p>
+ * A polygon of {@code n} vertices always gives {@code n - 2} triangles, so the triangles of polygon {@code p} are
+ * {@code [polygonOffsets[p] - 2 * p, polygonOffsets[p + 1] - 2 * (p + 1))} for the CSR offsets of
+ * {@link CompactModel}. Convex polygons are split into a fan around their first vertex, which keeps triangles as
+ * they are; concave ones are split by ear clipping in the plane of the polygon, so no triangle lies outside the
+ * polygon. Triangles keep the winding of their polygon.
+ * <p>
+ * Besides the vertex indices, every triangle stores the corners it was made of (indices into the corner arrays,
+ * e.g. {@link CompactModel#getTextureVertexIndices()}) and its polygon. Instances are immutable; use
+ * {@link Model#getTriangulation()} or {@link CompactModel#getTriangulation()} to build them once and reuse them.
+ */
+public final class Triangulation {
+    private final int polygonCount;
+    private final int[] vertexIndices;
+    private final int[] corners;
+    private final int[] polygons;
+
+    private Triangulation(float[] positions, int[] polygonOffsets, int[] vertexIndices) {
+        this.polygonCount = polygonOffsets.length - 1;
+        final int triangleCount = vertexIndices.length - 2 * polygonCount;
+        this.vertexIndices = new int[3 * triangleCount];
+        corners = new int[3 * triangleCount];
+        polygons = new int[triangleCount];
+
+        final EarClipper clipper = new EarClipper();
+        for (int polygon = 0; polygon < polygonCount; polygon++) {
+            final int start = polygonOffsets[polygon];
+            final int end = polygonOffsets[polygon + 1];
+            if (end - start < 3)
+                throw new IllegalArgumentException("Polygon vertex count must be greater than or equal to 3");
+
+            final int first = start - 2 * polygon;
+            if (end - start == 3 || !clipper.clip(positions, vertexIndices, start, end, corners, 3 * first)) {
+                for (int i = 0; i < end - start - 2; i++) {
+                    corners[3 * (first + i)] = start;
+                    corners[3 * (first + i) + 1] = start + i + 1;
+                    corners[3 * (first + i) + 2] = start + i + 2;
+                }
+            }
+            for (int i = 0; i < end - start - 2; i++) {
+                polygons[first + i] = polygon;
+            }
+        }
+        for (int i = 0; i < corners.length; i++) {
+            this.vertexIndices[i] = vertexIndices[corners[i]];
+        }
+    }
+
+    /**
+     * Triangulates the current polygons of the model.
+     */
+    public static Triangulation of(Model model) {
+        final List<Polygon> polygons = model.polygons;
+        final int[] polygonOffsets = new int[polygons.size() + 1];
+        for (int i = 0; i < polygons.size(); i++) {
+            polygonOffsets[i + 1] = polygonOffsets[i] + polygons.get(i).getVertexIndices().size();
+        }
+        final int[] vertexIndices = new int[polygonOffsets[polygons.size()]];
+        for (int i = 0; i < polygons.size(); i++) {
+            int corner = polygonOffsets[i];
+            for (Integer index : polygons.get(i).getVertexIndices()) {
+                vertexIndices[corner++] = index;
+            }
+        }
+        final float[] positions = new float[3 * model.vertices.size()];
+        for (int i = 0; i < model.vertices.size(); i++) {
+            final Vector3f vertex = model.vertices.get(i);
+            positions[3 * i] = vertex.x;
+            positions[3 * i + 1] = vertex.y;
+            positions[3 * i + 2] = vertex.z;
+        }
+        return new Triangulation(positions, polygonOffsets, vertexIndices);
+    }
+
+    public static Triangulation of(CompactModel model) {
+        return new Triangulation(model.getPositions(), model.getPolygonOffsets(), model.getVertexIndices());
+    }
+
+    public int getPolygonCount() {
+        return polygonCount;
+    }
+
+    public int getTriangleCount() {
+        return polygons.length;
+    }
+
+    /**
+     * The vertex indices of the triangles, three per triangle. The array must not be modified.
+     */
+    public int[] getVertexIndices() {
+        return vertexIndices;
+    }
+
+    /**
+     * The corners of the triangles, three per triangle, as indices into the corner arrays of the model.
+     * The array must not be modified.
+     */
+    public int[] getCorners() {
+        return corners;
+    }
+
+    /**
+     * The polygon of every triangle. The array must not be modified.
+     */
+    public int[] getPolygons() {
+        return polygons;
+    }
+
+    /**
+     * @return the first triangle of the polygon of the model with the given CSR offsets
+     */
+    public static int getFirstTriangle(int[] polygonOffsets, int polygon) {
+        return polygonOffsets[polygon] - 2 * polygon;
+    }
+
+    /**
+     * Ear clipping of one polygon projected onto the coordinate plane closest to its own plane.
+     * The scratch arrays grow to the largest polygon and are reused.
+     */
+    private static class EarClipper {
+        private float[] u = new float[16];
+        private float[] v = new float[16];
+        private int[] ring = new int[16];
+
+        /**
+         * Writes the triangles of a concave polygon to {@code out} at {@code offset}.
+         *
+         * @return false, with nothing written, if the polygon is convex or degenerate and a fan will do
+         */
+        boolean clip(float[] positions, int[] vertexIndices, int start, int end, int[] out, int offset) {
+            final int n = end - start;
+            if (!project(positions, vertexIndices, start, end)) {
+                return false;
+            }
+            boolean convex = true;
+            for (int i = 0; i < n && convex; i++) {
+                convex = cross(i == 0 ? n - 1 : i - 1, i, i + 1 == n ? 0 : i + 1) >= 0;
+            }
+            if (convex) {
+                return false;
+            }
+
+            for (int i = 0; i < n; i++) {
+                ring[i] = i;
+            }
+            int remaining = n;
+            int i = 0;
+            int misses = 0;
+            while (remaining > 3) {
+                final int previous = ring[(i + remaining - 1) % remaining];
+                final int current = ring[i];
+                final int next = ring[(i + 1) % remaining];
+                // без подходящих ушей (самопересечения, погрешности) отрезается любая вершина, чтобы не зациклиться
+                if (misses < remaining && !isEar(previous, current, next, remaining)) {
+                    ++misses;
+                    i = (i + 1) % remaining;
+                    continue;
+                }
+                out[offset++] = start + previous;
+                out[offset++] = start + current;
+                out[offset++] = start + next;
+                System.arraycopy(ring, i + 1, ring, i, remaining - i - 1);
+                --remaining;
+                misses = 0;
+                if (i == remaining) {
+                    i = 0;
+                }
+            }
+            out[offset++] = start + ring[0];
+            out[offset++] = start + ring[1];
+            out[offset] = start + ring[2];
+            return true;
+        }
+
+        /**
+         * Fills {@code u} and {@code v} with the vertices in a coordinate plane, oriented so that the polygon
+         * runs counterclockwise.
+         *
+         * @return false if the polygon has no area
+         */
+        private boolean project(float[] positions, int[] vertexIndices, int start, int end) {
+            final int n = end - start;
+            if (u.length < n) {
+                u = new float[Math.max(n, 2 * u.length)];
+                v = new float[u.length];
+                ring = new int[u.length];
+            }
+
+            // нормаль по Ньютону
+            float nx = 0;
+            float ny = 0;
+            float nz = 0;
+            for (int corner = start; corner < end; corner++) {
+                final int a = 3 * vertexIndices[corner];
+                final int b = 3 * vertexIndices[corner + 1 < end ? corner + 1 : start];
+                nx += (positions[a + 1] - positions[b + 1]) * (positions[a + 2] + positions[b + 2]);
+                ny += (positions[a + 2] - positions[b + 2]) * (positions[a] + positions[b]);
+                nz += (positions[a] - positions[b]) * (positions[a + 1] + positions[b + 1]);
+            }
+            final float ax = Math.abs(nx);
+            final float ay = Math.abs(ny);
+            final float az = Math.abs(nz);
+            if (ax == 0 && ay == 0 && az == 0) {
+                return false;
+            }
+
+            // отбрасывается ось с наибольшей компонентой нормали; (y, z), (z, x), (x, y) идут против часовой
+            // стрелки при положительной компоненте, иначе координаты меняются местами
+            final int axis = ax >= ay && ax >= az ? 0 : ay >= az ? 1 : 2;
+            final float sign = axis == 0 ? nx : axis == 1 ? ny : nz;
+            int uAxis = (axis + 1) % 3;
+            int vAxis = (axis + 2) % 3;
+            if (sign < 0) {
+                final int swap = uAxis;
+                uAxis = vAxis;
+                vAxis = swap;
+            }
+            for (int i = 0; i < n; i++) {
+                final int vertex = 3 * vertexIndices[start + i];
+                u[i] = positions[vertex + uAxis];
+                v[i] = positions[vertex + vAxis];
+            }
+            return true;
+        }
+
+        private boolean isEar(int previous, int current, int next, int remaining) {
+            if (cross(previous, current, next) <= 0) {
+                return false;
+            }
+            for (int i = 0; i < remaining; i++) {
+                final int other = ring[i];
+                if (other == previous || other == current || other == next
+                        || u[other] == u[previous] && v[other] == v[previous]
+                        || u[other] == u[current] && v[other] == v[current]
+                        || u[other] == u[next] && v[other] == v[next]) {
+                    continue;
+                }
+                if (cross(previous, current, other) >= 0 && cross(current, next, other) >= 0
+                        && cross(next, previous, other) >= 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        /**
+         * @return twice the signed area of the projected triangle, positive if it runs counterclockwise
+         */
+        private float cross(int a, int b, int c) {
+            return (u[b] - u[a]) * (v[c] - v[a]) - (v[b] - v[a]) * (u[c] - u[a]);
+        }
+    }
+}
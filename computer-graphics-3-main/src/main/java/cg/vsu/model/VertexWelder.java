@@ -0,0 +1,298 @@
+package cg.vsu.model;
+
+import cg.vsu.math.Vector3f;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Merges vertices that lie within {@code epsilon} of each other (in the sense of {@link Vector3f#epsEquals})
+ * and remaps the polygons to the remaining ones.
+ * <p>
+ * Vertices are visited in order; a vertex that matches an earlier kept vertex is replaced by the first such
+ * vertex, otherwise it is kept. Kept vertices are found through a spatial hash with cells of {@code 4 * epsilon}
+ * centred on multiples of the cell size: a neighbour cell is searched only if the vertex is within epsilon of its
+ * border, so a vertex looks into one to eight cells (about 3.4 on average) and the pass takes expected linear
+ * time. The hash table and the cell chains are plain int arrays indexed by vertex, so tens of millions of vertices
+ * cost about 16 bytes each. An epsilon of 0 merges only vertices with equal coordinates.
+ */
+public class VertexWelder {
+    private static final int NONE = -1;
+    private static final float CELL_SIZE_IN_EPSILONS = 4;
+    /**
+     * Neighbour cells are searched a little beyond epsilon, so rounding of the scaled coordinates cannot hide
+     * a vertex lying exactly epsilon away.
+     */
+    private static final float BORDER = 1.001f / CELL_SIZE_IN_EPSILONS;
+
+    private final float[] positions;
+    private final float epsilon;
+    private final boolean exact;
+    private final float inverseCellSize;
+    private final int[] heads;
+    private final int mask;
+    private final int[] next;
+
+    private VertexWelder(float[] positions, float epsilon) {
+        if (!(epsilon >= 0)) {
+            throw new IllegalArgumentException("Epsilon must be non-negative: " + epsilon);
+        }
+        this.positions = positions;
+        this.epsilon = epsilon;
+        this.exact = epsilon == 0;
+        this.inverseCellSize = exact ? 0 : 1 / (CELL_SIZE_IN_EPSILONS * epsilon);
+
+        final int vertexCount = positions.length / 3;
+        final int tableSize = Integer.highestOneBit(Math.max(2, 2 * vertexCount - 1)) << 1;
+        this.heads = new int[tableSize];
+        this.mask = tableSize - 1;
+        this.next = new int[vertexCount];
+        Arrays.fill(heads, NONE);
+    }
+
+    /**
+     * @param positions packed vertex coordinates {@code x0, y0, z0, x1, ...}
+     * @return the new index of every vertex
+     */
+    public static Result weld(float[] positions, float epsilon) {
+        return new VertexWelder(positions, epsilon).run();
+    }
+
+    /**
+     * Removes the merged vertices from {@code model.vertices} and remaps the polygons in place. The kept vertices
+     * stay the same objects and keep their relative order.
+     */
+    public static Result weld(Model model, float epsilon) {
+        final ArrayList<Vector3f> vertices = model.vertices;
+        final float[] positions = new float[3 * vertices.size()];
+        for (int i = 0; i < vertices.size(); i++) {
+            final Vector3f vertex = vertices.get(i);
+            positions[3 * i] = vertex.x;
+            positions[3 * i + 1] = vertex.y;
+            positions[3 * i + 2] = vertex.z;
+        }
+
+        final Result result = weld(positions, epsilon);
+        if (result.getMergedVertexCount() == 0) {
+            return result;
+        }
+
+        final int[] remap = result.getRemap();
+        int kept = 0;
+        for (int i = 0; i < remap.length; i++) {
+            if (remap[i] == kept) {
+                vertices.set(kept++, vertices.get(i));
+            }
+        }
+        vertices.subList(kept, vertices.size()).clear();
+
+        final Integer[] boxes = new Integer[kept];
+        int degeneratePolygons = 0;
+        for (Polygon polygon : model.polygons) {
+            final List<Integer> indices = polygon.getVertexIndices();
+            for (int i = 0; i < indices.size(); i++) {
+                final int index = remap[indices.get(i)];
+                if (boxes[index] == null) {
+                    boxes[index] = index;
+                }
+                indices.set(i, boxes[index]);
+            }
+            if (isDegenerate(indices)) {
+                ++degeneratePolygons;
+            }
+        }
+        model.invalidateAdjacency();
+        model.invalidateTriangulation();
+        return new Result(remap, kept, degeneratePolygons);
+    }
+
+    /**
+     * @return a model with the merged vertices removed, sharing every array but the positions and vertex indices
+     */
+    public static CompactModel weld(CompactModel model, float epsilon) {
+        final Result result = weld(model.getPositions(), epsilon);
+        if (result.getMergedVertexCount() == 0) {
+            return model;
+        }
+
+        final int[] remap = result.getRemap();
+        final float[] positions = model.getPositions();
+        final float[] weldedPositions = new float[3 * result.getVertexCount()];
+        int kept = 0;
+        for (int i = 0; i < remap.length; i++) {
+            if (remap[i] == kept) {
+                System.arraycopy(positions, 3 * i, weldedPositions, 3 * kept++, 3);
+            }
+        }
+        final int[] vertexIndices = model.getVertexIndices();
+        final int[] weldedVertexIndices = new int[vertexIndices.length];
+        for (int i = 0; i < vertexIndices.length; i++) {
+            weldedVertexIndices[i] = remap[vertexIndices[i]];
+        }
+        return new CompactModel(weldedPositions, model.getTextureVertices(), model.getNormals(),
+                model.getPolygonOffsets(), weldedVertexIndices, model.getTextureVertexIndices(),
+                model.getNormalIndices());
+    }
+
+    private Result run() {
+        final int[] remap = new int[next.length];
+        int kept = 0;
+        for (int vertex = 0; vertex < next.length; vertex++) {
+            final float x = positions[3 * vertex];
+            final float y = positions[3 * vertex + 1];
+            final float z = positions[3 * vertex + 2];
+            final long cx = cell(x);
+            final long cy = cell(y);
+            final long cz = cell(z);
+
+            int match;
+            if (exact) {
+                match = find(cx, cy, cz, x, y, z);
+            } else {
+                // Ячейка больше 2 * epsilon, поэтому соседняя ячейка по оси нужна не больше чем с одной стороны
+                final int dx = side(x, cx);
+                final int dy = side(y, cy);
+                final int dz = side(z, cz);
+                match = NONE;
+                for (int i = 0; i < 8; i++) {
+                    if ((i & 1) != 0 && dx == 0 || (i & 2) != 0 && dy == 0 || (i & 4) != 0 && dz == 0) {
+                        continue;
+                    }
+                    final int candidate = find(
+                            cx + ((i & 1) == 0 ? 0 : dx),
+                            cy + ((i & 2) == 0 ? 0 : dy),
+                            cz + ((i & 4) == 0 ? 0 : dz),
+                            x, y, z);
+                    if (candidate != NONE && (match == NONE || candidate < match)) {
+                        match = candidate;
+                    }
+                }
+            }
+
+            if (match != NONE) {
+                remap[vertex] = remap[match];
+            } else {
+                remap[vertex] = kept++;
+                insert(vertex, cx, cy, cz);
+            }
+        }
+        return new Result(remap, kept, 0);
+    }
+
+    /**
+     * @return the first kept vertex of the cell matching the point, or {@link #NONE}
+     */
+    private int find(long cx, long cy, long cz, float x, float y, float z) {
+        int match = NONE;
+        for (int kept = heads[slot(cx, cy, cz)]; kept != NONE; kept = next[kept]) {
+            if (Math.abs(positions[3 * kept] - x) <= epsilon
+                    && Math.abs(positions[3 * kept + 1] - y) <= epsilon
+                    && Math.abs(positions[3 * kept + 2] - z) <= epsilon) {
+                match = kept;
+            }
+        }
+        return match;
+    }
+
+    private void insert(int vertex, long cx, long cy, long cz) {
+        final int slot = slot(cx, cy, cz);
+        next[vertex] = heads[slot];
+        heads[slot] = vertex;
+    }
+
+    /**
+     * Open addressing without stored keys: the cell of a slot is recomputed from its first vertex.
+     *
+     * @return the slot of the cell, or the empty slot where it would be inserted
+     */
+    private int slot(long cx, long cy, long cz) {
+        long hash = cx * 0x9E3779B97F4A7C15L + cy * 0xC2B2AE3D27D4EB4FL + cz * 0x165667B19E3779F9L;
+        int slot = (int) (hash ^ hash >>> 32) & mask;
+        while (heads[slot] != NONE) {
+            final int vertex = heads[slot];
+            if (cell(positions[3 * vertex]) == cx
+                    && cell(positions[3 * vertex + 1]) == cy
+                    && cell(positions[3 * vertex + 2]) == cz) {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private long cell(float coordinate) {
+        if (exact) {
+            // -0.0f == 0.0f, поэтому их биты приводятся к одному виду
+            return Float.floatToIntBits(coordinate + 0.0f);
+        }
+        // Сдвиг на полъячейки: вершины на круглых координатах попадают в середину ячейки, а не на её границу
+        return (long) Math.floor(coordinate * inverseCellSize + 0.5f);
+    }
+
+    /**
+     * @return the direction of the neighbour cell within epsilon of the coordinate, or 0 if there is none
+     */
+    private int side(float coordinate, long cell) {
+        final float fraction = coordinate * inverseCellSize + 0.5f - cell;
+        if (fraction < BORDER) {
+            return -1;
+        }
+        return fraction > 1 - BORDER ? 1 : 0;
+    }
+
+    private static boolean isDegenerate(List<Integer> indices) {
+        for (int i = 0; i < indices.size(); i++) {
+            for (int j = i + 1; j < indices.size(); j++) {
+                if (indices.get(i).equals(indices.get(j))) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    public static class Result {
+        private final int[] remap;
+        private final int vertexCount;
+        private final int degeneratePolygonCount;
+
+        Result(int[] remap, int vertexCount, int degeneratePolygonCount) {
+            this.remap = remap;
+            this.vertexCount = vertexCount;
+            this.degeneratePolygonCount = degeneratePolygonCount;
+        }
+
+        /**
+         * @return the new index of every original vertex; kept vertices are numbered in their original order
+         */
+        public int[] getRemap() {
+            return remap;
+        }
+
+        public int getOriginalVertexCount() {
+            return remap.length;
+        }
+
+        public int getVertexCount() {
+            return vertexCount;
+        }
+
+        public int getMergedVertexCount() {
+            return remap.length - vertexCount;
+        }
+
+        /**
+         * @return polygons of the welded {@link Model} that now use a vertex twice; they are kept as they are
+         */
+        public int getDegeneratePolygonCount() {
+            return degeneratePolygonCount;
+        }
+
+        @Override
+        public String toString() {
+            return "merged " + getMergedVertexCount() + " of " + getOriginalVertexCount() + " vertices"
+                    + (degeneratePolygonCount == 0 ? "" : ", " + degeneratePolygonCount + " degenerate polygons");
+        }
+    }
+}
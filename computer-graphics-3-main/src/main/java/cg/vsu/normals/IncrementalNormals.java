@@ -0,0 +1,164 @@
+package cg.vsu.normals;
+
+import cg.vsu.model.CompactModel;
+import cg.vsu.model.IntArrayBuilder;
+import cg.vsu.model.MeshAdjacency;
+
+import java.util.Arrays;
+
+/**
+ * Keeps the vertex normals of a packed model up to date while a few of its vertices move, e.g. under morph targets
+ * or a sculpting brush.
+ * <p>
+ * The updater owns a copy of the positions. Change them in {@link #getPositions()} and pass the moved vertices to
+ * {@link #update(int[], int)}: only the polygons around those vertices get new normals, and only the vertices of
+ * those polygons are summed again, so an update costs O(size of the edit) instead of O(size of the mesh).
+ * <p>
+ * Normals are computed as in {@link NormalUtils#vertexNormals(CompactModel)}, except that vertices are matched by
+ * index through {@link MeshAdjacency}, since moving vertices would break sharing by coordinates. For a mesh without
+ * vertices at equal coordinates the results are bit-identical, and an update gives the same normals as a full
+ * recalculation. Instances are not thread-safe.
+ */
+public final class IncrementalNormals {
+    private final float[] positions;
+    private final float[] normals;
+    private final float[] polygonNormals;
+    private final int[] polygonOffsets;
+    private final int[] vertexIndices;
+    private final MeshAdjacency adjacency;
+    private final CompactModel model;
+
+    // the last update that has already visited the polygon or the vertex
+    private final int[] polygonStamps;
+    private final int[] vertexStamps;
+    private int stamp;
+    private final IntArrayBuilder affectedVertices = new IntArrayBuilder();
+
+    /**
+     * Copies the positions of the model and computes all normals.
+     */
+    public IncrementalNormals(CompactModel model) {
+        positions = model.getPositions().clone();
+        normals = new float[positions.length];
+        polygonOffsets = model.getPolygonOffsets();
+        vertexIndices = model.getVertexIndices();
+        adjacency = model.getAdjacency();
+        polygonNormals = new float[3 * model.getPolygonCount()];
+        polygonStamps = new int[model.getPolygonCount()];
+        vertexStamps = new int[model.getVertexCount()];
+        this.model = new CompactModel(positions, model.getTextureVertices(), normals, polygonOffsets, vertexIndices,
+                model.getTextureVertexIndices(), vertexIndices);
+        recalculate();
+    }
+
+    /**
+     * The positions {@code x0, y0, z0, x1, ...} of the vertices; change them in place and call {@link #update}.
+     */
+    public float[] getPositions() {
+        return positions;
+    }
+
+    /**
+     * The normals {@code x0, y0, z0, x1, ...}, one per vertex, updated in place by {@link #update}.
+     */
+    public float[] getNormals() {
+        return normals;
+    }
+
+    /**
+     * A model backed by {@link #getPositions()} and {@link #getNormals()}, whose normal indices are its vertex
+     * indices, so it always shows the current state of the updater.
+     */
+    public CompactModel getModel() {
+        return model;
+    }
+
+    /**
+     * Recomputes all normals, e.g. after most of the vertices have moved.
+     */
+    public void recalculate() {
+        for (int polygon = 0; polygon < polygonStamps.length; polygon++) {
+            updatePolygonNormal(polygon);
+        }
+        for (int vertex = 0; vertex < vertexStamps.length; vertex++) {
+            updateVertexNormal(vertex);
+        }
+    }
+
+    /**
+     * Same as {@link #update(int[], int)} for the whole array.
+     */
+    public void update(int... movedVertices) {
+        update(movedVertices, movedVertices.length);
+    }
+
+    /**
+     * Updates the normals after the given vertices have moved: the normals of the polygons around them and the
+     * normals of all vertices of those polygons. Vertices may be listed more than once.
+     *
+     * @param movedVertices indices of the moved vertices
+     * @param count         number of indices to take from the start of the array
+     */
+    public void update(int[] movedVertices, int count) {
+        nextStamp();
+        affectedVertices.clear();
+        for (int i = 0; i < count; i++) {
+            final int vertex = movedVertices[i];
+            for (int j = 0; j < adjacency.getVertexPolygonCount(vertex); j++) {
+                final int polygon = adjacency.getVertexPolygon(vertex, j);
+                if (polygonStamps[polygon] == stamp) {
+                    continue;
+                }
+                polygonStamps[polygon] = stamp;
+                updatePolygonNormal(polygon);
+                for (int corner = polygonOffsets[polygon]; corner < polygonOffsets[polygon + 1]; corner++) {
+                    final int affected = vertexIndices[corner];
+                    if (vertexStamps[affected] != stamp) {
+                        vertexStamps[affected] = stamp;
+                        affectedVertices.add(affected);
+                    }
+                }
+            }
+        }
+        for (int i = 0; i < affectedVertices.size(); i++) {
+            updateVertexNormal(affectedVertices.get(i));
+        }
+    }
+
+    private void nextStamp() {
+        if (stamp == Integer.MAX_VALUE) {
+            Arrays.fill(polygonStamps, 0);
+            Arrays.fill(vertexStamps, 0);
+            stamp = 0;
+        }
+        ++stamp;
+    }
+
+    private void updatePolygonNormal(int polygon) {
+        if (!NormalUtils.polygonNormal(positions, vertexIndices, polygonOffsets[polygon],
+                polygonOffsets[polygon + 1], polygonNormals, 3 * polygon)) {
+            polygonNormals[3 * polygon] = 0;
+            polygonNormals[3 * polygon + 1] = 0;
+            polygonNormals[3 * polygon + 2] = 0;
+        }
+    }
+
+    /**
+     * Sums the polygon normals in increasing polygon order, as the one-pass {@link NormalUtils#vertexNormals} does.
+     */
+    private void updateVertexNormal(int vertex) {
+        float x = 0;
+        float y = 0;
+        float z = 0;
+        for (int i = 0; i < adjacency.getVertexPolygonCount(vertex); i++) {
+            final int polygon = adjacency.getVertexPolygon(vertex, i);
+            x += polygonNormals[3 * polygon];
+            y += polygonNormals[3 * polygon + 1];
+            z += polygonNormals[3 * polygon + 2];
+        }
+        normals[3 * vertex] = x;
+        normals[3 * vertex + 1] = y;
+        normals[3 * vertex + 2] = z;
+        NormalUtils.normalize(normals, vertex, vertex + 1);
+    }
+}
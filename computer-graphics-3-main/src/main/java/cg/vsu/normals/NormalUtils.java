@@ -1,11 +1,15 @@
 package cg.vsu.normals;
 
-import cg.vsu.math.GeometryUtils;
+import cg.vsu.model.CompactModel;
+import cg.vsu.model.MeshAdjacency;
+import cg.vsu.model.Model;
 import cg.vsu.model.Polygon;
 import cg.vsu.math.Vector3f;
+import cg.vsu.model.VertexWelder;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ForkJoinPool;
 
 /**
  * Library for finding normals to a 3D model
@@ -30,11 +34,91 @@ public class NormalUtils {
         Vector3f vertex2 = vertices.get(vertexIndices.get(1));
         Vector3f vertex3 = vertices.get(vertexIndices.get(2));
 
-        //vectors in the polygon flat
-        Vector3f vector1 = new Vector3f(vertex2.x - vertex1.x, vertex2.y - vertex1.y, vertex2.z - vertex1.z);
-        Vector3f vector2 = new Vector3f(vertex3.x - vertex1.x, vertex3.y - vertex1.y, vertex3.z - vertex1.z);
+        return normal(vertex1.x, vertex1.y, vertex1.z, vertex2.x, vertex2.y, vertex2.z,
+                vertex3.x, vertex3.y, vertex3.z, new Vector3f());
+    }
+
+    /**
+     * Same as {@link #normalToPolygon(Polygon, List)}, but allocation-free for hot loops such as back-face
+     * culling: the normal is written to {@code out}.
+     *
+     * @param polygon  input polygon
+     * @param vertices all model vertices list
+     * @param out      vector receiving the normal
+     * @return {@code out}
+     */
+    public static Vector3f normalToPolygon(Polygon polygon, List<Vector3f> vertices, Vector3f out) {
+        List<Integer> vertexIndices = polygon.getVertexIndices();
+
+        if (vertexIndices.size() < 3)
+            throw new IllegalArgumentException("Polygon vertex count must be greater than or equal to 3");
+        if (vertices.size() < 3)
+            throw new IllegalArgumentException("Vertices count must be greater than or equal to 3");
+
+        Vector3f vertex1 = vertices.get(vertexIndices.get(0));
+        Vector3f vertex2 = vertices.get(vertexIndices.get(1));
+        Vector3f vertex3 = vertices.get(vertexIndices.get(2));
 
-        return GeometryUtils.vectorProduct(vector1, vector2).nor();
+        return normal(vertex1.x, vertex1.y, vertex1.z, vertex2.x, vertex2.y, vertex2.z,
+                vertex3.x, vertex3.y, vertex3.z, out);
+    }
+
+    /**
+     * Allocation-free normal of a polygon of a packed model, read straight from its arrays.
+     *
+     * @param model   input model
+     * @param polygon polygon index
+     * @param out     vector receiving the normal
+     * @return {@code out}
+     */
+    public static Vector3f normalToPolygon(CompactModel model, int polygon, Vector3f out) {
+        final int start = model.getPolygonOffsets()[polygon];
+        if (model.getPolygonSize(polygon) < 3)
+            throw new IllegalArgumentException("Polygon vertex count must be greater than or equal to 3");
+
+        final float[] positions = model.getPositions();
+        final int[] vertexIndices = model.getVertexIndices();
+        final int v1 = 3 * vertexIndices[start];
+        final int v2 = 3 * vertexIndices[start + 1];
+        final int v3 = 3 * vertexIndices[start + 2];
+        return normal(positions[v1], positions[v1 + 1], positions[v1 + 2],
+                positions[v2], positions[v2 + 1], positions[v2 + 2],
+                positions[v3], positions[v3 + 1], positions[v3 + 2], out);
+    }
+
+    /**
+     * Allocation-free normal of a polygon of a packed model, written as three floats to {@code out} at
+     * {@code offset}, e.g. into a packed array of polygon normals.
+     *
+     * @param model   input model
+     * @param polygon polygon index
+     * @param out     array receiving the normal
+     * @param offset  index of the x component in {@code out}
+     */
+    public static void normalToPolygon(CompactModel model, int polygon, float[] out, int offset) {
+        final int[] polygonOffsets = model.getPolygonOffsets();
+        if (!polygonNormal(model.getPositions(), model.getVertexIndices(), polygonOffsets[polygon],
+                polygonOffsets[polygon + 1], out, offset)) {
+            out[offset] = 0;
+            out[offset + 1] = 0;
+            out[offset + 2] = 0;
+        }
+    }
+
+    /**
+     * Sets {@code out} to the unit normal of the triangle: the normalized cross product of its edges from the first
+     * vertex.
+     */
+    private static Vector3f normal(float x1, float y1, float z1, float x2, float y2, float z2,
+                                   float x3, float y3, float z3, Vector3f out) {
+        //vectors in the polygon flat
+        final float ax = x2 - x1;
+        final float ay = y2 - y1;
+        final float az = z2 - z1;
+        final float bx = x3 - x1;
+        final float by = y3 - y1;
+        final float bz = z3 - z1;
+        return out.set(ay * bz - az * by, az * bx - ax * bz, ax * by - ay * bx).nor();
     }
 
     /**
@@ -47,14 +131,321 @@ public class NormalUtils {
         List<Polygon> polygonsSurroundingVertex = selectPolygonsSurroundingVertex(vertex, vertices, polygons);
 
         Vector3f sumVector = new Vector3f();
+        Vector3f polygonNormal = new Vector3f();
         for (Polygon polygon : polygonsSurroundingVertex) {
-            sumVector.add(normalToPolygon(polygon, vertices));
+            sumVector.add(normalToPolygon(polygon, vertices, polygonNormal));
         }
 
         // return average vector
         return sumVector.div(polygonsSurroundingVertex.size()).nor();
     }
 
+    /**
+     * Same as {@link #normalToVertex(Vector3f, List, List)}, but looks up only the polygons around the vertex.
+     * Polygons are matched by vertex index, so vertices with equal coordinates and different indices are not
+     * merged here.
+     *
+     * @param vertex    index of the input vertex
+     * @param vertices  all model vertices list
+     * @param polygons  all model polygons list
+     * @param adjacency adjacency of the current polygons, e.g. {@link Model#getAdjacency()}
+     * @return normal vector to vertex relative to model
+     */
+    public static Vector3f normalToVertex(int vertex, List<Vector3f> vertices, List<Polygon> polygons,
+                                          MeshAdjacency adjacency) {
+        return normalToVertex(vertex, vertices, polygons, adjacency, new Vector3f());
+    }
+
+    /**
+     * Same as {@link #normalToVertex(int, List, List, MeshAdjacency)}, but the normal is written to {@code out}.
+     *
+     * @param vertex    index of the input vertex
+     * @param vertices  all model vertices list
+     * @param polygons  all model polygons list
+     * @param adjacency adjacency of the current polygons, e.g. {@link Model#getAdjacency()}
+     * @param out       vector receiving the normal
+     * @return {@code out}
+     */
+    public static Vector3f normalToVertex(int vertex, List<Vector3f> vertices, List<Polygon> polygons,
+                                          MeshAdjacency adjacency, Vector3f out) {
+        Vector3f sumVector = out.setZero();
+        // the temporary does not escape, so the JIT keeps it in registers
+        Vector3f polygonNormal = new Vector3f();
+        for (int i = 0; i < adjacency.getVertexPolygonCount(vertex); i++) {
+            sumVector.add(normalToPolygon(polygons.get(adjacency.getVertexPolygon(vertex, i)), vertices,
+                    polygonNormal));
+        }
+
+        // return average vector
+        return sumVector.div(adjacency.getVertexPolygonCount(vertex)).nor();
+    }
+
+    /**
+     * Computes the normals of all vertices in one pass over the polygons, unlike calling
+     * {@link #normalToVertex} for every vertex, which scans all polygons each time.
+     * <p>
+     * The result matches {@link #normalToVertex}: vertices with equal coordinates share the polygons around them
+     * and every polygon adds its normal once. A vertex outside all polygons gets a zero normal.
+     *
+     * @param vertices all model vertices list
+     * @param polygons all model polygons list
+     * @return packed normals {@code x0, y0, z0, x1, ...}, one per vertex
+     */
+    public static float[] vertexNormals(List<Vector3f> vertices, List<Polygon> polygons) {
+        final int[] polygonOffsets = polygonOffsets(polygons);
+        return vertexNormals(positions(vertices), polygonOffsets, vertexIndices(polygons, polygonOffsets));
+    }
+
+    /**
+     * Same as {@link #vertexNormals(List, List)} for a packed model.
+     *
+     * @param model input model
+     * @return packed normals {@code x0, y0, z0, x1, ...}, one per vertex
+     */
+    public static float[] vertexNormals(CompactModel model) {
+        return vertexNormals(model.getPositions(), model.getPolygonOffsets(), model.getVertexIndices());
+    }
+
+    /**
+     * Same as {@link #vertexNormals(List, List)}, computed by all threads of the common {@link ForkJoinPool}.
+     * The result is bit-identical to the sequential one for any number of threads.
+     *
+     * @param vertices all model vertices list
+     * @param polygons all model polygons list
+     * @return packed normals {@code x0, y0, z0, x1, ...}, one per vertex
+     */
+    public static float[] vertexNormalsParallel(List<Vector3f> vertices, List<Polygon> polygons) {
+        return vertexNormalsParallel(vertices, polygons, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Same as {@link #vertexNormalsParallel(List, List)} in the given pool.
+     */
+    public static float[] vertexNormalsParallel(List<Vector3f> vertices, List<Polygon> polygons,
+                                                ForkJoinPool pool) {
+        final int[] polygonOffsets = polygonOffsets(polygons);
+        return ParallelNormals.vertexNormals(positions(vertices), polygonOffsets,
+                vertexIndices(polygons, polygonOffsets), pool);
+    }
+
+    /**
+     * Same as {@link #vertexNormals(CompactModel)}, computed by all threads of the common {@link ForkJoinPool}.
+     * The result is bit-identical to the sequential one for any number of threads.
+     *
+     * @param model input model
+     * @return packed normals {@code x0, y0, z0, x1, ...}, one per vertex
+     */
+    public static float[] vertexNormalsParallel(CompactModel model) {
+        return vertexNormalsParallel(model, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Same as {@link #vertexNormalsParallel(CompactModel)} in the given pool.
+     */
+    public static float[] vertexNormalsParallel(CompactModel model, ForkJoinPool pool) {
+        return ParallelNormals.vertexNormals(model.getPositions(), model.getPolygonOffsets(),
+                model.getVertexIndices(), pool);
+    }
+
+    /**
+     * Replaces the normals of the model with {@link #vertexNormals(List, List) vertex normals}: normal {@code i}
+     * belongs to vertex {@code i} and every polygon gets its vertex indices as normal indices.
+     *
+     * @param model input model
+     */
+    public static void recalculateVertexNormals(Model model) {
+        final float[] normals = vertexNormals(model.vertices, model.polygons);
+        model.normals.clear();
+        model.normals.ensureCapacity(model.vertices.size());
+        for (int i = 0; i < model.vertices.size(); i++) {
+            model.normals.add(new Vector3f(normals[3 * i], normals[3 * i + 1], normals[3 * i + 2]));
+        }
+        for (Polygon polygon : model.polygons) {
+            polygon.setNormalIndices(new ArrayList<>(polygon.getVertexIndices()));
+        }
+    }
+
+    /**
+     * Replaces the normals of the model with weighted per-corner normals that stay sharp at creases.
+     * <p>
+     * The corner of a polygon at a vertex gets the weighted average of the normals of the polygons around the
+     * vertex that are in the same smoothing group ({@code s} statements, {@code s off} makes polygons flat) and
+     * meet the polygon at no more than the crease angle. Corners with equal normals share one entry of
+     * {@code model.normals}. Polygons are matched by vertex index through a {@link MeshAdjacency} built for the
+     * pass from the current polygons, so the pass is linear in the mesh size.
+     *
+     * @param model              input model
+     * @param weighting          contribution of each polygon to a vertex normal
+     * @param creaseAngleDegrees polygons meeting at a larger angle do not share normals; 180 turns creases off
+     */
+    public static void recalculateNormals(Model model, NormalWeighting weighting, float creaseAngleDegrees) {
+        final int[] polygonOffsets = polygonOffsets(model.polygons);
+        final int[] vertexIndices = vertexIndices(model.polygons, polygonOffsets);
+        // индекс строится заново по текущим полигонам: кэш модели мог устареть после правок
+        final SmoothNormals result = new SmoothNormals(positions(model.vertices), polygonOffsets, vertexIndices,
+                SmoothNormals.smoothingGroups(model.groups, model.polygons.size()),
+                MeshAdjacency.of(model.vertices.size(), polygonOffsets, vertexIndices), weighting, creaseAngleDegrees);
+
+        final int normalCount = result.normals.length / 3;
+        model.normals.clear();
+        model.normals.ensureCapacity(normalCount);
+        for (int i = 0; i < normalCount; i++) {
+            model.normals.add(new Vector3f(result.normals[3 * i], result.normals[3 * i + 1],
+                    result.normals[3 * i + 2]));
+        }
+        final Integer[] boxes = new Integer[normalCount];
+        for (int i = 0; i < model.polygons.size(); i++) {
+            final ArrayList<Integer> normalIndices = new ArrayList<>(polygonOffsets[i + 1] - polygonOffsets[i]);
+            for (int corner = polygonOffsets[i]; corner < polygonOffsets[i + 1]; corner++) {
+                final int normal = result.normalIndices[corner];
+                if (boxes[normal] == null) {
+                    boxes[normal] = normal;
+                }
+                normalIndices.add(boxes[normal]);
+            }
+            model.polygons.get(i).setNormalIndices(normalIndices);
+        }
+    }
+
+    /**
+     * Same as {@link #recalculateNormals(Model, NormalWeighting, float)} for a packed model, which has no
+     * smoothing groups.
+     *
+     * @return a model with the new normals sharing all other arrays with {@code model}
+     */
+    public static CompactModel recalculateNormals(CompactModel model, NormalWeighting weighting,
+                                                  float creaseAngleDegrees) {
+        final SmoothNormals result = new SmoothNormals(model.getPositions(), model.getPolygonOffsets(),
+                model.getVertexIndices(), new int[model.getPolygonCount()], model.getAdjacency(), weighting,
+                creaseAngleDegrees);
+        return new CompactModel(model.getPositions(), model.getTextureVertices(), result.normals,
+                model.getPolygonOffsets(), model.getVertexIndices(), model.getTextureVertexIndices(),
+                result.normalIndices);
+    }
+
+    private static float[] vertexNormals(float[] positions, int[] polygonOffsets, int[] vertexIndices) {
+        // vertices with equal coordinates share one slot, as in selectPolygonsSurroundingVertex
+        final VertexWelder.Result welded = VertexWelder.weld(positions, 0);
+        final int[] slots = welded.getRemap();
+        final float[] sums = new float[3 * welded.getVertexCount()];
+        final float[] normal = new float[3];
+
+        for (int polygon = 0; polygon + 1 < polygonOffsets.length; polygon++) {
+            final int start = polygonOffsets[polygon];
+            final int end = polygonOffsets[polygon + 1];
+            if (!polygonNormal(positions, vertexIndices, start, end, normal, 0)) {
+                continue;
+            }
+            for (int corner = start; corner < end; corner++) {
+                final int slot = slots[vertexIndices[corner]];
+                if (isRepeated(slots, vertexIndices, start, corner, slot)) {
+                    continue;
+                }
+                sums[3 * slot] += normal[0];
+                sums[3 * slot + 1] += normal[1];
+                sums[3 * slot + 2] += normal[2];
+            }
+        }
+
+        normalize(sums, 0, welded.getVertexCount());
+        if (welded.getMergedVertexCount() == 0) {
+            return sums;
+        }
+        final float[] normals = new float[positions.length];
+        for (int vertex = 0; vertex < slots.length; vertex++) {
+            System.arraycopy(sums, 3 * slots[vertex], normals, 3 * vertex, 3);
+        }
+        return normals;
+    }
+
+    /**
+     * Writes the unit normal of the polygon, as in {@link #normalToPolygon}, to {@code out} at {@code offset}.
+     *
+     * @return false, with nothing written, if the first three vertices of the polygon lie on one line
+     */
+    static boolean polygonNormal(float[] positions, int[] vertexIndices, int start, int end,
+                                 float[] out, int offset) {
+        if (end - start < 3)
+            throw new IllegalArgumentException("Polygon vertex count must be greater than or equal to 3");
+
+        final int v1 = 3 * vertexIndices[start];
+        final int v2 = 3 * vertexIndices[start + 1];
+        final int v3 = 3 * vertexIndices[start + 2];
+        final float ax = positions[v2] - positions[v1];
+        final float ay = positions[v2 + 1] - positions[v1 + 1];
+        final float az = positions[v2 + 2] - positions[v1 + 2];
+        final float bx = positions[v3] - positions[v1];
+        final float by = positions[v3 + 1] - positions[v1 + 1];
+        final float bz = positions[v3 + 2] - positions[v1 + 2];
+        final float nx = ay * bz - az * by;
+        final float ny = az * bx - ax * bz;
+        final float nz = ax * by - ay * bx;
+        final float length = Vector3f.len(nx, ny, nz);
+        if (length == 0) {
+            return false;
+        }
+        out[offset] = nx / length;
+        out[offset + 1] = ny / length;
+        out[offset + 2] = nz / length;
+        return true;
+    }
+
+    /**
+     * Normalizes the packed vectors {@code [from, to)} in place, leaving zero vectors as they are.
+     */
+    static void normalize(float[] vectors, int from, int to) {
+        for (int i = from; i < to; i++) {
+            final float length = Vector3f.len(vectors[3 * i], vectors[3 * i + 1], vectors[3 * i + 2]);
+            if (length != 0) {
+                vectors[3 * i] /= length;
+                vectors[3 * i + 1] /= length;
+                vectors[3 * i + 2] /= length;
+            }
+        }
+    }
+
+    /**
+     * @return whether an earlier corner of the polygon already added its normal to the slot
+     */
+    static boolean isRepeated(int[] slots, int[] vertexIndices, int start, int corner, int slot) {
+        for (int i = start; i < corner; i++) {
+            if (slots[vertexIndices[i]] == slot) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static float[] positions(List<Vector3f> vertices) {
+        final float[] positions = new float[3 * vertices.size()];
+        for (int i = 0; i < vertices.size(); i++) {
+            final Vector3f vertex = vertices.get(i);
+            positions[3 * i] = vertex.x;
+            positions[3 * i + 1] = vertex.y;
+            positions[3 * i + 2] = vertex.z;
+        }
+        return positions;
+    }
+
+    private static int[] polygonOffsets(List<Polygon> polygons) {
+        final int[] polygonOffsets = new int[polygons.size() + 1];
+        for (int i = 0; i < polygons.size(); i++) {
+            polygonOffsets[i + 1] = polygonOffsets[i] + polygons.get(i).getVertexIndices().size();
+        }
+        return polygonOffsets;
+    }
+
+    private static int[] vertexIndices(List<Polygon> polygons, int[] polygonOffsets) {
+        final int[] vertexIndices = new int[polygonOffsets[polygons.size()]];
+        for (int i = 0; i < polygons.size(); i++) {
+            int corner = polygonOffsets[i];
+            for (Integer index : polygons.get(i).getVertexIndices()) {
+                vertexIndices[corner++] = index;
+            }
+        }
+        return vertexIndices;
+    }
+
     /**
      * Support method for "normalToVertex"
      * @param vertex   input vertex
@@ -0,0 +1,23 @@
+package cg.vsu.normals;
+
+/**
+ * How much each polygon around a vertex contributes to the vertex normal.
+ */
+public enum NormalWeighting {
+    /**
+     * Every polygon counts the same, as in {@link NormalUtils#normalToVertex}. Dense fans of thin polygons
+     * pull the normal towards themselves.
+     */
+    UNIFORM,
+
+    /**
+     * Polygons count by their area, so small polygons at bevels barely tilt the normals of large flat faces.
+     */
+    AREA,
+
+    /**
+     * Polygons count by their angle at the vertex. The result does not depend on how a surface is triangulated,
+     * which suits CAD meshes with long thin triangles.
+     */
+    ANGLE
+}
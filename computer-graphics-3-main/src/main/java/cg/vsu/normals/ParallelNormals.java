@@ -0,0 +1,150 @@
+package cg.vsu.normals;
+
+import cg.vsu.model.VertexWelder;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Computes vertex normals with all threads of a {@link ForkJoinPool}.
+ * <p>
+ * Polygon normals are computed in parallel into their own slots. The polygons are then grouped by vertex,
+ * CSR-style, and every vertex sums the normals of its polygons in increasing polygon order. That is the
+ * order of the sequential {@link NormalUtils#vertexNormals(cg.vsu.model.CompactModel)}, so the result is
+ * bit-identical to it whatever the number of threads or the split of the work. Threads never write the same
+ * accumulator; the only shared writes are atomic increments of the per-vertex polygon counters.
+ * <p>
+ * Finding the vertices with equal coordinates is a sequential {@link VertexWelder} pass.
+ */
+final class ParallelNormals {
+
+    static final int GRAIN = 1 << 13;
+    private static final VarHandle INTS = MethodHandles.arrayElementVarHandle(int[].class);
+
+    private ParallelNormals() {
+    }
+
+    static float[] vertexNormals(float[] positions, int[] polygonOffsets, int[] vertexIndices, ForkJoinPool pool) {
+        return vertexNormals(positions, polygonOffsets, vertexIndices, pool, GRAIN);
+    }
+
+    static float[] vertexNormals(float[] positions, int[] polygonOffsets, int[] vertexIndices, ForkJoinPool pool,
+                                 int grain) {
+        final VertexWelder.Result welded = VertexWelder.weld(positions, 0);
+        final int[] slots = welded.getRemap();
+        final int slotCount = welded.getVertexCount();
+        final int polygonCount = polygonOffsets.length - 1;
+
+        // polygon normals and polygon counts per slot; a degenerate polygon keeps a zero normal
+        final float[] polygonNormals = new float[3 * polygonCount];
+        final int[] slotOffsets = new int[slotCount + 1];
+        invoke(pool, polygonCount, grain, (from, to) -> {
+            for (int polygon = from; polygon < to; polygon++) {
+                final int start = polygonOffsets[polygon];
+                final int end = polygonOffsets[polygon + 1];
+                if (!NormalUtils.polygonNormal(positions, vertexIndices, start, end, polygonNormals, 3 * polygon)) {
+                    continue;
+                }
+                for (int corner = start; corner < end; corner++) {
+                    final int slot = slots[vertexIndices[corner]];
+                    if (!NormalUtils.isRepeated(slots, vertexIndices, start, corner, slot)) {
+                        INTS.getAndAdd(slotOffsets, slot + 1, 1);
+                    }
+                }
+            }
+        });
+        for (int slot = 0; slot < slotCount; slot++) {
+            slotOffsets[slot + 1] += slotOffsets[slot];
+        }
+
+        // slot polygon lists are filled in any order and sorted when summed
+        final int[] cursors = Arrays.copyOf(slotOffsets, slotCount);
+        final int[] slotPolygons = new int[slotOffsets[slotCount]];
+        invoke(pool, polygonCount, grain, (from, to) -> {
+            for (int polygon = from; polygon < to; polygon++) {
+                if (isZero(polygonNormals, polygon)) {
+                    continue;
+                }
+                final int start = polygonOffsets[polygon];
+                final int end = polygonOffsets[polygon + 1];
+                for (int corner = start; corner < end; corner++) {
+                    final int slot = slots[vertexIndices[corner]];
+                    if (!NormalUtils.isRepeated(slots, vertexIndices, start, corner, slot)) {
+                        slotPolygons[(int) INTS.getAndAdd(cursors, slot, 1)] = polygon;
+                    }
+                }
+            }
+        });
+
+        final float[] sums = new float[3 * slotCount];
+        invoke(pool, slotCount, grain, (from, to) -> {
+            for (int slot = from; slot < to; slot++) {
+                Arrays.sort(slotPolygons, slotOffsets[slot], slotOffsets[slot + 1]);
+                for (int i = slotOffsets[slot]; i < slotOffsets[slot + 1]; i++) {
+                    final int polygon = slotPolygons[i];
+                    sums[3 * slot] += polygonNormals[3 * polygon];
+                    sums[3 * slot + 1] += polygonNormals[3 * polygon + 1];
+                    sums[3 * slot + 2] += polygonNormals[3 * polygon + 2];
+                }
+            }
+            NormalUtils.normalize(sums, from, to);
+        });
+
+        if (welded.getMergedVertexCount() == 0) {
+            return sums;
+        }
+        final float[] normals = new float[positions.length];
+        invoke(pool, slots.length, grain, (from, to) -> {
+            for (int vertex = from; vertex < to; vertex++) {
+                System.arraycopy(sums, 3 * slots[vertex], normals, 3 * vertex, 3);
+            }
+        });
+        return normals;
+    }
+
+    private static boolean isZero(float[] vectors, int i) {
+        return vectors[3 * i] == 0 && vectors[3 * i + 1] == 0 && vectors[3 * i + 2] == 0;
+    }
+
+    private static void invoke(ForkJoinPool pool, int count, int grain, RangeBody body) {
+        if (count > 0) {
+            pool.invoke(new RangeTask(body, 0, count, grain));
+        }
+    }
+
+    private interface RangeBody {
+        void run(int from, int to);
+    }
+
+    /**
+     * Halves {@code [from, to)} until the parts are at most {@code grain} long.
+     */
+    private static final class RangeTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final RangeBody body;
+        private final int from;
+        private final int to;
+        private final int grain;
+
+        RangeTask(RangeBody body, int from, int to, int grain) {
+            this.body = body;
+            this.from = from;
+            this.to = to;
+            this.grain = grain;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= grain) {
+                body.run(from, to);
+                return;
+            }
+            final int middle = (from + to) >>> 1;
+            invokeAll(new RangeTask(body, from, middle, grain), new RangeTask(body, middle, to, grain));
+        }
+    }
+}
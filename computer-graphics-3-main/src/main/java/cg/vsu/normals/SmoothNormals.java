@@ -0,0 +1,331 @@
+package cg.vsu.normals;
+
+import cg.vsu.model.Float3IntHashMap;
+import cg.vsu.model.FloatArrayBuilder;
+import cg.vsu.model.MeshAdjacency;
+import cg.vsu.model.PolygonGroup;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Computes per-corner normals with {@link NormalWeighting weights}, crease angles and smoothing groups.
+ * <p>
+ * The corner of polygon {@code f} at vertex {@code v} gets the weighted sum of the normals of the polygons
+ * around {@code v} that are smooth with {@code f}: in the same smoothing group and at most the crease angle
+ * away from {@code f}. Corners of {@code v} with the same set of such polygons get the same normal, so a vertex
+ * on a smooth surface gets one normal and a vertex on a sharp edge gets one per side.
+ * <p>
+ * Polygons are found through {@link MeshAdjacency} and grouped per vertex and smoothing group. A group whose
+ * polygons all lie within half the crease angle of their mean direction is smooth as a whole, so its sum is
+ * computed once and its corners share one normal; only a group that really has a crease at the vertex compares
+ * its polygons pairwise. Equal normals of a vertex are found through a {@link Float3IntHashMap}, so the pass is
+ * linear in the mesh size.
+ * <p>
+ * Polygon normals and areas come from Newell's method, which also handles non-triangular and slightly
+ * non-planar polygons; for triangles it is the cross product of {@link NormalUtils#normalToPolygon}.
+ */
+final class SmoothNormals {
+
+    /**
+     * Smoothing group of polygons that share no normals, from {@code s off} or {@code s 0}.
+     */
+    static final int FLAT = -1;
+
+    final float[] normals;
+    final int[] normalIndices;
+
+    private final float[] positions;
+    private final int[] polygonOffsets;
+    private final int[] vertexIndices;
+    private final int[] smoothingGroups;
+    private final NormalWeighting weighting;
+    private final float minCosine;
+    private final float minHalfCosine;
+    private final float[] polygonNormals;
+    private final float[] polygonAreas;
+
+    private final FloatArrayBuilder normalsBuilder;
+    private final Float3IntHashMap normalIds;
+    private int firstNormal;
+
+    // per vertex: the weight and the slot of every polygon around it, and per slot, one for each smoothing group
+    // present at the vertex, the weighted sum and the mean direction of its polygons
+    private float[] weights = new float[16];
+    private int[] polygonSlots = new int[16];
+    private float[] slotSums = new float[3 * 16];
+    private float[] slotMeans = new float[3 * 16];
+    private boolean[] slotCreased = new boolean[16];
+    private int[] slotNormals = new int[16];
+    private final int[] groupSlots;
+    private final int[] groupStamps;
+
+    SmoothNormals(float[] positions, int[] polygonOffsets, int[] vertexIndices, int[] smoothingGroups,
+                  MeshAdjacency adjacency, NormalWeighting weighting, float creaseAngleDegrees) {
+        if (!(creaseAngleDegrees >= 0)) {
+            throw new IllegalArgumentException("Crease angle must be non-negative: " + creaseAngleDegrees);
+        }
+        this.positions = positions;
+        this.polygonOffsets = polygonOffsets;
+        this.vertexIndices = vertexIndices;
+        this.smoothingGroups = smoothingGroups;
+        this.weighting = weighting;
+        // a little below the cosine, so that polygons exactly at the crease angle stay smooth
+        this.minCosine = creaseAngleDegrees >= 180
+                ? -2
+                : (float) Math.cos(Math.toRadians(creaseAngleDegrees)) - 1e-6f;
+        // polygons within half the angle of a common direction are within the whole angle of each other
+        this.minHalfCosine = creaseAngleDegrees >= 180
+                ? -2
+                : (float) Math.cos(Math.toRadians(creaseAngleDegrees) / 2);
+
+        final int polygonCount = polygonOffsets.length - 1;
+        polygonNormals = new float[3 * polygonCount];
+        polygonAreas = new float[polygonCount];
+        for (int polygon = 0; polygon < polygonCount; polygon++) {
+            newellNormal(polygon);
+        }
+
+        int maxGroup = 0;
+        for (int group : smoothingGroups) {
+            maxGroup = Math.max(maxGroup, group);
+        }
+        groupSlots = new int[maxGroup + 1];
+        groupStamps = new int[maxGroup + 1];
+
+        normalIndices = new int[vertexIndices.length];
+        normalsBuilder = new FloatArrayBuilder(positions.length);
+        normalIds = new Float3IntHashMap(adjacency.getVertexCount());
+        for (int vertex = 0; vertex < adjacency.getVertexCount(); vertex++) {
+            vertexNormals(adjacency, vertex);
+        }
+        this.normals = normalsBuilder.toArray();
+    }
+
+    private void vertexNormals(MeshAdjacency adjacency, int vertex) {
+        final int degree = adjacency.getVertexPolygonCount(vertex);
+        if (weights.length < degree) {
+            final int capacity = Math.max(degree, 2 * weights.length);
+            weights = new float[capacity];
+            polygonSlots = new int[capacity];
+            slotSums = new float[3 * capacity];
+            slotMeans = new float[3 * capacity];
+            slotCreased = new boolean[capacity];
+            slotNormals = new int[capacity];
+        }
+
+        int slotCount = 0;
+        for (int a = 0; a < degree; a++) {
+            final int polygon = adjacency.getVertexPolygon(vertex, a);
+            weights[a] = weight(polygon, vertex);
+            final int group = smoothingGroups[polygon];
+            if (group == FLAT) {
+                polygonSlots[a] = -1;
+                continue;
+            }
+            if (groupStamps[group] != vertex + 1) {
+                groupStamps[group] = vertex + 1;
+                groupSlots[group] = slotCount;
+                Arrays.fill(slotSums, 3 * slotCount, 3 * slotCount + 3, 0);
+                Arrays.fill(slotMeans, 3 * slotCount, 3 * slotCount + 3, 0);
+                slotCreased[slotCount] = false;
+                slotNormals[slotCount] = -1;
+                ++slotCount;
+            }
+            final int slot = groupSlots[group];
+            polygonSlots[a] = slot;
+            if (polygonAreas[polygon] != 0) {
+                // в том же порядке, что и попарный обход ниже, поэтому суммы совпадают до бита
+                for (int i = 0; i < 3; i++) {
+                    slotSums[3 * slot + i] += weights[a] * polygonNormals[3 * polygon + i];
+                    slotMeans[3 * slot + i] += polygonNormals[3 * polygon + i];
+                }
+            }
+        }
+
+        if (minHalfCosine > -2) {
+            for (int a = 0; a < degree; a++) {
+                final int polygon = adjacency.getVertexPolygon(vertex, a);
+                final int slot = polygonSlots[a];
+                if (slot < 0 || slotCreased[slot] || polygonAreas[polygon] == 0) {
+                    continue;
+                }
+                final float mx = slotMeans[3 * slot];
+                final float my = slotMeans[3 * slot + 1];
+                final float mz = slotMeans[3 * slot + 2];
+                final float cosine = (polygonNormals[3 * polygon] * mx + polygonNormals[3 * polygon + 1] * my
+                        + polygonNormals[3 * polygon + 2] * mz) / (float) Math.sqrt(mx * mx + my * my + mz * mz);
+                if (!(cosine >= minHalfCosine)) {
+                    slotCreased[slot] = true;
+                }
+            }
+        }
+
+        firstNormal = normalsBuilder.size() / 3;
+        for (int a = 0; a < degree; a++) {
+            final int polygon = adjacency.getVertexPolygon(vertex, a);
+            final int slot = polygonSlots[a];
+            final int normal;
+            if (slot >= 0 && !slotCreased[slot]) {
+                if (slotNormals[slot] < 0) {
+                    slotNormals[slot] = normal(slotSums[3 * slot], slotSums[3 * slot + 1], slotSums[3 * slot + 2]);
+                }
+                normal = slotNormals[slot];
+            } else {
+                float x = 0;
+                float y = 0;
+                float z = 0;
+                for (int b = 0; b < degree; b++) {
+                    final int other = adjacency.getVertexPolygon(vertex, b);
+                    if (polygonSlots[b] != slot || !isSmooth(polygon, other) || polygonAreas[other] == 0) {
+                        continue;
+                    }
+                    final float weight = weights[b];
+                    x += weight * polygonNormals[3 * other];
+                    y += weight * polygonNormals[3 * other + 1];
+                    z += weight * polygonNormals[3 * other + 2];
+                }
+                normal = normal(x, y, z);
+            }
+            for (int corner = polygonOffsets[polygon]; corner < polygonOffsets[polygon + 1]; corner++) {
+                if (vertexIndices[corner] == vertex) {
+                    normalIndices[corner] = normal;
+                }
+            }
+        }
+    }
+
+    /**
+     * @return the index of the normalized sum among the normals of the current vertex, added if it is new
+     */
+    private int normal(float x, float y, float z) {
+        final float length = (float) Math.sqrt(x * x + y * y + z * z);
+        if (length != 0) {
+            x /= length;
+            y /= length;
+            z /= length;
+        }
+        // карта хранит последний индекс каждого значения; индекс меньше firstNormal принадлежит другой вершине
+        int normal = normalIds.get(x, y, z, -1);
+        if (normal < firstNormal) {
+            normal = normalsBuilder.size() / 3;
+            normalsBuilder.add(x, y, z);
+            normalIds.put(x, y, z, normal);
+        }
+        return normal;
+    }
+
+    /**
+     * @return the smoothing group of every polygon from the {@link PolygonGroup.Type#SMOOTHING} runs; polygons
+     * outside all runs share group 0
+     */
+    static int[] smoothingGroups(List<PolygonGroup> groups, int polygonCount) {
+        final int[] smoothingGroups = new int[polygonCount];
+        final Map<String, Integer> ids = new HashMap<>();
+        for (PolygonGroup group : groups) {
+            if (group.getType() != PolygonGroup.Type.SMOOTHING) {
+                continue;
+            }
+            final String name = group.getName();
+            final int id = name.equals("off") || name.equals("0")
+                    ? FLAT
+                    : ids.computeIfAbsent(name, key -> ids.size() + 1);
+            for (int polygon = group.getFirstPolygon(); polygon < Math.min(group.getEndPolygon(), polygonCount);
+                 polygon++) {
+                smoothingGroups[polygon] = id;
+            }
+        }
+        return smoothingGroups;
+    }
+
+    private boolean isSmooth(int polygon, int other) {
+        if (polygon == other) {
+            return true;
+        }
+        final int group = smoothingGroups[polygon];
+        if (group == FLAT || group != smoothingGroups[other]) {
+            return false;
+        }
+        // a degenerate polygon has no direction of its own and is smooth with its whole group
+        if (polygonAreas[polygon] == 0) {
+            return true;
+        }
+        final float cosine = polygonNormals[3 * polygon] * polygonNormals[3 * other]
+                + polygonNormals[3 * polygon + 1] * polygonNormals[3 * other + 1]
+                + polygonNormals[3 * polygon + 2] * polygonNormals[3 * other + 2];
+        return cosine >= minCosine;
+    }
+
+    private float weight(int polygon, int vertex) {
+        return switch (weighting) {
+            case UNIFORM -> 1;
+            case AREA -> polygonAreas[polygon];
+            case ANGLE -> angle(polygon, vertex);
+        };
+    }
+
+    /**
+     * @return the angle of the polygon at its first corner with the vertex
+     */
+    private float angle(int polygon, int vertex) {
+        final int start = polygonOffsets[polygon];
+        final int end = polygonOffsets[polygon + 1];
+        int corner = start;
+        while (vertexIndices[corner] != vertex) {
+            ++corner;
+        }
+        final int v = 3 * vertex;
+        final int previous = 3 * vertexIndices[corner == start ? end - 1 : corner - 1];
+        final int next = 3 * vertexIndices[corner + 1 == end ? start : corner + 1];
+        final float ax = positions[next] - positions[v];
+        final float ay = positions[next + 1] - positions[v + 1];
+        final float az = positions[next + 2] - positions[v + 2];
+        final float bx = positions[previous] - positions[v];
+        final float by = positions[previous + 1] - positions[v + 1];
+        final float bz = positions[previous + 2] - positions[v + 2];
+        final float cx = ay * bz - az * by;
+        final float cy = az * bx - ax * bz;
+        final float cz = ax * by - ay * bx;
+        return (float) Math.atan2(Math.sqrt(cx * cx + cy * cy + cz * cz), ax * bx + ay * by + az * bz);
+    }
+
+    /**
+     * Stores the unit normal and the area of the polygon, or a zero normal and area if it is degenerate.
+     * The fan of cross products around the first vertex is Newell's method relative to that vertex,
+     * which keeps the precision of meshes far from the origin.
+     */
+    private void newellNormal(int polygon) {
+        final int start = polygonOffsets[polygon];
+        final int end = polygonOffsets[polygon + 1];
+        if (end - start < 3)
+            throw new IllegalArgumentException("Polygon vertex count must be greater than or equal to 3");
+
+        final int first = 3 * vertexIndices[start];
+        float x = 0;
+        float y = 0;
+        float z = 0;
+        for (int corner = start + 1; corner + 1 < end; corner++) {
+            final int current = 3 * vertexIndices[corner];
+            final int next = 3 * vertexIndices[corner + 1];
+            final float ax = positions[current] - positions[first];
+            final float ay = positions[current + 1] - positions[first + 1];
+            final float az = positions[current + 2] - positions[first + 2];
+            final float bx = positions[next] - positions[first];
+            final float by = positions[next + 1] - positions[first + 1];
+            final float bz = positions[next + 2] - positions[first + 2];
+            x += ay * bz - az * by;
+            y += az * bx - ax * bz;
+            z += ax * by - ay * bx;
+        }
+        final float length = (float) Math.sqrt(x * x + y * y + z * z);
+        if (length == 0) {
+            return;
+        }
+        polygonNormals[3 * polygon] = x / length;
+        polygonNormals[3 * polygon + 1] = y / length;
+        polygonNormals[3 * polygon + 2] = z / length;
+        polygonAreas[polygon] = length / 2;
+    }
+}
@@ -0,0 +1,319 @@
+package cg.vsu.objreader;
+
+import cg.vsu.model.CompactModel;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.function.Consumer;
+import java.util.zip.CRC32C;
+
+/**
+ * Binary sidecar of an OBJ file holding its {@link CompactModel}, so the text is parsed only once.
+ * <p>
+ * Layout, little-endian: the {@link #MAGIC} bytes, the format version, the stamp of the source OBJ
+ * (size, modification time, sampled hash), the lengths of the seven {@link CompactModel} arrays and then the
+ * arrays themselves, each starting at an 8 byte boundary. Both directions map the sections of the file and
+ * bulk-copy them between the mapping and the arrays, nothing is parsed and no second copy of the mesh is made on
+ * the heap. A single mapping cannot exceed 2 GB, so bigger sections are mapped in several windows.
+ * <p>
+ * The sidecar is used only when the stamp matches the current source file; the hash covers the head, the tail
+ * and evenly spaced blocks of the source, so checking it costs a few reads instead of a full pass.
+ */
+public class BinaryMeshCache {
+	public static final String SIDECAR_SUFFIX = ".cmesh";
+	static final int VERSION = 1;
+
+	private static final byte[] MAGIC = {'C', 'G', 'V', 'S', 'U', 'M', 'S', 'H'};
+	private static final int SECTIONS = 7;
+	private static final int HEADER_SIZE = MAGIC.length + Integer.BYTES + 3 * Long.BYTES + SECTIONS * Integer.BYTES;
+	private static final int HASH_BLOCK_SIZE = 1 << 16;
+	private static final int HASH_BLOCKS = 16;
+	/**
+	 * The largest number of array items copied through one mapping, 1 GB of floats or ints.
+	 */
+	static final int DEFAULT_WINDOW_ITEMS = 1 << 28;
+
+	private static final System.Logger LOGGER = System.getLogger(BinaryMeshCache.class.getName());
+
+	private BinaryMeshCache() {
+	}
+
+	/**
+	 * @return the default sidecar of the OBJ file, {@code model.obj.cmesh} next to {@code model.obj}
+	 */
+	public static Path sidecarPath(Path source) {
+		return source.resolveSibling(source.getFileName() + SIDECAR_SUFFIX);
+	}
+
+	/**
+	 * Same as {@link #readOrParse(Path, Consumer)}, with sidecar errors logged as warnings.
+	 */
+	public static CompactModel readOrParse(Path source) throws IOException {
+		return readOrParse(source, e -> LOGGER.log(System.Logger.Level.WARNING,
+				"Binary mesh cache of " + source + " is not used", e));
+	}
+
+	/**
+	 * Loads the sidecar if it is present and up to date, otherwise parses the OBJ and writes a fresh sidecar.
+	 * A sidecar that cannot be read or written only costs the parse: its error is passed to {@code onCacheError}
+	 * and the method goes on, so the errors it throws are those of the OBJ alone.
+	 */
+	public static CompactModel readOrParse(Path source, Consumer<IOException> onCacheError) throws IOException {
+		final Path sidecar = sidecarPath(source);
+		// отпечаток снимается до разбора: если OBJ поменяется во время разбора, кэш со старой геометрией
+		// получит старый отпечаток и при следующей загрузке будет признан устаревшим
+		final long[] stamp = stamp(source);
+		try {
+			final CompactModel cached = load(stamp, sidecar, DEFAULT_WINDOW_ITEMS);
+			if (cached != null) {
+				return cached;
+			}
+		} catch (IOException e) {
+			onCacheError.accept(e);
+		}
+
+		CompactModelHandler handler = new CompactModelHandler();
+		MappedObjReader.read(source, handler);
+		CompactModel model = handler.getResult();
+		try {
+			write(model, stamp, sidecar, DEFAULT_WINDOW_ITEMS);
+		} catch (IOException e) {
+			onCacheError.accept(e);
+		}
+		return model;
+	}
+
+	/**
+	 * @return the cached model, or null if the sidecar is missing, of another version, damaged or stale
+	 */
+	public static CompactModel load(Path source, Path sidecar) throws IOException {
+		return load(stamp(source), sidecar, DEFAULT_WINDOW_ITEMS);
+	}
+
+	static CompactModel load(long[] stamp, Path sidecar, int windowItems) throws IOException {
+		try (FileChannel channel = FileChannel.open(sidecar, StandardOpenOption.READ)) {
+			final long size = channel.size();
+			if (size < HEADER_SIZE) {
+				return null;
+			}
+			final ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+			while (header.hasRemaining()) {
+				if (channel.read(header, header.position()) < 0) {
+					return null;
+				}
+			}
+			header.flip();
+
+			for (byte b : MAGIC) {
+				if (header.get() != b) {
+					return null;
+				}
+			}
+			if (header.getInt() != VERSION
+					|| header.getLong() != stamp[0] || header.getLong() != stamp[1] || header.getLong() != stamp[2]) {
+				return null;
+			}
+
+			final int[] lengths = new int[SECTIONS];
+			final long[] offsets = new long[SECTIONS];
+			long expectedSize = HEADER_SIZE;
+			for (int i = 0; i < SECTIONS; i++) {
+				lengths[i] = header.getInt();
+				if (lengths[i] < 0) {
+					return null;
+				}
+				offsets[i] = align(expectedSize);
+				expectedSize = offsets[i] + 4L * lengths[i];
+			}
+			if (expectedSize != size) {
+				return null;
+			}
+
+			final float[] positions = new float[lengths[0]];
+			final float[] textureVertices = new float[lengths[1]];
+			final float[] normals = new float[lengths[2]];
+			final int[] polygonOffsets = new int[lengths[3]];
+			final int[] vertexIndices = new int[lengths[4]];
+			final int[] textureVertexIndices = new int[lengths[5]];
+			final int[] normalIndices = new int[lengths[6]];
+
+			readFloats(channel, offsets[0], positions, windowItems);
+			readFloats(channel, offsets[1], textureVertices, windowItems);
+			readFloats(channel, offsets[2], normals, windowItems);
+			readInts(channel, offsets[3], polygonOffsets, windowItems);
+			readInts(channel, offsets[4], vertexIndices, windowItems);
+			readInts(channel, offsets[5], textureVertexIndices, windowItems);
+			readInts(channel, offsets[6], normalIndices, windowItems);
+
+			try {
+				return new CompactModel(positions, textureVertices, normals,
+						polygonOffsets, vertexIndices, textureVertexIndices, normalIndices);
+			} catch (IllegalArgumentException e) {
+				return null;
+			}
+		} catch (NoSuchFileException e) {
+			return null;
+		}
+	}
+
+	/**
+	 * Writes the sidecar of the source file. The file is written under a temporary name and then moved,
+	 * so concurrent readers never see a partially written sidecar; the temporary file is deleted if writing fails.
+	 */
+	public static void write(CompactModel model, Path source, Path sidecar) throws IOException {
+		write(model, stamp(source), sidecar, DEFAULT_WINDOW_ITEMS);
+	}
+
+	/**
+	 * @param stamp       the {@link #stamp} of the source taken before it was parsed into {@code model}
+	 * @param windowItems the largest number of array items copied through one mapping
+	 */
+	static void write(CompactModel model, long[] stamp, Path sidecar, int windowItems) throws IOException {
+		final int[] lengths = {
+				model.getPositions().length,
+				model.getTextureVertices().length,
+				model.getNormals().length,
+				model.getPolygonOffsets().length,
+				model.getVertexIndices().length,
+				model.getTextureVertexIndices().length,
+				model.getNormalIndices().length
+		};
+		final long[] offsets = new long[SECTIONS];
+		long size = HEADER_SIZE;
+		for (int i = 0; i < SECTIONS; i++) {
+			offsets[i] = align(size);
+			size = offsets[i] + 4L * lengths[i];
+		}
+
+		final Path temp = Files.createTempFile(
+				sidecar.toAbsolutePath().getParent(), sidecar.getFileName().toString(), ".tmp");
+		try {
+			try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.READ,
+					StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+				final ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+				header.put(MAGIC);
+				header.putInt(VERSION);
+				header.putLong(stamp[0]).putLong(stamp[1]).putLong(stamp[2]);
+				for (int length : lengths) {
+					header.putInt(length);
+				}
+				header.flip();
+				while (header.hasRemaining()) {
+					channel.write(header, header.position());
+				}
+
+				writeFloats(channel, offsets[0], model.getPositions(), windowItems);
+				writeFloats(channel, offsets[1], model.getTextureVertices(), windowItems);
+				writeFloats(channel, offsets[2], model.getNormals(), windowItems);
+				writeInts(channel, offsets[3], model.getPolygonOffsets(), windowItems);
+				writeInts(channel, offsets[4], model.getVertexIndices(), windowItems);
+				writeInts(channel, offsets[5], model.getTextureVertexIndices(), windowItems);
+				writeInts(channel, offsets[6], model.getNormalIndices(), windowItems);
+				if (channel.size() < size) {
+					// пустые последние массивы ничего не отобразили, но выравнивание перед ними входит в размер
+					channel.write(ByteBuffer.allocate(1), size - 1);
+				}
+				channel.force(false);
+			}
+			Files.move(temp, sidecar, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		} finally {
+			Files.deleteIfExists(temp);
+		}
+	}
+
+	/**
+	 * @return size, modification time and sampled CRC32C of the source file
+	 */
+	static long[] stamp(Path source) throws IOException {
+		final long size = Files.size(source);
+		final long modified = Files.getLastModifiedTime(source).toMillis();
+
+		CRC32C crc = new CRC32C();
+		try (FileChannel channel = FileChannel.open(source, StandardOpenOption.READ)) {
+			ByteBuffer block = ByteBuffer.allocate(HASH_BLOCK_SIZE);
+			if (size <= (long) HASH_BLOCK_SIZE * HASH_BLOCKS) {
+				for (long position = 0; position < size; position += HASH_BLOCK_SIZE) {
+					hashBlock(channel, block, position, crc);
+				}
+			} else {
+				final long step = (size - HASH_BLOCK_SIZE) / (HASH_BLOCKS - 1);
+				for (int i = 0; i < HASH_BLOCKS; i++) {
+					hashBlock(channel, block, i * step, crc);
+				}
+			}
+		}
+		return new long[]{size, modified, crc.getValue()};
+	}
+
+	private static void hashBlock(FileChannel channel, ByteBuffer block, long position, CRC32C crc) throws IOException {
+		block.clear();
+		while (block.hasRemaining()) {
+			if (channel.read(block, position + block.position()) <= 0) {
+				break;
+			}
+		}
+		block.flip();
+		crc.update(block);
+	}
+
+	private static void readFloats(FileChannel channel, long position, float[] target, int windowItems)
+			throws IOException {
+		int count;
+		for (int from = 0; from < target.length; from += count) {
+			count = Math.min(target.length - from, windowItems);
+			map(channel, FileChannel.MapMode.READ_ONLY, position + 4L * from, count).asFloatBuffer()
+					.get(target, from, count);
+		}
+	}
+
+	private static void readInts(FileChannel channel, long position, int[] target, int windowItems)
+			throws IOException {
+		int count;
+		for (int from = 0; from < target.length; from += count) {
+			count = Math.min(target.length - from, windowItems);
+			map(channel, FileChannel.MapMode.READ_ONLY, position + 4L * from, count).asIntBuffer()
+					.get(target, from, count);
+		}
+	}
+
+	private static void writeFloats(FileChannel channel, long position, float[] source, int windowItems)
+			throws IOException {
+		int count;
+		for (int from = 0; from < source.length; from += count) {
+			count = Math.min(source.length - from, windowItems);
+			final MappedByteBuffer window = map(channel, FileChannel.MapMode.READ_WRITE, position + 4L * from, count);
+			window.asFloatBuffer().put(source, from, count);
+			window.force();
+		}
+	}
+
+	private static void writeInts(FileChannel channel, long position, int[] source, int windowItems)
+			throws IOException {
+		int count;
+		for (int from = 0; from < source.length; from += count) {
+			count = Math.min(source.length - from, windowItems);
+			final MappedByteBuffer window = map(channel, FileChannel.MapMode.READ_WRITE, position + 4L * from, count);
+			window.asIntBuffer().put(source, from, count);
+			window.force();
+		}
+	}
+
+	private static MappedByteBuffer map(FileChannel channel, FileChannel.MapMode mode, long position, int items)
+			throws IOException {
+		final MappedByteBuffer window = channel.map(mode, position, 4L * items);
+		window.order(ByteOrder.LITTLE_ENDIAN);
+		return window;
+	}
+
+	private static long align(long position) {
+		return (position + 7) & ~7L;
+	}
+}
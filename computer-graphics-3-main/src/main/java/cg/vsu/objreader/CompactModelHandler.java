@@ -0,0 +1,35 @@
+package cg.vsu.objreader;
+
+import cg.vsu.model.CompactModel;
+import cg.vsu.model.CompactModelBuilder;
+
+/**
+ * Collects the streamed records into a {@link CompactModel} without a per-record allocation.
+ */
+class CompactModelHandler implements ObjHandler {
+	private final CompactModelBuilder builder = new CompactModelBuilder();
+
+	@Override
+	public void vertex(float x, float y, float z, int lineInd) {
+		builder.addVertex(x, y, z);
+	}
+
+	@Override
+	public void textureVertex(float u, float v, int lineInd) {
+		builder.addTextureVertex(u, v);
+	}
+
+	@Override
+	public void normal(float x, float y, float z, int lineInd) {
+		builder.addNormal(x, y, z);
+	}
+
+	@Override
+	public void face(int[] vertexIndices, int[] textureVertexIndices, int[] normalIndices, int size, int lineInd) {
+		builder.addPolygon(vertexIndices, textureVertexIndices, normalIndices, size);
+	}
+
+	CompactModel getResult() {
+		return builder.build();
+	}
+}
@@ -0,0 +1,338 @@
+package cg.vsu.objreader;
+
+import cg.vsu.model.Model;
+import cg.vsu.model.ModelChangeSet;
+import cg.vsu.model.Polygon;
+import cg.vsu.model.PolygonGroup;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.BiPredicate;
+import java.util.zip.CRC32C;
+
+/**
+ * Keeps a {@link Model} in sync with an OBJ file that is saved again and again, reparsing only the part of the
+ * file that changed. See {@link ObjFileWatcher} for reloading on every save.
+ * <p>
+ * The file is split into newline-aligned chunks of about {@link #CHUNK_SIZE} bytes, and every chunk is remembered
+ * with its CRC32C and the numbers of records it produced. On {@link #reload()} the chunks are hashed again, the
+ * unchanged head and tail of the file are kept and only the part between them is parsed:
+ * <ul>
+ * <li>if that part has as many records of every kind as before (vertices moved, faces rewired), its records
+ * replace the old ones in place and the tail stays valid;</li>
+ * <li>otherwise the model is truncated after the unchanged head and everything after it is parsed again, because
+ * the face indices of the tail may point to other vertices now. Appending to the file is the cheap case of this:
+ * only the new bytes are parsed.</li>
+ * </ul>
+ * Hashing still reads the whole file, but that is far cheaper than parsing it. A reload that fails, for example on
+ * a half-saved file, throws and leaves the model untouched. The model is patched on the reloading thread, so
+ * concurrent readers of it have to synchronize on this object.
+ */
+public class IncrementalObjReader {
+	static final int CHUNK_SIZE = 1 << 20;
+
+	private final Path path;
+	private final int chunkSize;
+	private final Model model = new Model();
+	private final IndexBoxes boxes = new IndexBoxes();
+	private List<Chunk> chunks = new ArrayList<>();
+
+	public IncrementalObjReader(Path path) {
+		this(path, CHUNK_SIZE);
+	}
+
+	IncrementalObjReader(Path path, int chunkSize) {
+		this.path = path;
+		this.chunkSize = chunkSize;
+	}
+
+	public Path getPath() {
+		return path;
+	}
+
+	/**
+	 * @return the model, the same instance after every reload
+	 */
+	public Model getModel() {
+		return model;
+	}
+
+	/**
+	 * Reads the file the first time, then parses what changed since the previous call and patches the model.
+	 *
+	 * @return the changes of the model; after the first call the whole model is dirty
+	 */
+	public synchronized ModelChangeSet reload() throws IOException {
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+			final long newSize = channel.size();
+			final long oldSize = chunks.isEmpty() ? 0 : chunks.get(chunks.size() - 1).end();
+
+			int head = 0;
+			while (head < chunks.size() && chunks.get(head).matches(channel, chunks.get(head).start, newSize)) {
+				++head;
+			}
+			// Последняя строка файла без перевода строки могла быть дописана
+			while (head > 0 && !isLineStart(channel, chunks.get(head - 1).end(), newSize)) {
+				--head;
+			}
+			final long headEnd = head == 0 ? 0 : chunks.get(head - 1).end();
+			if (head == chunks.size() && headEnd == newSize) {
+				return ModelChangeSet.unchanged(model);
+			}
+
+			final long delta = newSize - oldSize;
+			int tail = chunks.size();
+			while (tail > head + 1) {
+				final Chunk chunk = chunks.get(tail - 1);
+				if (chunk.start + delta < headEnd || !chunk.matches(channel, chunk.start + delta, newSize)) {
+					break;
+				}
+				--tail;
+			}
+			while (tail < chunks.size() && !isLineStart(channel, chunks.get(tail).start + delta, newSize)) {
+				++tail;
+			}
+			final long tailStart = tail == chunks.size() ? newSize : chunks.get(tail).start + delta;
+
+			final Chunk before = total(chunks.subList(0, head));
+			final Chunk oldMiddle = total(chunks.subList(head, tail));
+			Region region = new Region(before);
+			region.parse(channel, headEnd, tailStart);
+
+			List<Chunk> updated = new ArrayList<>(chunks.subList(0, head));
+			ModelChangeSet changeSet;
+			if (region.total().sameRecords(oldMiddle)) {
+				changeSet = replace(before, region.builder.getResult());
+				updated.addAll(region.chunks);
+				for (Chunk chunk : chunks.subList(tail, chunks.size())) {
+					updated.add(chunk.shifted(delta));
+				}
+			} else {
+				region.parse(channel, tailStart, newSize);
+				changeSet = truncateAndAppend(before, region.builder.getResult());
+				updated.addAll(region.chunks);
+			}
+			chunks = updated;
+			if (!changeSet.getPolygons().isEmpty()) {
+				model.invalidateAdjacency();
+				model.invalidateTriangulation();
+			}
+			return changeSet;
+		}
+	}
+
+	/**
+	 * Replaces the records after {@code before} by the records of {@code part}, which has as many of each kind.
+	 */
+	private ModelChangeSet replace(Chunk before, Model part) {
+		final ModelChangeSet.Range vertices = replace(model.vertices, before.vertices, part.vertices, Objects::equals);
+		final ModelChangeSet.Range textureVertices = replace(
+				model.textureVertices, before.textureVertices, part.textureVertices, Objects::equals);
+		final ModelChangeSet.Range normals = replace(model.normals, before.normals, part.normals, Objects::equals);
+		final ModelChangeSet.Range polygons = replace(
+				model.polygons, before.polygons, part.polygons, IncrementalObjReader::samePolygon);
+
+		boolean groupsChanged = false;
+		for (int i = 0; i < part.groups.size(); i++) {
+			final PolygonGroup group = part.groups.get(i).shifted(before.polygons);
+			final PolygonGroup old = model.groups.get(before.groups + i);
+			if (group.getType() != old.getType() || !group.getName().equals(old.getName())
+					|| group.getFirstPolygon() != old.getFirstPolygon()) {
+				model.groups.set(before.groups + i, group);
+				groupsChanged = true;
+			}
+		}
+		if (groupsChanged) {
+			PolygonGroup.closeRuns(model.groups, model.polygons.size());
+		}
+		return new ModelChangeSet(vertices, textureVertices, normals, polygons, groupsChanged);
+	}
+
+	/**
+	 * Replaces everything after {@code before} by the records of {@code part}.
+	 */
+	private ModelChangeSet truncateAndAppend(Chunk before, Model part) {
+		final ModelChangeSet.Range vertices = truncateAndAppend(model.vertices, before.vertices, part.vertices);
+		final ModelChangeSet.Range textureVertices = truncateAndAppend(
+				model.textureVertices, before.textureVertices, part.textureVertices);
+		final ModelChangeSet.Range normals = truncateAndAppend(model.normals, before.normals, part.normals);
+		final ModelChangeSet.Range polygons = truncateAndAppend(model.polygons, before.polygons, part.polygons);
+
+		final boolean groupsChanged = model.groups.size() > before.groups || !part.groups.isEmpty();
+		model.groups.subList(before.groups, model.groups.size()).clear();
+		for (PolygonGroup group : part.groups) {
+			model.groups.add(group.shifted(before.polygons));
+		}
+		PolygonGroup.closeRuns(model.groups, model.polygons.size());
+		return new ModelChangeSet(vertices, textureVertices, normals, polygons, groupsChanged);
+	}
+
+	private static <T> ModelChangeSet.Range replace(List<T> target, int offset, List<T> items, BiPredicate<T, T> same) {
+		int from = -1;
+		int to = -1;
+		for (int i = 0; i < items.size(); i++) {
+			if (!same.test(target.get(offset + i), items.get(i))) {
+				target.set(offset + i, items.get(i));
+				if (from < 0) {
+					from = offset + i;
+				}
+				to = offset + i + 1;
+			}
+		}
+		return from < 0
+				? ModelChangeSet.Range.empty(target.size())
+				: new ModelChangeSet.Range(from, to, target.size(), target.size());
+	}
+
+	private static <T> ModelChangeSet.Range truncateAndAppend(List<T> target, int offset, List<T> items) {
+		final int oldSize = target.size();
+		target.subList(offset, oldSize).clear();
+		target.addAll(items);
+		return new ModelChangeSet.Range(offset, target.size(), oldSize, target.size());
+	}
+
+	private static boolean samePolygon(Polygon a, Polygon b) {
+		return a.getVertexIndices().equals(b.getVertexIndices())
+				&& a.getTextureVertexIndices().equals(b.getTextureVertexIndices())
+				&& a.getNormalIndices().equals(b.getNormalIndices());
+	}
+
+	/**
+	 * Whether a line of the new file starts at {@code position}, so a kept chunk there is still parsed the same.
+	 */
+	private static boolean isLineStart(FileChannel channel, long position, long size) throws IOException {
+		if (position == 0 || position == size) {
+			return true;
+		}
+		ByteBuffer bytes = ByteBuffer.allocate(2);
+		channel.read(bytes, position - 1);
+		final byte previous = bytes.get(0);
+		// "\r" перед "\n" склеится с ним в один перевод строки, и строки куска сдвинутся
+		return previous == '\n' || previous == '\r' && (bytes.position() < 2 || bytes.get(1) != '\n');
+	}
+
+	private static Chunk total(List<Chunk> chunks) {
+		Chunk total = new Chunk(0, 0, 0);
+		for (Chunk chunk : chunks) {
+			total.lines += chunk.lines;
+			total.vertices += chunk.vertices;
+			total.textureVertices += chunk.textureVertices;
+			total.normals += chunk.normals;
+			total.polygons += chunk.polygons;
+			total.groups += chunk.groups;
+		}
+		return total;
+	}
+
+	/**
+	 * Parses consecutive byte ranges of the file, continuing the unchanged head, into a separate model, so the
+	 * reloaded model is touched only once the whole region is parsed.
+	 */
+	private final class Region {
+		private final ModelBuilder builder = new ModelBuilder(boxes);
+		private final MappedObjReader reader = new MappedObjReader(builder, false);
+		private final List<Chunk> chunks = new ArrayList<>();
+		private int groups;
+
+		Region(Chunk before) {
+			reader.continueAfter(before.lines, before.vertices, before.textureVertices, before.normals);
+		}
+
+		void parse(FileChannel channel, long from, long to) throws IOException {
+			long chunkStart = from;
+			while (chunkStart < to) {
+				final long chunkEnd = to - chunkStart <= chunkSize
+						? to
+						: ParallelObjReader.nextLineStart(channel, chunkStart + chunkSize, to);
+				if (chunkEnd - chunkStart > Integer.MAX_VALUE) {
+					throw new ObjReaderException("Line does not fit into a chunk.", reader.getLineCount() + 1);
+				}
+				final int length = (int) (chunkEnd - chunkStart);
+				final ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, chunkStart, length);
+
+				final int lines = reader.getLineCount();
+				final int vertices = reader.getVertexCount();
+				final int textureVertices = reader.getTextureVertexCount();
+				final int normals = reader.getNormalCount();
+				final int polygons = reader.getFaceCount();
+				reader.parse(buffer, 0, length, true);
+
+				Chunk chunk = new Chunk(chunkStart, length, hash(buffer));
+				chunk.lines = reader.getLineCount() - lines;
+				chunk.vertices = reader.getVertexCount() - vertices;
+				chunk.textureVertices = reader.getTextureVertexCount() - textureVertices;
+				chunk.normals = reader.getNormalCount() - normals;
+				chunk.polygons = reader.getFaceCount() - polygons;
+				chunk.groups = builder.getResult().groups.size() - groups;
+				groups += chunk.groups;
+				chunks.add(chunk);
+				chunkStart = chunkEnd;
+			}
+		}
+
+		Chunk total() {
+			return IncrementalObjReader.total(chunks);
+		}
+	}
+
+	private static long hash(ByteBuffer buffer) {
+		CRC32C crc = new CRC32C();
+		crc.update(buffer.duplicate().clear());
+		return crc.getValue();
+	}
+
+	/**
+	 * A newline-aligned byte range of the file and the numbers of records parsed from it.
+	 */
+	private static final class Chunk {
+		final long start;
+		final int length;
+		final long crc;
+		int lines;
+		int vertices;
+		int textureVertices;
+		int normals;
+		int polygons;
+		int groups;
+
+		Chunk(long start, int length, long crc) {
+			this.start = start;
+			this.length = length;
+			this.crc = crc;
+		}
+
+		long end() {
+			return start + length;
+		}
+
+		/**
+		 * @return whether the new file has the same bytes at {@code newStart}
+		 */
+		boolean matches(FileChannel channel, long newStart, long newSize) throws IOException {
+			return newStart + length <= newSize
+					&& hash(channel.map(FileChannel.MapMode.READ_ONLY, newStart, length)) == crc;
+		}
+
+		boolean sameRecords(Chunk other) {
+			return vertices == other.vertices && textureVertices == other.textureVertices
+					&& normals == other.normals && polygons == other.polygons && groups == other.groups;
+		}
+
+		Chunk shifted(long delta) {
+			Chunk chunk = new Chunk(start + delta, length, crc);
+			chunk.lines = lines;
+			chunk.vertices = vertices;
+			chunk.textureVertices = textureVertices;
+			chunk.normals = normals;
+			chunk.polygons = polygons;
+			chunk.groups = groups;
+			return chunk;
+		}
+	}
+}
@@ -0,0 +1,57 @@
+package cg.vsu.objreader;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+/**
+ * Hands out one shared {@link Integer} per index value.
+ * <p>
+ * {@link Integer#valueOf} caches only -128..127, so without sharing every face corner of a big model holds its
+ * own boxed vertex, texture vertex and normal index. With the boxes shared a fully attributed polygon costs
+ * little more than a vertex-only one: the lists still hold a reference per corner, but the values are stored
+ * once per distinct index.
+ */
+final class IndexBoxes {
+	/**
+	 * How far beyond the cached range an index may be before it is boxed without caching, so a broken file
+	 * with a huge index does not allocate a huge cache.
+	 */
+	private static final int MAX_GROWTH = 1 << 16;
+
+	private Integer[] boxes = new Integer[1024];
+
+	Integer box(final int index) {
+		if (index < 0) {
+			return index;
+		}
+		if (index >= boxes.length) {
+			if (index > 2 * boxes.length + MAX_GROWTH) {
+				return index;
+			}
+			boxes = Arrays.copyOf(boxes, Math.max(index + 1, 2 * boxes.length));
+		}
+		Integer boxed = boxes[index];
+		if (boxed == null) {
+			boxed = index;
+			boxes[index] = boxed;
+		}
+		return boxed;
+	}
+
+	ArrayList<Integer> list(final int[] indices, final int size) {
+		ArrayList<Integer> result = new ArrayList<Integer>(size);
+		for (int i = 0; i < size; i++) {
+			result.add(box(indices[i]));
+		}
+		return result;
+	}
+
+	/**
+	 * Replaces the items of the list by the shared boxes.
+	 */
+	void intern(final ArrayList<Integer> list) {
+		for (int i = 0; i < list.size(); i++) {
+			list.set(i, box(list.get(i)));
+		}
+	}
+}
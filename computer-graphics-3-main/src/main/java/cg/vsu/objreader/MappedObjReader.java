@@ -0,0 +1,573 @@
+package cg.vsu.objreader;
+
+import cg.vsu.model.PolygonGroup;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * OBJ parser working directly on the bytes of a memory-mapped file.
+ * <p>
+ * Follows {@link ObjReader#read(String)} exactly - the same records are accepted and the same
+ * {@link ObjReaderException} messages and line numbers are produced - but does not create a String or a List
+ * for every line: tokens are located in the mapped buffer, numbers are parsed in place and every record is
+ * pushed to an {@link ObjHandler}.
+ */
+final class MappedObjReader {
+
+	/**
+	 * A single {@link MappedByteBuffer} cannot be larger than 2 GB, so bigger files are mapped window by window.
+	 */
+	static final int DEFAULT_WINDOW_SIZE = Integer.MAX_VALUE;
+
+	private static final double[] POWERS_OF_TEN = {
+			1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+			1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+	};
+
+	private static final long MAX_EXACT_MANTISSA = 1L << 53;
+	private static final long FLOAT_ROUNDING_BITS_MASK = (1L << 29) - 1;
+	private static final long FLOAT_HALFWAY_BITS = 1L << 28;
+
+	static final int RELATIVE_VERTEX = 0;
+	static final int RELATIVE_TEXTURE_VERTEX = 1;
+	static final int RELATIVE_NORMAL = 2;
+	private static final int RELATIVE_KIND_SHIFT = 30;
+	private static final int RELATIVE_POSITION_MASK = (1 << RELATIVE_KIND_SHIFT) - 1;
+
+	private final ObjHandler handler;
+	private final boolean chunk;
+	private ByteBuffer buffer;
+	private int lineInd;
+
+	private int vertexCount;
+	private int textureVertexCount;
+	private int normalCount;
+	private int faceCount;
+
+	private int[] faceVertexIndices = new int[16];
+	private int[] faceTextureVertexIndices = new int[16];
+	private int[] faceNormalIndices = new int[16];
+	private int faceSize;
+
+	private byte[] groupName = new byte[64];
+
+	/**
+	 * In chunk mode relative face indices can only be resolved against the chunk-local counts, so every such
+	 * index is remembered as {@code face << 32 | kind << 30 | position} with its chunk-local value, which may be
+	 * negative, to be shifted once the preceding chunks are known; the handler gets 0 in its place. The position
+	 * is the corner of the face. The line is kept to report an index that is still negative after the shift.
+	 */
+	private long[] relativeIndices = new long[0];
+	private int[] relativeIndexValues = new int[0];
+	private int[] relativeIndexLines = new int[0];
+	private int relativeIndicesCount;
+
+	private int lineEnd;
+	private int cursor;
+	private int tokenStart;
+	private int tokenEnd;
+
+	MappedObjReader(ObjHandler handler, boolean chunk) {
+		this.handler = handler;
+		this.chunk = chunk;
+	}
+
+	static void read(Path path, ObjHandler handler) throws IOException {
+		read(path, handler, DEFAULT_WINDOW_SIZE);
+	}
+
+	static void read(Path path, ObjHandler handler, int windowSize) throws IOException {
+		MappedObjReader reader = new MappedObjReader(handler, false);
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+			final long size = channel.size();
+			long windowStart = 0;
+			while (windowStart < size) {
+				final long windowLength = Math.min(size - windowStart, windowSize);
+				final boolean lastWindow = windowStart + windowLength == size;
+				final ByteBuffer window = channel.map(FileChannel.MapMode.READ_ONLY, windowStart, windowLength);
+
+				final int consumed = reader.parse(window, 0, (int) windowLength, lastWindow);
+				if (consumed == 0) {
+					throw new ObjReaderException("Line does not fit into the mapping window.", reader.lineInd + 1);
+				}
+				windowStart += consumed;
+			}
+		}
+	}
+
+	/**
+	 * Parses all complete lines of {@code [from, to)} of the buffer.
+	 *
+	 * @param atEnd whether {@code to} is the end of the file, so the last line does not need a terminator
+	 * @return the number of consumed bytes; an incomplete trailing line is left for the next window
+	 */
+	int parse(final ByteBuffer buffer, final int from, final int to, final boolean atEnd) {
+		this.buffer = buffer;
+		int lineStart = from;
+		while (lineStart < to) {
+			int lineEnd = lineStart;
+			while (lineEnd < to && !isLineTerminator(buffer.get(lineEnd))) {
+				++lineEnd;
+			}
+
+			int next;
+			if (lineEnd == to) {
+				if (!atEnd) {
+					break;
+				}
+				next = to;
+			} else if (buffer.get(lineEnd) == '\r') {
+				if (lineEnd + 1 == to && !atEnd) {
+					// "\r\n" может оказаться разрезанным границей окна
+					break;
+				}
+				next = lineEnd + 1 < to && buffer.get(lineEnd + 1) == '\n' ? lineEnd + 2 : lineEnd + 1;
+			} else {
+				next = lineEnd + 1;
+			}
+
+			// Строка из одних пробелов после split("\\s+") дает пустой массив, и read ее не считает
+			if (!isBlank(lineStart, lineEnd)) {
+				++lineInd;
+				parseLine(lineStart, lineEnd);
+			}
+			lineStart = next;
+		}
+		return lineStart - from;
+	}
+
+	/**
+	 * Makes the reader continue a file whose first {@code lineCount} lines were read already, so relative
+	 * indices and error line numbers are counted from the whole file.
+	 */
+	void continueAfter(int lineCount, int vertexCount, int textureVertexCount, int normalCount) {
+		this.lineInd = lineCount;
+		this.vertexCount = vertexCount;
+		this.textureVertexCount = textureVertexCount;
+		this.normalCount = normalCount;
+	}
+
+	int getLineCount() {
+		return lineInd;
+	}
+
+	int getVertexCount() {
+		return vertexCount;
+	}
+
+	int getTextureVertexCount() {
+		return textureVertexCount;
+	}
+
+	int getNormalCount() {
+		return normalCount;
+	}
+
+	int getFaceCount() {
+		return faceCount;
+	}
+
+	int getRelativeIndicesCount() {
+		return relativeIndicesCount;
+	}
+
+	long getRelativeIndex(int i) {
+		return relativeIndices[i];
+	}
+
+	int getRelativeIndexValue(int i) {
+		return relativeIndexValues[i];
+	}
+
+	/**
+	 * @return the chunk-local line of the face of the relative index
+	 */
+	int getRelativeIndexLine(int i) {
+		return relativeIndexLines[i];
+	}
+
+	static int relativeFace(long relativeIndex) {
+		return (int) (relativeIndex >>> 32);
+	}
+
+	/**
+	 * @return {@link #RELATIVE_VERTEX}, {@link #RELATIVE_TEXTURE_VERTEX} or {@link #RELATIVE_NORMAL}
+	 */
+	static int relativeKind(long relativeIndex) {
+		return (int) relativeIndex >>> RELATIVE_KIND_SHIFT;
+	}
+
+	static int relativePosition(long relativeIndex) {
+		return (int) relativeIndex & RELATIVE_POSITION_MASK;
+	}
+
+	private void parseLine(final int lineStart, final int lineEnd) {
+		// Как и line.split("\\s+"), строка, начинающаяся с пробела, дает пустой первый токен и пропускается
+		if (lineStart == lineEnd || isWhitespace(buffer.get(lineStart))) {
+			return;
+		}
+
+		this.lineEnd = lineEnd;
+		this.cursor = lineStart;
+		nextToken();
+
+		final int tokenLength = tokenEnd - tokenStart;
+		final byte first = buffer.get(tokenStart);
+		if (tokenLength == 1 && first == 'v') {
+			parseVertex();
+		} else if (tokenLength == 2 && first == 'v' && buffer.get(tokenStart + 1) == 't') {
+			parseTextureVertex();
+		} else if (tokenLength == 2 && first == 'v' && buffer.get(tokenStart + 1) == 'n') {
+			parseNormal();
+		} else if (tokenLength == 1 && first == 'f') {
+			parseFace();
+		} else if (tokenLength == 1 && first == 'o') {
+			parseGroup(PolygonGroup.Type.OBJECT);
+		} else if (tokenLength == 1 && first == 'g') {
+			parseGroup(PolygonGroup.Type.GROUP);
+		} else if (tokenLength == 1 && first == 's') {
+			parseGroup(PolygonGroup.Type.SMOOTHING);
+		} else if (tokenLength == 6 && isToken("usemtl")) {
+			parseGroup(PolygonGroup.Type.MATERIAL);
+		}
+	}
+
+	/**
+	 * @return whether the line is not empty and consists of whitespace only
+	 */
+	private boolean isBlank(final int lineStart, final int lineEnd) {
+		if (lineStart == lineEnd) {
+			return false;
+		}
+		for (int i = lineStart; i < lineEnd; i++) {
+			if (!isWhitespace(buffer.get(i))) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private boolean isToken(final String token) {
+		for (int i = 0; i < token.length(); i++) {
+			if (buffer.get(tokenStart + i) != token.charAt(i)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Joins the arguments by single spaces like {@code String.join(" ", line.split("\\s+"))} does.
+	 */
+	private void parseGroup(final PolygonGroup.Type type) {
+		int length = 0;
+		while (nextToken()) {
+			final int tokenLength = tokenEnd - tokenStart;
+			if (length + tokenLength + 1 > groupName.length) {
+				groupName = Arrays.copyOf(groupName, Math.max(groupName.length * 2, length + tokenLength + 1));
+			}
+			if (length > 0) {
+				groupName[length++] = ' ';
+			}
+			buffer.get(tokenStart, groupName, length, tokenLength);
+			length += tokenLength;
+		}
+		handler.group(type, new String(groupName, 0, length, StandardCharsets.UTF_8), lineInd);
+	}
+
+	private void parseVertex() {
+		final float x = nextFloat("Too few vertex arguments.");
+		final float y = nextFloat("Too few vertex arguments.");
+		final float z = nextFloat("Too few vertex arguments.");
+		handler.vertex(x, y, z, lineInd);
+		++vertexCount;
+	}
+
+	private void parseTextureVertex() {
+		final float u = nextFloat("Too few texture vertex arguments.");
+		final float v = nextFloat("Too few texture vertex arguments.");
+		handler.textureVertex(u, v, lineInd);
+		++textureVertexCount;
+	}
+
+	private void parseNormal() {
+		final float x = nextFloat("Too few normal arguments.");
+		final float y = nextFloat("Too few normal arguments.");
+		final float z = nextFloat("Too few normal arguments.");
+		handler.normal(x, y, z, lineInd);
+		++normalCount;
+	}
+
+	private float nextFloat(final String tooFewMessage) {
+		if (!nextToken()) {
+			throw new ObjReaderException(tooFewMessage, lineInd);
+		}
+		return parseFloat(tokenStart, tokenEnd);
+	}
+
+	private void parseFace() {
+		faceSize = 0;
+		while (nextToken()) {
+			if (faceSize == faceVertexIndices.length) {
+				faceVertexIndices = Arrays.copyOf(faceVertexIndices, faceSize * 2);
+				faceTextureVertexIndices = Arrays.copyOf(faceTextureVertexIndices, faceSize * 2);
+				faceNormalIndices = Arrays.copyOf(faceNormalIndices, faceSize * 2);
+			}
+			parseFaceWord(tokenStart, tokenEnd);
+			++faceSize;
+		}
+
+		handler.face(faceVertexIndices, faceTextureVertexIndices, faceNormalIndices, faceSize, lineInd);
+		++faceCount;
+	}
+
+	/**
+	 * Mirrors {@link ObjReader#parseFaceWord}: the word is split by '/' and trailing empty parts are dropped,
+	 * the same way {@code String.split("/")} does it.
+	 */
+	private void parseFaceWord(final int start, final int end) {
+		int firstEnd = end;
+		int secondEnd = end;
+		int thirdEnd = end;
+		int parts = 0;
+		int part = 0;
+		int partStart = start;
+		for (int i = start; i <= end; i++) {
+			if (i < end && buffer.get(i) != '/') {
+				continue;
+			}
+			if (i > partStart) {
+				parts = part + 1;
+			}
+			switch (part) {
+				case 0 -> firstEnd = i;
+				case 1 -> secondEnd = i;
+				case 2 -> thirdEnd = i;
+				default -> {}
+			}
+			++part;
+			partStart = i + 1;
+		}
+
+		int textureVertexIndex = ObjHandler.NO_INDEX;
+		int normalIndex = ObjHandler.NO_INDEX;
+		switch (parts) {
+			case 1 -> faceVertexIndices[faceSize] = resolve(parseInt(start, firstEnd), RELATIVE_VERTEX, faceSize);
+			case 2 -> {
+				faceVertexIndices[faceSize] = resolve(parseInt(start, firstEnd), RELATIVE_VERTEX, faceSize);
+				textureVertexIndex = resolve(parseInt(firstEnd + 1, secondEnd), RELATIVE_TEXTURE_VERTEX, faceSize);
+			}
+			case 3 -> {
+				faceVertexIndices[faceSize] = resolve(parseInt(start, firstEnd), RELATIVE_VERTEX, faceSize);
+				normalIndex = resolve(parseInt(secondEnd + 1, thirdEnd), RELATIVE_NORMAL, faceSize);
+				if (firstEnd + 1 != secondEnd) {
+					textureVertexIndex = resolve(parseInt(firstEnd + 1, secondEnd), RELATIVE_TEXTURE_VERTEX, faceSize);
+				}
+			}
+			default -> throw new ObjReaderException("Invalid element size.", lineInd);
+		}
+		faceTextureVertexIndices[faceSize] = textureVertexIndex;
+		faceNormalIndices[faceSize] = normalIndex;
+	}
+
+	private int resolve(final int objIndex, final int kind, final int position) {
+		final int count = switch (kind) {
+			case RELATIVE_VERTEX -> vertexCount;
+			case RELATIVE_TEXTURE_VERTEX -> textureVertexCount;
+			default -> normalCount;
+		};
+		if (objIndex < 0 && chunk) {
+			if (relativeIndicesCount == relativeIndices.length) {
+				relativeIndices = Arrays.copyOf(relativeIndices, Math.max(16, relativeIndicesCount * 2));
+				relativeIndexValues = Arrays.copyOf(relativeIndexValues, relativeIndices.length);
+				relativeIndexLines = Arrays.copyOf(relativeIndexLines, relativeIndices.length);
+			}
+			relativeIndices[relativeIndicesCount] = (long) faceCount << 32 | (long) kind << RELATIVE_KIND_SHIFT | position;
+			relativeIndexValues[relativeIndicesCount] = count + objIndex;
+			relativeIndexLines[relativeIndicesCount++] = lineInd;
+			return 0;
+		}
+		return ObjReader.resolveIndex(objIndex, count, lineInd);
+	}
+
+	/**
+	 * Same contract as {@link Integer#parseInt(String)}.
+	 */
+	private int parseInt(int pos, final int end) {
+		if (pos == end) {
+			throw new ObjReaderException("Failed to parse int value.", lineInd);
+		}
+
+		boolean negative = false;
+		final byte sign = buffer.get(pos);
+		if (sign == '-' || sign == '+') {
+			negative = sign == '-';
+			if (++pos == end) {
+				throw new ObjReaderException("Failed to parse int value.", lineInd);
+			}
+		}
+
+		final long limit = negative ? -(long) Integer.MIN_VALUE : Integer.MAX_VALUE;
+		long value = 0;
+		for (; pos < end; pos++) {
+			final int digit = buffer.get(pos) - '0';
+			if (digit < 0 || digit > 9) {
+				throw new ObjReaderException("Failed to parse int value.", lineInd);
+			}
+			value = value * 10 + digit;
+			if (value > limit) {
+				throw new ObjReaderException("Failed to parse int value.", lineInd);
+			}
+		}
+		return (int) (negative ? -value : value);
+	}
+
+	/**
+	 * Same contract as {@link Float#parseFloat(String)}.
+	 * <p>
+	 * Plain decimal literals are converted in place. A literal is converted through a single correctly rounded
+	 * double operation only when that is exact for float (Clinger's fast path with the double rounding case
+	 * excluded); everything else - long mantissas, huge exponents, hex, NaN, Infinity - falls back to
+	 * {@link Float#parseFloat(String)}, so the result is always bit-identical.
+	 */
+	private float parseFloat(final int start, final int end) {
+		int pos = start;
+		boolean negative = false;
+		byte c = buffer.get(pos);
+		if (c == '-' || c == '+') {
+			negative = c == '-';
+			if (++pos == end) {
+				return parseFloatFallback(start, end);
+			}
+		}
+
+		long mantissa = 0;
+		int significantDigits = 0;
+		int digits = 0;
+		int fractionDigits = 0;
+		boolean inFraction = false;
+		for (; pos < end; pos++) {
+			c = buffer.get(pos);
+			if (c >= '0' && c <= '9') {
+				++digits;
+				if (inFraction) {
+					++fractionDigits;
+				}
+				if (mantissa != 0 || c != '0') {
+					if (++significantDigits > 18) {
+						return parseFloatFallback(start, end);
+					}
+					mantissa = mantissa * 10 + (c - '0');
+				}
+			} else if (c == '.' && !inFraction) {
+				inFraction = true;
+			} else {
+				break;
+			}
+		}
+		if (digits == 0) {
+			return parseFloatFallback(start, end);
+		}
+
+		int exponent = 0;
+		if (pos < end) {
+			c = buffer.get(pos);
+			if (c != 'e' && c != 'E') {
+				return parseFloatFallback(start, end);
+			}
+			if (++pos == end) {
+				return parseFloatFallback(start, end);
+			}
+			boolean negativeExponent = false;
+			c = buffer.get(pos);
+			if (c == '-' || c == '+') {
+				negativeExponent = c == '-';
+				++pos;
+			}
+			if (pos == end || end - pos > 4) {
+				return parseFloatFallback(start, end);
+			}
+			for (; pos < end; pos++) {
+				c = buffer.get(pos);
+				if (c < '0' || c > '9') {
+					return parseFloatFallback(start, end);
+				}
+				exponent = exponent * 10 + (c - '0');
+			}
+			if (negativeExponent) {
+				exponent = -exponent;
+			}
+		}
+
+		if (mantissa == 0) {
+			return negative ? -0.0f : 0.0f;
+		}
+
+		final int decimalExponent = exponent - fractionDigits;
+		if (mantissa >= MAX_EXACT_MANTISSA || decimalExponent < -22 || decimalExponent > 22) {
+			return parseFloatFallback(start, end);
+		}
+
+		final double value = decimalExponent < 0
+				? mantissa / POWERS_OF_TEN[-decimalExponent]
+				: mantissa * POWERS_OF_TEN[decimalExponent];
+		if (value < Float.MIN_NORMAL
+				|| (Double.doubleToRawLongBits(value) & FLOAT_ROUNDING_BITS_MASK) == FLOAT_HALFWAY_BITS) {
+			return parseFloatFallback(start, end);
+		}
+
+		final float result = (float) value;
+		return negative ? -result : result;
+	}
+
+	private float parseFloatFallback(final int start, final int end) {
+		final byte[] bytes = new byte[end - start];
+		buffer.get(start, bytes);
+		try {
+			return Float.parseFloat(new String(bytes, StandardCharsets.ISO_8859_1));
+		} catch (NumberFormatException e) {
+			throw new ObjReaderException("Failed to parse float value.", lineInd);
+		}
+	}
+
+	/**
+	 * Moves {@code [tokenStart, tokenEnd)} to the next whitespace separated token of the current line.
+	 *
+	 * @return false if the line has no more tokens
+	 */
+	private boolean nextToken() {
+		int pos = cursor;
+		while (pos < lineEnd && isWhitespace(buffer.get(pos))) {
+			++pos;
+		}
+		if (pos == lineEnd) {
+			cursor = pos;
+			return false;
+		}
+		tokenStart = pos;
+		while (pos < lineEnd && !isWhitespace(buffer.get(pos))) {
+			++pos;
+		}
+		tokenEnd = pos;
+		cursor = pos;
+		return true;
+	}
+
+	private static boolean isLineTerminator(final byte c) {
+		return c == '\n' || c == '\r';
+	}
+
+	/**
+	 * The {@code \s} class of {@link java.util.regex.Pattern}.
+	 */
+	private static boolean isWhitespace(final byte c) {
+		return c == ' ' || c == '\t' || c == '\n' || c == 0x0B || c == '\f' || c == '\r';
+	}
+}
@@ -0,0 +1,89 @@
+package cg.vsu.objreader;
+
+import cg.vsu.math.Vector2f;
+import cg.vsu.math.Vector3f;
+import cg.vsu.model.Model;
+import cg.vsu.model.Polygon;
+import cg.vsu.model.PolygonGroup;
+
+import java.util.ArrayList;
+
+/**
+ * Collects the streamed records into a {@link Model}, the same way {@link ObjReader#read} fills it.
+ * Equal face indices share one boxed {@link Integer}, see {@link IndexBoxes}.
+ */
+class ModelBuilder implements ObjHandler {
+	private final Model result = new Model();
+	private final IndexBoxes boxes;
+
+	ModelBuilder() {
+		this(new IndexBoxes());
+	}
+
+	/**
+	 * @param boxes shared index boxes, or null to box every index separately (the chunks of
+	 *              {@link ParallelObjReader} share them when stitched instead)
+	 */
+	ModelBuilder(IndexBoxes boxes) {
+		this.boxes = boxes;
+	}
+
+	@Override
+	public void vertex(float x, float y, float z, int lineInd) {
+		result.vertices.add(new Vector3f(x, y, z));
+	}
+
+	@Override
+	public void textureVertex(float u, float v, int lineInd) {
+		result.textureVertices.add(new Vector2f(u, v));
+	}
+
+	@Override
+	public void normal(float x, float y, float z, int lineInd) {
+		result.normals.add(new Vector3f(x, y, z));
+	}
+
+	@Override
+	public void face(int[] vertexIndices, int[] textureVertexIndices, int[] normalIndices, int size, int lineInd) {
+		Polygon polygon = new Polygon();
+		polygon.setVertexIndices(list(vertexIndices, size));
+		// как в ObjReader.parseFace: списки без единого индекса остаются пустыми, иначе NO_INDEX остаются на местах
+		if (hasIndex(textureVertexIndices, size)) {
+			polygon.setTextureVertexIndices(list(textureVertexIndices, size));
+		}
+		if (hasIndex(normalIndices, size)) {
+			polygon.setNormalIndices(list(normalIndices, size));
+		}
+		result.polygons.add(polygon);
+	}
+
+	@Override
+	public void group(PolygonGroup.Type type, String name, int lineInd) {
+		result.groups.add(new PolygonGroup(type, name, result.polygons.size()));
+	}
+
+	Model getResult() {
+		PolygonGroup.closeRuns(result.groups, result.polygons.size());
+		return result;
+	}
+
+	private ArrayList<Integer> list(int[] indices, int size) {
+		if (boxes != null) {
+			return boxes.list(indices, size);
+		}
+		ArrayList<Integer> list = new ArrayList<Integer>(size);
+		for (int i = 0; i < size; i++) {
+			list.add(indices[i]);
+		}
+		return list;
+	}
+
+	private static boolean hasIndex(int[] indices, int size) {
+		for (int i = 0; i < size; i++) {
+			if (indices[i] != NO_INDEX) {
+				return true;
+			}
+		}
+		return false;
+	}
+}
@@ -0,0 +1,249 @@
+package cg.vsu.objreader;
+
+import cg.vsu.model.FrozenModel;
+import cg.vsu.model.MeshFootprint;
+import cg.vsu.model.Model;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Loads OBJ files once for many threads and keeps them in memory up to a byte budget.
+ * <p>
+ * Models are keyed by their normalized absolute path. The first thread asking for a file loads it, the threads
+ * asking for the same file meanwhile wait for that load instead of starting their own; a failed load is reported
+ * to all of them and retried by the next request. Every {@link #get} returns a new read-only view of the shared
+ * model, see {@link FrozenModel}.
+ * <p>
+ * The retained size of every model is estimated with {@link MeshFootprint}. When the total exceeds the budget,
+ * the least recently used models are evicted; the recency is a global access counter, so eviction scans the
+ * entries instead of keeping a linked list under a lock. A model larger than the whole budget is loaded, but not
+ * kept.
+ */
+public class ModelCache {
+
+	public interface Loader {
+		Model load(Path path) throws IOException;
+	}
+
+	private final long maxBytes;
+	private final Loader loader;
+	private final ConcurrentHashMap<Path, Entry> entries = new ConcurrentHashMap<>();
+	private final AtomicLong retainedBytes = new AtomicLong();
+	private final AtomicLong clock = new AtomicLong();
+
+	private final LongAdder hits = new LongAdder();
+	private final LongAdder misses = new LongAdder();
+	private final LongAdder coalescedLoads = new LongAdder();
+	private final LongAdder failedLoads = new LongAdder();
+	private final LongAdder evictions = new LongAdder();
+	private final LongAdder loadNanos = new LongAdder();
+
+	/**
+	 * @param maxBytes the budget for the estimated size of the retained models
+	 */
+	public ModelCache(long maxBytes) {
+		this(maxBytes, path -> ObjReader.readMapped(path.toString()));
+	}
+
+	public ModelCache(long maxBytes, Loader loader) {
+		this.maxBytes = maxBytes;
+		this.loader = loader;
+	}
+
+	public Model get(String fileName) throws IOException {
+		return get(Path.of(fileName));
+	}
+
+	/**
+	 * @return a read-only view of the model of the file
+	 */
+	public Model get(Path path) throws IOException {
+		final Path key = path.toAbsolutePath().normalize();
+		Entry entry = entries.get(key);
+		if (entry == null) {
+			final Entry created = new Entry();
+			entry = entries.putIfAbsent(key, created);
+			if (entry == null) {
+				misses.increment();
+				return load(key, created).view();
+			}
+		}
+
+		if (entry.model.isDone()) {
+			hits.increment();
+		} else {
+			coalescedLoads.increment();
+		}
+		entry.lastAccess = clock.incrementAndGet();
+		return await(entry).view();
+	}
+
+	/**
+	 * @return the counters collected since the cache was created
+	 */
+	public Stats getStats() {
+		return new Stats(hits.sum(), misses.sum(), coalescedLoads.sum(), failedLoads.sum(), evictions.sum(),
+				loadNanos.sum(), entries.size(), retainedBytes.get());
+	}
+
+	private FrozenModel load(Path key, Entry entry) throws IOException {
+		final long start = System.nanoTime();
+		final FrozenModel frozen;
+		try {
+			final Model model = loader.load(key);
+			entry.bytes = MeshFootprint.estimate(model);
+			frozen = new FrozenModel(model);
+		} catch (IOException | RuntimeException | Error e) {
+			failedLoads.increment();
+			entries.remove(key, entry);
+			entry.model.completeExceptionally(e);
+			throw e;
+		}
+		loadNanos.add(System.nanoTime() - start);
+
+		if (entry.bytes > maxBytes) {
+			// не вытеснять ради модели, которая все равно не поместится
+			entries.remove(key, entry);
+			entry.model.complete(frozen);
+			return frozen;
+		}
+		entry.lastAccess = clock.incrementAndGet();
+		retainedBytes.addAndGet(entry.bytes);
+		entry.model.complete(frozen);
+		evict();
+		return frozen;
+	}
+
+	private static FrozenModel await(Entry entry) throws IOException {
+		try {
+			return entry.model.join();
+		} catch (CompletionException e) {
+			final Throwable cause = e.getCause();
+			// исключение загрузки передается как есть, чтобы ловить и его подтипы, например NoSuchFileException
+			if (cause instanceof IOException ioException) {
+				throw ioException;
+			}
+			if (cause instanceof RuntimeException runtimeException) {
+				throw runtimeException;
+			}
+			throw (Error) cause;
+		}
+	}
+
+	private void evict() {
+		while (retainedBytes.get() > maxBytes) {
+			Map.Entry<Path, Entry> victim = null;
+			for (Map.Entry<Path, Entry> candidate : entries.entrySet()) {
+				final Entry entry = candidate.getValue();
+				if (entry.model.isDone() && (victim == null || entry.lastAccess < victim.getValue().lastAccess)) {
+					victim = candidate;
+				}
+			}
+			if (victim == null) {
+				return;
+			}
+			if (entries.remove(victim.getKey(), victim.getValue())) {
+				retainedBytes.addAndGet(-victim.getValue().bytes);
+				evictions.increment();
+			}
+		}
+	}
+
+	private static final class Entry {
+		final CompletableFuture<FrozenModel> model = new CompletableFuture<>();
+		volatile long lastAccess;
+		volatile long bytes;
+	}
+
+	/**
+	 * A snapshot of the cache counters.
+	 */
+	public static final class Stats {
+		private final long hits;
+		private final long misses;
+		private final long coalescedLoads;
+		private final long failedLoads;
+		private final long evictions;
+		private final long loadNanos;
+		private final int size;
+		private final long retainedBytes;
+
+		Stats(long hits, long misses, long coalescedLoads, long failedLoads, long evictions, long loadNanos,
+			  int size, long retainedBytes) {
+			this.hits = hits;
+			this.misses = misses;
+			this.coalescedLoads = coalescedLoads;
+			this.failedLoads = failedLoads;
+			this.evictions = evictions;
+			this.loadNanos = loadNanos;
+			this.size = size;
+			this.retainedBytes = retainedBytes;
+		}
+
+		/**
+		 * @return requests served by an already loaded model
+		 */
+		public long getHits() {
+			return hits;
+		}
+
+		/**
+		 * @return requests that started a load
+		 */
+		public long getMisses() {
+			return misses;
+		}
+
+		/**
+		 * @return requests that waited for a load started by another thread
+		 */
+		public long getCoalescedLoads() {
+			return coalescedLoads;
+		}
+
+		public long getFailedLoads() {
+			return failedLoads;
+		}
+
+		public long getEvictions() {
+			return evictions;
+		}
+
+		/**
+		 * @return the total time spent in successful loads
+		 */
+		public long getLoadTime(TimeUnit unit) {
+			return unit.convert(loadNanos, TimeUnit.NANOSECONDS);
+		}
+
+		public int getSize() {
+			return size;
+		}
+
+		public long getRetainedBytes() {
+			return retainedBytes;
+		}
+
+		public double getHitRate() {
+			final long requests = hits + misses + coalescedLoads;
+			return requests == 0 ? 0 : (double) (hits + coalescedLoads) / requests;
+		}
+
+		@Override
+		public String toString() {
+			final long loads = misses - failedLoads;
+			return String.format("hits: %d, misses: %d, coalesced: %d, failed: %d, evictions: %d, "
+							+ "hit rate: %.1f%%, average load: %.1f ms, models: %d, retained: %,d bytes",
+					hits, misses, coalescedLoads, failedLoads, evictions, 100 * getHitRate(),
+					loads == 0 ? 0 : loadNanos / 1e6 / loads, size, retainedBytes);
+		}
+	}
+}
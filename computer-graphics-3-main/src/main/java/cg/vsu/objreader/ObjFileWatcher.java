@@ -0,0 +1,106 @@
+package cg.vsu.objreader;
+
+import cg.vsu.model.ModelChangeSet;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Reloads an {@link IncrementalObjReader} every time its file is saved.
+ * <p>
+ * Editors write a file in several steps or replace it by a renamed temporary file, so events are collected until
+ * the directory has been quiet for a while and then the file is reloaded once. Reloads run on a daemon thread of
+ * the watcher and the listeners are called on it; a reload that fails, e.g. on a file that is still being written,
+ * is reported to {@code onError} and the next save is waited for.
+ */
+public class ObjFileWatcher implements Closeable {
+	public static final long DEFAULT_QUIET_MILLIS = 100;
+
+	private final IncrementalObjReader reader;
+	private final Consumer<ModelChangeSet> onChange;
+	private final Consumer<Exception> onError;
+	private final long quietMillis;
+	private final WatchService watchService;
+	private final Path fileName;
+	private final Thread thread;
+
+	public ObjFileWatcher(IncrementalObjReader reader, Consumer<ModelChangeSet> onChange,
+						  Consumer<Exception> onError) throws IOException {
+		this(reader, onChange, onError, DEFAULT_QUIET_MILLIS);
+	}
+
+	public ObjFileWatcher(IncrementalObjReader reader, Consumer<ModelChangeSet> onChange,
+						  Consumer<Exception> onError, long quietMillis) throws IOException {
+		this.reader = reader;
+		this.onChange = onChange;
+		this.onError = onError;
+		this.quietMillis = quietMillis;
+
+		final Path file = reader.getPath().toAbsolutePath();
+		this.fileName = file.getFileName();
+		this.watchService = FileSystems.getDefault().newWatchService();
+		file.getParent().register(watchService,
+				StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+
+		this.thread = new Thread(this::run, "obj-watcher-" + fileName);
+		this.thread.setDaemon(true);
+		this.thread.start();
+	}
+
+	private void run() {
+		try {
+			while (true) {
+				if (!isFileEvent(watchService.take())) {
+					continue;
+				}
+				// Ждем, пока редактор допишет файл
+				WatchKey next;
+				while ((next = watchService.poll(quietMillis, TimeUnit.MILLISECONDS)) != null) {
+					isFileEvent(next);
+				}
+
+				try {
+					ModelChangeSet changeSet = reader.reload();
+					if (!changeSet.isEmpty()) {
+						onChange.accept(changeSet);
+					}
+				} catch (IOException | RuntimeException e) {
+					onError.accept(e);
+				}
+			}
+		} catch (InterruptedException | ClosedWatchServiceException e) {
+			// закрыт
+		}
+	}
+
+	/**
+	 * Drains the events of the key.
+	 *
+	 * @return whether any of them may concern the watched file
+	 */
+	private boolean isFileEvent(WatchKey key) {
+		boolean result = false;
+		for (WatchEvent<?> event : key.pollEvents()) {
+			if (event.kind() == StandardWatchEventKinds.OVERFLOW || fileName.equals(event.context())) {
+				result = true;
+			}
+		}
+		key.reset();
+		return result;
+	}
+
+	@Override
+	public void close() throws IOException {
+		watchService.close();
+		thread.interrupt();
+	}
+}
@@ -0,0 +1,49 @@
+package cg.vsu.objreader;
+
+import cg.vsu.model.PolygonGroup;
+
+/**
+ * Receives the records of an OBJ file one by one while it is being read, see {@link ObjReader#stream}.
+ * <p>
+ * Nothing is accumulated by the reader itself, so a handler that does not keep the records (bounds, counters,
+ * re-encoding into another format) works in constant memory on files larger than the heap.
+ * All indices are zero-based, relative OBJ indices are already resolved. An index that would resolve below zero
+ * is reported as an {@link ObjReaderException}, so {@link #NO_INDEX} never stands for a real index.
+ */
+public interface ObjHandler {
+	/**
+	 * Marks a missing texture vertex or normal index of a face vertex.
+	 */
+	int NO_INDEX = -1;
+
+	/**
+	 * @param lineInd the line of the record, for error messages
+	 */
+	default void vertex(float x, float y, float z, int lineInd) {
+	}
+
+	default void textureVertex(float u, float v, int lineInd) {
+	}
+
+	default void normal(float x, float y, float z, int lineInd) {
+	}
+
+	/**
+	 * The arrays are reused by the reader and are valid only during the call.
+	 *
+	 * @param vertexIndices        vertex indices of the face
+	 * @param textureVertexIndices texture vertex indices of the face or {@link #NO_INDEX}
+	 * @param normalIndices        normal indices of the face or {@link #NO_INDEX}
+	 * @param size                 the number of face vertices, only the first {@code size} array items are valid
+	 */
+	default void face(int[] vertexIndices, int[] textureVertexIndices, int[] normalIndices, int size, int lineInd) {
+	}
+
+	/**
+	 * An {@code o}, {@code g}, {@code usemtl} or {@code s} statement; it applies to the faces that follow it.
+	 *
+	 * @param name the arguments of the statement joined by single spaces, empty if there were none
+	 */
+	default void group(PolygonGroup.Type type, String name, int lineInd) {
+	}
+}
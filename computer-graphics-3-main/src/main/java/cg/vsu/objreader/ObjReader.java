@@ -1,15 +1,21 @@
 package cg.vsu.objreader;
 
+import cg.vsu.model.CompactModel;
 import cg.vsu.model.Model;
 import cg.vsu.math.Vector2f;
 import cg.vsu.math.Vector3f;
 import cg.vsu.model.Polygon;
+import cg.vsu.model.PolygonGroup;
+import cg.vsu.model.VertexWelder;
 
 import java.io.FileNotFoundException;
 import java.io.FileReader;
+import java.io.IOException;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Scanner;
+import java.util.concurrent.ForkJoinPool;
 
 public class ObjReader {
 
@@ -17,6 +23,10 @@ public class ObjReader {
 	private static final String OBJ_TEXTURE_TOKEN = "vt";
 	private static final String OBJ_NORMAL_TOKEN = "vn";
 	private static final String OBJ_FACE_TOKEN = "f";
+	private static final String OBJ_OBJECT_TOKEN = "o";
+	private static final String OBJ_GROUP_TOKEN = "g";
+	private static final String OBJ_MATERIAL_TOKEN = "usemtl";
+	private static final String OBJ_SMOOTHING_TOKEN = "s";
 
 	public static Model read(String fileContent) throws FileNotFoundException {
 		Model result = new Model();
@@ -49,14 +59,70 @@ public class ObjReader {
 				case OBJ_VERTEX_TOKEN -> result.vertices.add(parseVertex(wordsInLine, lineInd));
 				case OBJ_TEXTURE_TOKEN -> result.textureVertices.add(parseTextureVertex(wordsInLine, lineInd));
 				case OBJ_NORMAL_TOKEN -> result.normals.add(parseNormal(wordsInLine, lineInd));
-				case OBJ_FACE_TOKEN -> result.polygons.add(parseFace(wordsInLine, lineInd));
+				case OBJ_FACE_TOKEN -> result.polygons.add(parseFace(
+						wordsInLine, result.vertices.size(), result.textureVertices.size(), result.normals.size(), lineInd));
+				// Группы не копируются в каждый полигон: запоминается только, с какого полигона началась группа
+				case OBJ_OBJECT_TOKEN -> result.groups.add(
+						parseGroup(PolygonGroup.Type.OBJECT, wordsInLine, result.polygons.size()));
+				case OBJ_GROUP_TOKEN -> result.groups.add(
+						parseGroup(PolygonGroup.Type.GROUP, wordsInLine, result.polygons.size()));
+				case OBJ_MATERIAL_TOKEN -> result.groups.add(
+						parseGroup(PolygonGroup.Type.MATERIAL, wordsInLine, result.polygons.size()));
+				case OBJ_SMOOTHING_TOKEN -> result.groups.add(
+						parseGroup(PolygonGroup.Type.SMOOTHING, wordsInLine, result.polygons.size()));
 				default -> {}
 			}
 		}
 
+		PolygonGroup.closeRuns(result.groups, result.polygons.size());
 		return result;
 	}
 
+	// Быстрый режим для больших файлов: файл отображается в память, строки разбираются прямо в байтах,
+	// без String и ArrayList на каждую строку. Результат и номера строк в ошибках такие же, как у read.
+	public static Model readMapped(String fileName) throws IOException {
+		ModelBuilder builder = new ModelBuilder();
+		MappedObjReader.read(Path.of(fileName), builder);
+		return builder.getResult();
+	}
+
+	// Чтение со склейкой вершин: вершины ближе epsilon друг к другу (по каждой координате) сливаются в одну,
+	// а индексы полигонов пересчитываются. Экспортеры часто дублируют вершины для каждой грани.
+	public static Model readWelded(String fileName, float epsilon) throws IOException {
+		Model result = readMapped(fileName);
+		VertexWelder.weld(result, epsilon);
+		return result;
+	}
+
+	// Компактная модель: координаты и индексы лежат в плоских массивах примитивов, а не в объектах.
+	public static CompactModel readCompact(String fileName) throws IOException {
+		CompactModelHandler handler = new CompactModelHandler();
+		MappedObjReader.read(Path.of(fileName), handler);
+		return handler.getResult();
+	}
+
+	// То же самое, но с бинарным кэшем рядом с файлом (model.obj.cmesh). Если кэш свежий, он просто
+	// копируется в память без разбора текста; если OBJ изменился, файл разбирается заново и кэш перезаписывается.
+	public static CompactModel readCached(String fileName) throws IOException {
+		return BinaryMeshCache.readOrParse(Path.of(fileName));
+	}
+
+	// Потоковый режим: модель не собирается, каждая запись сразу передается обработчику.
+	// Так можно посчитать статистику или перекодировать файл, который не помещается в память целиком.
+	public static void stream(String fileName, ObjHandler handler) throws IOException {
+		MappedObjReader.read(Path.of(fileName), handler);
+	}
+
+	// Параллельный режим: файл режется на куски по границам строк, куски разбираются в общем ForkJoinPool,
+	// а затем склеиваются в одну модель в исходном порядке.
+	public static Model readParallel(String fileName) throws IOException {
+		return ParallelObjReader.read(Path.of(fileName), ForkJoinPool.commonPool());
+	}
+
+	public static Model readParallel(String fileName, ForkJoinPool pool) throws IOException {
+		return ParallelObjReader.read(Path.of(fileName), pool);
+	}
+
 	// Всем методам кроме основного я поставил модификатор доступа protected, чтобы обращаться к ним в тестах
 	protected static Vector3f parseVertex(final ArrayList<String> wordsInLineWithoutToken, int lineInd) {
 		try {
@@ -102,22 +168,45 @@ public class ObjReader {
 		}
 	}
 
-	protected static Polygon parseFace(final ArrayList<String> wordsInLineWithoutToken, int lineInd) {
+	// Индексы в OBJ могут быть отрицательными - тогда они отсчитываются от конца уже прочитанных элементов
+	// (-1 - последняя вершина). Поэтому в parseFace передается, сколько элементов каждого вида уже прочитано.
+	protected static Polygon parseFace(
+			final ArrayList<String> wordsInLineWithoutToken,
+			int vertexCount,
+			int textureVertexCount,
+			int normalCount,
+			int lineInd) {
 		ArrayList<Integer> onePolygonVertexIndices = new ArrayList<Integer>();
 		ArrayList<Integer> onePolygonTextureVertexIndices = new ArrayList<Integer>();
 		ArrayList<Integer> onePolygonNormalIndices = new ArrayList<Integer>();
 
 		for (String s : wordsInLineWithoutToken) {
-			parseFaceWord(s, onePolygonVertexIndices, onePolygonTextureVertexIndices, onePolygonNormalIndices, lineInd);
+			parseFaceWord(s, onePolygonVertexIndices, onePolygonTextureVertexIndices, onePolygonNormalIndices,
+					vertexCount, textureVertexCount, normalCount, lineInd);
 		}
 
 		Polygon result = new Polygon();
 		result.setVertexIndices(onePolygonVertexIndices);
-//		result.setTextureVertexIndices(onePolygonTextureVertexIndices);
-//		result.setNormalIndices(onePolygonNormalIndices);
+		// Если у полигона нет текстурных координат или нормалей, списки остаются пустыми.
+		// Иначе в списке по индексу на каждую вершину, и у вершин без них стоит NO_INDEX
+		if (hasIndex(onePolygonTextureVertexIndices)) {
+			result.setTextureVertexIndices(onePolygonTextureVertexIndices);
+		}
+		if (hasIndex(onePolygonNormalIndices)) {
+			result.setNormalIndices(onePolygonNormalIndices);
+		}
 		return result;
 	}
 
+	private static boolean hasIndex(final ArrayList<Integer> indices) {
+		for (Integer index : indices) {
+			if (index != ObjHandler.NO_INDEX) {
+				return true;
+			}
+		}
+		return false;
+	}
+
 	// Обратите внимание, что для чтения полигонов я выделил еще один вспомогательный метод.
 	// Это бывает очень полезно и с точки зрения структурирования алгоритма в голове, и с точки зрения тестирования.
 	// В радикальных случаях не бойтесь выносить в отдельные методы и тестировать код из одной-двух строчек.
@@ -126,28 +215,38 @@ public class ObjReader {
 			ArrayList<Integer> onePolygonVertexIndices,
 			ArrayList<Integer> onePolygonTextureVertexIndices,
 			ArrayList<Integer> onePolygonNormalIndices,
+			int vertexCount,
+			int textureVertexCount,
+			int normalCount,
 			int lineInd) {
 		try {
+			// Вершина без текстуры или нормали (форматы "1", "1/2", "1//3" можно смешивать в одной грани)
+			// получает NO_INDEX, чтобы индексы всех трех списков оставались на местах своих вершин
+			int textureVertexIndex = ObjHandler.NO_INDEX;
+			int normalIndex = ObjHandler.NO_INDEX;
 			String[] wordIndices = wordInLine.split("/");
 			switch (wordIndices.length) {
 				case 1 -> {
-					onePolygonVertexIndices.add(Integer.parseInt(wordIndices[0]) - 1);
+					onePolygonVertexIndices.add(resolveIndex(Integer.parseInt(wordIndices[0]), vertexCount, lineInd));
 				}
 				case 2 -> {
-					onePolygonVertexIndices.add(Integer.parseInt(wordIndices[0]) - 1);
-					onePolygonTextureVertexIndices.add(Integer.parseInt(wordIndices[1]) - 1);
+					onePolygonVertexIndices.add(resolveIndex(Integer.parseInt(wordIndices[0]), vertexCount, lineInd));
+					textureVertexIndex = resolveIndex(Integer.parseInt(wordIndices[1]), textureVertexCount, lineInd);
 				}
 				case 3 -> {
-					onePolygonVertexIndices.add(Integer.parseInt(wordIndices[0]) - 1);
-					onePolygonNormalIndices.add(Integer.parseInt(wordIndices[2]) - 1);
+					onePolygonVertexIndices.add(resolveIndex(Integer.parseInt(wordIndices[0]), vertexCount, lineInd));
+					normalIndex = resolveIndex(Integer.parseInt(wordIndices[2]), normalCount, lineInd);
 					if (!wordIndices[1].equals("")) {
-						onePolygonTextureVertexIndices.add(Integer.parseInt(wordIndices[1]) - 1);
+						textureVertexIndex = resolveIndex(
+								Integer.parseInt(wordIndices[1]), textureVertexCount, lineInd);
 					}
 				}
 				default -> {
 					throw new ObjReaderException("Invalid element size.", lineInd);
 				}
 			}
+			onePolygonTextureVertexIndices.add(textureVertexIndex);
+			onePolygonNormalIndices.add(normalIndex);
 
 		} catch(NumberFormatException e) {
 			throw new ObjReaderException("Failed to parse int value.", lineInd);
@@ -156,4 +255,23 @@ public class ObjReader {
 			throw new ObjReaderException("Too few arguments.", lineInd);
 		}
 	}
+
+	// Все аргументы строки - это одно имя: "g left arm" задает группу "left arm"
+	protected static PolygonGroup parseGroup(
+			PolygonGroup.Type type,
+			final ArrayList<String> wordsInLineWithoutToken,
+			int polygonCount) {
+		return new PolygonGroup(type, String.join(" ", wordsInLineWithoutToken), polygonCount);
+	}
+
+	// Переводит индекс из OBJ (с единицы или отрицательный относительный) в индекс списка модели.
+	// Индекс 0 и относительный индекс раньше первого элемента дали бы -1 и меньше; -1 же означает
+	// отсутствующий индекс текстуры или нормали, поэтому такие индексы - ошибка файла.
+	protected static int resolveIndex(int objIndex, int count, int lineInd) {
+		final int index = objIndex < 0 ? count + objIndex : objIndex - 1;
+		if (index < 0) {
+			throw new ObjReaderException("Index out of range.", lineInd);
+		}
+		return index;
+	}
 }
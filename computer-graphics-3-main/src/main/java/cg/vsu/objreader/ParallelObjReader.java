@@ -0,0 +1,203 @@
+package cg.vsu.objreader;
+
+import cg.vsu.model.Model;
+import cg.vsu.model.Polygon;
+import cg.vsu.model.PolygonGroup;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Parses an OBJ file with all threads of a {@link ForkJoinPool}.
+ * <p>
+ * The file is cut into newline-aligned chunks, every chunk is parsed by its own {@link MappedObjReader}
+ * into a chunk-local model, and the chunk models are concatenated in file order. Positive face indices are
+ * global already; relative (negative) ones are resolved inside the chunk and shifted by the number of vertices,
+ * texture vertices or normals of the preceding chunks. Error line numbers and group runs are shifted the same way.
+ */
+final class ParallelObjReader {
+
+	static final int MIN_CHUNK_SIZE = 1 << 20;
+	static final int MAX_CHUNK_SIZE = 1 << 28;
+	private static final int CHUNKS_PER_THREAD = 4;
+	private static final int BOUNDARY_SCAN_BLOCK = 1 << 16;
+
+	private ParallelObjReader() {
+	}
+
+	static Model read(Path path, ForkJoinPool pool) throws IOException {
+		return read(path, pool, MIN_CHUNK_SIZE);
+	}
+
+	static Model read(Path path, ForkJoinPool pool, int minChunkSize) throws IOException {
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+			final long size = channel.size();
+			final long chunkSize = Math.min(MAX_CHUNK_SIZE,
+					Math.max(minChunkSize, size / ((long) pool.getParallelism() * CHUNKS_PER_THREAD) + 1));
+
+			List<ChunkTask> chunks = new ArrayList<>();
+			long chunkStart = 0;
+			while (chunkStart < size) {
+				final long chunkEnd = size - chunkStart <= chunkSize
+						? size
+						: nextLineStart(channel, chunkStart + chunkSize, size);
+				if (chunkEnd - chunkStart > Integer.MAX_VALUE) {
+					throw new ObjReaderException("Line does not fit into a chunk.", 0);
+				}
+				chunks.add(new ChunkTask(channel, chunkStart, (int) (chunkEnd - chunkStart)));
+				chunkStart = chunkEnd;
+			}
+
+			try {
+				pool.invoke(new RecursiveAction() {
+					@Override
+					protected void compute() {
+						ForkJoinTask.invokeAll(chunks);
+					}
+				});
+			} catch (UncheckedIOException e) {
+				throw e.getCause();
+			}
+			return stitch(chunks);
+		}
+	}
+
+	/**
+	 * @return the position right after the first line terminator at or after {@code from}
+	 */
+	static long nextLineStart(FileChannel channel, long from, long size) throws IOException {
+		ByteBuffer block = ByteBuffer.allocate(BOUNDARY_SCAN_BLOCK);
+		boolean afterCarriageReturn = false;
+		long position = from;
+		while (position < size) {
+			block.clear();
+			final int read = channel.read(block, position);
+			if (read <= 0) {
+				break;
+			}
+			for (int i = 0; i < read; i++) {
+				final byte c = block.get(i);
+				if (afterCarriageReturn) {
+					return position + i + (c == '\n' ? 1 : 0);
+				}
+				if (c == '\n') {
+					return position + i + 1;
+				}
+				afterCarriageReturn = c == '\r';
+			}
+			position += read;
+		}
+		return size;
+	}
+
+	private static Model stitch(List<ChunkTask> chunks) {
+		int linesBefore = 0;
+		int vertexCount = 0;
+		int textureVertexCount = 0;
+		int normalCount = 0;
+		int polygonCount = 0;
+		for (ChunkTask chunk : chunks) {
+			if (chunk.error != null) {
+				throw new ObjReaderException(chunk.error.getErrorMessage(), linesBefore + chunk.error.getLineInd());
+			}
+			final Model part = chunk.builder.getResult();
+			linesBefore += chunk.reader.getLineCount();
+			vertexCount += part.vertices.size();
+			textureVertexCount += part.textureVertices.size();
+			normalCount += part.normals.size();
+			polygonCount += part.polygons.size();
+		}
+
+		Model result = new Model();
+		IndexBoxes boxes = new IndexBoxes();
+		result.vertices.ensureCapacity(vertexCount);
+		result.textureVertices.ensureCapacity(textureVertexCount);
+		result.normals.ensureCapacity(normalCount);
+		result.polygons.ensureCapacity(polygonCount);
+
+		linesBefore = 0;
+		for (ChunkTask chunk : chunks) {
+			final MappedObjReader reader = chunk.reader;
+			final Model part = chunk.builder.getResult();
+			for (int i = 0; i < reader.getRelativeIndicesCount(); i++) {
+				final long relative = reader.getRelativeIndex(i);
+				final Polygon polygon = part.polygons.get(MappedObjReader.relativeFace(relative));
+				final int position = MappedObjReader.relativePosition(relative);
+				final ArrayList<Integer> indices;
+				final int offset;
+				switch (MappedObjReader.relativeKind(relative)) {
+					case MappedObjReader.RELATIVE_VERTEX -> {
+						indices = polygon.getVertexIndices();
+						offset = result.vertices.size();
+					}
+					case MappedObjReader.RELATIVE_TEXTURE_VERTEX -> {
+						indices = polygon.getTextureVertexIndices();
+						offset = result.textureVertices.size();
+					}
+					default -> {
+						indices = polygon.getNormalIndices();
+						offset = result.normals.size();
+					}
+				}
+				final int index = reader.getRelativeIndexValue(i) + offset;
+				if (index < 0) {
+					throw new ObjReaderException("Index out of range.", linesBefore + reader.getRelativeIndexLine(i));
+				}
+				indices.set(position, index);
+			}
+			linesBefore += reader.getLineCount();
+			for (Polygon polygon : part.polygons) {
+				boxes.intern(polygon.getVertexIndices());
+				boxes.intern(polygon.getTextureVertexIndices());
+				boxes.intern(polygon.getNormalIndices());
+			}
+			for (PolygonGroup group : part.groups) {
+				result.groups.add(group.shifted(result.polygons.size()));
+			}
+
+			result.vertices.addAll(part.vertices);
+			result.textureVertices.addAll(part.textureVertices);
+			result.normals.addAll(part.normals);
+			result.polygons.addAll(part.polygons);
+		}
+		PolygonGroup.closeRuns(result.groups, result.polygons.size());
+		return result;
+	}
+
+	private static final class ChunkTask extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+
+		private final FileChannel channel;
+		private final long start;
+		private final int length;
+		private final ModelBuilder builder = new ModelBuilder(null);
+		private final MappedObjReader reader = new MappedObjReader(builder, true);
+		private ObjReaderException error;
+
+		ChunkTask(FileChannel channel, long start, int length) {
+			this.channel = channel;
+			this.start = start;
+			this.length = length;
+		}
+
+		@Override
+		protected void compute() {
+			try {
+				reader.parse(channel.map(FileChannel.MapMode.READ_ONLY, start, length), 0, length, true);
+			} catch (ObjReaderException e) {
+				error = e;
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+		}
+	}
+}
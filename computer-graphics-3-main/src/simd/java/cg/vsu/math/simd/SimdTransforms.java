@@ -0,0 +1,183 @@
+package cg.vsu.math.simd;
+
+import cg.vsu.math.BatchTransforms;
+import cg.vsu.math.FlatMatrix4f;
+import jdk.incubator.vector.FloatVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * {@link BatchTransforms} with the lanes of {@code jdk.incubator.vector}: every instruction transforms one
+ * coordinate of as many points as the CPU's widest float vector holds, e.g. 8 with AVX2 and 16 with AVX-512.
+ * <p>
+ * The module is incubating in Java 17, so both compiling and running code that uses this class need
+ * {@code --add-modules jdk.incubator.vector}. Results may differ from the scalar version in the last bit, since
+ * the vector version rounds once per fused multiply-add.
+ */
+public class SimdTransforms {
+    private static final VectorSpecies<Float> SPECIES = FloatVector.SPECIES_PREFERRED;
+
+    private SimdTransforms() {
+    }
+
+    /**
+     * Same as {@link BatchTransforms#transformPositions(FlatMatrix4f, float[], float[], float[], float[], float[],
+     * float[], int)}.
+     */
+    public static void transformPositions(FlatMatrix4f matrix, float[] x, float[] y, float[] z,
+                                          float[] outX, float[] outY, float[] outZ, int count) {
+        if (count < 0 || count > Math.min(x.length, Math.min(y.length, z.length))
+                || count > Math.min(outX.length, Math.min(outY.length, outZ.length))) {
+            throw new IndexOutOfBoundsException("Count " + count + " out of bounds of the coordinate arrays");
+        }
+        final float[] m = matrix.getValues();
+        final FloatVector m00 = FloatVector.broadcast(SPECIES, m[0]);
+        final FloatVector m01 = FloatVector.broadcast(SPECIES, m[1]);
+        final FloatVector m02 = FloatVector.broadcast(SPECIES, m[2]);
+        final FloatVector m03 = FloatVector.broadcast(SPECIES, m[3]);
+        final FloatVector m10 = FloatVector.broadcast(SPECIES, m[4]);
+        final FloatVector m11 = FloatVector.broadcast(SPECIES, m[5]);
+        final FloatVector m12 = FloatVector.broadcast(SPECIES, m[6]);
+        final FloatVector m13 = FloatVector.broadcast(SPECIES, m[7]);
+        final FloatVector m20 = FloatVector.broadcast(SPECIES, m[8]);
+        final FloatVector m21 = FloatVector.broadcast(SPECIES, m[9]);
+        final FloatVector m22 = FloatVector.broadcast(SPECIES, m[10]);
+        final FloatVector m23 = FloatVector.broadcast(SPECIES, m[11]);
+
+        final int bound = SPECIES.loopBound(count);
+        int i = 0;
+        for (; i < bound; i += SPECIES.length()) {
+            final FloatVector px = FloatVector.fromArray(SPECIES, x, i);
+            final FloatVector py = FloatVector.fromArray(SPECIES, y, i);
+            final FloatVector pz = FloatVector.fromArray(SPECIES, z, i);
+            px.fma(m00, py.fma(m01, pz.fma(m02, m03))).intoArray(outX, i);
+            px.fma(m10, py.fma(m11, pz.fma(m12, m13))).intoArray(outY, i);
+            px.fma(m20, py.fma(m21, pz.fma(m22, m23))).intoArray(outZ, i);
+        }
+        BatchTransforms.transformPositions(matrix, x, y, z, outX, outY, outZ, i, count);
+    }
+
+    /**
+     * Same as {@link BatchTransforms#transformPositions(FlatMatrix4f, float[], int, float[], int, int)}.
+     * <p>
+     * Interleaved coordinates are transformed where they lie: float {@code f} of the result, coordinate {@code c}
+     * of its point, is {@code sum(B[d][f] * in[f + d]) + T[f]} over {@code d = -2..2}, where the coefficients are the
+     * row {@code c} of the matrix shifted by {@code c}. The coefficients repeat every three floats, so a vector of
+     * results takes five unaligned loads and five fused multiply-adds with one of three precomputed sets of
+     * coefficient vectors. Results are stored one vector late, which keeps the loads ahead of the stores when
+     * {@code out} is {@code in}. The zero coefficients still multiply the neighbouring coordinates, so a step whose
+     * results are not all finite is redone point by point with the scalar loop: an infinite or NaN coordinate then
+     * stays in its own point, as in {@link BatchTransforms}.
+     */
+    public static void transformPositions(FlatMatrix4f matrix, float[] in, int inOffset,
+                                          float[] out, int outOffset, int count) {
+        final int lanes = SPECIES.length();
+        if (count < lanes + 2) {
+            BatchTransforms.transformPositions(matrix, in, inOffset, out, outOffset, count);
+            return;
+        }
+        if (inOffset < 0 || inOffset > in.length / 3 - count || outOffset < 0 || outOffset > out.length / 3 - count) {
+            throw new IndexOutOfBoundsException("Range out of bounds of the position arrays");
+        }
+        final float[] m = matrix.getValues();
+        final float[][] coefficients = coefficients(m, lanes);
+        final FloatVector a0 = FloatVector.fromArray(SPECIES, coefficients[0], 0);
+        final FloatVector a1 = FloatVector.fromArray(SPECIES, coefficients[0], lanes);
+        final FloatVector a2 = FloatVector.fromArray(SPECIES, coefficients[0], 2 * lanes);
+        final FloatVector a3 = FloatVector.fromArray(SPECIES, coefficients[0], 3 * lanes);
+        final FloatVector a4 = FloatVector.fromArray(SPECIES, coefficients[0], 4 * lanes);
+        final FloatVector a5 = FloatVector.fromArray(SPECIES, coefficients[0], 5 * lanes);
+        final FloatVector b0 = FloatVector.fromArray(SPECIES, coefficients[1], 0);
+        final FloatVector b1 = FloatVector.fromArray(SPECIES, coefficients[1], lanes);
+        final FloatVector b2 = FloatVector.fromArray(SPECIES, coefficients[1], 2 * lanes);
+        final FloatVector b3 = FloatVector.fromArray(SPECIES, coefficients[1], 3 * lanes);
+        final FloatVector b4 = FloatVector.fromArray(SPECIES, coefficients[1], 4 * lanes);
+        final FloatVector b5 = FloatVector.fromArray(SPECIES, coefficients[1], 5 * lanes);
+        final FloatVector c0 = FloatVector.fromArray(SPECIES, coefficients[2], 0);
+        final FloatVector c1 = FloatVector.fromArray(SPECIES, coefficients[2], lanes);
+        final FloatVector c2 = FloatVector.fromArray(SPECIES, coefficients[2], 2 * lanes);
+        final FloatVector c3 = FloatVector.fromArray(SPECIES, coefficients[2], 3 * lanes);
+        final FloatVector c4 = FloatVector.fromArray(SPECIES, coefficients[2], 4 * lanes);
+        final FloatVector c5 = FloatVector.fromArray(SPECIES, coefficients[2], 5 * lanes);
+
+        // the vectors read the coordinates of the first point, so it is written last
+        final int first = 3 * inOffset;
+        final float x0 = in[first];
+        final float y0 = in[first + 1];
+        final float z0 = in[first + 2];
+
+        // three vectors cover exactly lanes points, after which the phase of the coefficients repeats
+        final int shift = 3 * (outOffset - inOffset);
+        final int end = 3 * (inOffset + count);
+        int f = first + 3;
+        FloatVector pending = null;
+        int pendingAt = 0;
+        while (f + 3 * lanes + 2 <= end) {
+            final FloatVector r0 = combine(in, f, a0, a1, a2, a3, a4, a5);
+            final FloatVector r1 = combine(in, f + lanes, b0, b1, b2, b3, b4, b5);
+            final FloatVector r2 = combine(in, f + 2 * lanes, c0, c1, c2, c3, c4, c5);
+            if (pending != null) {
+                pending.intoArray(out, pendingAt);
+                pending = null;
+            }
+            if (r0.test(VectorOperators.IS_FINITE).and(r1.test(VectorOperators.IS_FINITE))
+                    .and(r2.test(VectorOperators.IS_FINITE)).allTrue()) {
+                r0.intoArray(out, f + shift);
+                r1.intoArray(out, f + lanes + shift);
+                pending = r2;
+                pendingAt = f + 2 * lanes + shift;
+            } else {
+                // the points of a step read only their own coordinates, and the next step multiplies the ones
+                // written here in place by zero, falling back again if they are not finite
+                BatchTransforms.transformPositions(matrix, in, f / 3, out, f / 3 + outOffset - inOffset, lanes);
+            }
+            f += 3 * lanes;
+        }
+        if (pending != null) {
+            pending.intoArray(out, pendingAt);
+        }
+        // f is at the start of a point again, and the vectors read no further than its second coordinate
+        BatchTransforms.transformPositions(matrix, in, f / 3, out, f / 3 + outOffset - inOffset,
+                inOffset + count - f / 3);
+        writePoint(m, x0, y0, z0, out, first + shift);
+    }
+
+    /**
+     * @return the results of {@code lanes} floats starting at {@code f}, see
+     * {@link #transformPositions(FlatMatrix4f, float[], int, float[], int, int)}
+     */
+    private static FloatVector combine(float[] in, int f, FloatVector d2, FloatVector d1, FloatVector d0,
+                                       FloatVector e1, FloatVector e2, FloatVector t) {
+        return FloatVector.fromArray(SPECIES, in, f - 2).fma(d2,
+                FloatVector.fromArray(SPECIES, in, f - 1).fma(d1,
+                        FloatVector.fromArray(SPECIES, in, f).fma(d0,
+                                FloatVector.fromArray(SPECIES, in, f + 1).fma(e1,
+                                        FloatVector.fromArray(SPECIES, in, f + 2).fma(e2, t)))));
+    }
+
+    /**
+     * @return for each of the three vectors of a step, starting at coordinates 0, {@code lanes} and
+     * {@code 2 * lanes} of a point, the coefficients of the shifts -2..2 and the translation, one vector each
+     */
+    private static float[][] coefficients(float[] m, int lanes) {
+        final float[][] coefficients = new float[3][6 * lanes];
+        for (int vector = 0; vector < 3; vector++) {
+            for (int lane = 0; lane < lanes; lane++) {
+                final int c = (vector * lanes + lane) % 3;
+                for (int d = -2; d <= 2; d++) {
+                    if (c + d >= 0 && c + d <= 2) {
+                        coefficients[vector][(d + 2) * lanes + lane] = m[4 * c + c + d];
+                    }
+                }
+                coefficients[vector][5 * lanes + lane] = m[4 * c + 3];
+            }
+        }
+        return coefficients;
+    }
+
+    private static void writePoint(float[] m, float x, float y, float z, float[] out, int to) {
+        out[to] = m[0] * x + m[1] * y + m[2] * z + m[3];
+        out[to + 1] = m[4] * x + m[5] * y + m[6] * z + m[7];
+        out[to + 2] = m[8] * x + m[9] * y + m[10] * z + m[11];
+    }
+}
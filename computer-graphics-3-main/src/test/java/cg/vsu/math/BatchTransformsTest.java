@@ -0,0 +1,95 @@
+package cg.vsu.math;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+public class BatchTransformsTest {
+    private static final float EPSILON = 1e-4f;
+    private static final FlatMatrix4f MATRIX = new FlatMatrix4f().translationRotationScale(1, -2, 3,
+            0.5f, 0.5f, -0.5f, 0.5f, 2, 3, 0.5f);
+
+    @Test
+    public void interleavedMatchesTransformPosition() {
+        float[] positions = randomPositions(new Random(1), 37);
+        float[] out = new float[3 * 40];
+        BatchTransforms.transformPositions(MATRIX, positions, 2, out, 5, 30);
+        for (int i = 0; i < 30; i++) {
+            assertPoint(expected(positions, 2 + i), out, 5 + i);
+        }
+        // точки вне диапазона не трогаются
+        Assertions.assertEquals(0, out[3 * 4 + 2]);
+        Assertions.assertEquals(0, out[3 * 35]);
+
+        float[] inPlace = positions.clone();
+        BatchTransforms.transformPositions(MATRIX, inPlace);
+        for (int i = 0; i < 37; i++) {
+            assertPoint(expected(positions, i), inPlace, i);
+        }
+    }
+
+    @Test
+    public void separateMatchesInterleaved() {
+        float[] positions = randomPositions(new Random(2), 19);
+        float[] x = new float[19];
+        float[] y = new float[19];
+        float[] z = new float[19];
+        for (int i = 0; i < 19; i++) {
+            x[i] = positions[3 * i];
+            y[i] = positions[3 * i + 1];
+            z[i] = positions[3 * i + 2];
+        }
+        BatchTransforms.transformPositions(MATRIX, x, y, z, x, y, z, 19);
+        BatchTransforms.transformPositions(MATRIX, positions);
+        for (int i = 0; i < 19; i++) {
+            Assertions.assertEquals(positions[3 * i], x[i], 0);
+            Assertions.assertEquals(positions[3 * i + 1], y[i], 0);
+            Assertions.assertEquals(positions[3 * i + 2], z[i], 0);
+        }
+    }
+
+    @Test
+    public void vertexList() {
+        float[] positions = randomPositions(new Random(3), 5);
+        List<Vector3f> vertices = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            vertices.add(new Vector3f(positions[3 * i], positions[3 * i + 1], positions[3 * i + 2]));
+        }
+        BatchTransforms.transformPositions(MATRIX, vertices);
+        for (int i = 0; i < 5; i++) {
+            Assertions.assertTrue(vertices.get(i).epsEquals(expected(positions, i), EPSILON));
+        }
+    }
+
+    @Test
+    public void outOfBounds() {
+        float[] positions = new float[3 * 10];
+        Assertions.assertThrows(IndexOutOfBoundsException.class,
+                () -> BatchTransforms.transformPositions(MATRIX, positions, 5, positions, 0, 6));
+        Assertions.assertThrows(IndexOutOfBoundsException.class,
+                () -> BatchTransforms.transformPositions(MATRIX, positions, 0, new float[3 * 9], 0, 10));
+        Assertions.assertThrows(IndexOutOfBoundsException.class,
+                () -> BatchTransforms.transformPositions(MATRIX, positions, -1, positions, 0, 1));
+    }
+
+    static float[] randomPositions(Random random, int count) {
+        float[] positions = new float[3 * count];
+        for (int i = 0; i < positions.length; i++) {
+            positions[i] = 20 * random.nextFloat() - 10;
+        }
+        return positions;
+    }
+
+    static Vector3f expected(float[] positions, int point) {
+        return MATRIX.transformPosition(positions[3 * point], positions[3 * point + 1], positions[3 * point + 2],
+                new Vector3f());
+    }
+
+    static void assertPoint(Vector3f expected, float[] positions, int point) {
+        Vector3f actual = new Vector3f(positions[3 * point], positions[3 * point + 1], positions[3 * point + 2]);
+        Assertions.assertTrue(actual.epsEquals(expected, EPSILON), expected + " != " + actual);
+    }
+}
@@ -0,0 +1,52 @@
+package cg.vsu.math;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class CameraRelativeTest {
+    private static final float EPSILON = 1e-4f;
+
+    private static final Vector3d EYE = new Vector3d(300_000.123, 1_000.5, -200_000.789);
+    private static final Vector3d TARGET = new Vector3d(300_010, 1_000, -200_010);
+    private static final Vector3d UP = new Vector3d(0, 1, 0);
+
+    @Test
+    public void keepsPrecisionFarFromOrigin() {
+        Matrix4d model = new Matrix4d().translationRotationScale(new Vector3d(300_005.5, 1_001.25, -200_004.75),
+                new Quaternion().setFromAxisAngle(0, 1, 0, 0.3f), new Vector3f(1, 1, 1));
+        Matrix4d view = new Matrix4d().lookAt(EYE, TARGET, UP);
+        // точное положение вершины относительно камеры
+        Vector3d world = model.transformPosition(0.01, 0.02, 0.03, new Vector3d());
+        Vector3f expected = view.transformPosition(world.x, world.y, world.z, new Vector3d())
+                .toVector3f(new Vector3f());
+
+        Vector3f modelView = Matrix4d.mulInto(view, model, new FlatMatrix4f())
+                .transformPosition(0.01f, 0.02f, 0.03f, new Vector3f());
+        Assertions.assertTrue(modelView.epsEquals(expected, EPSILON), modelView + " " + expected);
+
+        Vector3f separate = CameraRelative.view(view, new FlatMatrix4f())
+                .mulLocal(CameraRelative.model(model, EYE, new FlatMatrix4f()))
+                .transformPosition(0.01f, 0.02f, 0.03f, new Vector3f());
+        Assertions.assertTrue(separate.epsEquals(expected, EPSILON), separate + " " + expected);
+
+        // те же матрицы во float дают ошибку в сантиметры
+        Vector3f naive = view.toFloat(new FlatMatrix4f()).mulLocal(model.toFloat(new FlatMatrix4f()))
+                .transformPosition(0.01f, 0.02f, 0.03f, new Vector3f());
+        Assertions.assertFalse(naive.epsEquals(expected, 1e-3f), naive + " " + expected);
+    }
+
+    @Test
+    public void positions() {
+        double[] world = {300_000.5, 1_000.25, -200_000.125, EYE.x, EYE.y, EYE.z};
+        float[] out = new float[6];
+        CameraRelative.positions(world, EYE, out, 2);
+
+        Vector3f first = CameraRelative.position(new Vector3d(world[0], world[1], world[2]), EYE, new Vector3f());
+        Assertions.assertEquals(new Vector3f(out[0], out[1], out[2]), first);
+        Assertions.assertEquals(0.377, first.x, 1e-6);
+        Assertions.assertEquals(new Vector3f(), new Vector3f(out[3], out[4], out[5]));
+
+        Assertions.assertThrows(IndexOutOfBoundsException.class,
+                () -> CameraRelative.positions(world, EYE, new float[3], 2));
+    }
+}
@@ -0,0 +1,101 @@
+package cg.vsu.math;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+public class FlatMatrix4fTest {
+    private static final float EPSILON = 1e-5f;
+
+    @Test
+    public void mulMatchesMatrix4f() {
+        Random random = new Random(1);
+        for (int i = 0; i < 100; i++) {
+            FlatMatrix4f a = randomMatrix(random);
+            FlatMatrix4f b = randomMatrix(random);
+            Matrix4f expected = a.toMatrix4f().mul(b.toMatrix4f());
+
+            assertSame(new FlatMatrix4f(expected), FlatMatrix4f.mulInto(a, b, new FlatMatrix4f()));
+            // результат может записываться в любой из множителей
+            assertSame(new FlatMatrix4f(expected), new FlatMatrix4f(a).mulLocal(b));
+            assertSame(new FlatMatrix4f(expected), new FlatMatrix4f(b).preMulLocal(a));
+        }
+    }
+
+    @Test
+    public void inverse() {
+        Random random = new Random(2);
+        for (int i = 0; i < 100; i++) {
+            FlatMatrix4f m = randomMatrix(random);
+            FlatMatrix4f inverse = new FlatMatrix4f(m);
+            Assertions.assertTrue(inverse.invert());
+            Assertions.assertTrue(FlatMatrix4f.mulInto(m, inverse, new FlatMatrix4f())
+                    .epsEquals(new FlatMatrix4f(), 1e-3f));
+        }
+        FlatMatrix4f trs = new FlatMatrix4f().translationRotationScale(1, 2, 3, 0.6f, 0, 0, 0.8f, 2, 3, 4);
+        Assertions.assertEquals(24, trs.determinant(), EPSILON * 24);
+
+        FlatMatrix4f singular = new FlatMatrix4f().scaling(1, 0, 1);
+        Assertions.assertFalse(singular.invert());
+        Assertions.assertEquals(new FlatMatrix4f().scaling(1, 0, 1), singular);
+    }
+
+    @Test
+    public void affineInverseMatchesInverse() {
+        FlatMatrix4f m = new FlatMatrix4f().translationRotationScale(1, -2, 3,
+                0.5f, 0.5f, -0.5f, 0.5f, 2, 3, 0.5f);
+        FlatMatrix4f affine = new FlatMatrix4f(m);
+        FlatMatrix4f general = new FlatMatrix4f(m);
+        Assertions.assertTrue(affine.invertAffine());
+        Assertions.assertTrue(general.invert());
+        Assertions.assertTrue(affine.epsEquals(general, EPSILON));
+    }
+
+    @Test
+    public void translationRotationScaleMatchesProduct() {
+        float angle = 0.7f;
+        FlatMatrix4f expected = new FlatMatrix4f().translation(1, 2, 3)
+                .mulLocal(new FlatMatrix4f().rotation(angle, 0, 0, 2))
+                .mulLocal(new FlatMatrix4f().scaling(2, 3, 4));
+        float sin = (float) Math.sin(angle / 2);
+        float cos = (float) Math.cos(angle / 2);
+        FlatMatrix4f actual = new FlatMatrix4f().translationRotationScale(1, 2, 3, 0, 0, sin, cos, 2, 3, 4);
+        Assertions.assertTrue(expected.epsEquals(actual, EPSILON));
+
+        // поворот вокруг z против часовой стрелки
+        Vector3f out = new FlatMatrix4f().rotation((float) Math.PI / 2, 0, 0, 1)
+                .transformDirection(1, 0, 0, new Vector3f());
+        Assertions.assertTrue(out.epsEquals(new Vector3f(0, 1, 0), EPSILON));
+    }
+
+    @Test
+    public void camera() {
+        Vector3f eye = new Vector3f(3, 4, 5);
+        FlatMatrix4f view = new FlatMatrix4f().lookAt(eye, new Vector3f(3, 4, -5), new Vector3f(0, 1, 0));
+        Vector3f out = new Vector3f();
+        Assertions.assertTrue(view.transformPosition(3, 4, 5, out).epsEquals(new Vector3f(), EPSILON));
+        Assertions.assertTrue(view.transformPosition(3, 4, -5, out).epsEquals(new Vector3f(0, 0, -10), EPSILON));
+
+        FlatMatrix4f projection = new FlatMatrix4f().perspective((float) Math.PI / 2, 2, 1, 100);
+        Assertions.assertEquals(-1, projection.transformProject(0, 0, -1, out).z, EPSILON);
+        Assertions.assertEquals(1, projection.transformProject(0, 0, -100, out).z, EPSILON);
+        // при угле обзора 90 градусов верхняя граница на расстоянии 1 проходит через y = 1
+        Assertions.assertEquals(1, projection.transformProject(0, 1, -1, out).y, EPSILON);
+        Assertions.assertEquals(0.5f, projection.transformProject(1, 0, -1, out).x, EPSILON);
+    }
+
+    private static FlatMatrix4f randomMatrix(Random random) {
+        FlatMatrix4f matrix = new FlatMatrix4f();
+        for (int i = 0; i < 16; i++) {
+            matrix.getValues()[i] = 2 * random.nextFloat() - 1;
+        }
+        return matrix;
+    }
+
+    private static void assertSame(FlatMatrix4f expected, FlatMatrix4f actual) {
+        for (int i = 0; i < 16; i++) {
+            Assertions.assertEquals(expected.getValues()[i], actual.getValues()[i], 0);
+        }
+    }
+}
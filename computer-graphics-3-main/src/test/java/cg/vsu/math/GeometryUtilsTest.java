@@ -114,4 +114,17 @@ public class GeometryUtilsTest {
 
         Assertions.assertEquals(result, expected);
     }
+
+    @Test
+    public void vectorProductIntoOut() {
+        Vector3f v1 = new Vector3f(-2, 3, 2);
+        Vector3f v2 = new Vector3f(6, 2, 3);
+
+        // результат можно записать в один из множителей
+        Vector3f result = GeometryUtils.vectorProduct(v1, v2, v1);
+        Vector3f expected = new Vector3f(5, 18, -22);
+
+        Assertions.assertSame(v1, result);
+        Assertions.assertEquals(result, expected);
+    }
 }
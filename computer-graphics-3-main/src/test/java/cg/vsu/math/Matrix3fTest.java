@@ -0,0 +1,69 @@
+package cg.vsu.math;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+public class Matrix3fTest {
+    private static final float EPSILON = 1e-5f;
+
+    @Test
+    public void multiplicationByVectorIntoOut() {
+        Matrix3f matrix = new Matrix3f(new float[][]{{9, 2, 3}, {4, 9, 6}, {7, 8, 9}});
+        Vector3f v = new Vector3f(1, -2, 0.5f);
+        Vector3f expected = matrix.multiplicationByVector(v, 3);
+
+        Assertions.assertEquals(new Vector3f(3 - 4 + 1.5f, 4 - 6 + 3, 7 - 16 + 1.5f), expected);
+        Assertions.assertSame(v, matrix.multiplicationByVector(v, 3, v));
+        Assertions.assertEquals(expected, v);
+    }
+
+    @Test
+    public void inverseMatchesDoubleReference() {
+        Random random = new Random(1);
+        for (int i = 0; i < 100; i++) {
+            float[][] values = Matrix4fTest.randomMatrix(random, 3);
+            Matrix3f m = new Matrix3f(values);
+            double[][] expected = Matrix4fTest.inverse(Matrix4fTest.toDouble(values));
+
+            Assertions.assertEquals(1, m.determinant() / Matrix4fTest.determinant(Matrix4fTest.toDouble(values)),
+                    EPSILON);
+            float[][] out = new float[3][3];
+            Assertions.assertTrue(m.inverse(new Matrix3f(out)));
+            Matrix4fTest.assertClose(expected, out);
+
+            // матрица нормалей - транспонированная обратная
+            Assertions.assertTrue(m.normalMatrix(new Matrix3f(out)));
+            for (int row = 0; row < 3; row++) {
+                for (int column = 0; column < 3; column++) {
+                    Assertions.assertEquals(expected[column][row], out[row][column], EPSILON);
+                }
+            }
+
+            Assertions.assertTrue(m.inverse(m));
+            Matrix4fTest.assertClose(expected, values);
+        }
+    }
+
+    @Test
+    public void affineInverse() {
+        // поворот на 90 градусов, масштаб 2 и перенос на плоскости
+        float[][] values = {{0, -2, 3}, {2, 0, -1}, {0, 0, 1}};
+        float[][] out = new float[3][3];
+        Assertions.assertTrue(new Matrix3f(values).affineInverse(new Matrix3f(out)));
+        Matrix4fTest.assertClose(Matrix4fTest.inverse(Matrix4fTest.toDouble(values)), out);
+        Assertions.assertEquals(4, new Matrix3f(values).determinant());
+    }
+
+    @Test
+    public void singular() {
+        Matrix3f m = new Matrix3f(new float[][]{{1, 2, 3}, {2, 4, 6}, {0, 1, 5}});
+        Matrix3f out = new Matrix3f();
+        Assertions.assertEquals(0, m.determinant());
+        Assertions.assertFalse(m.inverse(out));
+        Assertions.assertFalse(m.normalMatrix(out));
+        Assertions.assertEquals(new Matrix3f(), out);
+        Assertions.assertThrows(IllegalArgumentException.class, m::inverse);
+    }
+}
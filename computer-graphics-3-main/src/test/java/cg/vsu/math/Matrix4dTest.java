@@ -0,0 +1,51 @@
+package cg.vsu.math;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+public class Matrix4dTest {
+    private static final float EPSILON = 1e-5f;
+
+    @Test
+    public void matchesFlatMatrix4f() {
+        Random random = new Random(1);
+        Quaternion rotation = QuaternionTest.randomRotation(random);
+        Vector3f scale = new Vector3f(1, 2, 3);
+        FlatMatrix4f model = new FlatMatrix4f().translationRotationScale(1, -2, 3,
+                rotation.x, rotation.y, rotation.z, rotation.w, 1, 2, 3);
+        FlatMatrix4f view = new FlatMatrix4f().lookAt(new Vector3f(4, 5, 6), new Vector3f(), new Vector3f(0, 1, 0));
+
+        Matrix4d modelD = new Matrix4d().translationRotationScale(new Vector3d(1, -2, 3), rotation, scale);
+        Matrix4d viewD = new Matrix4d().lookAt(new Vector3d(4, 5, 6), new Vector3d(), new Vector3d(0, 1, 0));
+        Assertions.assertTrue(modelD.toFloat(new FlatMatrix4f()).epsEquals(model, EPSILON));
+        Assertions.assertTrue(viewD.toFloat(new FlatMatrix4f()).epsEquals(view, EPSILON));
+
+        FlatMatrix4f expected = FlatMatrix4f.mulInto(view, model, new FlatMatrix4f());
+        Assertions.assertTrue(Matrix4d.mulInto(viewD, modelD, new FlatMatrix4f()).epsEquals(expected, EPSILON));
+        Assertions.assertTrue(new Matrix4d(viewD).mulLocal(modelD).toFloat(new FlatMatrix4f())
+                .epsEquals(expected, EPSILON));
+        Assertions.assertTrue(new Matrix4d(modelD).preMulLocal(viewD).toFloat(new FlatMatrix4f())
+                .epsEquals(expected, EPSILON));
+
+        Vector3f point = model.transformPosition(1, 2, 3, new Vector3f());
+        Assertions.assertTrue(modelD.transformPosition(1, 2, 3, new Vector3d()).toVector3f(new Vector3f())
+                .epsEquals(point, EPSILON));
+    }
+
+    @Test
+    public void invertAffine() {
+        Matrix4d m = new Matrix4d().translationRotationScale(new Vector3d(3e5, -2e5, 1e5),
+                new Quaternion().setFromAxisAngle(1, 1, 0, 0.7f), new Vector3f(2, 2, 2));
+        Matrix4d inverse = new Matrix4d(m);
+        Assertions.assertTrue(inverse.invertAffine());
+        Assertions.assertTrue(inverse.mulLocal(m).epsEquals(new Matrix4d(), 1e-9));
+
+        // вырожденная матрица не меняется
+        Matrix4d singular = new Matrix4d().translation(1, 2, 3).set(1, 1, 0);
+        Matrix4d copy = new Matrix4d(singular);
+        Assertions.assertFalse(copy.invertAffine());
+        Assertions.assertEquals(singular, copy);
+    }
+}
@@ -0,0 +1,192 @@
+package cg.vsu.math;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+public class Matrix4fTest {
+    private static final float EPSILON = 1e-5f;
+
+    @Test
+    public void inverseMatchesDoubleReference() {
+        Random random = new Random(1);
+        for (int i = 0; i < 100; i++) {
+            float[][] values = randomMatrix(random, 4);
+            Matrix4f m = new Matrix4f(values);
+            double[][] expected = inverse(toDouble(values));
+
+            // относительная погрешность не хуже нескольких единиц последнего разряда float
+            Assertions.assertEquals(1, m.determinant() / determinant(toDouble(values)), EPSILON);
+            assertClose(expected, m.inverse().getData());
+            Matrix4f out = new Matrix4f();
+            Assertions.assertTrue(m.inverse(out));
+            assertClose(expected, out.getData());
+            // результат можно записать в саму матрицу
+            Assertions.assertTrue(m.inverse(m));
+            assertClose(expected, values);
+        }
+    }
+
+    @Test
+    public void affineInverse() {
+        FlatMatrix4f trs = new FlatMatrix4f().translationRotationScale(1, -2, 3, 0.5f, 0.5f, -0.5f, 0.5f, 2, 3, 0.5f);
+        Matrix4f m = trs.toMatrix4f();
+        double[][] expected = inverse(toDouble(m.getData()));
+
+        Matrix4f out = new Matrix4f();
+        Assertions.assertTrue(m.affineInverse(out));
+        assertClose(expected, out.getData());
+        Assertions.assertEquals(3, m.determinant(), EPSILON * 3);
+    }
+
+    @Test
+    public void normalMatrixKeepsNormalsPerpendicular() {
+        // неравномерный масштаб: обычная матрица наклоняет нормаль, матрица нормалей нет
+        Matrix4f m = new FlatMatrix4f().translationRotationScale(5, 6, 7, 0, 0, 0.6f, 0.8f, 4, 1, 1).toMatrix4f();
+        float[][] values = new float[3][3];
+        Assertions.assertTrue(m.normalMatrix(new Matrix3f(values)));
+
+        Vector3f tangent = new Vector3f(1, -1, 0);
+        Vector3f normal = new Vector3f(1, 1, 0);
+        FlatMatrix4f flat = new FlatMatrix4f(m);
+        Vector3f transformedTangent = flat.transformDirection(tangent.x, tangent.y, tangent.z, new Vector3f());
+        Vector3f transformedNormal = new Vector3f(
+                values[0][0] * normal.x + values[0][1] * normal.y + values[0][2] * normal.z,
+                values[1][0] * normal.x + values[1][1] * normal.y + values[1][2] * normal.z,
+                values[2][0] * normal.x + values[2][1] * normal.y + values[2][2] * normal.z);
+        Assertions.assertEquals(0, transformedTangent.dot(transformedNormal), EPSILON);
+        Assertions.assertEquals(15, transformedTangent.dot(
+                flat.transformDirection(normal.x, normal.y, normal.z, new Vector3f())), EPSILON * 15);
+
+        double[][] upper = new double[3][3];
+        for (int i = 0; i < 3; i++) {
+            for (int j = 0; j < 3; j++) {
+                upper[i][j] = m.getData()[i][j];
+            }
+        }
+        double[][] inverse = inverse(upper);
+        for (int i = 0; i < 3; i++) {
+            for (int j = 0; j < 3; j++) {
+                Assertions.assertEquals(inverse[j][i], values[i][j], EPSILON);
+            }
+        }
+    }
+
+    @Test
+    public void singular() {
+        // последняя строка - сумма первых двух; в целых числах определитель ровно 0
+        Matrix4f m = new Matrix4f(new float[][]{{1, 2, 0, 3}, {0, 1, 4, 1}, {2, 0, 1, 5}, {1, 3, 4, 4}});
+        Assertions.assertEquals(0, m.determinant());
+        Matrix4f out = new Matrix4f();
+        Assertions.assertFalse(m.inverse(out));
+        Assertions.assertEquals(new Matrix4f(), out);
+        Assertions.assertThrows(IllegalArgumentException.class, m::inverse);
+        Assertions.assertThrows(IllegalArgumentException.class,
+                () -> new Matrix4f(new float[][]{{1}, {2}, {3}, {1}}).determinant());
+    }
+
+    static float[][] randomMatrix(Random random, int size) {
+        float[][] values = new float[size][size];
+        for (int i = 0; i < size; i++) {
+            for (int j = 0; j < size; j++) {
+                values[i][j] = 2 * random.nextFloat() - 1;
+            }
+            // диагональное преобладание: матрица обусловлена хорошо, и float-погрешность мала
+            values[i][i] += size;
+        }
+        return values;
+    }
+
+    static double[][] toDouble(float[][] values) {
+        double[][] result = new double[values.length][values.length];
+        for (int i = 0; i < values.length; i++) {
+            for (int j = 0; j < values.length; j++) {
+                result[i][j] = values[i][j];
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Обратная матрица методом Гаусса-Жордана с выбором ведущего элемента, в double.
+     */
+    static double[][] inverse(double[][] m) {
+        int n = m.length;
+        double[][] a = new double[n][2 * n];
+        for (int i = 0; i < n; i++) {
+            System.arraycopy(m[i], 0, a[i], 0, n);
+            a[i][n + i] = 1;
+        }
+        for (int column = 0; column < n; column++) {
+            int pivot = column;
+            for (int row = column + 1; row < n; row++) {
+                if (Math.abs(a[row][column]) > Math.abs(a[pivot][column])) {
+                    pivot = row;
+                }
+            }
+            double[] swap = a[column];
+            a[column] = a[pivot];
+            a[pivot] = swap;
+            double scale = a[column][column];
+            for (int j = 0; j < 2 * n; j++) {
+                a[column][j] /= scale;
+            }
+            for (int row = 0; row < n; row++) {
+                if (row != column) {
+                    double factor = a[row][column];
+                    for (int j = 0; j < 2 * n; j++) {
+                        a[row][j] -= factor * a[column][j];
+                    }
+                }
+            }
+        }
+        double[][] result = new double[n][n];
+        for (int i = 0; i < n; i++) {
+            System.arraycopy(a[i], n, result[i], 0, n);
+        }
+        return result;
+    }
+
+    /**
+     * Определитель приведением к треугольному виду, в double.
+     */
+    static double determinant(double[][] m) {
+        int n = m.length;
+        double[][] a = new double[n][];
+        for (int i = 0; i < n; i++) {
+            a[i] = m[i].clone();
+        }
+        double result = 1;
+        for (int column = 0; column < n; column++) {
+            int pivot = column;
+            for (int row = column + 1; row < n; row++) {
+                if (Math.abs(a[row][column]) > Math.abs(a[pivot][column])) {
+                    pivot = row;
+                }
+            }
+            if (pivot != column) {
+                double[] swap = a[column];
+                a[column] = a[pivot];
+                a[pivot] = swap;
+                result = -result;
+            }
+            result *= a[column][column];
+            for (int row = column + 1; row < n; row++) {
+                double factor = a[row][column] / a[column][column];
+                for (int j = column; j < n; j++) {
+                    a[row][j] -= factor * a[column][j];
+                }
+            }
+        }
+        return result;
+    }
+
+    static void assertClose(double[][] expected, float[][] actual) {
+        for (int i = 0; i < expected.length; i++) {
+            for (int j = 0; j < expected.length; j++) {
+                Assertions.assertEquals(expected[i][j], actual[i][j], EPSILON, "element " + i + ", " + j);
+            }
+        }
+    }
+}
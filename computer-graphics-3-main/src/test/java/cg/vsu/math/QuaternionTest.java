@@ -0,0 +1,63 @@
+package cg.vsu.math;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+public class QuaternionTest {
+    private static final float EPSILON = 1e-5f;
+
+    @Test
+    public void matchesRotationMatrix() {
+        Quaternion q = new Quaternion().setFromAxisAngle(1, 2, 3, 0.8f);
+        Assertions.assertEquals(1, q.len(), EPSILON);
+        Assertions.assertTrue(q.toMatrix(new FlatMatrix4f())
+                .epsEquals(new FlatMatrix4f().rotation(0.8f, 1, 2, 3), EPSILON));
+
+        Vector3f expected = new FlatMatrix4f().rotation(0.8f, 1, 2, 3).transformDirection(4, -5, 6, new Vector3f());
+        Assertions.assertTrue(q.transform(new Vector3f(4, -5, 6)).epsEquals(expected, EPSILON));
+    }
+
+    @Test
+    public void mulMatchesMatrixProduct() {
+        Random random = new Random(1);
+        for (int i = 0; i < 20; i++) {
+            Quaternion a = randomRotation(random);
+            Quaternion b = randomRotation(random);
+            FlatMatrix4f expected = a.toMatrix(new FlatMatrix4f()).mulLocal(b.toMatrix(new FlatMatrix4f()));
+
+            Assertions.assertTrue(a.cpy().mul(b).toMatrix(new FlatMatrix4f()).epsEquals(expected, EPSILON));
+            Assertions.assertTrue(b.cpy().preMul(a).toMatrix(new FlatMatrix4f()).epsEquals(expected, EPSILON));
+            // для единичного кватерниона обратный равен сопряжённому
+            Assertions.assertTrue(a.cpy().mul(a.cpy().inv()).epsEquals(new Quaternion(), EPSILON));
+            Assertions.assertTrue(a.cpy().inv().epsEquals(a.cpy().conjugate(), EPSILON));
+        }
+    }
+
+    @Test
+    public void slerp() {
+        Quaternion start = new Quaternion().setFromAxisAngle(0, 0, 1, 0.2f);
+        Quaternion end = new Quaternion().setFromAxisAngle(0, 0, 1, 1.4f);
+
+        Assertions.assertTrue(start.cpy().slerp(end, 0).epsEquals(start, EPSILON));
+        Assertions.assertTrue(start.cpy().slerp(end, 1).epsEquals(end, EPSILON));
+        // угол меняется равномерно
+        Assertions.assertTrue(start.cpy().slerp(end, 0.25f)
+                .epsEquals(new Quaternion().setFromAxisAngle(0, 0, 1, 0.5f), EPSILON));
+
+        // -end задаёт тот же поворот, интерполяция идёт по короткой дуге
+        Quaternion negated = new Quaternion(-end.x, -end.y, -end.z, -end.w);
+        Assertions.assertTrue(start.cpy().slerp(negated, 0.25f)
+                .epsEquals(new Quaternion().setFromAxisAngle(0, 0, 1, 0.5f), EPSILON));
+
+        // почти совпадающие повороты
+        Quaternion close = new Quaternion().setFromAxisAngle(0, 0, 1, 0.2001f);
+        Assertions.assertEquals(1, start.cpy().slerp(close, 0.5f).len(), EPSILON);
+    }
+
+    static Quaternion randomRotation(Random random) {
+        return new Quaternion().setFromAxisAngle(2 * random.nextFloat() - 1, 2 * random.nextFloat() - 1,
+                2 * random.nextFloat() - 1, 6 * random.nextFloat() - 3);
+    }
+}
@@ -0,0 +1,74 @@
+package cg.vsu.math;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+public class TransformTest {
+    private static final float EPSILON = 1e-4f;
+
+    @Test
+    public void mulMatchesMatrixProduct() {
+        Random random = new Random(1);
+        for (int i = 0; i < 20; i++) {
+            // у родителя равномерный масштаб, иначе произведение содержит сдвиг
+            float parentScale = 0.5f + random.nextFloat();
+            Transform parent = new Transform(randomTranslation(random), QuaternionTest.randomRotation(random),
+                    new Vector3f(parentScale, parentScale, parentScale));
+            Transform local = randomTransform(random);
+            FlatMatrix4f expected = parent.toMatrix(new FlatMatrix4f()).mulLocal(local.toMatrix(new FlatMatrix4f()));
+
+            Assertions.assertTrue(Transform.mul(parent, local, new Transform()).toMatrix(new FlatMatrix4f())
+                    .epsEquals(expected, EPSILON));
+            Assertions.assertTrue(new Transform(parent).mul(local).toMatrix(new FlatMatrix4f())
+                    .epsEquals(expected, EPSILON));
+            Assertions.assertTrue(new Transform(local).preMul(parent).toMatrix(new FlatMatrix4f())
+                    .epsEquals(expected, EPSILON));
+        }
+    }
+
+    @Test
+    public void inverse() {
+        Transform t = new Transform(new Vector3f(1, -2, 3), new Quaternion().setFromAxisAngle(1, 1, 0, 0.7f),
+                new Vector3f(2, 2, 2));
+        Transform inverse = new Transform(t).inv();
+        Assertions.assertTrue(Transform.mul(t, inverse, new Transform()).epsEquals(new Transform(), EPSILON));
+
+        FlatMatrix4f expected = t.toMatrix(new FlatMatrix4f());
+        Assertions.assertTrue(expected.invert());
+        Assertions.assertTrue(inverse.toMatrix(new FlatMatrix4f()).epsEquals(expected, EPSILON));
+    }
+
+    @Test
+    public void transformMatchesMatrix() {
+        Transform t = randomTransform(new Random(2));
+        FlatMatrix4f matrix = t.toMatrix(new FlatMatrix4f());
+
+        Assertions.assertTrue(t.transformPosition(new Vector3f(4, 5, -6))
+                .epsEquals(matrix.transformPosition(4, 5, -6, new Vector3f()), EPSILON));
+        Assertions.assertTrue(t.transformDirection(new Vector3f(4, 5, -6))
+                .epsEquals(matrix.transformDirection(4, 5, -6, new Vector3f()), EPSILON));
+    }
+
+    @Test
+    public void interpolate() {
+        Transform start = new Transform();
+        Transform end = new Transform(new Vector3f(2, 4, 6), new Quaternion().setFromAxisAngle(0, 1, 0, 1),
+                new Vector3f(3, 3, 3));
+        Transform middle = new Transform(start).interpolate(end, 0.5f);
+
+        Assertions.assertTrue(middle.epsEquals(new Transform(new Vector3f(1, 2, 3),
+                new Quaternion().setFromAxisAngle(0, 1, 0, 0.5f), new Vector3f(2, 2, 2)), EPSILON));
+        Assertions.assertTrue(new Transform(start).interpolate(end, 1).epsEquals(end, EPSILON));
+    }
+
+    private static Transform randomTransform(Random random) {
+        return new Transform(randomTranslation(random), QuaternionTest.randomRotation(random),
+                new Vector3f(0.5f + random.nextFloat(), 0.5f + random.nextFloat(), 0.5f + random.nextFloat()));
+    }
+
+    private static Vector3f randomTranslation(Random random) {
+        return new Vector3f(10 * random.nextFloat() - 5, 10 * random.nextFloat() - 5, 10 * random.nextFloat() - 5);
+    }
+}
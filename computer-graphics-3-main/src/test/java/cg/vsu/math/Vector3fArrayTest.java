@@ -0,0 +1,105 @@
+package cg.vsu.math;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+public class Vector3fArrayTest {
+    private static final int SIZE = 50;
+
+    @Test
+    public void operationsMatchVector3f() {
+        Random random = new Random(1);
+        List<Vector3f> a = randomVectors(random);
+        List<Vector3f> b = randomVectors(random);
+        // нулевой вектор nor() оставляет как есть
+        a.get(7).setZero();
+        Vector3f v = new Vector3f(0.3f, -2, 5);
+
+        assertSameAsVector3f(a, b, (x, y) -> x.add(y), (x, y) -> x.add(y));
+        assertSameAsVector3f(a, b, (x, y) -> x.sub(y), (x, y) -> x.sub(y));
+        assertSameAsVector3f(a, b, (x, y) -> x.scl(y), (x, y) -> x.scl(y));
+        assertSameAsVector3f(a, b, (x, y) -> x.addMul(y, 0.7f), (x, y) -> x.addMul(y, 0.7f));
+        assertSameAsVector3f(a, b, (x, y) -> x.lerp(y, 0.3f), (x, y) -> x.lerp(y, 0.3f));
+        assertSameAsVector3f(a, b, (x, y) -> x.crs(y), (x, y) -> x.crs(y));
+        assertSameAsVector3f(a, x -> x.add(v), x -> x.add(v));
+        assertSameAsVector3f(a, x -> x.sub(v), x -> x.sub(v));
+        assertSameAsVector3f(a, x -> x.crs(v), x -> x.crs(v));
+        assertSameAsVector3f(a, x -> x.scl(-1.5f), x -> x.scl(-1.5f));
+        assertSameAsVector3f(a, Vector3f::nor, Vector3fArray::nor);
+    }
+
+    @Test
+    public void perVectorResultsMatchVector3f() {
+        Random random = new Random(2);
+        List<Vector3f> a = randomVectors(random);
+        List<Vector3f> b = randomVectors(random);
+        Vector3fArray arrayA = new Vector3fArray(a);
+        Vector3fArray arrayB = new Vector3fArray(b);
+        Vector3f v = new Vector3f(0.3f, -2, 5);
+
+        float[] dot = arrayA.dot(arrayB, new float[SIZE]);
+        float[] dotV = arrayA.dot(v, new float[SIZE]);
+        float[] len = arrayA.len(new float[SIZE]);
+        float[] len2 = arrayA.len2(new float[SIZE]);
+        float[] dst = arrayA.dst(arrayB, new float[SIZE]);
+        float[] dst2 = arrayA.dst2(arrayB, new float[SIZE]);
+        float[] dstV = arrayA.dst(v, new float[SIZE]);
+        for (int i = 0; i < SIZE; i++) {
+            Assertions.assertEquals(a.get(i).dot(b.get(i)), dot[i], 0);
+            Assertions.assertEquals(a.get(i).dot(v), dotV[i], 0);
+            Assertions.assertEquals(a.get(i).len(), len[i], 0);
+            Assertions.assertEquals(a.get(i).len2(), len2[i], 0);
+            Assertions.assertEquals(a.get(i).dst(b.get(i)), dst[i], 0);
+            Assertions.assertEquals(a.get(i).dst2(b.get(i)), dst2[i], 0);
+            Assertions.assertEquals(a.get(i).dst(v), dstV[i], 0);
+        }
+    }
+
+    @Test
+    public void sizes() {
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new Vector3fArray(new float[4]));
+        Assertions.assertThrows(IllegalArgumentException.class,
+                () -> new Vector3fArray(2).add(new Vector3fArray(3)));
+        Assertions.assertThrows(IllegalArgumentException.class,
+                () -> new Vector3fArray(2).len(new float[1]));
+
+        float[] values = new float[6];
+        Vector3fArray array = new Vector3fArray(values).set(1, 1, 2, 3);
+        Assertions.assertEquals(2, array.size());
+        // массив не копируется
+        Assertions.assertEquals(3, values[5]);
+        Assertions.assertEquals(new Vector3f(1, 2, 3), array.get(1, new Vector3f()));
+    }
+
+    private static void assertSameAsVector3f(List<Vector3f> a, List<Vector3f> b,
+                                             BiConsumer<Vector3f, Vector3f> vectorOperation,
+                                             BiConsumer<Vector3fArray, Vector3fArray> arrayOperation) {
+        Vector3fArray array = new Vector3fArray(a);
+        arrayOperation.accept(array, new Vector3fArray(b));
+        for (int i = 0; i < a.size(); i++) {
+            Vector3f expected = a.get(i).cpy();
+            vectorOperation.accept(expected, b.get(i));
+            Assertions.assertEquals(expected, array.get(i, new Vector3f()));
+        }
+    }
+
+    private static void assertSameAsVector3f(List<Vector3f> a, Consumer<Vector3f> vectorOperation,
+                                             Consumer<Vector3fArray> arrayOperation) {
+        assertSameAsVector3f(a, a, (x, y) -> vectorOperation.accept(x), (x, y) -> arrayOperation.accept(x));
+    }
+
+    private static List<Vector3f> randomVectors(Random random) {
+        List<Vector3f> vectors = new ArrayList<>();
+        for (int i = 0; i < SIZE; i++) {
+            vectors.add(new Vector3f(20 * random.nextFloat() - 10, 20 * random.nextFloat() - 10,
+                    20 * random.nextFloat() - 10));
+        }
+        return vectors;
+    }
+}
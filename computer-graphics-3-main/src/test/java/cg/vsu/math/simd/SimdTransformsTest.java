@@ -0,0 +1,104 @@
+package cg.vsu.math.simd;
+
+import cg.vsu.math.BatchTransforms;
+import cg.vsu.math.FlatMatrix4f;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+/**
+ * Запускается с {@code --add-modules jdk.incubator.vector}.
+ */
+public class SimdTransformsTest {
+    private static final float EPSILON = 1e-4f;
+    private static final FlatMatrix4f MATRIX = new FlatMatrix4f().translationRotationScale(1, -2, 3,
+            0.5f, 0.5f, -0.5f, 0.5f, 2, 3, 0.5f);
+
+    @Test
+    public void interleavedMatchesScalar() {
+        Random random = new Random(1);
+        // все остатки от деления на шаг цикла, включая короткие массивы без векторной части
+        for (int count = 0; count < 100; count++) {
+            float[] positions = randomPositions(random, count + 3);
+            float[] expected = new float[3 * (count + 4)];
+            float[] actual = new float[3 * (count + 4)];
+            BatchTransforms.transformPositions(MATRIX, positions, 1, expected, 3, count);
+            SimdTransforms.transformPositions(MATRIX, positions, 1, actual, 3, count);
+            assertClose(expected, actual);
+
+            // на месте
+            float[] inPlace = positions.clone();
+            BatchTransforms.transformPositions(MATRIX, positions, 2, positions, 2, count);
+            SimdTransforms.transformPositions(MATRIX, inPlace, 2, inPlace, 2, count);
+            assertClose(positions, inPlace);
+        }
+    }
+
+    @Test
+    public void nonFiniteCoordinatesStayInTheirPoint() {
+        Random random = new Random(3);
+        float[] special = {Float.NaN, Float.POSITIVE_INFINITY, Float.NEGATIVE_INFINITY};
+        for (int count = 20; count < 60; count++) {
+            for (int at = 0; at < 3 * count; at += 7) {
+                float[] positions = randomPositions(random, count);
+                positions[at] = special[at % 3];
+                float[] expected = new float[3 * count];
+                float[] actual = new float[3 * count];
+                BatchTransforms.transformPositions(MATRIX, positions, 0, expected, 0, count);
+                SimdTransforms.transformPositions(MATRIX, positions, 0, actual, 0, count);
+                assertClose(expected, actual);
+
+                SimdTransforms.transformPositions(MATRIX, positions, 0, positions, 0, count);
+                assertClose(expected, positions);
+            }
+        }
+    }
+
+    @Test
+    public void separateMatchesScalar() {
+        Random random = new Random(2);
+        for (int count = 0; count < 40; count++) {
+            float[] x = randomPositions(random, count);
+            float[] y = randomPositions(random, count);
+            float[] z = randomPositions(random, count);
+            float[] outX = new float[3 * count];
+            float[] outY = new float[3 * count];
+            float[] outZ = new float[3 * count];
+            SimdTransforms.transformPositions(MATRIX, x, y, z, outX, outY, outZ, 3 * count);
+            BatchTransforms.transformPositions(MATRIX, x, y, z, x, y, z, 3 * count);
+            assertClose(x, outX);
+            assertClose(y, outY);
+            assertClose(z, outZ);
+        }
+    }
+
+    @Test
+    public void outOfBounds() {
+        float[] positions = new float[3 * 100];
+        Assertions.assertThrows(IndexOutOfBoundsException.class,
+                () -> SimdTransforms.transformPositions(MATRIX, positions, 50, positions, 0, 51));
+        Assertions.assertThrows(IndexOutOfBoundsException.class,
+                () -> SimdTransforms.transformPositions(MATRIX, positions, 0, new float[3 * 99], 0, 100));
+    }
+
+    private static float[] randomPositions(Random random, int count) {
+        float[] positions = new float[3 * count];
+        for (int i = 0; i < positions.length; i++) {
+            positions[i] = 20 * random.nextFloat() - 10;
+        }
+        return positions;
+    }
+
+    private static void assertClose(float[] expected, float[] actual) {
+        Assertions.assertEquals(expected.length, actual.length);
+        for (int i = 0; i < expected.length; i++) {
+            if (!Float.isFinite(expected[i])) {
+                // у NaN и бесконечностей сравниваются сами значения
+                Assertions.assertEquals(expected[i], actual[i], "index " + i);
+                continue;
+            }
+            Assertions.assertEquals(expected[i], actual[i], EPSILON, "index " + i);
+        }
+    }
+}
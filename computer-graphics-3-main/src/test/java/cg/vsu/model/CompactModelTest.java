@@ -0,0 +1,105 @@
+package cg.vsu.model;
+
+import cg.vsu.math.Vector2f;
+import cg.vsu.math.Vector3f;
+import cg.vsu.normals.NormalUtils;
+import cg.vsu.objreader.ObjReader;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+public class CompactModelTest {
+    private final String brickFilePath = "src/main/resources/obj/brick.obj";
+    private final String alexFilePath = "src/main/resources/obj/AlexNeutralWrapped.obj";
+
+    @Test
+    public void readCompact() throws IOException {
+        Model model = ObjReader.read(alexFilePath);
+        CompactModel compactModel = ObjReader.readCompact(alexFilePath);
+
+        Assertions.assertEquals(model.vertices, compactModel.vertexList());
+        Assertions.assertEquals(model.normals, compactModel.normalList());
+        Assertions.assertEquals(model.textureVertices.size(), compactModel.getTextureVertexCount());
+        Assertions.assertEquals(model.polygons.size(), compactModel.getPolygonCount());
+        for (int i = 0; i < model.polygons.size(); i++) {
+            Assertions.assertEquals(model.polygons.get(i).getVertexIndices(),
+                    compactModel.polygonList().get(i).getVertexIndices());
+        }
+        Assertions.assertTrue(compactModel.hasTextureVertexIndices());
+        Assertions.assertFalse(compactModel.hasNormalIndices());
+    }
+
+    @Test
+    public void fromModelAndBack() throws IOException {
+        Model model = ObjReader.read(brickFilePath);
+        CompactModel compactModel = CompactModel.fromModel(model);
+        Model restored = compactModel.toModel();
+
+        Assertions.assertEquals(model.vertices, restored.vertices);
+        Assertions.assertEquals(model.polygons.size(), restored.polygons.size());
+        for (int i = 0; i < model.polygons.size(); i++) {
+            Assertions.assertEquals(model.polygons.get(i).getVertexIndices(),
+                    restored.polygons.get(i).getVertexIndices());
+        }
+        Assertions.assertFalse(compactModel.hasTextureVertexIndices());
+        Assertions.assertEquals(0, compactModel.getTextureVertexIndices().length);
+    }
+
+    @Test
+    public void absentIndicesKeepTheirCorners() {
+        Model model = new Model();
+        model.vertices.add(new Vector3f());
+        model.textureVertices.add(new Vector2f());
+        Polygon partial = new Polygon();
+        // отсутствующий индекс текстуры остается на месте своего угла
+        partial.setVertexIndices(new ArrayList<>(List.of(0, 0, 0)));
+        partial.setTextureVertexIndices(new ArrayList<>(List.of(0, CompactModel.NO_INDEX, 0)));
+        model.polygons.add(partial);
+        Polygon bare = new Polygon();
+        bare.setVertexIndices(new ArrayList<>(List.of(0, 0, 0)));
+        model.polygons.add(bare);
+
+        List<Polygon> restored = CompactModel.fromModel(model).toModel().polygons;
+        Assertions.assertEquals(List.of(0, CompactModel.NO_INDEX, 0), restored.get(0).getTextureVertexIndices());
+        Assertions.assertEquals(List.of(), restored.get(0).getNormalIndices());
+        Assertions.assertEquals(List.of(0, 0, 0), restored.get(1).getVertexIndices());
+        Assertions.assertEquals(List.of(), restored.get(1).getTextureVertexIndices());
+    }
+
+    @Test
+    public void viewsWorkWithNormalUtils() throws IOException {
+        Model model = ObjReader.read(brickFilePath);
+        CompactModel compactModel = CompactModel.fromModel(model);
+
+        Vector3f expected = NormalUtils.normalToVertex(model.vertices.get(7), model.vertices, model.polygons);
+        Vector3f actual = NormalUtils.normalToVertex(
+                compactModel.getVertex(7, new Vector3f()), compactModel.vertexList(), compactModel.polygonList());
+        Assertions.assertEquals(expected, actual);
+    }
+
+    @Test
+    public void attributeIndicesAreBackFilled() {
+        CompactModelBuilder builder = new CompactModelBuilder();
+        builder.addPolygon(new int[]{0, 1, 2}, null, null, 3);
+        builder.addPolygon(new int[]{0, 2, 3}, new int[]{5, 6, 7}, null, 3);
+        CompactModel compactModel = builder.build();
+
+        Assertions.assertArrayEquals(new int[]{0, 3, 6}, compactModel.getPolygonOffsets());
+        Assertions.assertArrayEquals(new int[]{-1, -1, -1, 5, 6, 7}, compactModel.getTextureVertexIndices());
+        Assertions.assertEquals(0, compactModel.getNormalIndices().length);
+        Assertions.assertEquals(List.of(), compactModel.polygonList().get(0).getTextureVertexIndices());
+        Assertions.assertEquals(List.of(5, 6, 7), compactModel.polygonList().get(1).getTextureVertexIndices());
+    }
+
+    @Test
+    public void footprint() throws IOException {
+        Model model = ObjReader.read(alexFilePath);
+        CompactModel compactModel = CompactModel.fromModel(model);
+
+        Assertions.assertTrue(MeshFootprint.estimate(compactModel) * 3 < MeshFootprint.estimate(model));
+        Assertions.assertTrue(MeshFootprint.report(model, compactModel).contains("CompactModel:"));
+    }
+}
@@ -0,0 +1,88 @@
+package cg.vsu.model;
+
+import cg.vsu.math.Vector3f;
+import cg.vsu.objreader.ObjReader;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+
+public class Float3IntHashMapTest {
+    private final String alexFilePath = "src/main/resources/obj/AlexNeutralWrapped.obj";
+
+    @Test
+    public void sameAsHashMap() throws IOException {
+        Model model = ObjReader.read(alexFilePath);
+        // маленькая начальная емкость, чтобы таблица несколько раз выросла
+        Float3IntHashMap map = new Float3IntHashMap(1);
+        Map<Vector3f, Integer> expected = new HashMap<>();
+        for (Polygon polygon : model.polygons) {
+            for (Integer index : polygon.getVertexIndices()) {
+                Vector3f vertex = model.vertices.get(index);
+                int actual = map.putIfAbsent(vertex.x, vertex.y, vertex.z, map.size());
+                Assertions.assertEquals(expected.computeIfAbsent(vertex, key -> expected.size()), actual);
+            }
+        }
+        Assertions.assertEquals(expected.size(), map.size());
+
+        Vector3f key = new Vector3f();
+        for (int entry = 0; entry < map.size(); entry++) {
+            Assertions.assertEquals(entry, map.getValue(entry));
+            Assertions.assertEquals(entry, expected.get(map.getKey(entry, key)));
+            Assertions.assertEquals(entry, map.indexOf(key.x, key.y, key.z));
+        }
+        Assertions.assertFalse(map.containsKey(100, 100, 100));
+    }
+
+    @Test
+    public void putReplacesValue() {
+        Float3IntHashMap map = new Float3IntHashMap();
+        map.put(1, 2, 3, 10);
+        map.put(1, 2, 3, 20);
+        Assertions.assertEquals(1, map.size());
+        Assertions.assertEquals(20, map.get(1, 2, 3, -1));
+        Assertions.assertEquals(-1, map.get(3, 2, 1, -1));
+
+        map.clear();
+        Assertions.assertTrue(map.isEmpty());
+        Assertions.assertEquals(-1, map.get(1, 2, 3, -1));
+    }
+
+    @Test
+    public void negativeZeroMatchesZero() {
+        Float3IntHashMap map = new Float3IntHashMap();
+        map.put(0.0f, -0.0f, 1, 5);
+        Assertions.assertEquals(5, map.get(-0.0f, 0.0f, 1, -1));
+        Assertions.assertEquals(new Vector3f(0.0f, -0.0f, 1).hashCode(), new Vector3f(-0.0f, 0.0f, 1).hashCode());
+    }
+
+    @Test
+    public void quantizedKeys() {
+        Float3IntHashMap map = new Float3IntHashMap(4, 0.01f);
+        Assertions.assertEquals(0, map.putIfAbsent(1.0f, 2.0f, 3.0f, 0));
+        Assertions.assertEquals(0, map.putIfAbsent(1.001f, 1.999f, 3.002f, 1));
+        Assertions.assertEquals(1, map.putIfAbsent(1.02f, 2.0f, 3.0f, 1));
+        Assertions.assertEquals(2, map.size());
+
+        // ключом остается первая вставленная точка
+        Assertions.assertEquals(new Vector3f(1.0f, 2.0f, 3.0f), map.getKey(0, new Vector3f()));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new Float3IntHashMap(4, -1));
+    }
+
+    @Test
+    public void quantizedNaNMatchesOnlyNaN() {
+        Float3IntHashMap map = new Float3IntHashMap(4, 0.01f);
+        map.put(0, 0, 0, 1);
+        map.put(Float.NaN, 0, 0, 2);
+        map.put(Float.POSITIVE_INFINITY, 0, 0, 3);
+        map.put(Float.MAX_VALUE, 0, 0, 4);
+
+        Assertions.assertEquals(4, map.size());
+        Assertions.assertEquals(1, map.get(0.001f, 0, 0, -1));
+        Assertions.assertEquals(2, map.get(Float.NaN, 0, 0, -1));
+        Assertions.assertEquals(3, map.get(Float.POSITIVE_INFINITY, 0, 0, -1));
+        Assertions.assertEquals(-1, map.get(0, Float.NaN, 0, -1));
+    }
+}
@@ -0,0 +1,138 @@
+package cg.vsu.model;
+
+import cg.vsu.math.Vector3f;
+import cg.vsu.objreader.ObjReader;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+public class MeshAdjacencyTest {
+    private final String brickFilePath = "src/main/resources/obj/brick.obj";
+    private final String alexFilePath = "src/main/resources/obj/AlexNeutralWrapped.obj";
+
+    @Test
+    public void closedBrick() throws IOException {
+        Model model = ObjReader.read(brickFilePath);
+        MeshAdjacency adjacency = model.getAdjacency();
+
+        Assertions.assertEquals(8, adjacency.getVertexCount());
+        Assertions.assertEquals(12, adjacency.getEdgeCount());
+        for (int vertex = 0; vertex < adjacency.getVertexCount(); vertex++) {
+            Assertions.assertFalse(adjacency.isBoundaryVertex(vertex));
+        }
+        for (int edge = 0; edge < adjacency.getEdgeCount(); edge++) {
+            Assertions.assertEquals(2, adjacency.getEdgePolygonCount(edge));
+        }
+    }
+
+    @Test
+    public void sameAsBruteForce() throws IOException {
+        Model model = ObjReader.read(alexFilePath);
+        MeshAdjacency adjacency = MeshAdjacency.of(model);
+
+        for (int vertex = 0; vertex < model.vertices.size(); vertex++) {
+            List<Integer> expected = new ArrayList<>();
+            for (int polygon = 0; polygon < model.polygons.size(); polygon++) {
+                if (model.polygons.get(polygon).getVertexIndices().contains(vertex)) {
+                    expected.add(polygon);
+                }
+            }
+            List<Integer> actual = new ArrayList<>();
+            for (int i = 0; i < adjacency.getVertexPolygonCount(vertex); i++) {
+                actual.add(adjacency.getVertexPolygon(vertex, i));
+            }
+            Assertions.assertEquals(expected, actual, "vertex " + vertex);
+        }
+
+        int sides = 0;
+        for (int polygon = 0; polygon < model.polygons.size(); polygon++) {
+            List<Integer> indices = model.polygons.get(polygon).getVertexIndices();
+            for (int i = 0; i < indices.size(); i++) {
+                int a = indices.get(i);
+                int b = indices.get((i + 1) % indices.size());
+                int edge = adjacency.findEdge(b, a);
+                Assertions.assertEquals(edge, adjacency.findEdge(a, b));
+                Assertions.assertEquals(Math.min(a, b), adjacency.getEdgeStart(edge));
+                Assertions.assertEquals(Math.max(a, b), adjacency.getEdgeEnd(edge));
+                boolean found = false;
+                for (int j = 0; j < adjacency.getEdgePolygonCount(edge); j++) {
+                    found |= adjacency.getEdgePolygon(edge, j) == polygon;
+                }
+                Assertions.assertTrue(found);
+                ++sides;
+            }
+        }
+        Assertions.assertEquals(sides, adjacency.getEdgePolygons().length);
+    }
+
+    @Test
+    public void openMeshBoundaryAndNeighbours() {
+        // треугольник и четырехугольник с общей стороной 1-2, вершина 5 ни к чему не относится
+        CompactModelBuilder builder = new CompactModelBuilder(6, 2);
+        for (int i = 0; i < 6; i++) {
+            builder.addVertex(i, 0, 0);
+        }
+        builder.addPolygon(polygon(0, 1, 2));
+        builder.addPolygon(polygon(2, 1, 3, 4));
+        MeshAdjacency adjacency = builder.build().getAdjacency();
+
+        Assertions.assertEquals(6, adjacency.getEdgeCount());
+        int shared = adjacency.findEdge(2, 1);
+        Assertions.assertFalse(adjacency.isBoundaryEdge(shared));
+        Assertions.assertTrue(adjacency.isBoundaryEdge(adjacency.findEdge(3, 4)));
+        Assertions.assertEquals(MeshAdjacency.NO_EDGE, adjacency.findEdge(0, 3));
+        Assertions.assertTrue(adjacency.isBoundaryVertex(1));
+
+        List<Integer> neighbours = new ArrayList<>();
+        for (int i = 0; i < adjacency.getVertexEdgeCount(1); i++) {
+            neighbours.add(adjacency.getNeighbour(1, i));
+        }
+        Assertions.assertEquals(List.of(0, 2, 3), neighbours);
+        Assertions.assertEquals(0, adjacency.getVertexPolygonCount(5));
+        Assertions.assertEquals(0, adjacency.getVertexEdgeCount(5));
+    }
+
+    @Test
+    public void repeatedVertexIsListedOnce() {
+        CompactModelBuilder builder = new CompactModelBuilder(3, 1);
+        for (int i = 0; i < 3; i++) {
+            builder.addVertex(i, 0, 0);
+        }
+        builder.addPolygon(polygon(0, 1, 1, 2));
+        MeshAdjacency adjacency = builder.build().getAdjacency();
+
+        Assertions.assertEquals(1, adjacency.getVertexPolygonCount(1));
+        Assertions.assertEquals(3, adjacency.getEdgeCount());
+    }
+
+    @Test
+    public void modelCachesAdjacency() throws IOException {
+        Model model = ObjReader.read(brickFilePath);
+        MeshAdjacency adjacency = model.getAdjacency();
+        Assertions.assertSame(adjacency, model.getAdjacency());
+
+        model.invalidateAdjacency();
+        MeshAdjacency rebuilt = model.getAdjacency();
+        Assertions.assertNotSame(adjacency, rebuilt);
+
+        // правки той же длины модель не замечает, они требуют явного сброса
+        model.polygons.set(0, polygon(0, 1, 7));
+        Assertions.assertSame(rebuilt, model.getAdjacency());
+        model.invalidateAdjacency();
+        Assertions.assertEquals(1, model.getAdjacency().getVertexPolygonCount(7) - rebuilt.getVertexPolygonCount(7));
+
+        model.vertices.add(new Vector3f());
+        Assertions.assertThrows(IllegalStateException.class, model::getAdjacency);
+        model.invalidateAdjacency();
+        Assertions.assertEquals(9, model.getAdjacency().getVertexCount());
+    }
+
+    private static Polygon polygon(Integer... vertexIndices) {
+        Polygon polygon = new Polygon();
+        polygon.setVertexIndices(new ArrayList<>(List.of(vertexIndices)));
+        return polygon;
+    }
+}
@@ -0,0 +1,89 @@
+package cg.vsu.model;
+
+import cg.vsu.objreader.ObjReader;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+public class TriangulationTest {
+    private final String brickFilePath = "src/main/resources/obj/brick.obj";
+    private final String alexFilePath = "src/main/resources/obj/AlexNeutralWrapped.obj";
+
+    @Test
+    public void convexPolygonsAreFans() throws IOException {
+        Model model = ObjReader.read(brickFilePath);
+        Triangulation triangulation = model.getTriangulation();
+
+        Assertions.assertEquals(12, triangulation.getTriangleCount());
+        // первая грань "f 1 2 3 4"
+        Assertions.assertArrayEquals(new int[]{0, 1, 2, 0, 2, 3},
+                Arrays.copyOf(triangulation.getVertexIndices(), 6));
+        for (int triangle = 0; triangle < 12; triangle++) {
+            Assertions.assertEquals(triangle / 2, triangulation.getPolygons()[triangle]);
+        }
+        Assertions.assertSame(triangulation, model.getTriangulation());
+
+        model.polygons.remove(0);
+        Assertions.assertThrows(IllegalStateException.class, model::getTriangulation);
+        model.invalidateTriangulation();
+        Assertions.assertEquals(10, model.getTriangulation().getTriangleCount());
+    }
+
+    @Test
+    public void concavePolygonIsClipped() {
+        // буква L в плоскости x = 1, обход по часовой стрелке при взгляде с +x
+        float[][] l = {{0, 0}, {0, 1}, {1, 1}, {1, 3}, {3, 3}, {3, 0}};
+        CompactModelBuilder builder = new CompactModelBuilder(l.length, 1);
+        for (float[] point : l) {
+            builder.addVertex(1, point[0], point[1]);
+        }
+        builder.addPolygon(polygon(0, 1, 2, 3, 4, 5));
+        CompactModel model = builder.build();
+        Triangulation triangulation = model.getTriangulation();
+
+        Assertions.assertEquals(4, triangulation.getTriangleCount());
+        float area = 0;
+        for (int triangle = 0; triangle < 4; triangle++) {
+            int[] vertices = triangulation.getVertexIndices();
+            float[] a = l[vertices[3 * triangle]];
+            float[] b = l[vertices[3 * triangle + 1]];
+            float[] c = l[vertices[3 * triangle + 2]];
+            float signedArea = ((b[0] - a[0]) * (c[1] - a[1]) - (b[1] - a[1]) * (c[0] - a[0])) / 2;
+            // все треугольники обходятся так же, как многоугольник
+            Assertions.assertTrue(signedArea < 0);
+            area -= signedArea;
+        }
+        Assertions.assertEquals(7, area, 1e-6);
+    }
+
+    @Test
+    public void sameForModelAndCompactModel() throws IOException {
+        Model model = ObjReader.read(alexFilePath);
+        CompactModel compactModel = CompactModel.fromModel(model);
+        Triangulation triangulation = Triangulation.of(model);
+        Triangulation compact = compactModel.getTriangulation();
+
+        Assertions.assertEquals(compactModel.getVertexIndices().length - 2 * compactModel.getPolygonCount(),
+                triangulation.getTriangleCount());
+        Assertions.assertArrayEquals(triangulation.getVertexIndices(), compact.getVertexIndices());
+        Assertions.assertArrayEquals(triangulation.getCorners(), compact.getCorners());
+        for (int polygon = 0; polygon < compactModel.getPolygonCount(); polygon++) {
+            int first = Triangulation.getFirstTriangle(compactModel.getPolygonOffsets(), polygon);
+            Assertions.assertEquals(polygon, compact.getPolygons()[first]);
+        }
+        for (int i = 0; i < compact.getCorners().length; i++) {
+            Assertions.assertEquals(compactModel.getVertexIndices()[compact.getCorners()[i]],
+                    compact.getVertexIndices()[i]);
+        }
+    }
+
+    private static Polygon polygon(Integer... vertexIndices) {
+        Polygon polygon = new Polygon();
+        polygon.setVertexIndices(new ArrayList<>(List.of(vertexIndices)));
+        return polygon;
+    }
+}
@@ -0,0 +1,151 @@
+package cg.vsu.model;
+
+import cg.vsu.math.Vector3f;
+import cg.vsu.objreader.ObjReader;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+public class VertexWelderTest {
+    private final String brickFilePath = "src/main/resources/obj/brick.obj";
+
+    @Test
+    public void exactDuplicatesAreMerged() {
+        float[] positions = {
+                0, 0, 0,
+                1, 0, 0,
+                0, 0, -0.0f,
+                1, 0, 0,
+                1, 1, 0
+        };
+        VertexWelder.Result result = VertexWelder.weld(positions, 0);
+
+        Assertions.assertArrayEquals(new int[]{0, 1, 0, 1, 2}, result.getRemap());
+        Assertions.assertEquals(3, result.getVertexCount());
+        Assertions.assertEquals(2, result.getMergedVertexCount());
+    }
+
+    @Test
+    public void sameAsBruteForce() {
+        Random random = new Random(7);
+        float[] positions = new float[3 * 3000];
+        for (int i = 0; i < positions.length; i++) {
+            // кучно, чтобы было много почти совпадающих вершин и соседних ячеек
+            positions[i] = random.nextInt(20) * 0.01f + (random.nextFloat() - 0.5f) * 0.004f;
+        }
+
+        for (float epsilon : new float[]{0.001f, 0.003f, 0.02f}) {
+            Assertions.assertArrayEquals(bruteForce(positions, epsilon),
+                    VertexWelder.weld(positions, epsilon).getRemap(), "epsilon " + epsilon);
+        }
+    }
+
+    @Test
+    public void neighbourCellsAreSearched() {
+        // ячейки размера 0.4 сдвинуты на половину, поэтому 0.1999 и 0.2001 попадают в разные ячейки
+        float[] positions = {
+                0.1999f, -0.1999f, 5,
+                0.2001f, -0.2001f, 5,
+                0.4f, 0, 5
+        };
+        Assertions.assertArrayEquals(new int[]{0, 0, 1}, VertexWelder.weld(positions, 0.1f).getRemap());
+    }
+
+    @Test
+    public void weldModel() throws IOException {
+        Model original = ObjReader.read(brickFilePath);
+        Model split = splitVertices(original);
+        Assertions.assertTrue(split.vertices.size() > original.vertices.size());
+
+        VertexWelder.Result result = VertexWelder.weld(split, 1e-6f);
+
+        Assertions.assertEquals(split.vertices.size(), result.getVertexCount());
+        Assertions.assertTrue(split.vertices.size() <= original.vertices.size());
+        Assertions.assertEquals(0, result.getDegeneratePolygonCount());
+        for (int i = 0; i < original.polygons.size(); i++) {
+            List<Integer> expected = original.polygons.get(i).getVertexIndices();
+            List<Integer> actual = split.polygons.get(i).getVertexIndices();
+            for (int j = 0; j < expected.size(); j++) {
+                Assertions.assertTrue(original.vertices.get(expected.get(j))
+                        .epsEquals(split.vertices.get(actual.get(j)), 1e-6f));
+            }
+        }
+    }
+
+    @Test
+    public void weldCompactModel() throws IOException {
+        Model split = splitVertices(ObjReader.read(brickFilePath));
+        CompactModel compactModel = CompactModel.fromModel(split);
+
+        CompactModel welded = VertexWelder.weld(compactModel, 1e-6f);
+        VertexWelder.weld(split, 1e-6f);
+
+        Assertions.assertEquals(split.vertices, welded.vertexList());
+        for (int i = 0; i < split.polygons.size(); i++) {
+            Assertions.assertEquals(split.polygons.get(i).getVertexIndices(),
+                    welded.polygonList().get(i).getVertexIndices());
+        }
+        Assertions.assertSame(compactModel.getPolygonOffsets(), welded.getPolygonOffsets());
+    }
+
+    @Test
+    public void degeneratePolygonsAreReported() {
+        Model model = new Model();
+        model.vertices.add(new Vector3f(0, 0, 0));
+        model.vertices.add(new Vector3f(0.0001f, 0, 0));
+        model.vertices.add(new Vector3f(1, 0, 0));
+        Polygon polygon = new Polygon();
+        polygon.setVertexIndices(new ArrayList<>(List.of(0, 1, 2)));
+        model.polygons.add(polygon);
+
+        VertexWelder.Result result = VertexWelder.weld(model, 0.001f);
+        Assertions.assertEquals(1, result.getDegeneratePolygonCount());
+        Assertions.assertEquals(List.of(0, 0, 1), polygon.getVertexIndices());
+        Assertions.assertEquals(2, model.vertices.size());
+    }
+
+    /**
+     * Every polygon gets its own copies of its vertices, like exporters writing vertices per face.
+     */
+    private static Model splitVertices(Model model) {
+        Model result = new Model();
+        for (Polygon polygon : model.polygons) {
+            ArrayList<Integer> indices = new ArrayList<>();
+            for (Integer index : polygon.getVertexIndices()) {
+                indices.add(result.vertices.size());
+                result.vertices.add(model.vertices.get(index).cpy());
+            }
+            Polygon copy = new Polygon();
+            copy.setVertexIndices(indices);
+            result.polygons.add(copy);
+        }
+        return result;
+    }
+
+    private static int[] bruteForce(float[] positions, float epsilon) {
+        final int count = positions.length / 3;
+        int[] remap = new int[count];
+        List<Integer> kept = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            Vector3f vertex = new Vector3f(positions[3 * i], positions[3 * i + 1], positions[3 * i + 2]);
+            remap[i] = -1;
+            for (int k = 0; k < kept.size(); k++) {
+                int j = kept.get(k);
+                if (vertex.epsEquals(new Vector3f(positions[3 * j], positions[3 * j + 1], positions[3 * j + 2]),
+                        epsilon)) {
+                    remap[i] = k;
+                    break;
+                }
+            }
+            if (remap[i] < 0) {
+                remap[i] = kept.size();
+                kept.add(i);
+            }
+        }
+        return remap;
+    }
+}
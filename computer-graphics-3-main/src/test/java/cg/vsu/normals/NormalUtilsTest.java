@@ -1,8 +1,10 @@
 package cg.vsu.normals;
 
 import cg.vsu.math.GeometryUtils;
+import cg.vsu.model.CompactModel;
 import cg.vsu.model.Model;
 import cg.vsu.model.Polygon;
+import cg.vsu.model.PolygonGroup;
 import cg.vsu.math.Vector3f;
 import cg.vsu.objreader.ObjReader;
 import org.junit.jupiter.api.Assertions;
@@ -11,10 +13,12 @@ import org.junit.jupiter.api.Test;
 import java.io.FileNotFoundException;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ForkJoinPool;
 
 public class NormalUtilsTest {
-    private final String brickFilePath =  "C:\\Users\\user\\IdeaProjects\\computer-graphics-3-main\\src\\main\\resources\\obj\\brick.obj";
-    private final String pyramidFilePath =  "C:\\Users\\user\\IdeaProjects\\computer-graphics-3-main\\src\\main\\resources\\obj\\pyramid.obj";
+    private final String brickFilePath = "src/main/resources/obj/brick.obj";
+    private final String pyramidFilePath = "src/main/resources/obj/pyramid.obj";
+    private final String alexFilePath = "src/main/resources/obj/AlexNeutralWrapped.obj";
 
     @Test
     public void normalToPolygon1() throws FileNotFoundException {
@@ -123,4 +127,287 @@ public class NormalUtilsTest {
 
         Assertions.assertTrue(expected.nor().epsEquals(result.nor(), (float) 1e-7));
     }
+
+    @Test
+    public void vertexNormalsMatchNormalToVertex() throws FileNotFoundException {
+        for (String filePath : List.of(brickFilePath, pyramidFilePath)) {
+            Model model = ObjReader.read(filePath);
+
+            float[] result = NormalUtils.vertexNormals(model.vertices, model.polygons);
+
+            Assertions.assertEquals(3 * model.vertices.size(), result.length);
+            for (int i = 0; i < model.vertices.size(); i++) {
+                Vector3f expected = NormalUtils.normalToVertex(model.vertices.get(i), model.vertices, model.polygons);
+                Assertions.assertTrue(expected.epsEquals(new Vector3f(result[3 * i], result[3 * i + 1],
+                        result[3 * i + 2]), (float) 1e-6), filePath + " vertex " + i);
+            }
+        }
+    }
+
+    @Test
+    public void vertexNormalsShareEqualPositions() {
+        // вершина 3 совпадает с вершиной 0, поэтому обе получают нормаль обоих треугольников
+        List<Vector3f> vertices = List.of(new Vector3f(0, 0, 0), new Vector3f(1, 0, 0), new Vector3f(0, 1, 0),
+                new Vector3f(0, 0, 0), new Vector3f(0, 0, 1), new Vector3f(5, 5, 5));
+        List<Polygon> polygons = List.of(polygon(0, 1, 2), polygon(3, 4, 1));
+
+        float[] result = NormalUtils.vertexNormals(vertices, polygons);
+
+        for (int i : new int[]{0, 3}) {
+            Vector3f expected = NormalUtils.normalToVertex(vertices.get(i), vertices, polygons);
+            Assertions.assertTrue(expected.epsEquals(new Vector3f(result[3 * i], result[3 * i + 1],
+                    result[3 * i + 2]), (float) 1e-6));
+        }
+        Assertions.assertEquals(new Vector3f(), new Vector3f(result[15], result[16], result[17]));
+    }
+
+    @Test
+    public void compactVertexNormals() throws FileNotFoundException {
+        Model model = ObjReader.read(brickFilePath);
+
+        Assertions.assertArrayEquals(NormalUtils.vertexNormals(model.vertices, model.polygons),
+                NormalUtils.vertexNormals(CompactModel.fromModel(model)));
+    }
+
+    @Test
+    public void recalculateVertexNormals() throws FileNotFoundException {
+        Model model = ObjReader.read(pyramidFilePath);
+
+        NormalUtils.recalculateVertexNormals(model);
+
+        Assertions.assertEquals(model.vertices.size(), model.normals.size());
+        for (Polygon polygon : model.polygons) {
+            Assertions.assertEquals(polygon.getVertexIndices(), polygon.getNormalIndices());
+        }
+        Vector3f expected = NormalUtils.normalToVertex(model.vertices.get(3), model.vertices, model.polygons);
+        Assertions.assertTrue(expected.epsEquals(model.normals.get(3), (float) 1e-6));
+    }
+
+    @Test
+    public void parallelVertexNormalsAreBitIdentical() throws FileNotFoundException {
+        Model model = ObjReader.read(alexFilePath);
+        CompactModel compactModel = CompactModel.fromModel(model);
+        float[] expected = NormalUtils.vertexNormals(compactModel);
+
+        Assertions.assertArrayEquals(expected, NormalUtils.vertexNormalsParallel(compactModel));
+        Assertions.assertArrayEquals(expected, NormalUtils.vertexNormalsParallel(model.vertices, model.polygons));
+        for (int threads : new int[]{1, 3, 8}) {
+            ForkJoinPool pool = new ForkJoinPool(threads);
+            try {
+                // мелкие части, чтобы работа действительно делилась между потоками
+                Assertions.assertArrayEquals(expected, ParallelNormals.vertexNormals(compactModel.getPositions(),
+                        compactModel.getPolygonOffsets(), compactModel.getVertexIndices(), pool, 16));
+            } finally {
+                pool.shutdown();
+            }
+        }
+    }
+
+    @Test
+    public void parallelVertexNormalsShareEqualPositions() {
+        List<Vector3f> vertices = List.of(new Vector3f(0, 0, 0), new Vector3f(1, 0, 0), new Vector3f(0, 1, 0),
+                new Vector3f(0, 0, 0), new Vector3f(0, 0, 1), new Vector3f(5, 5, 5));
+        List<Polygon> polygons = List.of(polygon(0, 1, 2), polygon(3, 4, 1), polygon(0, 3, 5));
+
+        Assertions.assertArrayEquals(NormalUtils.vertexNormals(vertices, polygons),
+                NormalUtils.vertexNormalsParallel(vertices, polygons));
+    }
+
+    @Test
+    public void normalToPolygonIntoOutput() throws FileNotFoundException {
+        Model model = ObjReader.read(alexFilePath);
+        CompactModel compactModel = CompactModel.fromModel(model);
+        Vector3f out = new Vector3f();
+        float[] packed = new float[3 * model.polygons.size()];
+
+        for (int i = 0; i < model.polygons.size(); i++) {
+            Vector3f expected = NormalUtils.normalToPolygon(model.polygons.get(i), model.vertices);
+
+            Assertions.assertSame(out, NormalUtils.normalToPolygon(model.polygons.get(i), model.vertices, out));
+            Assertions.assertEquals(expected, out);
+            Assertions.assertEquals(expected, NormalUtils.normalToPolygon(compactModel, i, out.setZero()));
+            NormalUtils.normalToPolygon(compactModel, i, packed, 3 * i);
+            Assertions.assertEquals(expected, new Vector3f(packed[3 * i], packed[3 * i + 1], packed[3 * i + 2]));
+        }
+    }
+
+    @Test
+    public void degenerateNormalToPolygonIsZero() {
+        List<Vector3f> vertices = List.of(new Vector3f(0, 0, 0), new Vector3f(1, 1, 1), new Vector3f(2, 2, 2));
+        Model model = new Model();
+        model.vertices.addAll(vertices);
+        model.polygons.add(polygon(0, 1, 2));
+        float[] packed = {7, 7, 7};
+
+        NormalUtils.normalToPolygon(CompactModel.fromModel(model), 0, packed, 0);
+
+        Assertions.assertEquals(new Vector3f(), NormalUtils.normalToPolygon(polygon(0, 1, 2), vertices,
+                new Vector3f(1, 2, 3)));
+        Assertions.assertArrayEquals(new float[3], packed);
+    }
+
+    @Test
+    public void normalToVertexWithAdjacency() throws FileNotFoundException {
+        Model model = ObjReader.read(alexFilePath);
+
+        for (int i = 0; i < model.vertices.size(); i += 97) {
+            Vector3f expected = NormalUtils.normalToVertex(model.vertices.get(i), model.vertices, model.polygons);
+            Vector3f result = NormalUtils.normalToVertex(i, model.vertices, model.polygons, model.getAdjacency());
+            Assertions.assertTrue(expected.epsEquals(result, (float) 1e-6), "vertex " + i);
+        }
+    }
+
+    @Test
+    public void smoothNormalsWithoutCreasesMatchVertexNormals() throws FileNotFoundException {
+        Model model = ObjReader.read(brickFilePath);
+        float[] expected = NormalUtils.vertexNormals(model.vertices, model.polygons);
+
+        NormalUtils.recalculateNormals(model, NormalWeighting.UNIFORM, 180);
+
+        Assertions.assertEquals(model.vertices.size(), model.normals.size());
+        for (Polygon polygon : model.polygons) {
+            for (int i = 0; i < polygon.getVertexIndices().size(); i++) {
+                int vertex = polygon.getVertexIndices().get(i);
+                Assertions.assertTrue(model.normals.get(polygon.getNormalIndices().get(i)).epsEquals(new Vector3f(
+                        expected[3 * vertex], expected[3 * vertex + 1], expected[3 * vertex + 2]), (float) 1e-6));
+            }
+        }
+    }
+
+    @Test
+    public void creaseAngleSplitsSharpEdges() throws FileNotFoundException {
+        Model model = ObjReader.read(brickFilePath);
+
+        NormalUtils.recalculateNormals(model, NormalWeighting.ANGLE, 30);
+
+        // у каждой из 8 вершин кирпича три грани под прямым углом
+        Assertions.assertEquals(24, model.normals.size());
+        for (Polygon polygon : model.polygons) {
+            Vector3f expected = NormalUtils.normalToPolygon(polygon, model.vertices);
+            for (Integer normal : polygon.getNormalIndices()) {
+                Assertions.assertTrue(expected.epsEquals(model.normals.get(normal), (float) 1e-6));
+            }
+        }
+
+        CompactModel compactModel = NormalUtils.recalculateNormals(
+                CompactModel.fromModel(ObjReader.read(brickFilePath)), NormalWeighting.ANGLE, 30);
+        Assertions.assertEquals(model.normals, compactModel.normalList());
+        Assertions.assertArrayEquals(CompactModel.fromModel(model).getNormalIndices(), compactModel.getNormalIndices());
+    }
+
+    @Test
+    public void angleWeightingIgnoresTriangulation() {
+        // угол куба в начале координат, грань z = 0 разбита на два треугольника
+        Model model = new Model();
+        model.vertices.addAll(List.of(new Vector3f(0, 0, 0), new Vector3f(1, 0, 0), new Vector3f(1, 1, 0),
+                new Vector3f(0, 1, 0), new Vector3f(0, 1, 1), new Vector3f(0, 0, 1), new Vector3f(1, 0, 1)));
+        model.polygons.addAll(List.of(polygon(0, 1, 2), polygon(0, 2, 3), polygon(0, 3, 4, 5), polygon(0, 5, 6, 1)));
+        Vector3f diagonal = new Vector3f(1, 1, 1).nor();
+
+        NormalUtils.recalculateNormals(model, NormalWeighting.ANGLE, 180);
+        Assertions.assertTrue(diagonal.epsEquals(model.normals.get(model.polygons.get(2).getNormalIndices().get(0)),
+                (float) 1e-6));
+
+        NormalUtils.recalculateNormals(model, NormalWeighting.UNIFORM, 180);
+        Assertions.assertTrue(new Vector3f(1, 1, 2).nor().epsEquals(
+                model.normals.get(model.polygons.get(2).getNormalIndices().get(0)), (float) 1e-6));
+    }
+
+    @Test
+    public void areaWeighting() {
+        // большой треугольник в плоскости z = 0 и маленький в плоскости x = 0 с общей вершиной 0
+        Model model = new Model();
+        model.vertices.addAll(List.of(new Vector3f(0, 0, 0), new Vector3f(4, 0, 0), new Vector3f(0, 4, 0),
+                new Vector3f(0, 1, 0), new Vector3f(0, 0, 1)));
+        model.polygons.addAll(List.of(polygon(0, 1, 2), polygon(0, 3, 4)));
+
+        NormalUtils.recalculateNormals(model, NormalWeighting.AREA, 180);
+
+        Vector3f expected = new Vector3f(0.5f, 0, 8).nor();
+        Assertions.assertTrue(expected.epsEquals(model.normals.get(model.polygons.get(0).getNormalIndices().get(0)),
+                (float) 1e-6));
+    }
+
+    @Test
+    public void wideFanIsSummedOnce() {
+        // крышка цилиндра: 100000 треугольников вокруг центра, попарное сравнение заняло бы минуты
+        final int sides = 100_000;
+        Model model = new Model();
+        model.vertices.add(new Vector3f());
+        for (int i = 0; i < sides; i++) {
+            double angle = 2 * Math.PI * i / sides;
+            model.vertices.add(new Vector3f((float) Math.cos(angle), 0, (float) Math.sin(angle)));
+            model.polygons.add(polygon(0, 1 + (i + 1) % sides, 1 + i));
+        }
+
+        NormalUtils.recalculateNormals(model, NormalWeighting.AREA, 30);
+
+        Assertions.assertEquals(model.vertices.size(), model.normals.size());
+        final Integer center = model.polygons.get(0).getNormalIndices().get(0);
+        for (Polygon polygon : model.polygons) {
+            Assertions.assertEquals(center, polygon.getNormalIndices().get(0));
+        }
+        Assertions.assertTrue(new Vector3f(0, 1, 0).epsEquals(model.normals.get(center), (float) 1e-6));
+    }
+
+    @Test
+    public void smoothingGroups() throws FileNotFoundException {
+        Model model = ObjReader.read(brickFilePath);
+        model.groups.add(new PolygonGroup(PolygonGroup.Type.SMOOTHING, "off", 0, model.polygons.size()));
+
+        NormalUtils.recalculateNormals(model, NormalWeighting.UNIFORM, 180);
+        Assertions.assertEquals(24, model.normals.size());
+
+        model.groups.clear();
+        model.groups.add(new PolygonGroup(PolygonGroup.Type.SMOOTHING, "1", 0, 3));
+        model.groups.add(new PolygonGroup(PolygonGroup.Type.SMOOTHING, "2", 3, model.polygons.size()));
+        NormalUtils.recalculateNormals(model, NormalWeighting.UNIFORM, 180);
+        Assertions.assertTrue(model.normals.size() > model.vertices.size());
+        Assertions.assertTrue(model.normals.size() < 24);
+    }
+
+    @Test
+    public void incrementalNormalsMatchFullRecalculation() throws FileNotFoundException {
+        CompactModel model = CompactModel.fromModel(ObjReader.read(alexFilePath));
+        IncrementalNormals incremental = new IncrementalNormals(model);
+        Assertions.assertArrayEquals(new IncrementalNormals(model).getNormals(), incremental.getNormals());
+
+        // сдвигаем каждую сотую вершину, одну из них дважды
+        float[] positions = incremental.getPositions();
+        int[] moved = new int[model.getVertexCount() / 100 + 1];
+        for (int i = 0; i + 1 < moved.length; i++) {
+            moved[i] = 100 * i;
+            positions[3 * moved[i] + 1] += 0.5f * (float) Math.sin(i);
+        }
+        moved[moved.length - 1] = moved[0];
+        incremental.update(moved);
+
+        Assertions.assertArrayEquals(new IncrementalNormals(incremental.getModel()).getNormals(),
+                incremental.getNormals());
+        Assertions.assertSame(incremental.getNormals(), incremental.getModel().getNormals());
+    }
+
+    @Test
+    public void incrementalNormalsOfBrick() throws FileNotFoundException {
+        CompactModel model = CompactModel.fromModel(ObjReader.read(brickFilePath));
+        IncrementalNormals incremental = new IncrementalNormals(model);
+        Assertions.assertArrayEquals(NormalUtils.vertexNormals(model), incremental.getNormals());
+
+        // вершина 0 уходит далеко, нормаль противоположной вершины 6 не меняется
+        float[] before = incremental.getNormals().clone();
+        incremental.getPositions()[0] -= 10;
+        incremental.update(0);
+        Assertions.assertArrayEquals(NormalUtils.vertexNormals(incremental.getModel()), incremental.getNormals());
+        Assertions.assertFalse(before[0] == incremental.getNormals()[0] && before[1] == incremental.getNormals()[1]
+                && before[2] == incremental.getNormals()[2]);
+        for (int i = 18; i < 21; i++) {
+            Assertions.assertEquals(before[i], incremental.getNormals()[i]);
+        }
+    }
+
+    private static Polygon polygon(Integer... vertexIndices) {
+        Polygon polygon = new Polygon();
+        polygon.setVertexIndices(new ArrayList<>(List.of(vertexIndices)));
+        return polygon;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,109 @@
+package cg.vsu.objreader;
+
+import cg.vsu.model.CompactModel;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+public class BinaryMeshCacheTest {
+    private final Path alexFilePath = Path.of("src/main/resources/obj/AlexNeutralWrapped.obj");
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    public void readCachedWritesAndReusesSidecar() throws IOException {
+        Path source = Files.copy(alexFilePath, tempDir.resolve("alex.obj"));
+        Path sidecar = BinaryMeshCache.sidecarPath(source);
+
+        CompactModel parsed = ObjReader.readCached(source.toString());
+        Assertions.assertTrue(Files.exists(sidecar));
+
+        CompactModel loaded = BinaryMeshCache.load(source, sidecar);
+        Assertions.assertNotNull(loaded);
+        assertSameModel(parsed, loaded);
+        assertSameModel(parsed, ObjReader.readCached(source.toString()));
+    }
+
+    @Test
+    public void staleSidecarIsIgnored() throws IOException {
+        Path source = Files.writeString(tempDir.resolve("quad.obj"), "v 0 0 0\nv 1 0 0\nv 1 1 0\nv 0 1 0\nf 1 2 3 4\n");
+        Path sidecar = BinaryMeshCache.sidecarPath(source);
+        FileTime modified = Files.getLastModifiedTime(source);
+        BinaryMeshCache.write(ObjReader.readCompact(source.toString()), source, sidecar);
+        Assertions.assertNotNull(BinaryMeshCache.load(source, sidecar));
+
+        // same size and modification time, different content
+        Files.writeString(source, "v 0 0 0\nv 2 0 0\nv 1 1 0\nv 0 1 0\nf 1 2 3 4\n");
+        Files.setLastModifiedTime(source, modified);
+        Assertions.assertNull(BinaryMeshCache.load(source, sidecar));
+
+        CompactModel reparsed = BinaryMeshCache.readOrParse(source);
+        Assertions.assertEquals(2.0f, reparsed.getPositions()[3]);
+        Assertions.assertNotNull(BinaryMeshCache.load(source, sidecar));
+    }
+
+    @Test
+    public void damagedSidecarIsIgnored() throws IOException {
+        Path source = Files.copy(alexFilePath, tempDir.resolve("alex.obj"), StandardCopyOption.REPLACE_EXISTING);
+        Path sidecar = BinaryMeshCache.sidecarPath(source);
+        BinaryMeshCache.write(ObjReader.readCompact(source.toString()), source, sidecar);
+
+        byte[] bytes = Files.readAllBytes(sidecar);
+        Files.write(sidecar, Arrays.copyOf(bytes, bytes.length - 4));
+        Assertions.assertNull(BinaryMeshCache.load(source, sidecar));
+
+        bytes[8] = (byte) (BinaryMeshCache.VERSION + 1);
+        Files.write(sidecar, bytes);
+        Assertions.assertNull(BinaryMeshCache.load(source, sidecar));
+
+        Assertions.assertNull(BinaryMeshCache.load(source, tempDir.resolve("missing.cmesh")));
+    }
+
+    @Test
+    public void sectionsSpanSeveralWindows() throws IOException {
+        Path source = Files.copy(alexFilePath, tempDir.resolve("alex.obj"));
+        Path sidecar = BinaryMeshCache.sidecarPath(source);
+        CompactModel parsed = ObjReader.readCompact(source.toString());
+        long[] stamp = BinaryMeshCache.stamp(source);
+
+        BinaryMeshCache.write(parsed, stamp, sidecar, 7);
+        assertSameModel(parsed, BinaryMeshCache.load(stamp, sidecar, 5));
+        assertSameModel(parsed, BinaryMeshCache.load(source, sidecar));
+    }
+
+    @Test
+    public void failedWriteStillReturnsModel() throws IOException {
+        Path source = Files.writeString(tempDir.resolve("quad.obj"), "v 0 0 0\nv 1 0 0\nv 1 1 0\nv 0 1 0\nf 1 2 3 4\n");
+        // a non-empty directory where the sidecar goes cannot be read or replaced by a file
+        Path sidecar = Files.createDirectory(BinaryMeshCache.sidecarPath(source));
+        Files.writeString(sidecar.resolve("keep"), "");
+
+        List<IOException> errors = new ArrayList<>();
+        CompactModel model = BinaryMeshCache.readOrParse(source, errors::add);
+        Assertions.assertEquals(4, model.getVertexCount());
+        Assertions.assertEquals(2, errors.size());
+        try (var files = Files.list(tempDir)) {
+            Assertions.assertEquals(2, files.count());
+        }
+    }
+
+    private static void assertSameModel(CompactModel expected, CompactModel actual) {
+        Assertions.assertArrayEquals(expected.getPositions(), actual.getPositions());
+        Assertions.assertArrayEquals(expected.getTextureVertices(), actual.getTextureVertices());
+        Assertions.assertArrayEquals(expected.getNormals(), actual.getNormals());
+        Assertions.assertArrayEquals(expected.getPolygonOffsets(), actual.getPolygonOffsets());
+        Assertions.assertArrayEquals(expected.getVertexIndices(), actual.getVertexIndices());
+        Assertions.assertArrayEquals(expected.getTextureVertexIndices(), actual.getTextureVertexIndices());
+        Assertions.assertArrayEquals(expected.getNormalIndices(), actual.getNormalIndices());
+    }
+}
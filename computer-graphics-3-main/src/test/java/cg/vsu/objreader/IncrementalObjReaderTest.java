@@ -0,0 +1,147 @@
+package cg.vsu.objreader;
+
+import cg.vsu.math.Vector3f;
+import cg.vsu.model.Model;
+import cg.vsu.model.ModelChangeSet;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+public class IncrementalObjReaderTest {
+    @TempDir
+    Path tempDir;
+
+    @Test
+    public void firstReloadReadsWholeFile() throws IOException {
+        Path file = write(grid(20));
+        IncrementalObjReader reader = new IncrementalObjReader(file, 64);
+
+        ModelChangeSet changeSet = reader.reload();
+        MappedObjReaderTest.assertSameModel(ObjReader.read(file.toString()), reader.getModel());
+        Assertions.assertEquals(new ModelChangeSet.Range(0, 21, 0, 21).toString(), changeSet.getVertices().toString());
+        Assertions.assertEquals(20, changeSet.getPolygons().getTo());
+        Assertions.assertTrue(reader.reload().isEmpty());
+    }
+
+    @Test
+    public void appendedLinesAreParsedAlone() throws IOException {
+        Path file = write(grid(20));
+        IncrementalObjReader reader = new IncrementalObjReader(file, 64);
+        reader.reload();
+        Vector3f firstVertex = reader.getModel().vertices.get(0);
+
+        Files.writeString(file, grid(20) + "v 100 0 0\nf 1 2 -1\n");
+        ModelChangeSet changeSet = reader.reload();
+
+        MappedObjReaderTest.assertSameModel(ObjReader.read(file.toString()), reader.getModel());
+        Assertions.assertSame(firstVertex, reader.getModel().vertices.get(0));
+        Assertions.assertEquals(21, changeSet.getVertices().getFrom());
+        Assertions.assertEquals(22, changeSet.getVertices().getTo());
+        Assertions.assertTrue(changeSet.getVertices().isResized());
+        Assertions.assertEquals(20, changeSet.getPolygons().getFrom());
+        Assertions.assertEquals(List.of(0, 1, 21), reader.getModel().polygons.get(20).getVertexIndices());
+    }
+
+    @Test
+    public void unterminatedLastLineIsReparsed() throws IOException {
+        Path file = write("v 0 0 0\nv 1 0 0\nv 1 1 0");
+        IncrementalObjReader reader = new IncrementalObjReader(file, 8);
+        reader.reload();
+        Assertions.assertEquals(1.0f, reader.getModel().vertices.get(2).y);
+
+        Files.writeString(file, "v 0 0 0\nv 1 0 0\nv 1 1 07\nf 1 2 3\n");
+        reader.reload();
+        MappedObjReaderTest.assertSameModel(ObjReader.read(file.toString()), reader.getModel());
+        Assertions.assertEquals(7.0f, reader.getModel().vertices.get(2).z);
+    }
+
+    @Test
+    public void editedVertexIsPatchedInPlace() throws IOException {
+        Path file = write(grid(40));
+        IncrementalObjReader reader = new IncrementalObjReader(file, 64);
+        reader.reload();
+        Model model = reader.getModel();
+        Vector3f lastVertex = model.vertices.get(40);
+
+        Files.writeString(file, grid(40).replace("v 17 0 0\n", "v 17 5 0\n"));
+        ModelChangeSet changeSet = reader.reload();
+
+        MappedObjReaderTest.assertSameModel(ObjReader.read(file.toString()), model);
+        Assertions.assertEquals(new ModelChangeSet.Range(17, 18, 41, 41).toString(), changeSet.getVertices().toString());
+        Assertions.assertTrue(changeSet.getPolygons().isEmpty());
+        Assertions.assertSame(lastVertex, model.vertices.get(40));
+    }
+
+    @Test
+    public void insertedVertexReparsesTheRest() throws IOException {
+        Path file = write(grid(40));
+        IncrementalObjReader reader = new IncrementalObjReader(file, 64);
+        reader.reload();
+
+        Files.writeString(file, grid(40).replace("v 17 0 0\n", "v 17 0 0\nv 17 1 0\n"));
+        ModelChangeSet changeSet = reader.reload();
+
+        MappedObjReaderTest.assertSameModel(ObjReader.read(file.toString()), reader.getModel());
+        Assertions.assertTrue(changeSet.getVertices().getFrom() <= 18);
+        Assertions.assertEquals(42, changeSet.getVertices().getTo());
+    }
+
+    @Test
+    public void failedReloadKeepsModel() throws IOException {
+        Path file = write(grid(20));
+        IncrementalObjReader reader = new IncrementalObjReader(file, 64);
+        reader.reload();
+
+        Files.writeString(file, grid(20) + "v 1 x 0\n");
+        Assertions.assertThrows(ObjReaderException.class, reader::reload);
+        Assertions.assertEquals(21, reader.getModel().vertices.size());
+
+        Files.writeString(file, grid(20) + "v 1 2 0\n");
+        reader.reload();
+        MappedObjReaderTest.assertSameModel(ObjReader.read(file.toString()), reader.getModel());
+    }
+
+    @Test
+    public void watcherReloadsOnSave() throws Exception {
+        Path file = write(grid(20));
+        IncrementalObjReader reader = new IncrementalObjReader(file, 64);
+        reader.reload();
+
+        CompletableFuture<ModelChangeSet> changed = new CompletableFuture<>();
+        ObjFileWatcher watcher = new ObjFileWatcher(reader, changed::complete, changed::completeExceptionally);
+        try {
+            Files.writeString(file, grid(20) + "v 100 0 0\n");
+            ModelChangeSet changeSet = changed.get(10, TimeUnit.SECONDS);
+            Assertions.assertEquals(21, changeSet.getVertices().getFrom());
+        } finally {
+            watcher.close();
+        }
+        Assertions.assertEquals(22, reader.getModel().vertices.size());
+    }
+
+    /**
+     * A strip of vertices {@code (i, 0, 0)} and triangles over consecutive vertices.
+     */
+    private static String grid(int faces) {
+        StringBuilder content = new StringBuilder();
+        for (int i = 0; i <= faces; i++) {
+            content.append("v ").append(i).append(" 0 0\n");
+        }
+        for (int i = 1; i <= faces; i++) {
+            content.append("f ").append(i).append(' ').append(i + 1).append(' ').append(i == faces ? 1 : i + 2)
+                    .append('\n');
+        }
+        return content.toString();
+    }
+
+    private Path write(String content) throws IOException {
+        return Files.writeString(tempDir.resolve("model.obj"), content);
+    }
+}
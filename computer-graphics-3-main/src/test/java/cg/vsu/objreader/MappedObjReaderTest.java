@@ -0,0 +1,267 @@
+package cg.vsu.objreader;
+
+import cg.vsu.model.Model;
+import cg.vsu.model.Polygon;
+import cg.vsu.model.PolygonGroup;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+public class MappedObjReaderTest {
+    private final String brickFilePath = "src/main/resources/obj/brick.obj";
+    private final String pyramidFilePath = "src/main/resources/obj/pyramid.obj";
+    private final String alexFilePath = "src/main/resources/obj/AlexNeutralWrapped.obj";
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    public void sameModelAsScanner1() throws IOException {
+        assertSameModel(ObjReader.read(brickFilePath), ObjReader.readMapped(brickFilePath));
+    }
+
+    @Test
+    public void sameModelAsScanner2() throws IOException {
+        assertSameModel(ObjReader.read(pyramidFilePath), ObjReader.readMapped(pyramidFilePath));
+    }
+
+    @Test
+    public void sameModelAsScanner3() throws IOException {
+        assertSameModel(ObjReader.read(alexFilePath), ObjReader.readMapped(alexFilePath));
+    }
+
+    @Test
+    public void smallWindows() throws IOException {
+        Model expected = ObjReader.read(alexFilePath);
+        for (int windowSize : new int[]{64, 100, 4097}) {
+            assertSameModel(expected, readMapped(Path.of(alexFilePath), windowSize));
+        }
+    }
+
+    @Test
+    public void lineEndings() throws IOException {
+        String content = "v 1 2 3\r\nv 4 5 6\rv 7 8 9\n\n  v 0 0 0\nvt 0.5 0.25\nvn 0 0 1\nf 1/1/1 2//1 3/1\n";
+        Path file = write(content);
+
+        Model model = ObjReader.read(file.toString());
+        assertSameModel(model, ObjReader.readMapped(file.toString()));
+        Assertions.assertEquals(List.of(0, ObjHandler.NO_INDEX, 0), model.polygons.get(0).getTextureVertexIndices());
+        Assertions.assertEquals(List.of(0, 0, ObjHandler.NO_INDEX), model.polygons.get(0).getNormalIndices());
+        for (int windowSize = 18; windowSize < content.length(); windowSize++) {
+            assertSameModel(ObjReader.read(file.toString()), readMapped(file, windowSize));
+        }
+    }
+
+    @Test
+    public void faceAttributesAndGroups() throws IOException {
+        Path file = write("""
+                o box
+                v 0 0 0
+                v 1 0 0
+                v 1 1 0
+                v 0 1 0
+                vt 0 0
+                vt 1 0
+                vt 1 1
+                vn 0 0 1
+                vn 0 0 -1
+                g  left 	side
+                usemtl brick
+                s 1
+                f 1/1/1 2/2/1 3/3/1
+                f -4/-3/-2 -2/-1/-2 -1//-1
+                s off
+                g
+                f 1 2 3 4
+                """);
+        Model expected = ObjReader.read(file.toString());
+        Model model = ObjReader.readMapped(file.toString());
+        assertSameModel(expected, model);
+
+        Polygon first = model.polygons.get(0);
+        Assertions.assertEquals(List.of(0, 1, 2), first.getTextureVertexIndices());
+        Assertions.assertEquals(List.of(0, 0, 0), first.getNormalIndices());
+        Polygon second = model.polygons.get(1);
+        Assertions.assertEquals(List.of(0, 2, 3), second.getVertexIndices());
+        // у последней вершины нет текстуры, и ее место в списке занимает NO_INDEX
+        Assertions.assertEquals(List.of(0, 2, ObjHandler.NO_INDEX), second.getTextureVertexIndices());
+        Assertions.assertEquals(List.of(0, 0, 1), second.getNormalIndices());
+        Assertions.assertTrue(model.polygons.get(2).getTextureVertexIndices().isEmpty());
+
+        Assertions.assertEquals(6, model.groups.size());
+        assertGroup(model.groups.get(0), PolygonGroup.Type.OBJECT, "box", 0, 3);
+        assertGroup(model.groups.get(1), PolygonGroup.Type.GROUP, "left side", 0, 2);
+        assertGroup(model.groups.get(2), PolygonGroup.Type.MATERIAL, "brick", 0, 3);
+        assertGroup(model.groups.get(3), PolygonGroup.Type.SMOOTHING, "1", 0, 2);
+        assertGroup(model.groups.get(4), PolygonGroup.Type.SMOOTHING, "off", 2, 3);
+        assertGroup(model.groups.get(5), PolygonGroup.Type.GROUP, "", 2, 3);
+        Assertions.assertSame(model.groups.get(4),
+                PolygonGroup.find(model.groups, PolygonGroup.Type.SMOOTHING, 2));
+    }
+
+    @Test
+    public void equalIndicesShareBoxes() throws IOException {
+        Model model = ObjReader.readMapped(alexFilePath);
+        Polygon polygon = model.polygons.get(model.polygons.size() - 1);
+        Integer vertexIndex = polygon.getVertexIndices().get(0);
+        Assertions.assertTrue(vertexIndex > 127);
+
+        for (Polygon other : model.polygons) {
+            for (Integer index : other.getVertexIndices()) {
+                if (index.equals(vertexIndex)) {
+                    Assertions.assertSame(vertexIndex, index);
+                }
+            }
+            for (Integer index : other.getTextureVertexIndices()) {
+                if (index.equals(vertexIndex)) {
+                    Assertions.assertSame(vertexIndex, index);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void sameErrorLines() throws IOException {
+        String[] broken = {
+                "v 1 2 3\n\nv 1 2\n",
+                "v 1 2 3\n   \nv 1 2\n",
+                "v 1 2 3\n \t\r\n\n vn 1\nvt 1\n",
+                "v 1 2 3\r\nvt 1\r\n",
+                "v 1 2 3\nvn 1 x 3\n",
+                "v 1 2 3\nf 1 2 3/4/5/6\n",
+                "v 1 2 3\n# comment\nf 1 2 /3\n",
+                "v 1 2 3\nf 1 2 99999999999\n",
+                "v 1 2 3\nf 1/a 2 3\n",
+                "v 1 2 3\nf 1 2 //\n"
+        };
+        for (String content : broken) {
+            Path file = write(content);
+            ObjReaderException expected = Assertions.assertThrows(ObjReaderException.class,
+                    () -> ObjReader.read(file.toString()));
+            ObjReaderException actual = Assertions.assertThrows(ObjReaderException.class,
+                    () -> ObjReader.readMapped(file.toString()));
+            Assertions.assertEquals(expected.getMessage(), actual.getMessage());
+        }
+    }
+
+    @Test
+    public void floatsMatchFloatParseFloat() throws IOException {
+        Random random = new Random(42);
+        StringBuilder content = new StringBuilder();
+        for (int i = 0; i < 20000; i++) {
+            content.append("v ")
+                    .append(randomFloatLiteral(random)).append(' ')
+                    .append(randomFloatLiteral(random)).append(' ')
+                    .append(randomFloatLiteral(random)).append('\n');
+        }
+        content.append("v 1e-45 -0 +3.4028236e38\nv NaN Infinity 0x1p3\nv 1.5f 2d 1e+2\n");
+        Path file = write(content.toString());
+
+        Model expected = ObjReader.read(file.toString());
+        Model actual = ObjReader.readMapped(file.toString());
+        Assertions.assertEquals(expected.vertices.size(), actual.vertices.size());
+        for (int i = 0; i < expected.vertices.size(); i++) {
+            Assertions.assertArrayEquals(toBits(expected.vertices.get(i).toArray()),
+                    toBits(actual.vertices.get(i).toArray()));
+        }
+    }
+
+    @Test
+    public void streaming() throws IOException {
+        Model model = ObjReader.read(alexFilePath);
+        final int[] counts = new int[4];
+        final float[] minY = {Float.MAX_VALUE};
+        ObjReader.stream(alexFilePath, new ObjHandler() {
+            @Override
+            public void vertex(float x, float y, float z, int lineInd) {
+                counts[0]++;
+                minY[0] = Math.min(minY[0], y);
+            }
+
+            @Override
+            public void textureVertex(float u, float v, int lineInd) {
+                counts[1]++;
+            }
+
+            @Override
+            public void normal(float x, float y, float z, int lineInd) {
+                counts[2]++;
+            }
+
+            @Override
+            public void face(int[] vertexIndices, int[] textureVertexIndices, int[] normalIndices, int size,
+                             int lineInd) {
+                Assertions.assertEquals(model.polygons.get(counts[3]).getVertexIndices().size(), size);
+                Assertions.assertEquals(model.polygons.get(counts[3]).getVertexIndices().get(size - 1),
+                        vertexIndices[size - 1]);
+                counts[3]++;
+            }
+        });
+
+        Assertions.assertArrayEquals(new int[]{model.vertices.size(), model.textureVertices.size(),
+                model.normals.size(), model.polygons.size()}, counts);
+        Assertions.assertEquals(model.vertices.stream().map(v -> v.y).min(Float::compare).orElseThrow(), minY[0]);
+    }
+
+    private static Model readMapped(Path file, int windowSize) throws IOException {
+        ModelBuilder builder = new ModelBuilder();
+        MappedObjReader.read(file, builder, windowSize);
+        return builder.getResult();
+    }
+
+    private static String randomFloatLiteral(Random random) {
+        return switch (random.nextInt(4)) {
+            case 0 -> Float.toString((random.nextFloat() - 0.5f) * 1000);
+            case 1 -> String.format(Locale.ROOT, "%.6f", (random.nextDouble() - 0.5) * 200);
+            case 2 -> Double.toString(random.nextGaussian() * Math.pow(10, random.nextInt(40) - 20));
+            default -> Long.toString(random.nextLong() % 100000) + "." + Math.abs(random.nextInt());
+        };
+    }
+
+    private static int[] toBits(float[] values) {
+        int[] bits = new int[values.length];
+        for (int i = 0; i < values.length; i++) {
+            bits[i] = Float.floatToIntBits(values[i]);
+        }
+        return bits;
+    }
+
+    private Path write(String content) throws IOException {
+        Path file = Files.createTempFile(tempDir, "model", ".obj");
+        Files.writeString(file, content);
+        return file;
+    }
+
+    static void assertSameModel(Model expected, Model actual) {
+        Assertions.assertEquals(expected.vertices, actual.vertices);
+        Assertions.assertEquals(expected.textureVertices, actual.textureVertices);
+        Assertions.assertEquals(expected.normals, actual.normals);
+        Assertions.assertEquals(expected.polygons.size(), actual.polygons.size());
+        for (int i = 0; i < expected.polygons.size(); i++) {
+            Assertions.assertEquals(expected.polygons.get(i).getVertexIndices(),
+                    actual.polygons.get(i).getVertexIndices());
+            Assertions.assertEquals(expected.polygons.get(i).getTextureVertexIndices(),
+                    actual.polygons.get(i).getTextureVertexIndices());
+            Assertions.assertEquals(expected.polygons.get(i).getNormalIndices(),
+                    actual.polygons.get(i).getNormalIndices());
+        }
+        Assertions.assertEquals(expected.groups.size(), actual.groups.size());
+        for (int i = 0; i < expected.groups.size(); i++) {
+            Assertions.assertEquals(expected.groups.get(i).toString(), actual.groups.get(i).toString());
+        }
+    }
+
+    private static void assertGroup(PolygonGroup group, PolygonGroup.Type type, String name, int first, int end) {
+        Assertions.assertEquals(type, group.getType());
+        Assertions.assertEquals(name, group.getName());
+        Assertions.assertEquals(first, group.getFirstPolygon());
+        Assertions.assertEquals(end, group.getEndPolygon());
+    }
+}
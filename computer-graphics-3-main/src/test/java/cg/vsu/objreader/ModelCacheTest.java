@@ -0,0 +1,228 @@
+package cg.vsu.objreader;
+
+import cg.vsu.math.Vector3f;
+import cg.vsu.model.Model;
+import cg.vsu.model.Polygon;
+import cg.vsu.normals.NormalUtils;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class ModelCacheTest {
+    private final String brickFilePath = "src/main/resources/obj/brick.obj";
+    private final String pyramidFilePath = "src/main/resources/obj/pyramid.obj";
+
+    @Test
+    public void secondGetIsHit() throws IOException {
+        AtomicInteger loads = new AtomicInteger();
+        ModelCache cache = new ModelCache(Long.MAX_VALUE, path -> {
+            loads.incrementAndGet();
+            return ObjReader.readMapped(path.toString());
+        });
+
+        Model first = cache.get(brickFilePath);
+        Model second = cache.get(Path.of(brickFilePath).toAbsolutePath());
+
+        Assertions.assertEquals(1, loads.get());
+        Assertions.assertNotSame(first, second);
+        MappedObjReaderTest.assertSameModel(ObjReader.read(brickFilePath), first);
+        MappedObjReaderTest.assertSameModel(first, second);
+        Assertions.assertEquals(1, cache.getStats().getHits());
+        Assertions.assertEquals(1, cache.getStats().getMisses());
+        Assertions.assertTrue(cache.getStats().getRetainedBytes() > 0);
+    }
+
+    @Test
+    public void concurrentGetsShareOneLoad() throws Exception {
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        ModelCache cache = new ModelCache(Long.MAX_VALUE, path -> {
+            loads.incrementAndGet();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                throw new IOException(e);
+            }
+            return ObjReader.readMapped(path.toString());
+        });
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<Model>> results = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                results.add(executor.submit(() -> cache.get(pyramidFilePath)));
+            }
+            while (cache.getStats().getMisses() + cache.getStats().getCoalescedLoads() < 8) {
+                Thread.sleep(1);
+            }
+            release.countDown();
+
+            Model expected = ObjReader.read(pyramidFilePath);
+            for (Future<Model> result : results) {
+                MappedObjReaderTest.assertSameModel(expected, result.get(10, TimeUnit.SECONDS));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        Assertions.assertEquals(1, loads.get());
+        Assertions.assertEquals(1, cache.getStats().getMisses());
+        Assertions.assertEquals(7, cache.getStats().getCoalescedLoads());
+    }
+
+    @Test
+    public void viewsAreReadOnly() throws IOException {
+        ModelCache cache = new ModelCache(Long.MAX_VALUE);
+        Model view = cache.get(brickFilePath);
+        Polygon polygon = view.polygons.get(0);
+
+        Assertions.assertThrows(UnsupportedOperationException.class, () -> view.vertices.add(new Vector3f()));
+        Assertions.assertThrows(UnsupportedOperationException.class, () -> view.vertices.set(0, new Vector3f()));
+        Assertions.assertThrows(UnsupportedOperationException.class, () -> view.polygons.clear());
+        Assertions.assertThrows(UnsupportedOperationException.class, () -> view.vertices.subList(0, 2).clear());
+        Assertions.assertThrows(UnsupportedOperationException.class, () -> polygon.getVertexIndices().set(0, 1));
+        Assertions.assertThrows(UnsupportedOperationException.class,
+                () -> polygon.setVertexIndices(new ArrayList<>(List.of(0, 1, 2))));
+        Assertions.assertThrows(UnsupportedOperationException.class, () -> {
+            Iterator<Vector3f> iterator = view.vertices.iterator();
+            iterator.next();
+            iterator.remove();
+        });
+
+        final Vector3f original = view.vertices.get(0).cpy();
+        view.vertices.get(0).set(100, 100, 100);
+        view.vertices.iterator().next().x = 100;
+        view.vertices.toArray(new Vector3f[0])[0].y = 100;
+        view.vertices = new ArrayList<>();
+
+        Model another = cache.get(brickFilePath);
+        Assertions.assertEquals(original, another.vertices.get(0));
+        Assertions.assertEquals(original, another.vertices.stream().findFirst().orElseThrow());
+    }
+
+    @Test
+    public void viewsWorkWithNormalUtils() throws IOException {
+        Model model = ObjReader.read(brickFilePath);
+        Model view = new ModelCache(Long.MAX_VALUE).get(brickFilePath);
+
+        Assertions.assertEquals(
+                NormalUtils.normalToVertex(model.vertices.get(3), model.vertices, model.polygons),
+                NormalUtils.normalToVertex(view.vertices.get(3), view.vertices, view.polygons));
+    }
+
+    @Test
+    public void leastRecentlyUsedIsEvicted() throws IOException {
+        AtomicInteger loads = new AtomicInteger();
+        ModelCache.Loader loader = path -> {
+            loads.incrementAndGet();
+            return ObjReader.readMapped(path.toString());
+        };
+        long brickBytes = retainedBytes(brickFilePath);
+        long pyramidBytes = retainedBytes(pyramidFilePath);
+
+        ModelCache cache = new ModelCache(brickBytes + pyramidBytes - 1, loader);
+        cache.get(brickFilePath);
+        cache.get(pyramidFilePath);
+        Assertions.assertEquals(1, cache.getStats().getEvictions());
+        Assertions.assertEquals(1, cache.getStats().getSize());
+
+        cache.get(pyramidFilePath);
+        Assertions.assertEquals(2, loads.get());
+        cache.get(brickFilePath);
+        Assertions.assertEquals(3, loads.get());
+        Assertions.assertEquals(2, cache.getStats().getEvictions());
+    }
+
+    @Test
+    public void oversizedModelIsNotKept() throws IOException {
+        AtomicInteger loads = new AtomicInteger();
+        ModelCache cache = new ModelCache(retainedBytes(brickFilePath) + retainedBytes(pyramidFilePath), path -> {
+            loads.incrementAndGet();
+            return ObjReader.readMapped(path.toString());
+        });
+        cache.get(brickFilePath);
+        cache.get(pyramidFilePath);
+        ModelCache.Stats before = cache.getStats();
+
+        // модель больше всего бюджета возвращается, но не вытесняет остальные
+        Model alex = cache.get("src/main/resources/obj/AlexNeutralWrapped.obj");
+        Assertions.assertFalse(alex.polygons.isEmpty());
+        ModelCache.Stats after = cache.getStats();
+        Assertions.assertEquals(0, after.getEvictions());
+        Assertions.assertEquals(2, after.getSize());
+        Assertions.assertEquals(before.getRetainedBytes(), after.getRetainedBytes());
+
+        cache.get(brickFilePath);
+        cache.get(pyramidFilePath);
+        Assertions.assertEquals(3, loads.get());
+    }
+
+    @Test
+    public void failedLoadIsRetried() throws IOException {
+        AtomicInteger loads = new AtomicInteger();
+        ModelCache cache = new ModelCache(Long.MAX_VALUE, path -> {
+            if (loads.incrementAndGet() == 1) {
+                throw new IOException("disk is busy");
+            }
+            return ObjReader.readMapped(path.toString());
+        });
+
+        Assertions.assertThrows(IOException.class, () -> cache.get(brickFilePath));
+        Assertions.assertEquals(0, cache.getStats().getSize());
+        Assertions.assertNotNull(cache.get(brickFilePath));
+        Assertions.assertEquals(1, cache.getStats().getFailedLoads());
+        Assertions.assertEquals(2, cache.getStats().getMisses());
+    }
+
+    @Test
+    public void waitersGetTheLoadException() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        ModelCache cache = new ModelCache(Long.MAX_VALUE, path -> {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                throw new IOException(e);
+            }
+            return ObjReader.readMapped(path.toString());
+        });
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<Model>> results = new ArrayList<>();
+            for (int i = 0; i < 4; i++) {
+                results.add(executor.submit(() -> cache.get("missing.obj")));
+            }
+            while (cache.getStats().getMisses() + cache.getStats().getCoalescedLoads() < 4) {
+                Thread.sleep(1);
+            }
+            release.countDown();
+
+            for (Future<Model> result : results) {
+                ExecutionException e = Assertions.assertThrows(ExecutionException.class,
+                        () -> result.get(10, TimeUnit.SECONDS));
+                Assertions.assertInstanceOf(NoSuchFileException.class, e.getCause());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        Assertions.assertEquals(3, cache.getStats().getCoalescedLoads());
+    }
+
+    private static long retainedBytes(String fileName) throws IOException {
+        ModelCache cache = new ModelCache(Long.MAX_VALUE);
+        cache.get(fileName);
+        return cache.getStats().getRetainedBytes();
+    }
+}
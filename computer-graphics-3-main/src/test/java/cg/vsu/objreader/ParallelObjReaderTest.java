@@ -0,0 +1,137 @@
+package cg.vsu.objreader;
+
+import cg.vsu.model.Model;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+public class ParallelObjReaderTest {
+    private final String alexFilePath = "src/main/resources/obj/AlexNeutralWrapped.obj";
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    public void sameModelAsScanner() throws IOException {
+        Model expected = ObjReader.read(alexFilePath);
+        for (int threads : new int[]{1, 3, 8}) {
+            ForkJoinPool pool = new ForkJoinPool(threads);
+            try {
+                MappedObjReaderTest.assertSameModel(expected, ObjReader.readParallel(alexFilePath, pool));
+                MappedObjReaderTest.assertSameModel(expected, ParallelObjReader.read(Path.of(alexFilePath), pool, 97));
+            } finally {
+                pool.shutdown();
+            }
+        }
+    }
+
+    @Test
+    public void relativeIndicesAcrossChunks() throws IOException {
+        StringBuilder content = new StringBuilder();
+        for (int i = 0; i < 200; i++) {
+            content.append("v ").append(i).append(" 0 0\r\n");
+            if (i >= 2) {
+                content.append("f -3 -2 -1\r\n");
+            }
+        }
+        Path file = write(content.toString());
+
+        Model model = ParallelObjReader.read(file, ForkJoinPool.commonPool(), 16);
+        MappedObjReaderTest.assertSameModel(ObjReader.read(file.toString()), model);
+        Assertions.assertEquals(198, model.polygons.size());
+        for (int i = 0; i < model.polygons.size(); i++) {
+            Assertions.assertEquals(List.of(i, i + 1, i + 2), model.polygons.get(i).getVertexIndices());
+        }
+    }
+
+    @Test
+    public void relativeAttributesAndGroupsAcrossChunks() throws IOException {
+        StringBuilder content = new StringBuilder();
+        for (int i = 0; i < 200; i++) {
+            content.append("v ").append(i).append(" 0 0\n");
+            content.append("vt ").append(i).append(" 0\n");
+            content.append("vn 0 0 ").append(i).append("\n");
+            if (i % 50 == 0) {
+                content.append("g part").append(i / 50).append("\n");
+            }
+            if (i >= 2) {
+                // вершины без текстуры или нормали: относительные индексы остальных остаются на своих местах
+                content.append("f -3//-1 -2/-2/-1 -1/-1\n");
+            }
+        }
+        Path file = write(content.toString());
+
+        Model model = ParallelObjReader.read(file, ForkJoinPool.commonPool(), 16);
+        MappedObjReaderTest.assertSameModel(ObjReader.read(file.toString()), model);
+        for (int i = 0; i < model.polygons.size(); i++) {
+            Assertions.assertEquals(List.of(ObjHandler.NO_INDEX, i + 1, i + 2),
+                    model.polygons.get(i).getTextureVertexIndices());
+            Assertions.assertEquals(List.of(i + 2, i + 2, ObjHandler.NO_INDEX), model.polygons.get(i).getNormalIndices());
+        }
+        Assertions.assertEquals(4, model.groups.size());
+        Assertions.assertEquals(48, model.groups.get(0).getPolygonCount());
+        Assertions.assertEquals(50, model.groups.get(3).getPolygonCount());
+    }
+
+    @Test
+    public void errorLineAcrossChunks() throws IOException {
+        StringBuilder content = new StringBuilder();
+        for (int i = 0; i < 500; i++) {
+            content.append("v 1 2 3\n");
+        }
+        content.append("v 1 2 x\n");
+        for (int i = 0; i < 500; i++) {
+            content.append("f 1 2 3\n");
+        }
+        Path file = write(content.toString());
+
+        ObjReaderException expected = Assertions.assertThrows(ObjReaderException.class,
+                () -> ObjReader.read(file.toString()));
+        ObjReaderException actual = Assertions.assertThrows(ObjReaderException.class,
+                () -> ParallelObjReader.read(file, ForkJoinPool.commonPool(), 64));
+        Assertions.assertEquals(501, actual.getLineInd());
+        Assertions.assertEquals(expected.getMessage(), actual.getMessage());
+    }
+
+    @Test
+    public void indexBeforeFirstElement() throws IOException {
+        StringBuilder manyVertices = new StringBuilder();
+        for (int i = 0; i < 100; i++) {
+            manyVertices.append("v ").append(i).append(" 0 0\n");
+        }
+        String[] broken = {
+                "v 1 2 3\nv 4 5 6\nv 7 8 9\nf 0 1 2\n",
+                "v 1 2 3\nv 4 5 6\nv 7 8 9\nf -4 -3 -2\n",
+                "v 1 2 3\nvt 0 0\nf 1/0 1/1 1/1\n",
+                "v 1 2 3\nvn 0 0 1\nf 1//1 1//-2 1//1\n",
+                // относительный индекс указывает раньше первой вершины через несколько кусков
+                manyVertices + "f -1 -2 -101\n"
+        };
+        for (String content : broken) {
+            Path file = write(content);
+            int line = content.split("\n").length;
+            ObjReaderException scanner = Assertions.assertThrows(ObjReaderException.class,
+                    () -> ObjReader.read(file.toString()));
+            ObjReaderException mapped = Assertions.assertThrows(ObjReaderException.class,
+                    () -> ObjReader.readMapped(file.toString()));
+            ObjReaderException parallel = Assertions.assertThrows(ObjReaderException.class,
+                    () -> ParallelObjReader.read(file, ForkJoinPool.commonPool(), 16));
+            Assertions.assertEquals("Error parsing OBJ file on line: " + line + ". Index out of range.",
+                    scanner.getMessage());
+            Assertions.assertEquals(scanner.getMessage(), mapped.getMessage());
+            Assertions.assertEquals(scanner.getMessage(), parallel.getMessage());
+        }
+    }
+
+    private Path write(String content) throws IOException {
+        Path file = Files.createTempFile(tempDir, "model", ".obj");
+        Files.writeString(file, content);
+        return file;
+    }
+}